@@ -19,13 +19,24 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileRange;
 import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.provider.VectoredRead;
 
 /**
  * (Sandbox) Encapsulates a {@link RandomAccessContent} instance, allowing it to be used as a {@link RandomAccessFile}
  * instance.
  */
 public class RACRandomAccessFile extends RandomAccessFile implements RandomAccessContent {
+    private static final int VECTORED_READ_MIN_SEEK = 4 * 1024;
+
+    private static final int VECTORED_READ_MAX_SIZE = 1024 * 1024;
+
     private final byte[] singleByteBuf = new byte[1];
 
     private RandomAccessContent rac;
@@ -106,6 +117,21 @@ public class RACRandomAccessFile extends RandomAccessFile implements RandomAcces
         return len;
     }
 
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        return this.rac.read(position, b, off, len);
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        return this.rac.read(position, dst);
+    }
+
+    @Override
+    public List<Future<ByteBuffer>> readVectored(final List<FileRange> ranges, final Executor executor) {
+        return VectoredRead.read(this, ranges, executor, VECTORED_READ_MIN_SEEK, VECTORED_READ_MAX_SIZE);
+    }
+
     @Override
     public final void write(final int b) throws IOException {
         final byte[] buf = this.singleByteBuf;
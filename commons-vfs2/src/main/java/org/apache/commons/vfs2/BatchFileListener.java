@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+import java.util.List;
+
+/**
+ * A listener that accepts the events of a file system in batches.
+ * <p>
+ * When the file system dispatches events asynchronously, the events collected for this listener are delivered with
+ * one call of {@link #filesChanged(List)} instead of one call of the {@link FileListener} methods per event.
+ * Otherwise the {@link FileListener} methods are called.
+ *
+ * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setAsyncEventDispatch
+ * @since 2.3
+ */
+public interface BatchFileListener extends FileListener {
+    /**
+     * Called with a batch of events, in the order they were fired.
+     *
+     * @param events The events, which are {@link org.apache.commons.vfs2.events.CreateEvent}s,
+     *            {@link org.apache.commons.vfs2.events.DeleteEvent}s or
+     *            {@link org.apache.commons.vfs2.events.ChangedEvent}s.
+     * @throws Exception if an error occurs.
+     */
+    void filesChanged(List<FileChangeEvent> events) throws Exception;
+}
@@ -34,7 +34,17 @@ public enum CacheStrategy {
      * Refresh the data every time you call a method on the fileObject. You'll use this only if you really need the
      * latest info as this setting is a major performance loss.
      */
-    ON_CALL("oncall");
+    ON_CALL("oncall"),
+
+    /**
+     * Reuse the data (type, children, size, last modified time and attributes) for a limited time, then fetch it again
+     * on the next call. The time to live is configured with
+     * {@link org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setCacheTimeToLive} per file system or
+     * {@link org.apache.commons.vfs2.impl.DefaultFileSystemManager#setCacheTimeToLive(String, long)} per scheme.
+     *
+     * @since 2.3
+     */
+    TIME_TO_LIVE("timetolive");
 
     /**
      * Cache strategy name
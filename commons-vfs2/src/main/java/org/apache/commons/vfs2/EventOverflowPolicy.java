@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+/**
+ * What the asynchronous event dispatch of a file system does when its queue is full.
+ *
+ * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setEventOverflowPolicy
+ * @since 2.3
+ */
+public enum EventOverflowPolicy {
+    /**
+     * The thread firing the event waits until the queue has room, which slows the file operations down to the pace of
+     * the listeners. Events fired by a listener itself are queued anyway, as are events fired while holding the lock
+     * of the file system, which the listeners may need.
+     */
+    BLOCK,
+
+    /**
+     * The new event is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest queued event is dropped to make room for the new one.
+     */
+    DROP_OLDEST
+}
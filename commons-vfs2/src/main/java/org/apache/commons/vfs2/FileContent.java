@@ -20,6 +20,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.cert.Certificate;
 import java.util.Map;
 
@@ -135,6 +138,20 @@ public interface FileContent extends Closeable {
      */
     Certificate[] getCertificates() throws FileSystemException;
 
+    /**
+     * Computes a digest of the file's content.
+     * <p>
+     * File systems that keep checksums, or that have computed the digest before, return it without reading the
+     * content. Otherwise the content is read through a {@link java.security.MessageDigest}. Copying a file does not
+     * compute its digest, so the digest of a file that was just copied is read again.
+     *
+     * @param algorithm The name of the digest algorithm, such as "MD5" or "SHA-256".
+     * @return The digest.
+     * @throws FileSystemException if the file does not exist, or the algorithm is not available.
+     * @since 2.3
+     */
+    byte[] getDigest(String algorithm) throws FileSystemException;
+
     /**
      * Returns an input stream for reading the file's content.
      * <p>
@@ -178,6 +195,41 @@ public interface FileContent extends Closeable {
      */
     RandomAccessContent getRandomAccessContent(final RandomAccessMode mode) throws FileSystemException;
 
+    /**
+     * Returns a channel for reading/writing the file's content at random positions.
+     * <p>
+     * The channel reads into and writes from {@code ByteBuffer}s without copying through a {@link RandomAccessContent}.
+     * Local files use a {@link java.nio.channels.FileChannel}; other file systems may adapt their random access
+     * content.
+     *
+     * @param mode The mode to use to access the file.
+     * @return the channel for reading and writing the file's content.
+     * @throws FileSystemException If the file is read-only, or random access is not supported, or on error opening the
+     *             channel.
+     * @since 2.3
+     */
+    SeekableByteChannel getSeekableByteChannel(RandomAccessMode mode) throws FileSystemException;
+
+    /**
+     * Returns a channel for reading the file's content from the start.
+     *
+     * @return the channel to read the file's content from.
+     * @throws FileSystemException If the file does not exist, or on error opening the channel.
+     * @since 2.3
+     */
+    ReadableByteChannel getReadableByteChannel() throws FileSystemException;
+
+    /**
+     * Returns a channel for writing the file's content, like {@link #getOutputStream(boolean)}.
+     *
+     * @param bAppend true if you would like to append to the file. This may not be supported by all implementations.
+     * @return the channel to write the file's content to.
+     * @throws FileSystemException If the file is read-only, or bAppend is true and the implementation does not support
+     *             it, or on error opening the channel.
+     * @since 2.3
+     */
+    WritableByteChannel getWritableByteChannel(boolean bAppend) throws FileSystemException;
+
     /**
      * Returns an output stream for writing the file's content.
      * <p>
@@ -240,6 +292,22 @@ public interface FileContent extends Closeable {
      */
     long write(FileObject file) throws IOException;
 
+    /**
+     * Writes this content to another FileObject, reading segments of the content at the same time.
+     * <p>
+     * Each segment is read over a connection of its own and written to its position in the target, which helps when a
+     * single connection cannot use the available bandwidth. The content is copied with a single stream if it fits in
+     * one segment, or if the source file system does not support {@link Capability#RANDOM_ACCESS_READ} or the target
+     * file system does not support {@link Capability#RANDOM_ACCESS_WRITE}.
+     *
+     * @param file The target FileObject.
+     * @param options The segment size and parallelism.
+     * @return the total number of bytes written
+     * @throws IOException if an error occurs writing the content.
+     * @since 2.3
+     */
+    long write(FileObject file, ParallelTransferOptions options) throws IOException;
+
     /**
      * Writes this content to an OutputStream.
      *
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+/**
+ * A range of bytes of a file content, for {@link RandomAccessContent#readVectored}.
+ *
+ * @since 2.3
+ */
+public final class FileRange {
+
+    private final long offset;
+
+    private final int length;
+
+    /**
+     * Creates a range.
+     *
+     * @param offset The position of the first byte, not negative.
+     * @param length The number of bytes, not negative.
+     */
+    public FileRange(final long offset, final int length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the position of the first byte.
+     *
+     * @return The offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of bytes.
+     *
+     * @return The length.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the position after the last byte.
+     *
+     * @return The offset plus the length.
+     */
+    public long getEnd() {
+        return offset + length;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileRange)) {
+            return false;
+        }
+        final FileRange other = (FileRange) obj;
+        return offset == other.offset && length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (offset ^ (offset >>> 32)) * 31 + length;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + offset + ", " + getEnd() + ")";
+    }
+}
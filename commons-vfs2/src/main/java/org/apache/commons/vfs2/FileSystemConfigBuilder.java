@@ -26,6 +26,19 @@ public abstract class FileSystemConfigBuilder {
     /** The root uri of the file system */
     private static final String ROOTURI = "rootURI";
 
+    /** The number of buffers read ahead of input streams */
+    private static final String READ_AHEAD_DEPTH = "readAheadDepth";
+
+    /** The size of the buffers read ahead of input streams */
+    private static final String READ_AHEAD_BUFFER_SIZE = "readAheadBufferSize";
+
+    /**
+     * The default size of the buffers read ahead of input streams.
+     *
+     * @since 2.3
+     */
+    public static final int DEFAULT_READ_AHEAD_BUFFER_SIZE = 64 * 1024;
+
     /** The prefix to use when resolving system properties */
     private final String prefix;
 
@@ -73,6 +86,51 @@ public abstract class FileSystemConfigBuilder {
         return getString(opts, ROOTURI);
     }
 
+    /**
+     * Sets how many buffers of the content are read ahead of the consumer of an input stream, on a background thread.
+     * This hides the latency of the reads of remote file systems, at the cost of one thread per open stream.
+     *
+     * @param opts the file system options to modify
+     * @param depth the number of buffers, 2 for double buffering, null or 0 to read synchronously
+     * @see org.apache.commons.vfs2.util.ReadAheadInputStream
+     * @since 2.3
+     */
+    public void setReadAheadDepth(final FileSystemOptions opts, final Integer depth) {
+        setParam(opts, READ_AHEAD_DEPTH, depth);
+    }
+
+    /**
+     * @see #setReadAheadDepth
+     * @param opts file system options to work with
+     * @return The number of buffers read ahead, 0 by default.
+     * @since 2.3
+     */
+    public int getReadAheadDepth(final FileSystemOptions opts) {
+        return getInteger(opts, READ_AHEAD_DEPTH, 0);
+    }
+
+    /**
+     * Sets the size of the buffers read ahead of the consumer of an input stream.
+     *
+     * @param opts the file system options to modify
+     * @param bufferSize the size in bytes
+     * @see #setReadAheadDepth
+     * @since 2.3
+     */
+    public void setReadAheadBufferSize(final FileSystemOptions opts, final Integer bufferSize) {
+        setParam(opts, READ_AHEAD_BUFFER_SIZE, bufferSize);
+    }
+
+    /**
+     * @see #setReadAheadBufferSize
+     * @param opts file system options to work with
+     * @return The size in bytes, {@value #DEFAULT_READ_AHEAD_BUFFER_SIZE} by default.
+     * @since 2.3
+     */
+    public int getReadAheadBufferSize(final FileSystemOptions opts) {
+        return getInteger(opts, READ_AHEAD_BUFFER_SIZE, DEFAULT_READ_AHEAD_BUFFER_SIZE);
+    }
+
     /**
      * Set named parameter.
      *
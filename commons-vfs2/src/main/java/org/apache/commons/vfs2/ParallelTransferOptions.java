@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configures a segmented transfer with {@link FileContent#write(FileObject, ParallelTransferOptions)}.
+ * <p>
+ * The source file is split into segments of {@link #getSegmentSize()} bytes, which are read at the same time over up
+ * to {@link #getParallelism()} connections and written to their position in the destination.
+ *
+ * @since 2.3
+ */
+public final class ParallelTransferOptions {
+
+    /** The default segment size, 8 MiB. */
+    public static final long DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    /** The default number of segments transferred at the same time. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private ExecutorService executorService;
+
+    /**
+     * Returns the size of a segment.
+     *
+     * @return The segment size in bytes.
+     */
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size of a segment. Files no larger than one segment are copied with a single stream.
+     *
+     * @param segmentSize The segment size in bytes, greater than zero.
+     * @return this options object.
+     */
+    public ParallelTransferOptions setSegmentSize(final long segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be positive: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of segments transferred at the same time.
+     *
+     * @return The parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of segments transferred at the same time, each over its own connection.
+     *
+     * @param parallelism The parallelism, greater than zero. 1 copies with a single stream.
+     * @return this options object.
+     */
+    public ParallelTransferOptions setParallelism(final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Returns the executor that runs the segment transfers.
+     *
+     * @return The executor, or null if each transfer uses threads of its own.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the executor that runs the segment transfers. It is not shut down after the transfer.
+     *
+     * @param executorService The executor, or null to use threads created for each transfer.
+     * @return this options object.
+     */
+    public ParallelTransferOptions setExecutorService(final ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelTransferOptions [segmentSize=" + segmentSize + ", parallelism=" + parallelism + "]";
+    }
+}
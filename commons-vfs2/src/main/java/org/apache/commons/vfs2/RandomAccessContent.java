@@ -20,6 +20,10 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * Provides random access over content.
@@ -100,4 +104,49 @@ public interface RandomAccessContent extends DataOutput, DataInput {
      */
     void setLength(long newLength) throws IOException;
 
+    /**
+     * Reads bytes from the given position without moving the file pointer.
+     * <p>
+     * Unlike {@link #seek(long)} and the {@link DataInput} methods, this method may be called by many threads at the
+     * same time.
+     * </p>
+     *
+     * @param position The position in the content to read from, must not be negative.
+     * @param b The buffer into which the bytes are read.
+     * @param off The offset in the buffer of the first byte.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read, which may be less than {@code len}, or -1 if the position is at or beyond the
+     *         end of the content.
+     * @throws IOException If an I/O error occurs.
+     * @since 2.3
+     */
+    int read(long position, byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Reads bytes from the given position into the remaining space of a buffer, without moving the file pointer.
+     *
+     * @param position The position in the content to read from, must not be negative.
+     * @param dst The buffer into which the bytes are read. Its position is advanced by the number of bytes read.
+     * @return The number of bytes read, which may be less than the remaining space of the buffer, or -1 if the
+     *         position is at or beyond the end of the content.
+     * @throws IOException If an I/O error occurs.
+     * @see #read(long, byte[], int, int)
+     * @since 2.3
+     */
+    int read(long position, ByteBuffer dst) throws IOException;
+
+    /**
+     * Reads several ranges of bytes without moving the file pointer.
+     * <p>
+     * Ranges close to each other are read together, and the reads are run by the given executor at the same time.
+     * Each range fails with an {@link java.io.EOFException} if it reaches beyond the end of the content.
+     * </p>
+     *
+     * @param ranges The ranges to read, which may overlap.
+     * @param executor The executor of the reads, or null to read in the calling thread before returning.
+     * @return The bytes of each range, in the order of the ranges. Each buffer holds the bytes between its position
+     *         and its limit.
+     * @since 2.3
+     */
+    List<Future<ByteBuffer>> readVectored(List<FileRange> ranges, Executor executor);
 }
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.FileName;
+
+/**
+ * Remembers for a limited time which files of a file system do not exist.
+ * <p>
+ * A file system with a negative lookup cache answers {@link org.apache.commons.vfs2.FileObject#getType()} with
+ * {@link org.apache.commons.vfs2.FileType#IMAGINARY} for recently probed missing files without asking the provider
+ * again, even after {@link org.apache.commons.vfs2.FileObject#refresh()}. Files created through the file system are
+ * removed from the cache right away. Files created by others are seen once their entry expired.
+ * <p>
+ * The cache holds at most {@code maxSize} entries and evicts the least recently used ones.
+ *
+ * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setNegativeLookupCacheSize
+ * @since 2.3
+ */
+public final class NegativeLookupCache {
+
+    private final int maxSize;
+    private final long timeToLive;
+
+    private final Map<FileName, Long> entries; // @GuardedBy("this")
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize The maximum number of remembered missing files.
+     * @param timeToLiveMillis How long a missing file is remembered in milliseconds.
+     */
+    public NegativeLookupCache(final int maxSize, final long timeToLiveMillis) {
+        this.maxSize = maxSize;
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+        this.entries = new LinkedHashMap<FileName, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 20181019L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<FileName, Long> eldest) {
+                return size() > NegativeLookupCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a file is known to be missing.
+     *
+     * @param name The file name.
+     * @return true if the file was found missing within the time to live.
+     */
+    public boolean isMissing(final FileName name) {
+        final boolean missing;
+        synchronized (this) {
+            final Long expiry = entries.get(name);
+            if (expiry != null && expiry.longValue() - System.nanoTime() <= 0) {
+                entries.remove(name);
+                missing = false;
+            } else {
+                missing = expiry != null;
+            }
+        }
+
+        if (missing) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return missing;
+    }
+
+    /**
+     * Remembers that a file is missing.
+     *
+     * @param name The file name.
+     */
+    public void putMissing(final FileName name) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(name, Long.valueOf(System.nanoTime() + timeToLive));
+        }
+    }
+
+    /**
+     * Forgets a file, for example because it was created.
+     *
+     * @param name The file name.
+     */
+    public void remove(final FileName name) {
+        synchronized (this) {
+            entries.remove(name);
+        }
+    }
+
+    /**
+     * Forgets all files.
+     */
+    public void clear() {
+        synchronized (this) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of remembered files, including expired ones not yet purged.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        synchronized (this) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns how many lookups were answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many lookups had to be passed on to the provider.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, 0 if there were no lookups.
+     */
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", hitRate="
+                + getHitRate();
+    }
+}
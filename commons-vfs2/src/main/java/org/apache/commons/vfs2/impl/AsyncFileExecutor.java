@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileSystem;
+
+/**
+ * Runs the operations of {@link AsyncFileObject}s, limiting the concurrency per file system.
+ */
+final class AsyncFileExecutor {
+
+    /**
+     * Passes at most {@code limit} tasks at a time to the shared executor and queues the others.
+     */
+    static final class LimitedExecutor implements Executor {
+        private final Executor delegate;
+        private final int limit;
+        private final Queue<Runnable> queue = new ArrayDeque<>(); // @GuardedBy("this")
+        private int active; // @GuardedBy("this")
+
+        LimitedExecutor(final Executor delegate, final int limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            synchronized (this) {
+                if (active >= limit) {
+                    queue.add(command);
+                    return;
+                }
+                active++;
+            }
+            dispatch(command);
+        }
+
+        private void dispatch(final Runnable command) {
+            try {
+                delegate.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            command.run();
+                        } finally {
+                            next();
+                        }
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                }
+                next();
+            }
+        }
+
+        private void next() {
+            final Runnable command;
+            synchronized (this) {
+                command = queue.poll();
+                if (command == null) {
+                    active--;
+                    return;
+                }
+            }
+            dispatch(command);
+        }
+    }
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+
+    private final Map<FileSystem, Executor> fileSystemExecutors = new WeakHashMap<>(); // @GuardedBy("this")
+
+    /**
+     * Creates an executor on top of a daemon thread pool that grows as needed.
+     */
+    AsyncFileExecutor() {
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "vfs-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Creates an executor on top of the given one, which is not shut down by {@link #close()}.
+     */
+    AsyncFileExecutor(final ExecutorService executor) {
+        this.executor = executor;
+        this.ownExecutor = false;
+    }
+
+    /**
+     * Runs a task for a file system.
+     *
+     * @param fileSystem The file system the task works on, null if it does not belong to one.
+     * @param task The task.
+     * @return The future result.
+     */
+    <T> Future<T> submit(final FileSystem fileSystem, final Callable<T> task) {
+        final FutureTask<T> future = new FutureTask<>(task);
+        getExecutor(fileSystem).execute(future);
+        return future;
+    }
+
+    private synchronized Executor getExecutor(final FileSystem fileSystem) {
+        if (fileSystem == null) {
+            return executor;
+        }
+        Executor fileSystemExecutor = fileSystemExecutors.get(fileSystem);
+        if (fileSystemExecutor == null) {
+            final int limit = DefaultFileSystemConfigBuilder.getInstance()
+                    .getAsyncConcurrencyLimit(fileSystem.getFileSystemOptions());
+            fileSystemExecutor = limit > 0 ? new LimitedExecutor(executor, limit) : executor;
+            fileSystemExecutors.put(fileSystem, fileSystemExecutor);
+        }
+        return fileSystemExecutor;
+    }
+
+    /**
+     * Shuts the thread pool down if it was created by this instance.
+     */
+    void close() {
+        if (ownExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
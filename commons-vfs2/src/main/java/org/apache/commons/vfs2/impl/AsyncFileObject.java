@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileType;
+
+/**
+ * Runs the blocking operations of a {@link FileObject} in the background.
+ * <p>
+ * Each method submits the operation to the executor of the {@link DefaultFileSystemManager} and returns at once. The
+ * number of operations running at the same time on one file system is limited, see
+ * {@link DefaultFileSystemConfigBuilder#setAsyncConcurrencyLimit}. Failures are reported by {@link Future#get()} as an
+ * {@link java.util.concurrent.ExecutionException} caused by the {@link org.apache.commons.vfs2.FileSystemException}.
+ *
+ * @see DefaultFileSystemManager#toAsyncFileObject(FileObject)
+ * @see DefaultFileSystemManager#resolveFileAsync(String, org.apache.commons.vfs2.FileSystemOptions)
+ * @since 2.3
+ */
+public class AsyncFileObject {
+
+    private final FileObject fileObject;
+    private final AsyncFileExecutor executor;
+
+    AsyncFileObject(final FileObject fileObject, final AsyncFileExecutor executor) {
+        this.fileObject = fileObject;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the wrapped file.
+     *
+     * @return The file.
+     */
+    public FileObject getFileObject() {
+        return fileObject;
+    }
+
+    private <T> Future<T> submit(final Callable<T> task) {
+        return executor.submit(fileObject.getFileSystem(), task);
+    }
+
+    /**
+     * Finds a file relative to this file.
+     *
+     * @param path The path of the file to locate.
+     * @return The future file.
+     * @see FileObject#resolveFile(String)
+     */
+    public Future<AsyncFileObject> resolveFile(final String path) {
+        return submit(new Callable<AsyncFileObject>() {
+            @Override
+            public AsyncFileObject call() throws Exception {
+                return new AsyncFileObject(fileObject.resolveFile(path), executor);
+            }
+        });
+    }
+
+    /**
+     * Determines if this file exists.
+     *
+     * @return The future result.
+     * @see FileObject#exists()
+     */
+    public Future<Boolean> exists() {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return Boolean.valueOf(fileObject.exists());
+            }
+        });
+    }
+
+    /**
+     * Returns the type of this file.
+     *
+     * @return The future type.
+     * @see FileObject#getType()
+     */
+    public Future<FileType> getType() {
+        return submit(new Callable<FileType>() {
+            @Override
+            public FileType call() throws Exception {
+                return fileObject.getType();
+            }
+        });
+    }
+
+    /**
+     * Lists the children of this file.
+     *
+     * @return The future children.
+     * @see FileObject#getChildren()
+     */
+    public Future<AsyncFileObject[]> getChildren() {
+        return submit(new Callable<AsyncFileObject[]>() {
+            @Override
+            public AsyncFileObject[] call() throws Exception {
+                final FileObject[] children = fileObject.getChildren();
+                final AsyncFileObject[] asyncChildren = new AsyncFileObject[children.length];
+                for (int i = 0; i < children.length; i++) {
+                    asyncChildren[i] = new AsyncFileObject(children[i], executor);
+                }
+                return asyncChildren;
+            }
+        });
+    }
+
+    /**
+     * Determines the size of this file.
+     *
+     * @return The future size in bytes.
+     * @see org.apache.commons.vfs2.FileContent#getSize()
+     */
+    public Future<Long> getSize() {
+        return submit(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return Long.valueOf(fileObject.getContent().getSize());
+            }
+        });
+    }
+
+    /**
+     * Determines the last modified time of this file.
+     *
+     * @return The future time in milliseconds.
+     * @see org.apache.commons.vfs2.FileContent#getLastModifiedTime()
+     */
+    public Future<Long> getLastModifiedTime() {
+        return submit(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return Long.valueOf(fileObject.getContent().getLastModifiedTime());
+            }
+        });
+    }
+
+    /**
+     * Opens the content of this file for reading.
+     *
+     * @return The future stream.
+     * @see org.apache.commons.vfs2.FileContent#getInputStream()
+     */
+    public Future<InputStream> getInputStream() {
+        return submit(new Callable<InputStream>() {
+            @Override
+            public InputStream call() throws Exception {
+                return fileObject.getContent().getInputStream();
+            }
+        });
+    }
+
+    /**
+     * Opens the content of this file for writing.
+     *
+     * @param append true to append to the existing content.
+     * @return The future stream.
+     * @see org.apache.commons.vfs2.FileContent#getOutputStream(boolean)
+     */
+    public Future<OutputStream> getOutputStream(final boolean append) {
+        return submit(new Callable<OutputStream>() {
+            @Override
+            public OutputStream call() throws Exception {
+                return fileObject.getContent().getOutputStream(append);
+            }
+        });
+    }
+
+    /**
+     * Copies another file, and all its descendants, to this file.
+     *
+     * @param srcFile The source file.
+     * @param selector The selector for the files to copy.
+     * @return The future completion.
+     * @see FileObject#copyFrom(FileObject, FileSelector)
+     */
+    public Future<Void> copyFrom(final FileObject srcFile, final FileSelector selector) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                fileObject.copyFrom(srcFile, selector);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes this file.
+     *
+     * @return The future result, true if the file was deleted.
+     * @see FileObject#delete()
+     */
+    public Future<Boolean> delete() {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return Boolean.valueOf(fileObject.delete());
+            }
+        });
+    }
+
+    /**
+     * Deletes the selected descendants of this file.
+     *
+     * @param selector The selector for the files to delete.
+     * @return The future number of deleted files.
+     * @see FileObject#delete(FileSelector)
+     */
+    public Future<Integer> delete(final FileSelector selector) {
+        return submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return Integer.valueOf(fileObject.delete(selector));
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return fileObject.toString();
+    }
+}
@@ -136,10 +136,20 @@ public class DefaultFileReplicator extends AbstractVfsComponent implements FileR
         // BUG29007
         // return baseName + "_" + getFilecount() + ".tmp";
 
+        return "tmp_" + getFilecount() + "_" + createSafeFilename(baseName);
+    }
+
+    /**
+     * Replaces characters that may be reserved or dangerous in a file name.
+     *
+     * @param baseName The base name of the file being created.
+     * @return the safe name.
+     * @since 2.3
+     */
+    protected String createSafeFilename(final String baseName) {
         // imario@apache.org: BUG34976 get rid of maybe reserved and dangerous characters
         // e.g. to allow replication of http://hostname.org/fileservlet?file=abc.txt
-        final String safeBasename = UriParser.encode(baseName, TMP_RESERVED_CHARS).replace('%', '_');
-        return "tmp_" + getFilecount() + "_" + safeBasename;
+        return UriParser.encode(baseName, TMP_RESERVED_CHARS).replace('%', '_');
     }
 
     /**
@@ -16,11 +16,15 @@
  */
 package org.apache.commons.vfs2.impl;
 
+import java.util.concurrent.Executor;
+
+import org.apache.commons.vfs2.EventOverflowPolicy;
 import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.UserAuthenticator;
+import org.apache.commons.vfs2.provider.FileOperationStatistics;
 
 /**
  * Default options usable for all file systems.
@@ -29,6 +33,34 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
     /** The default FileSystemConfigBuilder */
     private static final DefaultFileSystemConfigBuilder BUILDER = new DefaultFileSystemConfigBuilder();
 
+    /**
+     * The default time to live of negative lookup cache entries in milliseconds.
+     *
+     * @since 2.3
+     */
+    public static final long DEFAULT_NEGATIVE_LOOKUP_CACHE_TIME_TO_LIVE = 10000;
+
+    /**
+     * The default number of asynchronous operations that run at the same time on one file system.
+     *
+     * @since 2.3
+     */
+    public static final int DEFAULT_ASYNC_CONCURRENCY_LIMIT = 16;
+
+    /**
+     * The default number of bytes copied between two checkpoints of a resumable transfer, 8 MiB.
+     *
+     * @since 2.3
+     */
+    public static final long DEFAULT_TRANSFER_CHECKPOINT_INTERVAL = 8 * 1024 * 1024;
+
+    /**
+     * The default number of events the asynchronous event dispatch of a file system holds.
+     *
+     * @since 2.3
+     */
+    public static final int DEFAULT_EVENT_QUEUE_CAPACITY = 10000;
+
     /**
      * Gets the singleton builder.
      *
@@ -59,6 +91,331 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (UserAuthenticator) getParam(opts, "userAuthenticator");
     }
 
+    /**
+     * Enables the latency histograms of the provider operations of a file system.
+     *
+     * @param opts The FileSystemOptions.
+     * @param operationTracing true to record the duration of every provider operation.
+     * @see org.apache.commons.vfs2.provider.AbstractFileProvider#getOperationStatistics()
+     * @since 2.3
+     */
+    public void setOperationTracing(final FileSystemOptions opts, final boolean operationTracing) {
+        setParam(opts, "operationTracing", operationTracing);
+    }
+
+    /**
+     * @see #setOperationTracing
+     * @param opts The FileSystemOptions.
+     * @return true if operation tracing is enabled, false by default.
+     * @since 2.3
+     */
+    public boolean isOperationTracing(final FileSystemOptions opts) {
+        return getBoolean(opts, "operationTracing", false);
+    }
+
+    /**
+     * Sets the duration after which any provider operation is logged as slow.
+     *
+     * @param opts The FileSystemOptions.
+     * @param thresholdMillis The threshold in milliseconds, null or a negative value disables the log.
+     * @since 2.3
+     */
+    public void setSlowOperationThreshold(final FileSystemOptions opts, final Long thresholdMillis) {
+        setParam(opts, "slowOperationThreshold", thresholdMillis);
+    }
+
+    /**
+     * @see #setSlowOperationThreshold(FileSystemOptions, Long)
+     * @param opts The FileSystemOptions.
+     * @return The threshold in milliseconds or null if slow operations are not logged.
+     * @since 2.3
+     */
+    public Long getSlowOperationThreshold(final FileSystemOptions opts) {
+        return getLong(opts, "slowOperationThreshold");
+    }
+
+    /**
+     * Sets the duration after which the given provider operation is logged as slow. Overrides
+     * {@link #setSlowOperationThreshold(FileSystemOptions, Long)} for this operation.
+     *
+     * @param opts The FileSystemOptions.
+     * @param operation The operation.
+     * @param thresholdMillis The threshold in milliseconds, null to use the general threshold.
+     * @since 2.3
+     */
+    public void setSlowOperationThreshold(final FileSystemOptions opts,
+            final FileOperationStatistics.Operation operation, final Long thresholdMillis) {
+        setParam(opts, "slowOperationThreshold." + operation.name(), thresholdMillis);
+    }
+
+    /**
+     * @see #setSlowOperationThreshold(FileSystemOptions, FileOperationStatistics.Operation, Long)
+     * @param opts The FileSystemOptions.
+     * @param operation The operation.
+     * @return The threshold in milliseconds for this operation, falling back to the general threshold.
+     * @since 2.3
+     */
+    public Long getSlowOperationThreshold(final FileSystemOptions opts,
+            final FileOperationStatistics.Operation operation) {
+        final Long threshold = getLong(opts, "slowOperationThreshold." + operation.name());
+        return threshold != null ? threshold : getSlowOperationThreshold(opts);
+    }
+
+    /**
+     * Sets how long cached file information is reused with {@link org.apache.commons.vfs2.CacheStrategy#TIME_TO_LIVE}.
+     * Overrides the time to live configured on the file system manager.
+     *
+     * @param opts The FileSystemOptions.
+     * @param timeToLiveMillis The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setCacheTimeToLive(final FileSystemOptions opts, final Long timeToLiveMillis) {
+        setParam(opts, "cacheTimeToLive", timeToLiveMillis);
+    }
+
+    /**
+     * @see #setCacheTimeToLive
+     * @param opts The FileSystemOptions.
+     * @return The time to live in milliseconds or null if not set.
+     * @since 2.3
+     */
+    public Long getCacheTimeToLive(final FileSystemOptions opts) {
+        return getLong(opts, "cacheTimeToLive");
+    }
+
+    /**
+     * Enables the negative lookup cache of a file system, which remembers missing files for a limited time instead of
+     * asking the provider again. Disabled by default.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxSize The maximum number of remembered missing files, null or 0 to disable the cache.
+     * @see org.apache.commons.vfs2.cache.NegativeLookupCache
+     * @since 2.3
+     */
+    public void setNegativeLookupCacheSize(final FileSystemOptions opts, final Integer maxSize) {
+        setParam(opts, "negativeLookupCacheSize", maxSize);
+    }
+
+    /**
+     * @see #setNegativeLookupCacheSize
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of remembered missing files, 0 if the cache is disabled.
+     * @since 2.3
+     */
+    public int getNegativeLookupCacheSize(final FileSystemOptions opts) {
+        return getInteger(opts, "negativeLookupCacheSize", 0);
+    }
+
+    /**
+     * Sets how long the negative lookup cache remembers a missing file.
+     *
+     * @param opts The FileSystemOptions.
+     * @param timeToLiveMillis The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setNegativeLookupCacheTimeToLive(final FileSystemOptions opts, final Long timeToLiveMillis) {
+        setParam(opts, "negativeLookupCacheTimeToLive", timeToLiveMillis);
+    }
+
+    /**
+     * @see #setNegativeLookupCacheTimeToLive
+     * @param opts The FileSystemOptions.
+     * @return The time to live in milliseconds, {@value #DEFAULT_NEGATIVE_LOOKUP_CACHE_TIME_TO_LIVE} by default.
+     * @since 2.3
+     */
+    public long getNegativeLookupCacheTimeToLive(final FileSystemOptions opts) {
+        return getLong(opts, "negativeLookupCacheTimeToLive", DEFAULT_NEGATIVE_LOOKUP_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Sets how many asynchronous operations may run at the same time on a file system. Further operations wait in a
+     * queue, so a slow file system cannot occupy all threads of the executor.
+     *
+     * @param opts The FileSystemOptions.
+     * @param limit The maximum number of running operations, 0 for no limit.
+     * @see AsyncFileObject
+     * @since 2.3
+     */
+    public void setAsyncConcurrencyLimit(final FileSystemOptions opts, final Integer limit) {
+        setParam(opts, "asyncConcurrencyLimit", limit);
+    }
+
+    /**
+     * @see #setAsyncConcurrencyLimit
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of running operations, {@value #DEFAULT_ASYNC_CONCURRENCY_LIMIT} by default.
+     * @since 2.3
+     */
+    public int getAsyncConcurrencyLimit(final FileSystemOptions opts) {
+        return getInteger(opts, "asyncConcurrencyLimit", DEFAULT_ASYNC_CONCURRENCY_LIMIT);
+    }
+
+    /**
+     * Sets whether copies to this file system can resume after a failure.
+     * <p>
+     * A resumable copy keeps a checkpoint file next to the target, named after it with the suffix
+     * {@code .vfs-checkpoint}. It records the size, last modified time and entity tag of the source and the number of
+     * bytes safely written. A later copy of the same, unchanged source appends to the partial target instead of
+     * starting over. The checkpoint is deleted when the copy completes.
+     *
+     * @param opts The FileSystemOptions.
+     * @param resumable true to resume interrupted copies.
+     * @see org.apache.commons.vfs2.FileContent#write(org.apache.commons.vfs2.FileObject)
+     * @since 2.3
+     */
+    public void setResumableTransfer(final FileSystemOptions opts, final boolean resumable) {
+        setParam(opts, "resumableTransfer", resumable);
+    }
+
+    /**
+     * @see #setResumableTransfer
+     * @param opts The FileSystemOptions.
+     * @return true if copies to the file system resume after a failure, false by default.
+     * @since 2.3
+     */
+    public boolean isResumableTransfer(final FileSystemOptions opts) {
+        return getBoolean(opts, "resumableTransfer", false);
+    }
+
+    /**
+     * Sets the number of bytes a resumable transfer copies between two checkpoints.
+     *
+     * @param opts The FileSystemOptions.
+     * @param interval The checkpoint interval in bytes.
+     * @see #setResumableTransfer
+     * @since 2.3
+     */
+    public void setTransferCheckpointInterval(final FileSystemOptions opts, final Long interval) {
+        setParam(opts, "transferCheckpointInterval", interval);
+    }
+
+    /**
+     * @see #setTransferCheckpointInterval
+     * @param opts The FileSystemOptions.
+     * @return The checkpoint interval in bytes, {@value #DEFAULT_TRANSFER_CHECKPOINT_INTERVAL} by default.
+     * @since 2.3
+     */
+    public long getTransferCheckpointInterval(final FileSystemOptions opts) {
+        return getLong(opts, "transferCheckpointInterval", DEFAULT_TRANSFER_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Sets whether the file system delivers its events to the listeners in the background.
+     * <p>
+     * By default a listener is notified by the thread that creates, deletes or changes the file. When asynchronous
+     * dispatch is enabled the events are queued and delivered in order by a single task of the
+     * {@link #setEventExecutor event executor}, repeated change events for the same file are merged and
+     * {@link org.apache.commons.vfs2.BatchFileListener}s receive the queued events in batches.
+     *
+     * @param opts The FileSystemOptions.
+     * @param asyncEventDispatch true to dispatch events asynchronously.
+     * @since 2.3
+     */
+    public void setAsyncEventDispatch(final FileSystemOptions opts, final boolean asyncEventDispatch) {
+        setParam(opts, "asyncEventDispatch", asyncEventDispatch ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * @see #setAsyncEventDispatch
+     * @param opts The FileSystemOptions.
+     * @return true if events are dispatched asynchronously, false by default.
+     * @since 2.3
+     */
+    public boolean isAsyncEventDispatch(final FileSystemOptions opts) {
+        return getBoolean(opts, "asyncEventDispatch", false);
+    }
+
+    /**
+     * Sets how many events the asynchronous event dispatch holds before the
+     * {@link #setEventOverflowPolicy overflow policy} applies.
+     *
+     * @param opts The FileSystemOptions.
+     * @param capacity The maximum number of queued events.
+     * @see #setAsyncEventDispatch
+     * @since 2.3
+     */
+    public void setEventQueueCapacity(final FileSystemOptions opts, final Integer capacity) {
+        setParam(opts, "eventQueueCapacity", capacity);
+    }
+
+    /**
+     * @see #setEventQueueCapacity
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of queued events, {@value #DEFAULT_EVENT_QUEUE_CAPACITY} by default.
+     * @since 2.3
+     */
+    public int getEventQueueCapacity(final FileSystemOptions opts) {
+        return getInteger(opts, "eventQueueCapacity", DEFAULT_EVENT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Sets how long the asynchronous event dispatch holds an event before it is delivered. A change event for a file
+     * that already has a change event waiting is dropped, so a longer window merges more changes.
+     *
+     * @param opts The FileSystemOptions.
+     * @param millis The window in milliseconds.
+     * @see #setAsyncEventDispatch
+     * @since 2.3
+     */
+    public void setEventCoalescingWindow(final FileSystemOptions opts, final Long millis) {
+        setParam(opts, "eventCoalescingWindow", millis);
+    }
+
+    /**
+     * @see #setEventCoalescingWindow
+     * @param opts The FileSystemOptions.
+     * @return The window in milliseconds, 0 by default.
+     * @since 2.3
+     */
+    public long getEventCoalescingWindow(final FileSystemOptions opts) {
+        return getLong(opts, "eventCoalescingWindow", 0L);
+    }
+
+    /**
+     * Sets what the asynchronous event dispatch does when its queue is full.
+     *
+     * @param opts The FileSystemOptions.
+     * @param policy The overflow policy.
+     * @see #setEventQueueCapacity
+     * @since 2.3
+     */
+    public void setEventOverflowPolicy(final FileSystemOptions opts, final EventOverflowPolicy policy) {
+        setParam(opts, "eventOverflowPolicy", policy);
+    }
+
+    /**
+     * @see #setEventOverflowPolicy
+     * @param opts The FileSystemOptions.
+     * @return The overflow policy, {@link EventOverflowPolicy#BLOCK} by default.
+     * @since 2.3
+     */
+    public EventOverflowPolicy getEventOverflowPolicy(final FileSystemOptions opts) {
+        return getEnum(EventOverflowPolicy.class, opts, "eventOverflowPolicy", EventOverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Sets the executor that runs the asynchronous event dispatch. The executor is not shut down when the file system
+     * is closed.
+     *
+     * @param opts The FileSystemOptions.
+     * @param executor The executor, null to use a daemon thread owned by the file system.
+     * @see #setAsyncEventDispatch
+     * @since 2.3
+     */
+    public void setEventExecutor(final FileSystemOptions opts, final Executor executor) {
+        setParam(opts, "eventExecutor", executor);
+    }
+
+    /**
+     * @see #setEventExecutor
+     * @param opts The FileSystemOptions.
+     * @return The executor, null by default.
+     * @since 2.3
+     */
+    public Executor getEventExecutor(final FileSystemOptions opts) {
+        return (Executor) getParam(opts, "eventExecutor");
+    }
+
     /**
      * Dummy class that implements FileSystem.
      */
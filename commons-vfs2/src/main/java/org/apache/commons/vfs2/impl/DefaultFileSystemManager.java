@@ -26,8 +26,14 @@ import java.net.URLStreamHandlerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -61,10 +67,22 @@ import org.apache.commons.vfs2.provider.VfsComponent;
  * The default file system manager implementation.
  */
 public class DefaultFileSystemManager implements FileSystemManager {
+    /**
+     * The default time to live in milliseconds for {@link CacheStrategy#TIME_TO_LIVE}.
+     *
+     * @since 2.3
+     */
+    public static final long DEFAULT_CACHE_TIME_TO_LIVE = 5000;
+
     /**
      * Mapping from URI scheme to FileProvider.
      */
-    private final Map<String, FileProvider> providers = new HashMap<>();
+    private final Map<String, FileProvider> providers = new ConcurrentHashMap<>();
+
+    /**
+     * Mapping from URI scheme to the providers that are created on first use.
+     */
+    private final Map<String, LazyProvider> lazyProviders = new HashMap<>(); // @GuardedBy("lazyProviders")
 
     /**
      * All components used by this manager.
@@ -116,6 +134,16 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     private CacheStrategy fileCacheStrategy;
 
+    /**
+     * Default time to live for {@link CacheStrategy#TIME_TO_LIVE}.
+     */
+    private long cacheTimeToLive = DEFAULT_CACHE_TIME_TO_LIVE;
+
+    /**
+     * Time to live for {@link CacheStrategy#TIME_TO_LIVE} by scheme.
+     */
+    private final Map<String, Long> schemeCacheTimeToLive = new HashMap<>();
+
     /**
      * Class which decorates all returned fileObjects
      */
@@ -145,6 +173,16 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     private VirtualFileProvider vfsProvider;
 
+    /**
+     * The executor of asynchronous file operations, created on first use.
+     */
+    private AsyncFileExecutor asyncFileExecutor;
+
+    /**
+     * The executor service for asynchronous file operations, null for a default thread pool.
+     */
+    private ExecutorService asyncExecutorService;
+
     /**
      * Flag, if manager is initialized (after init() and before close()).
      */
@@ -184,13 +222,49 @@ public class DefaultFileSystemManager implements FileSystemManager {
      * @throws FileSystemException if an error occurs adding the provider.
      */
     public void addProvider(final String[] urlSchemes, final FileProvider provider) throws FileSystemException {
-        // fail duplicate schemes
+        synchronized (lazyProviders) {
+            checkSchemes(urlSchemes);
+            registerProvider(urlSchemes, provider);
+        }
+    }
+
+    /**
+     * Registers a file system provider that is created when one of its schemes is first used.
+     * <p>
+     * Until then the schemes are reported by {@link #hasProvider(String)} and {@link #getSchemes()}, but the provider
+     * class is neither loaded nor initialized. A provider created by the factory is handled as if it was added with
+     * {@link #addProvider(String[], FileProvider)}. If the factory fails, the use of the scheme fails and the next use
+     * tries again.
+     *
+     * @param urlSchemes The schemes the provider will handle.
+     * @param factory Creates the provider.
+     * @throws FileSystemException if a scheme already has a provider.
+     * @since 2.3
+     */
+    public void addLazyProvider(final String[] urlSchemes, final Callable<FileProvider> factory)
+            throws FileSystemException {
+        synchronized (lazyProviders) {
+            checkSchemes(urlSchemes);
+            final LazyProvider lazyProvider = new LazyProvider(urlSchemes, factory);
+            for (final String scheme : urlSchemes) {
+                lazyProviders.put(scheme, lazyProvider);
+            }
+        }
+    }
+
+    /**
+     * Fails duplicate schemes.
+     */
+    private void checkSchemes(final String[] urlSchemes) throws FileSystemException {
         for (final String scheme : urlSchemes) {
-            if (providers.containsKey(scheme)) {
+            if (providers.containsKey(scheme) || lazyProviders.containsKey(scheme)) {
                 throw new FileSystemException("vfs.impl/multiple-providers-for-scheme.error", scheme);
             }
         }
+    }
 
+    private void registerProvider(final String[] urlSchemes, final FileProvider provider)
+            throws FileSystemException {
         // Contextualise the component (if not already)
         setupComponent(provider);
 
@@ -204,6 +278,43 @@ public class DefaultFileSystemManager implements FileSystemManager {
         }
     }
 
+    /**
+     * Returns the provider of a scheme, creating it if it was added with {@link #addLazyProvider}.
+     *
+     * @param scheme The scheme, may be null.
+     * @return The provider, null if the scheme is unknown.
+     * @throws FileSystemException if the provider cannot be created.
+     */
+    private FileProvider getProvider(final String scheme) throws FileSystemException {
+        if (scheme == null) {
+            return null;
+        }
+        final FileProvider provider = providers.get(scheme);
+        if (provider != null) {
+            return provider;
+        }
+        synchronized (lazyProviders) {
+            final LazyProvider lazyProvider = lazyProviders.get(scheme);
+            if (lazyProvider == null) {
+                // unknown or created by another thread
+                return providers.get(scheme);
+            }
+            final FileProvider newProvider;
+            try {
+                newProvider = lazyProvider.factory.call();
+            } catch (final FileSystemException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new FileSystemException("vfs.impl/create-lazy-provider.error", e, scheme);
+            }
+            registerProvider(lazyProvider.schemes, newProvider);
+            for (final String lazyScheme : lazyProvider.schemes) {
+                lazyProviders.remove(lazyScheme);
+            }
+            return newProvider;
+        }
+    }
+
     /**
      * Returns true if this manager has a provider for a particular scheme.
      *
@@ -212,7 +323,15 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public boolean hasProvider(final String scheme) {
-        return providers.containsKey(scheme);
+        if (scheme == null) {
+            return false;
+        }
+        if (providers.containsKey(scheme)) {
+            return true;
+        }
+        synchronized (lazyProviders) {
+            return lazyProviders.containsKey(scheme) || providers.containsKey(scheme);
+        }
     }
 
     /**
@@ -303,6 +422,49 @@ public class DefaultFileSystemManager implements FileSystemManager {
         return fileCacheStrategy;
     }
 
+    /**
+     * Sets the default time cached file information is reused with {@link CacheStrategy#TIME_TO_LIVE}.
+     * <p>
+     * Only affects file systems created afterwards. The default is {@value #DEFAULT_CACHE_TIME_TO_LIVE} ms.
+     *
+     * @param timeToLiveMillis The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setCacheTimeToLive(final long timeToLiveMillis) {
+        this.cacheTimeToLive = timeToLiveMillis;
+    }
+
+    /**
+     * Sets the time cached file information is reused with {@link CacheStrategy#TIME_TO_LIVE} for the file systems of
+     * a scheme.
+     * <p>
+     * Only affects file systems created afterwards. A value set with
+     * {@link DefaultFileSystemConfigBuilder#setCacheTimeToLive} takes precedence.
+     *
+     * @param scheme The URI scheme.
+     * @param timeToLiveMillis The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setCacheTimeToLive(final String scheme, final long timeToLiveMillis) {
+        synchronized (schemeCacheTimeToLive) {
+            schemeCacheTimeToLive.put(scheme, Long.valueOf(timeToLiveMillis));
+        }
+    }
+
+    /**
+     * Returns the time cached file information is reused with {@link CacheStrategy#TIME_TO_LIVE} for a scheme.
+     *
+     * @param scheme The URI scheme.
+     * @return The time to live in milliseconds.
+     * @since 2.3
+     */
+    public long getCacheTimeToLive(final String scheme) {
+        synchronized (schemeCacheTimeToLive) {
+            final Long timeToLive = schemeCacheTimeToLive.get(scheme);
+            return timeToLive != null ? timeToLive.longValue() : cacheTimeToLive;
+        }
+    }
+
     /**
      * Get the file object decorator used.
      *
@@ -528,6 +690,9 @@ public class DefaultFileSystemManager implements FileSystemManager {
         }
         // unregister all
         providers.clear();
+        synchronized (lazyProviders) {
+            lazyProviders.clear();
+        }
 
         // Close the other components
         closeComponent(vfsProvider);
@@ -556,6 +721,12 @@ public class DefaultFileSystemManager implements FileSystemManager {
 
         // managed components
         vfsProvider = null;
+        synchronized (this) {
+            if (asyncFileExecutor != null) {
+                asyncFileExecutor.close();
+                asyncFileExecutor = null;
+            }
+        }
 
         // setters and derived state
         defaultProvider = null;
@@ -648,6 +819,58 @@ public class DefaultFileSystemManager implements FileSystemManager {
         return resolveFile(getBaseFile(), uri, fileSystemOptions);
     }
 
+    /**
+     * Sets the executor service that runs the operations of {@link AsyncFileObject}s. The service is not shut down by
+     * {@link #close()}. By default a pool of daemon threads is used that grows as needed.
+     *
+     * @param executorService The executor service, or null for the default.
+     * @since 2.3
+     */
+    public synchronized void setAsyncExecutorService(final ExecutorService executorService) {
+        if (asyncFileExecutor != null) {
+            asyncFileExecutor.close();
+            asyncFileExecutor = null;
+        }
+        asyncExecutorService = executorService;
+    }
+
+    private synchronized AsyncFileExecutor getAsyncFileExecutor() {
+        if (asyncFileExecutor == null) {
+            asyncFileExecutor = asyncExecutorService != null ? new AsyncFileExecutor(asyncExecutorService)
+                    : new AsyncFileExecutor();
+        }
+        return asyncFileExecutor;
+    }
+
+    /**
+     * Returns a view of a file whose operations run in the background.
+     *
+     * @param file The file.
+     * @return The asynchronous file.
+     * @since 2.3
+     */
+    public AsyncFileObject toAsyncFileObject(final FileObject file) {
+        return new AsyncFileObject(file, getAsyncFileExecutor());
+    }
+
+    /**
+     * Locates a file by URI in the background.
+     *
+     * @param uri The URI of the file to locate.
+     * @param fileSystemOptions The options for the FileSystem.
+     * @return The future asynchronous file.
+     * @since 2.3
+     */
+    public Future<AsyncFileObject> resolveFileAsync(final String uri, final FileSystemOptions fileSystemOptions) {
+        final AsyncFileExecutor executor = getAsyncFileExecutor();
+        return executor.submit(null, new Callable<AsyncFileObject>() {
+            @Override
+            public AsyncFileObject call() throws Exception {
+                return new AsyncFileObject(resolveFile(uri, fileSystemOptions), executor);
+            }
+        });
+    }
+
     /**
      * Resolves a URI, relative to base file.
      * <p>
@@ -706,7 +929,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
         final String scheme = UriParser.extractScheme(uri);
         if (scheme != null) {
             // An absolute URI - locate the provider
-            final FileProvider provider = providers.get(scheme);
+            final FileProvider provider = getProvider(scheme);
             if (provider != null) {
                 return provider.findFile(realBaseFile, uri, fileSystemOptions);
             }
@@ -803,7 +1026,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
             scheme = realBase.getScheme();
             fullPath = realBase.getRootURI() + resolvedPath;
         }
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider != null) {
             // TODO: extend the filename parser to be able to parse
             // only a pathname and take the missing informations from
@@ -843,7 +1066,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
         final String scheme = UriParser.extractScheme(uri);
         if (scheme != null) {
             // An absolute URI - locate the provider
-            final FileProvider provider = providers.get(scheme);
+            final FileProvider provider = getProvider(scheme);
             if (provider != null) {
                 return provider.parseUri(null, uri);
             }
@@ -894,7 +1117,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public FileObject createFileSystem(final String scheme, final FileObject file) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-provider.error", scheme, file);
         }
@@ -1014,14 +1237,26 @@ public class DefaultFileSystemManager implements FileSystemManager {
         }
     }
 
+    /**
+     * A provider added with {@link DefaultFileSystemManager#addLazyProvider} that is not created yet.
+     */
+    private static final class LazyProvider {
+        private final String[] schemes;
+        private final Callable<FileProvider> factory;
+
+        private LazyProvider(final String[] schemes, final Callable<FileProvider> factory) {
+            this.schemes = schemes.clone();
+            this.factory = factory;
+        }
+    }
+
     /**
      * This is an internal class because it needs access to the private member providers.
      */
     final class VfsStreamHandlerFactory implements URLStreamHandlerFactory {
         @Override
         public URLStreamHandler createURLStreamHandler(final String protocol) {
-            final FileProvider provider = providers.get(protocol);
-            if (provider != null) {
+            if (hasProvider(protocol)) {
                 return new DefaultURLStreamHandler(context);
             }
 
@@ -1037,9 +1272,11 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public String[] getSchemes() {
-        final String[] schemes = new String[providers.size()];
-        providers.keySet().toArray(schemes);
-        return schemes;
+        final Set<String> schemes = new LinkedHashSet<>(providers.keySet());
+        synchronized (lazyProviders) {
+            schemes.addAll(lazyProviders.keySet());
+        }
+        return schemes.toArray(new String[schemes.size()]);
     }
 
     /**
@@ -1051,7 +1288,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public Collection<Capability> getProviderCapabilities(final String scheme) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-scheme.error", scheme);
         }
@@ -1068,7 +1305,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public FileSystemConfigBuilder getFileSystemConfigBuilder(final String scheme) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-scheme.error", scheme);
         }
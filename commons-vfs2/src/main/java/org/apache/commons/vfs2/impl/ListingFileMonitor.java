@@ -0,0 +1,602 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileMonitor;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.GenericFileName;
+
+/**
+ * A polling {@link FileMonitor} for remote file systems that detects changes by comparing folder listings.
+ * <p>
+ * Unlike {@link DefaultFileMonitor}, which asks every file for its last modified time, this monitor lists each
+ * watched folder once per poll and compares the type, size and last modified time of the children with the previous
+ * listing. The SFTP, FTP, WebDAV and HDFS providers take these attributes from the listing itself, so a poll costs one
+ * listing per folder instead of one request per file.
+ * <p>
+ * Folders are polled in parallel, with at most {@link #setHostConcurrency(int) a few} polls running at the same time
+ * against one host. Each folder has its own delay between polls: it is reset to the {@link #setMinDelay(long) minimum
+ * delay} when a poll finds a change and grows by half after each poll that finds none, up to the
+ * {@link #setMaxDelay(long) maximum delay}. Busy folders are therefore polled often and quiet ones rarely.
+ * <p>
+ * The listener is notified through the file system, as with {@link DefaultFileMonitor}: a create event for each new
+ * file or folder, a delete event for each removed one and a change event for each file whose size or last modified
+ * time changed. Folders do not get change events.
+ *
+ * <h2>Example usage:</h2>
+ *
+ * <pre>
+ * FileObject listendir = fsManager.resolveFile("sftp://host/home/username/monitored/");
+ *
+ * ListingFileMonitor fm = new ListingFileMonitor(new CustomFileListener());
+ * fm.setRecursive(true);
+ * fm.addFile(listendir);
+ * fm.start();
+ * </pre>
+ *
+ * @since 2.3
+ */
+public class ListingFileMonitor implements FileMonitor {
+    private static final Log LOG = LogFactory.getLog(ListingFileMonitor.class);
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * The default shortest delay between two polls of a folder in milliseconds.
+     */
+    public static final long DEFAULT_MIN_DELAY = 1000;
+
+    /**
+     * The default longest delay between two polls of a folder in milliseconds.
+     */
+    public static final long DEFAULT_MAX_DELAY = 60000;
+
+    /**
+     * The default number of polls that run at the same time against one host.
+     */
+    public static final int DEFAULT_HOST_CONCURRENCY = 4;
+
+    /**
+     * The state of a file as seen in the last poll.
+     */
+    private static final class Entry {
+        private final FileObject file;
+        private final FileType type;
+        private final long size;
+        private final long lastModified;
+
+        private Entry(final FileObject file, final FileType type, final long size, final long lastModified) {
+            this.file = file;
+            this.type = type;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isChanged(final Entry previous) {
+            return size != previous.size || lastModified != previous.lastModified;
+        }
+    }
+
+    /**
+     * Polls a folder, or a file added to the monitor.
+     */
+    private final class Watch implements Runnable {
+        private final FileObject file;
+        private final boolean root;
+
+        /**
+         * The state of the file itself, only kept for files added to the monitor, null if it is missing.
+         */
+        private Entry self;
+
+        /**
+         * The children from the last listing by name, null if the file is not a folder.
+         */
+        private Map<FileName, Entry> children;
+
+        private volatile long delay = minDelay;
+        private volatile boolean removed;
+        private ScheduledFuture<?> future; // @GuardedBy("ListingFileMonitor.this")
+
+        private Watch(final FileObject file, final boolean root) {
+            this.file = file;
+            this.root = root;
+        }
+
+        /**
+         * Records the current state without firing events.
+         */
+        private synchronized void baseline() {
+            try {
+                file.refresh();
+                if (root) {
+                    self = stat(file);
+                    register(file);
+                    if (self == null || !self.type.hasChildren()) {
+                        return;
+                    }
+                }
+                children = list();
+                for (final Entry entry : children.values()) {
+                    register(entry.file);
+                    if (recursive && entry.type.hasChildren()) {
+                        final Watch watch = new Watch(entry.file, false);
+                        watch.baseline();
+                        addWatch(watch, watch.delay);
+                    }
+                }
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (removed) {
+                    return;
+                }
+                boolean changed = false;
+                try {
+                    changed = poll();
+                } catch (final FileSystemException fse) {
+                    // a vanished sub folder is reported by the poll of its parent
+                    if (root || exists(file)) {
+                        LOG.error(fse.getLocalizedMessage(), fse);
+                    }
+                }
+                delay = changed ? minDelay : Math.min(maxDelay, delay + delay / 2);
+            }
+            schedule(this, delay);
+        }
+
+        /**
+         * Compares the file and its children with the last poll and fires the events.
+         *
+         * @return true if something changed.
+         */
+        private boolean poll() throws FileSystemException {
+            if (children != null) {
+                // the listing provides fresh attributes for the children
+                for (final Entry entry : children.values()) {
+                    entry.file.refresh();
+                }
+            }
+            file.refresh();
+
+            boolean changed = false;
+            if (root) {
+                final Entry current = stat(file);
+                if (self == null && current == null) {
+                    return false;
+                }
+                if (current == null || self != null && !current.type.equals(self.type)) {
+                    clear(true);
+                    fire(file, FileType.IMAGINARY);
+                    changed = true;
+                    if (current == null) {
+                        self = null;
+                        return true;
+                    }
+                    self = null;
+                }
+                if (self == null) {
+                    fire(file, current.type);
+                    changed = true;
+                    if (current.type.hasChildren()) {
+                        children = new HashMap<>();
+                    }
+                } else if (current.type.hasContent() && current.isChanged(self)) {
+                    fire(file, null);
+                    changed = true;
+                }
+                self = current;
+                if (!current.type.hasChildren()) {
+                    return changed;
+                }
+            }
+
+            final Map<FileName, Entry> current = list();
+            if (children == null) {
+                // the last listing failed
+                for (final Entry entry : current.values()) {
+                    register(entry.file);
+                }
+                children = current;
+                return changed;
+            }
+            for (final Entry previous : children.values()) {
+                if (!current.containsKey(previous.file.getName())) {
+                    removeEntry(previous, true);
+                    changed = true;
+                }
+            }
+            for (final Entry entry : current.values()) {
+                final Entry previous = children.get(entry.file.getName());
+                if (previous == null) {
+                    addEntry(entry);
+                    changed = true;
+                } else if (!entry.type.equals(previous.type)) {
+                    removeEntry(previous, true);
+                    addEntry(entry);
+                    changed = true;
+                } else if (entry.type.hasContent() && entry.isChanged(previous)) {
+                    fire(entry.file, null);
+                    changed = true;
+                }
+            }
+            children = current;
+            return changed;
+        }
+
+        private Map<FileName, Entry> list() throws FileSystemException {
+            final FileObject[] files = file.getChildren();
+            final Map<FileName, Entry> entries = new LinkedHashMap<>();
+            for (final FileObject child : files) {
+                final Entry entry = stat(child);
+                if (entry != null) {
+                    entries.put(child.getName(), entry);
+                }
+            }
+            return entries;
+        }
+
+        private void addEntry(final Entry entry) {
+            register(entry.file);
+            fire(entry.file, entry.type);
+            if (recursive && entry.type.hasChildren()) {
+                // the first poll reports the content of the new folder
+                final Watch watch = new Watch(entry.file, false);
+                watch.children = new HashMap<>();
+                addWatch(watch, 0);
+            }
+        }
+
+        /**
+         * Stops watching the children, firing delete events if asked to.
+         */
+        private synchronized void clear(final boolean fire) {
+            if (children != null) {
+                for (final Entry entry : children.values()) {
+                    removeEntry(entry, fire);
+                }
+                children = null;
+            }
+        }
+    }
+
+    /**
+     * The watched files by name.
+     */
+    private final Map<FileName, Watch> watches = new HashMap<>(); // @GuardedBy("this")
+
+    /**
+     * The executors that limit the polls per host.
+     */
+    private final Map<String, Executor> hostExecutors = new HashMap<>(); // @GuardedBy("this")
+
+    private ScheduledExecutorService scheduler; // @GuardedBy("this")
+    private ExecutorService pollers; // @GuardedBy("this")
+
+    private final FileListener listener;
+    private boolean recursive;
+    private long minDelay = DEFAULT_MIN_DELAY;
+    private long maxDelay = DEFAULT_MAX_DELAY;
+    private int hostConcurrency = DEFAULT_HOST_CONCURRENCY;
+
+    /**
+     * Creates a monitor.
+     *
+     * @param listener The listener notified of the changes.
+     */
+    public ListingFileMonitor(final FileListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Access method to get the recursive setting when adding files for monitoring.
+     *
+     * @return true if monitoring is enabled for descendants.
+     */
+    public boolean isRecursive() {
+        return recursive;
+    }
+
+    /**
+     * Access method to set the recursive setting when adding files for monitoring. Without recursion only the direct
+     * children of an added folder are watched.
+     *
+     * @param recursive true if monitoring should be enabled for descendants.
+     */
+    public void setRecursive(final boolean recursive) {
+        this.recursive = recursive;
+    }
+
+    /**
+     * Gets the shortest delay between two polls of a folder.
+     *
+     * @return The delay in milliseconds.
+     */
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Sets the shortest delay between two polls of a folder, used after a poll found a change.
+     *
+     * @param minDelay The delay in milliseconds, {@value #DEFAULT_MIN_DELAY} if not positive.
+     */
+    public void setMinDelay(final long minDelay) {
+        this.minDelay = minDelay > 0 ? minDelay : DEFAULT_MIN_DELAY;
+    }
+
+    /**
+     * Gets the longest delay between two polls of a folder.
+     *
+     * @return The delay in milliseconds.
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets the longest delay between two polls of a folder, reached by folders that do not change.
+     *
+     * @param maxDelay The delay in milliseconds, {@value #DEFAULT_MAX_DELAY} if not positive.
+     */
+    public void setMaxDelay(final long maxDelay) {
+        this.maxDelay = maxDelay > 0 ? maxDelay : DEFAULT_MAX_DELAY;
+    }
+
+    /**
+     * Gets the number of polls that run at the same time against one host.
+     *
+     * @return The number of polls.
+     */
+    public int getHostConcurrency() {
+        return hostConcurrency;
+    }
+
+    /**
+     * Sets the number of polls that run at the same time against one host. Takes effect on the next start.
+     *
+     * @param hostConcurrency The number of polls, {@value #DEFAULT_HOST_CONCURRENCY} if not positive.
+     */
+    public void setHostConcurrency(final int hostConcurrency) {
+        this.hostConcurrency = hostConcurrency > 0 ? hostConcurrency : DEFAULT_HOST_CONCURRENCY;
+    }
+
+    /**
+     * Gets the current delay between two polls of a watched file.
+     *
+     * @param file The file.
+     * @return The delay in milliseconds, -1 if the file is not watched.
+     */
+    public synchronized long getDelay(final FileObject file) {
+        final Watch watch = watches.get(file.getName());
+        return watch != null ? watch.delay : -1;
+    }
+
+    /**
+     * Adds a file to be monitored. The current state of the file and, for a folder, of its children is recorded
+     * before this method returns.
+     *
+     * @param file The FileObject to monitor.
+     */
+    @Override
+    public void addFile(final FileObject file) {
+        synchronized (this) {
+            if (watches.containsKey(file.getName())) {
+                return;
+            }
+        }
+        final Watch watch = new Watch(file, true);
+        watch.baseline();
+        addWatch(watch, watch.delay);
+    }
+
+    /**
+     * Removes a file added with {@link #addFile(FileObject)} from being monitored.
+     *
+     * @param file The FileObject to stop monitoring.
+     */
+    @Override
+    public void removeFile(final FileObject file) {
+        final Watch watch = removeWatch(file.getName());
+        if (watch != null) {
+            watch.clear(false);
+            if (watch.root) {
+                unregister(file);
+            }
+        }
+    }
+
+    /**
+     * Starts polling the files that have been added.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        final int threadNumber = THREAD_COUNT.incrementAndGet();
+        scheduler = Executors.newSingleThreadScheduledExecutor(newThreadFactory("vfs-monitor-" + threadNumber));
+        pollers = Executors.newCachedThreadPool(newThreadFactory("vfs-monitor-" + threadNumber + "-poll"));
+        for (final Watch watch : watches.values()) {
+            schedule(watch, watch.delay);
+        }
+    }
+
+    /**
+     * Stops polling the files that have been added.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        pollers.shutdownNow();
+        scheduler = null;
+        pollers = null;
+        hostExecutors.clear();
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private void addWatch(final Watch watch, final long delay) {
+        synchronized (this) {
+            watches.put(watch.file.getName(), watch);
+        }
+        schedule(watch, delay);
+    }
+
+    private synchronized Watch removeWatch(final FileName name) {
+        final Watch watch = watches.remove(name);
+        if (watch != null) {
+            watch.removed = true;
+            if (watch.future != null) {
+                watch.future.cancel(false);
+            }
+        }
+        return watch;
+    }
+
+    private synchronized void schedule(final Watch watch, final long delay) {
+        if (scheduler == null || watch.removed) {
+            return;
+        }
+        final Executor hostExecutor = getHostExecutor(watch.file.getName());
+        watch.future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    hostExecutor.execute(watch);
+                } catch (final RejectedExecutionException e) {
+                    // stopped
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private Executor getHostExecutor(final FileName name) {
+        final String host;
+        if (name instanceof GenericFileName) {
+            host = ((GenericFileName) name).getHostName() + ":" + ((GenericFileName) name).getPort();
+        } else {
+            host = name.getRootURI();
+        }
+        Executor executor = hostExecutors.get(host);
+        if (executor == null) {
+            executor = new AsyncFileExecutor.LimitedExecutor(pollers, hostConcurrency);
+            hostExecutors.put(host, executor);
+        }
+        return executor;
+    }
+
+    /**
+     * Forgets a file that is gone, together with its descendants.
+     */
+    private void removeEntry(final Entry entry, final boolean fire) {
+        if (entry.type.hasChildren()) {
+            final Watch watch = removeWatch(entry.file.getName());
+            if (watch != null) {
+                watch.clear(fire);
+            }
+        }
+        if (fire) {
+            fire(entry.file, FileType.IMAGINARY);
+        }
+        unregister(entry.file);
+    }
+
+    /**
+     * Fires a create event for a new type, a delete event for {@link FileType#IMAGINARY} and a change event for null.
+     */
+    private static void fire(final FileObject file, final FileType newType) {
+        final AbstractFileSystem fileSystem = (AbstractFileSystem) file.getFileSystem();
+        if (newType == null) {
+            fileSystem.fireFileChanged(file);
+        } else if (newType == FileType.IMAGINARY) {
+            fileSystem.fireFileDeleted(file);
+        } else {
+            fileSystem.fireFileCreated(file);
+        }
+    }
+
+    private void register(final FileObject file) {
+        if (listener != null) {
+            file.getFileSystem().addListener(file, listener);
+        }
+    }
+
+    private void unregister(final FileObject file) {
+        if (listener != null) {
+            file.getFileSystem().removeListener(file, listener);
+        }
+    }
+
+    private static Entry stat(final FileObject file) throws FileSystemException {
+        final FileType type = file.getType();
+        if (type == FileType.IMAGINARY) {
+            return null;
+        }
+        if (!type.hasContent()) {
+            return new Entry(file, type, -1, -1);
+        }
+        final FileContent content = file.getContent();
+        return new Entry(file, type, content.getSize(), content.getLastModifiedTime());
+    }
+
+    private static boolean exists(final FileObject file) {
+        try {
+            return file.exists();
+        } catch (final FileSystemException fse) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.VfsLog;
+import org.apache.commons.vfs2.util.DigestUtils;
+import org.apache.commons.vfs2.util.Messages;
+
+/**
+ * A file replicator that keeps replicas of files in a persistent store, so they are reused by later file systems,
+ * other managers and later runs of the JVM.
+ * <p>
+ * A replica is keyed by the URI, size and last modified time of its source. A source that changed gets a new replica;
+ * the old one ages out. Sources whose size or last modified time cannot be determined, and folders, are replicated
+ * into temporary files like {@link DefaultFileReplicator} does.
+ * <p>
+ * The store is bounded: after a replica was added, the least recently used replicas are deleted until the store fits
+ * into its maximum size. Replicas handed out by this instance are not evicted until it is closed, replicas of other
+ * processes are protected for {@link #EVICTION_GRACE_PERIOD} milliseconds after their last use. Several processes may
+ * share the store; updates are serialized with a lock file. Threads of this JVM that replicate the same source into the
+ * same store at the same time copy it only once, even through different replicators. Separate processes may copy it
+ * concurrently; the first finished copy is kept.
+ *
+ * @since 2.3
+ */
+public class PersistentFileReplicator extends DefaultFileReplicator {
+
+    /**
+     * How long a replica used by another process is protected from eviction, in milliseconds.
+     */
+    public static final long EVICTION_GRACE_PERIOD = 60 * 1000;
+
+    private static final Log log = LogFactory.getLog(PersistentFileReplicator.class);
+
+    private static final String LOCK_FILE = ".lock";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** Serializes store updates within this JVM, the lock file only guards against other processes. */
+    private static final Object STORE_LOCK = new Object();
+
+    /** The copies in progress in this JVM, by replica path. */
+    private static final ConcurrentMap<File, Object> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private final File storeDir;
+    private final long maxSize;
+
+    private final Set<File> pinned = Collections.synchronizedSet(new HashSet<File>());
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a replicator with a store below the temporary directory of the JVM.
+     *
+     * @param maxSize The maximum total size of the replicas in bytes.
+     */
+    public PersistentFileReplicator(final long maxSize) {
+        this(new File(System.getProperty("java.io.tmpdir"), "vfs_replicas"), maxSize);
+    }
+
+    /**
+     * Creates a replicator.
+     *
+     * @param storeDir The directory of the replica store.
+     * @param maxSize The maximum total size of the replicas in bytes.
+     */
+    public PersistentFileReplicator(final File storeDir, final long maxSize) {
+        this.storeDir = storeDir.getAbsoluteFile();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the directory of the replica store.
+     *
+     * @return The directory.
+     */
+    public File getStoreDir() {
+        return storeDir;
+    }
+
+    /**
+     * Returns the maximum total size of the replicas.
+     *
+     * @return The size in bytes.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns how many replications were answered with an existing replica.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many replications copied their source.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void init() throws FileSystemException {
+        super.init();
+        if (!storeDir.isDirectory() && !storeDir.mkdirs() && !storeDir.isDirectory()) {
+            throw new FileSystemException("vfs.impl/init-replicator.error");
+        }
+    }
+
+    /**
+     * Closes the replicator, deleting all temporary files. The persistent replicas are kept.
+     */
+    @Override
+    public void close() {
+        pinned.clear();
+        super.close();
+    }
+
+    /**
+     * Returns the replica of a file, copying the file into the store if there is no replica yet.
+     *
+     * @param srcFile The file to copy.
+     * @param selector The FileSelector.
+     * @return the replica.
+     * @throws FileSystemException if an error occurs copying the file.
+     */
+    @Override
+    public File replicateFile(final FileObject srcFile, final FileSelector selector) throws FileSystemException {
+        final String key = getKey(srcFile);
+        if (key == null) {
+            return super.replicateFile(srcFile, selector);
+        }
+
+        final File replica = new File(storeDir, key + "_" + createSafeFilename(srcFile.getName().getBaseName()));
+        final Object lock = new Object();
+        final Object existing = IN_FLIGHT.putIfAbsent(replica, lock);
+        final Object flight = existing != null ? existing : lock;
+        try {
+            synchronized (flight) {
+                if (touch(replica)) {
+                    hits.incrementAndGet();
+                    return replica;
+                }
+                misses.incrementAndGet();
+                copy(srcFile, selector, replica);
+                return replica;
+            }
+        } finally {
+            if (existing == null) {
+                IN_FLIGHT.remove(replica, lock);
+            }
+        }
+    }
+
+    /**
+     * Computes the key of a source, null if it cannot be kept persistently.
+     */
+    private String getKey(final FileObject srcFile) {
+        try {
+            if (srcFile.getType() != FileType.FILE) {
+                return null;
+            }
+            final FileContent content = srcFile.getContent();
+            final String id = srcFile.getName().getURI() + '\n' + content.getSize() + '\n'
+                    + content.getLastModifiedTime();
+            return DigestUtils.sha1Hex(id);
+        } catch (final FileSystemException e) {
+            // e.g. no last modified time
+            return null;
+        }
+    }
+
+    /**
+     * Marks an existing replica as used.
+     *
+     * @return false if there is no such replica.
+     */
+    private boolean touch(final File replica) throws FileSystemException {
+        synchronized (STORE_LOCK) {
+            final FileLock fileLock = lockStore();
+            try {
+                if (!replica.isFile()) {
+                    return false;
+                }
+                replica.setLastModified(System.currentTimeMillis());
+                pinned.add(replica);
+                return true;
+            } finally {
+                release(fileLock);
+            }
+        }
+    }
+
+    /**
+     * Copies a source into a temporary file of the store and moves it into place.
+     */
+    private void copy(final FileObject srcFile, final FileSelector selector, final File replica)
+            throws FileSystemException {
+        final File tmp = new File(storeDir, replica.getName() + "." + getFilecount() + "_" + System.nanoTime()
+                + TMP_SUFFIX);
+        try {
+            getContext().toFileObject(tmp).copyFrom(srcFile, selector);
+            synchronized (STORE_LOCK) {
+                final FileLock fileLock = lockStore();
+                try {
+                    try {
+                        Files.move(tmp.toPath(), replica.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    } catch (final IOException e) {
+                        // another process won the race on a platform that does not replace atomically
+                        if (!replica.isFile()) {
+                            throw new FileSystemException("vfs.impl/replicate-file.error", e, srcFile.getName());
+                        }
+                    }
+                    replica.setLastModified(System.currentTimeMillis());
+                    pinned.add(replica);
+                    evict();
+                } finally {
+                    release(fileLock);
+                }
+            }
+        } finally {
+            if (tmp.exists() && !tmp.delete()) {
+                VfsLog.warn(getLogger(), log, Messages.getString("vfs.impl/delete-temp.warn",
+                        new Object[] { tmp.getName() }));
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the store fits, including temporary files of crashed copies.
+     */
+    private void evict() {
+        final File[] files = storeDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        long size = 0;
+        for (final File file : files) {
+            size += file.length();
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File file1, final File file2) {
+                final long modified1 = file1.lastModified();
+                final long modified2 = file2.lastModified();
+                return modified1 < modified2 ? -1 : modified1 == modified2 ? 0 : 1;
+            }
+        });
+        for (final File file : files) {
+            if (size <= maxSize) {
+                break;
+            }
+            final String name = file.getName();
+            if (name.equals(LOCK_FILE) || pinned.contains(file) || now - file.lastModified() < EVICTION_GRACE_PERIOD) {
+                continue;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            } else {
+                VfsLog.warn(getLogger(), log, Messages.getString("vfs.impl/delete-temp.warn", new Object[] { name }));
+            }
+        }
+    }
+
+    private FileLock lockStore() throws FileSystemException {
+        try {
+            @SuppressWarnings("resource") // closed by release
+            final FileChannel channel = new RandomAccessFile(new File(storeDir, LOCK_FILE), "rw").getChannel();
+            try {
+                return channel.lock();
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (final IOException e) {
+            throw new FileSystemException("vfs.impl/lock-replica-store.error", e, storeDir);
+        }
+    }
+
+    private void release(final FileLock fileLock) {
+        try {
+            fileLock.release();
+            fileLock.channel().close();
+        } catch (final IOException e) {
+            log.debug("Could not release lock on " + storeDir, e);
+        }
+    }
+}
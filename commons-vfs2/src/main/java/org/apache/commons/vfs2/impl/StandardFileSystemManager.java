@@ -16,12 +16,16 @@
  */
 package org.apache.commons.vfs2.impl;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -41,10 +45,19 @@ import org.w3c.dom.NodeList;
  * <p>
  * Certain providers are only loaded and available if the dependent library is in your classpath. You have to configure
  * your debugging facility to log "debug" messages to see if a provider was skipped due to "unresolved externals".
+ * <p>
+ * Providers are created when their scheme is first used, except for the default provider and the provider of the
+ * "file" scheme, which handles local files.
+ * Without an explicit {@link #setConfiguration(URL) configuration}, the providers are read from providers.index, a
+ * line based copy of providers.xml that needs no XML parser. Each line holds an element name followed by its
+ * attributes and nested elements as {@code name=value} pairs, for example
+ * {@code provider class-name=org.example.FooFileProvider scheme=foo if-available=org.example.FooClient}.
  */
 public class StandardFileSystemManager extends DefaultFileSystemManager {
     private static final String CONFIG_RESOURCE = "providers.xml";
+    private static final String INDEX_RESOURCE = "providers.index";
     private static final String PLUGIN_CONFIG_RESOURCE = "META-INF/vfs-providers.xml";
+    private static final String LOCAL_FILE_SCHEME = "file";
 
     private URL configUri;
     private ClassLoader classLoader;
@@ -92,16 +105,21 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         setReplicator(new PrivilegedFileReplicator(replicator));
         setTemporaryFileStore(replicator);
 
-        if (configUri == null) {
-            // Use default config
-            final URL url = getClass().getResource(CONFIG_RESOURCE);
-            if (url == null) {
-                throw new FileSystemException("vfs.impl/find-config-file.error", CONFIG_RESOURCE);
+        final URL indexUri = configUri == null ? getClass().getResource(INDEX_RESOURCE) : null;
+        if (indexUri != null) {
+            configureIndex(indexUri);
+        } else {
+            if (configUri == null) {
+                // Use default config
+                final URL url = getClass().getResource(CONFIG_RESOURCE);
+                if (url == null) {
+                    throw new FileSystemException("vfs.impl/find-config-file.error", CONFIG_RESOURCE);
+                }
+                configUri = url;
             }
-            configUri = url;
-        }
 
-        configure(configUri);
+            configure(configUri);
+        }
         configurePlugins();
 
         // Initialise super-class
@@ -211,6 +229,81 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         return factory.newDocumentBuilder();
     }
 
+    /**
+     * Configures this manager from a provider index.
+     *
+     * @param indexUri The URI of the index.
+     * @throws FileSystemException if an error occurs.
+     */
+    private void configureIndex(final URL indexUri) throws FileSystemException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexUri.openStream(), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                configureIndexEntry(line.split("\\s+"));
+            }
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.impl/load-config.error", indexUri.toString(), e);
+        }
+    }
+
+    /**
+     * Configures one line of a provider index.
+     */
+    private void configureIndexEntry(final String[] tokens) throws FileSystemException {
+        String className = null;
+        String extension = null;
+        String mimeType = null;
+        final List<String> schemes = new ArrayList<>();
+        final List<String> requiredClasses = new ArrayList<>();
+        final List<String> requiredSchemes = new ArrayList<>();
+        for (int i = 1; i < tokens.length; i++) {
+            final int separator = tokens[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(tokens[i]);
+            }
+            final String name = tokens[i].substring(0, separator);
+            final String value = tokens[i].substring(separator + 1);
+            if ("class-name".equals(name)) {
+                className = value;
+            } else if ("scheme".equals(name)) {
+                schemes.add(value);
+            } else if ("if-available".equals(name)) {
+                requiredClasses.add(value);
+            } else if ("if-available-scheme".equals(name)) {
+                requiredSchemes.add(value);
+            } else if ("extension".equals(name)) {
+                extension = value;
+            } else if ("mime-type".equals(name)) {
+                mimeType = value;
+            } else {
+                throw new IllegalArgumentException(tokens[i]);
+            }
+        }
+
+        final String element = tokens[0];
+        final String[] schemeArray = schemes.toArray(new String[schemes.size()]);
+        if ("provider".equals(element) || "default-provider".equals(element)) {
+            addProvider(className, schemeArray, requiredClasses.toArray(new String[requiredClasses.size()]),
+                    requiredSchemes.toArray(new String[requiredSchemes.size()]), "default-provider".equals(element));
+        } else if ("operationProvider".equals(element)) {
+            addOperationProvider(className, schemeArray);
+        } else if ("extension-map".equals(element)) {
+            if (schemeArray.length > 0) {
+                addExtensionMap(extension, schemeArray[0]);
+            }
+        } else if ("mime-type-map".equals(element)) {
+            addMimeTypeMap(mimeType, schemeArray.length > 0 ? schemeArray[0] : "");
+        } else {
+            throw new IllegalArgumentException(element);
+        }
+    }
+
     /**
      * Configures this manager from an parsed XML configuration file
      *
@@ -287,10 +380,23 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
      * @throws FileSystemException if an error occurs.
      */
     private void addProvider(final Element providerDef, final boolean isDefault) throws FileSystemException {
-        final String classname = providerDef.getAttribute("class-name");
+        addProvider(providerDef.getAttribute("class-name"), getSchemas(providerDef), getRequiredClasses(providerDef),
+                getRequiredSchemes(providerDef), isDefault);
+    }
 
+    /**
+     * Adds a provider if the classes and schemes it requires are available.
+     *
+     * @param classname The class of the provider.
+     * @param schemas The schemes of the provider.
+     * @param requiredClasses The classes the provider requires.
+     * @param requiredSchemes The schemes the provider requires.
+     * @param isDefault true if the provider handles unknown schemes.
+     * @throws FileSystemException if an error occurs.
+     */
+    private void addProvider(final String classname, final String[] schemas, final String[] requiredClasses,
+            final String[] requiredSchemes, final boolean isDefault) throws FileSystemException {
         // Make sure all required schemes are available
-        final String[] requiredSchemes = getRequiredSchemes(providerDef);
         for (final String requiredScheme : requiredSchemes) {
             if (!hasProvider(requiredScheme)) {
                 final String msg = Messages.getString("vfs.impl/skipping-provider-scheme.debug", classname,
@@ -301,7 +407,6 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         }
 
         // Make sure all required classes are in classpath
-        final String[] requiredClasses = getRequiredClasses(providerDef);
         for (final String requiredClass : requiredClasses) {
             if (!findClass(requiredClass)) {
                 final String msg = Messages.getString("vfs.impl/skipping-provider.debug", classname, requiredClass);
@@ -310,9 +415,21 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
             }
         }
 
+        if (!isDefault && !isLocalFileProvider(schemas)) {
+            // Create the provider when it is needed
+            if (schemas.length > 0) {
+                addLazyProvider(schemas, new Callable<FileProvider>() {
+                    @Override
+                    public FileProvider call() throws FileSystemException {
+                        return (FileProvider) createInstance(classname);
+                    }
+                });
+            }
+            return;
+        }
+
         // Create and register the provider
         final FileProvider provider = (FileProvider) createInstance(classname);
-        final String[] schemas = getSchemas(providerDef);
         if (schemas.length > 0) {
             addProvider(schemas, provider);
         }
@@ -327,10 +444,14 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
      * Adds a operationProvider from a operationProvider definition.
      */
     private void addOperationProvider(final Element providerDef) throws FileSystemException {
-        final String classname = providerDef.getAttribute("class-name");
+        addOperationProvider(providerDef.getAttribute("class-name"), getSchemas(providerDef));
+    }
 
+    /**
+     * Adds a operationProvider to the available schemes.
+     */
+    private void addOperationProvider(final String classname, final String[] schemas) throws FileSystemException {
         // Attach only to available schemas
-        final String[] schemas = getSchemas(providerDef);
         for (final String schema : schemas) {
             if (hasProvider(schema)) {
                 final FileOperationProvider operationProvider = (FileOperationProvider) createInstance(classname);
@@ -339,6 +460,19 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         }
     }
 
+    /**
+     * Tests if a provider handles local files, which must be known before the first file is resolved. This is the
+     * provider of the "file" scheme, so that the class of the other providers is not loaded until it is needed.
+     */
+    private boolean isLocalFileProvider(final String[] schemas) {
+        for (final String schema : schemas) {
+            if (LOCAL_FILE_SCHEME.equals(schema)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Tests if a class is available.
      */
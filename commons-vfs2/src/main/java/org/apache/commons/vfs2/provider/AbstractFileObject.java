@@ -22,6 +22,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -29,9 +33,11 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileContent;
@@ -47,8 +53,11 @@ import org.apache.commons.vfs2.FileUtil;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.cache.NegativeLookupCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
 import org.apache.commons.vfs2.operations.DefaultFileOperations;
 import org.apache.commons.vfs2.operations.FileOperations;
+import org.apache.commons.vfs2.util.BoundedInputStream;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
@@ -84,6 +93,11 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     // private FileObject[] children;
     private FileName[] children;
 
+    // Only used with CacheStrategy.TIME_TO_LIVE
+    private long attachTime;
+    private Long contentSize;
+    private Long lastModifiedTime;
+
     private List<Object> objects;
 
     /**
@@ -148,13 +162,30 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     private void attach() throws FileSystemException {
         synchronized (fs) {
             if (attached) {
-                return;
+                if (!fs.isCacheExpired(attachTime)) {
+                    return;
+                }
+
+                // CacheStrategy.TIME_TO_LIVE: the cached info is too old, fetch it again
+                try {
+                    detach();
+                } catch (final Exception e) {
+                    throw new FileSystemException("vfs.provider/resync.error", fileName, e);
+                }
+                if (content instanceof DefaultFileContent) {
+                    ((DefaultFileContent) content).resetAttributes();
+                }
+                fs.fileRefreshed();
             }
 
+            final long start = fs.startOperation();
             try {
                 // Attach and determine the file type
                 doAttach();
                 attached = true;
+                if (fs.isTimeToLiveCaching()) {
+                    attachTime = System.nanoTime();
+                }
                 // now the type could already be injected by doAttach (e.g from parent to child)
 
                 /*
@@ -163,6 +194,8 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                  */
             } catch (final Exception exc) {
                 throw new FileSystemException("vfs.provider/get-type.error", exc, fileName);
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.ATTACH, fileName, start);
             }
 
             // fs.fileAttached(this);
@@ -286,7 +319,9 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             // Copy across
             try {
                 if (srcFile.getType().hasContent()) {
-                    FileUtil.copyContent(srcFile, destFile);
+                    if (!FileObjectUtils.getAbstractFileObject(destFile).copyOnServer(srcFile)) {
+                        FileUtil.copyContent(srcFile, destFile);
+                    }
                 } else if (srcFile.getType().hasChildren()) {
                     destFile.createFolder();
                 }
@@ -351,6 +386,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 parent.createFolder();
             }
 
+            final long start = fs.startOperation();
             try {
                 // Create the folder
                 doCreateFolder();
@@ -361,6 +397,8 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 throw re;
             } catch (final Exception exc) {
                 throw new FileSystemException("vfs.provider/create-folder.error", fileName, exc);
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.CREATE_FOLDER, fileName, start);
             }
         }
     }
@@ -387,8 +425,6 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public int delete(final FileSelector selector) throws FileSystemException {
-        int nuofDeleted = 0;
-
         /*
          * VFS-210 if (getType() == FileType.IMAGINARY) { // File does not exist return nuofDeleted; }
          */
@@ -397,27 +433,41 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         final ArrayList<FileObject> files = new ArrayList<>();
         findFiles(selector, true, files);
 
-        // Delete 'em
+        // Collect 'em, descendants before their folder
+        final List<AbstractFileObject<?>> batch = new ArrayList<>(files.size());
+        final Set<FileName> deletable = new HashSet<>();
         final int count = files.size();
         for (int i = 0; i < count; i++) {
-            final AbstractFileObject file = FileObjectUtils.getAbstractFileObject(files.get(i));
+            final AbstractFileObject<?> file = FileObjectUtils.getAbstractFileObject(files.get(i));
             // file.attach();
 
             // VFS-210: It seems impossible to me that findFiles will return a list with hidden files/directories
             // in it, else it would not be hidden. Checking for the file-type seems ok in this case
-            // If the file is a folder, make sure all its children have been deleted
-            if (file.getType().hasChildren() && file.getChildren().length != 0) {
+            // If the file is a folder, make sure all its children are going to be deleted
+            if (file.getType().hasChildren() && !containsAll(deletable, file.getChildren())) {
                 // Skip - as the selector forced us not to delete all files
                 continue;
             }
 
-            // Delete the file
-            if (file.deleteSelf()) {
-                nuofDeleted++;
-            }
+            batch.add(file);
+            deletable.add(file.getName());
         }
 
-        return nuofDeleted;
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Delete 'em
+        return fs.deleteFiles(batch);
+    }
+
+    private static boolean containsAll(final Set<FileName> names, final FileObject[] files) {
+        for (final FileObject file : files) {
+            if (!names.contains(file.getName())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -439,7 +489,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @return true if this file has been deleted
      * @throws FileSystemException if an error occurs.
      */
-    private boolean deleteSelf() throws FileSystemException {
+    boolean deleteSelf() throws FileSystemException {
         synchronized (fs) {
             // Its possible to delete a read-only file if you have write-execute access to the directory
 
@@ -447,6 +497,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
              * VFS-210 if (getType() == FileType.IMAGINARY) { // File does not exist return false; }
              */
 
+            final long start = fs.startOperation();
             try {
                 // Delete the file
                 doDelete();
@@ -457,12 +508,33 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 throw re;
             } catch (final Exception exc) {
                 throw new FileSystemException("vfs.provider/delete.error", exc, fileName);
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.DELETE, fileName, start);
             }
 
             return true;
         }
     }
 
+    /**
+     * Deletes this file without holding the lock of the file system and without updating the cached info, see
+     * {@link AbstractFileSystem#deleteUnlocked(AbstractFileObject)}.
+     *
+     * @throws FileSystemException if an error occurs.
+     */
+    void deleteUnlocked() throws FileSystemException {
+        final long start = fs.startOperation();
+        try {
+            doDelete();
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/delete.error", exc, fileName);
+        } finally {
+            fs.endOperation(FileOperationStatistics.Operation.DELETE, fileName, start);
+        }
+    }
+
     /**
      * Detaches this file, invalidating all cached info. This will force a call to {@link #doAttach} next time this file
      * is used.
@@ -482,6 +554,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                     // fs.fileDetached(this);
 
                     removeChildrenCache();
+                    removeContentCache();
                     // children = null;
                 }
             }
@@ -602,6 +675,108 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     protected abstract InputStream doGetInputStream() throws Exception;
 
+    /**
+     * Creates an input stream to read part of the file content from. Is only called if {@link #doGetType} returns
+     * {@link FileType#FILE}.
+     * <p>
+     * Segmented transfers open several of these streams at the same time, from different threads. The returned stream
+     * must not return more than {@code length} bytes, and closing it before the end of the range must not read the
+     * rest of the file. This implementation reads through {@link #doGetRandomAccessContent(RandomAccessMode)}.
+     *
+     * @param offset The position of the first byte to read.
+     * @param length The number of bytes to read.
+     * @return An InputStream to read the range.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected InputStream doGetInputStream(final long offset, final long length) throws Exception {
+        final RandomAccessContent content = doGetRandomAccessContent(RandomAccessMode.READ);
+        try {
+            content.seek(offset);
+            return new BoundedInputStream(content.getInputStream(), length) {
+                @Override
+                public void close() throws IOException {
+                    content.close();
+                }
+            };
+        } catch (final Exception e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the digest provided by the file system, see {@link #doGetDigest(String)}.
+     */
+    byte[] getDigest(final String algorithm) throws FileSystemException {
+        if (!getType().hasContent()) {
+            throw new FileSystemException("vfs.provider/read-not-file.error", fileName);
+        }
+        try {
+            return doGetDigest(algorithm);
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/digest.error", e, fileName, algorithm);
+        }
+    }
+
+    /**
+     * Returns the entity tag of the content, see {@link #doGetEntityTag()}.
+     */
+    String getEntityTag() throws FileSystemException {
+        try {
+            return doGetEntityTag();
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/get-entity-tag.error", e, fileName);
+        }
+    }
+
+    /**
+     * Opens part of the file content, see {@link #doGetInputStream(long, long)}.
+     */
+    InputStream getInputStream(final long offset, final long length) throws FileSystemException {
+        try {
+            return doGetInputStream(offset, length);
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/read-range.error", e, fileName, Long.valueOf(offset),
+                    Long.valueOf(length));
+        }
+    }
+
+    /**
+     * Returns a digest of the content without reading it through the client, such as a checksum kept by the server or a
+     * cached digest. Is only called if {@link #doGetType} returns {@link FileType#FILE}.
+     * <p>
+     * This implementation returns null, which makes {@link FileContent#getDigest(String)} read the content.
+     *
+     * @param algorithm The name of the digest algorithm.
+     * @return The digest, or null if this file system cannot provide it.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected byte[] doGetDigest(final String algorithm) throws Exception {
+        return null;
+    }
+
+    /**
+     * Returns a tag that changes whenever the content of this file changes, such as an HTTP entity tag. Is only called
+     * if {@link #doGetType} returns {@link FileType#FILE}.
+     * <p>
+     * This implementation returns null.
+     *
+     * @return The entity tag, or null if the file system has none.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected String doGetEntityTag() throws Exception {
+        return null;
+    }
+
     /**
      * Returns the last modified time of this file. Is only called if {@link #doGetType} does not return
      * {@link FileType#IMAGINARY}.
@@ -649,6 +824,51 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         throw new FileSystemException("vfs.provider/random-access-not-supported.error");
     }
 
+    /**
+     * Creates a channel to read and/or write the file content at random positions.
+     * <p>
+     * Is only called under the same conditions as {@link #doGetRandomAccessContent(RandomAccessMode)}.
+     * <p>
+     * This implementation adapts the {@link RandomAccessContent} of the file.
+     *
+     * @param mode The mode to access the file.
+     * @return The channel.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected SeekableByteChannel doGetSeekableByteChannel(final RandomAccessMode mode) throws Exception {
+        return new RandomAccessContentChannel(doGetRandomAccessContent(mode), mode);
+    }
+
+    /**
+     * Creates a channel to read the file content from the start.
+     * <p>
+     * This implementation adapts the stream of {@link #doGetInputStream()}.
+     *
+     * @return The channel.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected ReadableByteChannel doGetReadableByteChannel() throws Exception {
+        return Channels.newChannel(doGetInputStream());
+    }
+
+    /**
+     * Creates a channel to write the file content.
+     * <p>
+     * Is only called under the same conditions as {@link #doGetOutputStream(boolean)}.
+     * <p>
+     * This implementation adapts the stream of {@link #doGetOutputStream(boolean)}.
+     *
+     * @param bAppend true if the file should be appended to, false if it should be overwritten.
+     * @return The channel.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected WritableByteChannel doGetWritableByteChannel(final boolean bAppend) throws Exception {
+        return Channels.newChannel(doGetOutputStream(bAppend));
+    }
+
     /**
      * Determines the type of this file. Must not return null. The return value of this method is cached, so the
      * implementation can be expensive.
@@ -781,6 +1001,26 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         throw new FileSystemException("vfs.provider/rename-not-supported.error");
     }
 
+    /**
+     * Copies the content of a file on the same server to this file, without transferring it through the client.
+     * <p>
+     * Is only called when:
+     * <ul>
+     * <li>{@link #isOnSameServer} returns true for the source file.</li>
+     * <li>The source file has content, and this file is writeable.</li>
+     * </ul>
+     * <p>
+     * This implementation returns false, and the content is copied through streams.
+     *
+     * @param srcFile The file to copy.
+     * @return true if the file was copied, false if the server cannot copy it.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected boolean doCopyFrom(final FileObject srcFile) throws Exception {
+        return false;
+    }
+
     /**
      * Sets an attribute of this file.
      * <p>
@@ -869,6 +1109,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void endOutput() throws Exception {
+        removeContentCache();
         if (getType() == FileType.IMAGINARY) {
             // File was created
             handleCreate(FileType.FILE);
@@ -1002,31 +1243,36 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 return resolveFiles(children);
             }
 
-            // allow the filesystem to return resolved children. e.g. prefill type for webdav
-            FileObject[] childrenObjects;
+            final long start = fs.startOperation();
+            final String[] files;
             try {
-                childrenObjects = doListChildrenResolved();
-                children = extractNames(childrenObjects);
-            } catch (final FileSystemException exc) {
-                // VFS-210
-                throw exc;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
-            }
+                // allow the filesystem to return resolved children. e.g. prefill type for webdav
+                FileObject[] childrenObjects;
+                try {
+                    childrenObjects = doListChildrenResolved();
+                    children = extractNames(childrenObjects);
+                } catch (final FileSystemException exc) {
+                    // VFS-210
+                    throw exc;
+                } catch (final Exception exc) {
+                    throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+                }
 
-            if (childrenObjects != null) {
-                return childrenObjects;
-            }
+                if (childrenObjects != null) {
+                    return childrenObjects;
+                }
 
-            // List the children
-            final String[] files;
-            try {
-                files = doListChildren();
-            } catch (final FileSystemException exc) {
-                // VFS-210
-                throw exc;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+                // List the children
+                try {
+                    files = doListChildren();
+                } catch (final FileSystemException exc) {
+                    // VFS-210
+                    throw exc;
+                } catch (final Exception exc) {
+                    throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+                }
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.LIST_CHILDREN, fileName, start);
             }
 
             if (files == null) {
@@ -1176,6 +1422,22 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
          * FileSystemException("vfs.provider/write-read-only.error", name); }
          */
 
+        prepareOutput(bAppend);
+
+        // Get the raw output stream
+        try {
+            return doGetOutputStream(bAppend);
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/write.error", exc, fileName);
+        }
+    }
+
+    /**
+     * Checks that appending is supported, and creates the parent folder of a new file.
+     */
+    private void prepareOutput(final boolean bAppend) throws FileSystemException {
         if (bAppend && !fs.hasCapability(Capability.APPEND_CONTENT)) {
             throw new FileSystemException("vfs.provider/write-append-not-supported.error", fileName);
         }
@@ -1187,15 +1449,6 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 parent.createFolder();
             }
         }
-
-        // Get the raw output stream
-        try {
-            return doGetOutputStream(bAppend);
-        } catch (final RuntimeException re) {
-            throw re;
-        } catch (final Exception exc) {
-            throw new FileSystemException("vfs.provider/write.error", exc, fileName);
-        }
     }
 
     /**
@@ -1242,6 +1495,64 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
          * name); }
          */
 
+        checkRandomAccess(mode);
+
+        // Get the raw input stream
+        try {
+            return doGetRandomAccessContent(mode);
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/random-access.error", fileName, exc);
+        }
+    }
+
+    /**
+     * Returns a channel to read and/or write the content at random positions, see
+     * {@link #doGetSeekableByteChannel(RandomAccessMode)}.
+     */
+    SeekableByteChannel getSeekableByteChannel(final RandomAccessMode mode) throws FileSystemException {
+        checkRandomAccess(mode);
+        try {
+            return doGetSeekableByteChannel(mode);
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/random-access.error", fileName, exc);
+        }
+    }
+
+    /**
+     * Returns a channel to read the content, see {@link #doGetReadableByteChannel()}.
+     */
+    ReadableByteChannel getReadableByteChannel() throws FileSystemException {
+        try {
+            return doGetReadableByteChannel();
+        } catch (final org.apache.commons.vfs2.FileNotFoundException exc) {
+            throw new org.apache.commons.vfs2.FileNotFoundException(fileName, exc);
+        } catch (final FileNotFoundException exc) {
+            throw new org.apache.commons.vfs2.FileNotFoundException(fileName, exc);
+        } catch (final FileSystemException exc) {
+            throw exc;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/read.error", fileName, exc);
+        }
+    }
+
+    /**
+     * Returns a channel to write the content, see {@link #doGetWritableByteChannel(boolean)}.
+     */
+    WritableByteChannel getWritableByteChannel(final boolean bAppend) throws FileSystemException {
+        prepareOutput(bAppend);
+        try {
+            return doGetWritableByteChannel(bAppend);
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/write.error", exc, fileName);
+        }
+    }
+
+    /**
+     * Checks that the file system supports the requested random access, and the file allows it.
+     */
+    private void checkRandomAccess(final RandomAccessMode mode) throws FileSystemException {
         if (mode.requestRead()) {
             if (!fs.hasCapability(Capability.RANDOM_ACCESS_READ)) {
                 throw new FileSystemException("vfs.provider/random-access-read-not-supported.error");
@@ -1259,13 +1570,6 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 throw new FileSystemException("vfs.provider/write-read-only.error", fileName);
             }
         }
-
-        // Get the raw input stream
-        try {
-            return doGetRandomAccessContent(mode);
-        } catch (final Exception exc) {
-            throw new FileSystemException("vfs.provider/random-access.error", fileName, exc);
-        }
     }
 
     /**
@@ -1277,15 +1581,29 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     @Override
     public FileType getType() throws FileSystemException {
         synchronized (fs) {
+            // Check before attaching, doAttach() may already ask the server
+            final NegativeLookupCache negativeLookupCache = fs.getNegativeLookupCache();
+            if (type == null && negativeLookupCache != null && negativeLookupCache.isMissing(fileName)) {
+                return FileType.IMAGINARY;
+            }
+
             attach();
 
             // VFS-210: get the type only if requested for
             try {
                 if (type == null) {
-                    setFileType(doGetType());
-                }
-                if (type == null) {
-                    setFileType(FileType.IMAGINARY);
+                    final long start = fs.startOperation();
+                    try {
+                        setFileType(doGetType());
+                    } finally {
+                        fs.endOperation(FileOperationStatistics.Operation.GET_TYPE, fileName, start);
+                    }
+                    if (type == null) {
+                        setFileType(FileType.IMAGINARY);
+                    }
+                    if (negativeLookupCache != null && type == FileType.IMAGINARY) {
+                        negativeLookupCache.putMissing(fileName);
+                    }
                 }
             } catch (final Exception e) {
                 throw new FileSystemException("vfs.provider/get-type.error", e, fileName);
@@ -1326,6 +1644,8 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void handleChanged() throws Exception {
+        removeContentCache();
+
         // Notify the file system
         fs.fireFileChanged(this);
     }
@@ -1338,11 +1658,16 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     protected void handleCreate(final FileType newType) throws Exception {
         synchronized (fs) {
+            if (fs.getNegativeLookupCache() != null) {
+                fs.getNegativeLookupCache().remove(fileName);
+            }
+
             if (attached) {
                 // Fix up state
                 injectType(newType);
 
                 removeChildrenCache();
+                removeContentCache();
 
                 // Notify subclass
                 onChange();
@@ -1363,10 +1688,15 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     protected void handleDelete() throws Exception {
         synchronized (fs) {
+            if (fs.getNegativeLookupCache() != null) {
+                fs.getNegativeLookupCache().putMissing(fileName);
+            }
+
             if (attached) {
                 // Fix up state
                 injectType(FileType.IMAGINARY);
                 removeChildrenCache();
+                removeContentCache();
 
                 // Notify subclass
                 onChange();
@@ -1508,6 +1838,34 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         return doIsSameFile(destFile);
     }
 
+    /**
+     * Checks if a file is on the same server as this file, and accessed with the same credentials, so that it can be
+     * copied or renamed by the server.
+     * <p>
+     * This implementation returns true for files of this file system, and for files of another file system of the
+     * same class with the same host, port and credentials.
+     *
+     * @param file The file to compare to.
+     * @return true if the file is on the same server.
+     * @since 2.3
+     */
+    protected boolean isOnSameServer(final FileObject file) {
+        final FileSystem otherFs = file.getFileSystem();
+        if (fs == otherFs) {
+            return true;
+        }
+        if (otherFs == null || fs.getClass() != otherFs.getClass() || !(fileName instanceof GenericFileName)
+                || ((GenericFileName) fileName).getHostName() == null
+                || ((GenericFileName) fileName).getHostName().isEmpty()
+                || !fileName.getRootURI().equals(file.getName().getRootURI())) {
+            return false;
+        }
+        final DefaultFileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
+        final Object authenticator = builder.getUserAuthenticator(fs.getFileSystemOptions());
+        final Object otherAuthenticator = builder.getUserAuthenticator(otherFs.getFileSystemOptions());
+        return authenticator == null ? otherAuthenticator == null : authenticator.equals(otherAuthenticator);
+    }
+
     /**
      * Determines if this file can be written to.
      *
@@ -1561,6 +1919,32 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         return list;
     }
 
+    /**
+     * Copies a file to this file on the server, if possible.
+     */
+    private boolean copyOnServer(final FileObject srcFile) throws FileSystemException {
+        if (!isOnSameServer(srcFile) || isSameFile(srcFile) || !isWriteable()) {
+            return false;
+        }
+        try {
+            final boolean copied;
+            final long start = fs.startOperation();
+            try {
+                copied = doCopyFrom(srcFile);
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.COPY, fileName, start);
+            }
+            if (copied) {
+                endOutput();
+            }
+            return copied;
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/copy-file.error", e, srcFile, fileName);
+        }
+    }
+
     /**
      * Moves (rename) the file to another one.
      *
@@ -1592,7 +1976,12 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 // remember type to avoid attach
                 final FileType srcType = getType();
 
-                doRename(destFile);
+                final long start = fs.startOperation();
+                try {
+                    doRename(destFile);
+                } finally {
+                    fs.endOperation(FileOperationStatistics.Operation.RENAME, fileName, start);
+                }
 
                 FileObjectUtils.getAbstractFileObject(destFile).handleCreate(srcType);
                 destFile.close(); // now the destFile is no longer imaginary. force reattach.
@@ -1678,6 +2067,10 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void refresh() throws FileSystemException {
+        if (attached) {
+            fs.fileRefreshed();
+        }
+
         // Detach from the file
         try {
             detach();
@@ -1690,6 +2083,65 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         children = null;
     }
 
+    /**
+     * Discards the content size and last modified time kept for
+     * {@link org.apache.commons.vfs2.CacheStrategy#TIME_TO_LIVE}.
+     */
+    void removeContentCache() {
+        contentSize = null;
+        lastModifiedTime = null;
+    }
+
+    /**
+     * Returns the size of the content, reusing the last value while the cached info of this file has not expired.
+     *
+     * @return The size of the file in bytes.
+     * @throws Exception if an error occurs.
+     */
+    long getContentSizeCached() throws Exception {
+        final Long cached = contentSize;
+        if (cached != null) {
+            return cached.longValue();
+        }
+
+        final long start = fs.startOperation();
+        final long size;
+        try {
+            size = doGetContentSize();
+        } finally {
+            fs.endOperation(FileOperationStatistics.Operation.GET_CONTENT_SIZE, fileName, start);
+        }
+        if (fs.isTimeToLiveCaching()) {
+            contentSize = Long.valueOf(size);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the last modified time, reusing the last value while the cached info of this file has not expired.
+     *
+     * @return The last modification time.
+     * @throws Exception if an error occurs.
+     */
+    long getLastModifiedTimeCached() throws Exception {
+        final Long cached = lastModifiedTime;
+        if (cached != null) {
+            return cached.longValue();
+        }
+
+        final long start = fs.startOperation();
+        final long time;
+        try {
+            time = doGetLastModifiedTime();
+        } finally {
+            fs.endOperation(FileOperationStatistics.Operation.GET_LAST_MODIFIED_TIME, fileName, start);
+        }
+        if (fs.isTimeToLiveCaching()) {
+            lastModifiedTime = Long.valueOf(time);
+        }
+        return time;
+    }
+
     private FileObject resolveFile(final FileName child) throws FileSystemException {
         return fs.resolveFile(child);
     }
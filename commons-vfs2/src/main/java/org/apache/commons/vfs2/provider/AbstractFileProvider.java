@@ -42,6 +42,11 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
 
     private FileNameParser parser;
 
+    /**
+     * Operation latency histograms shared by the file systems of this provider.
+     */
+    private final FileOperationStatistics operationStatistics = new FileOperationStatistics();
+
     public AbstractFileProvider() {
         parser = GenericFileNameParser.getInstance();
     }
@@ -97,6 +102,7 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
 
         final FileSystemKey treeKey = new FileSystemKey(key, fs.getFileSystemOptions());
         ((AbstractFileSystem) fs).setCacheKey(treeKey);
+        ((AbstractFileSystem) fs).setOperationStatistics(operationStatistics);
 
         synchronized (fileSystems) {
             fileSystems.put(treeKey, fs);
@@ -128,6 +134,18 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
         return null;
     }
 
+    /**
+     * Returns the latency histograms of the provider operations of all file systems created by this provider with
+     * operation tracing enabled.
+     *
+     * @return The statistics, never null.
+     * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setOperationTracing
+     * @since 2.3
+     */
+    public FileOperationStatistics getOperationStatistics() {
+        return operationStatistics;
+    }
+
     /**
      * Free unused resources.
      */
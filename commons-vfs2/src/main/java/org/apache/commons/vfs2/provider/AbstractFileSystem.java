@@ -18,35 +18,40 @@ package org.apache.commons.vfs2.provider;
 
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.vfs2.CacheStrategy;
+import org.apache.commons.vfs2.BatchFileListener;
 import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileChangeEvent;
 import org.apache.commons.vfs2.FileListener;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystem;
-import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FilesCache;
 import org.apache.commons.vfs2.VfsLog;
+import org.apache.commons.vfs2.cache.NegativeLookupCache;
 import org.apache.commons.vfs2.cache.OnCallRefreshFileObject;
 import org.apache.commons.vfs2.events.AbstractFileChangeEvent;
 import org.apache.commons.vfs2.events.ChangedEvent;
 import org.apache.commons.vfs2.events.CreateEvent;
 import org.apache.commons.vfs2.events.DeleteEvent;
 import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
 import org.apache.commons.vfs2.util.Messages;
 
 /**
@@ -71,9 +76,15 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     private FileObject parentLayer;
 
     /**
-     * Map from FileName to an ArrayList of listeners for that file.
+     * Map from FileName to the listeners for that file. The arrays are replaced rather than modified, so events are
+     * fired without locking.
      */
-    private final Map<FileName, ArrayList<FileListener>> listenerMap = new HashMap<>();
+    private final ConcurrentMap<FileName, FileListener[]> listenerMap = new ConcurrentHashMap<>();
+
+    /**
+     * Delivers the events in the background, null if events are delivered by the thread that fires them.
+     */
+    private final FileEventDispatcher eventDispatcher;
 
     /**
      * FileSystemOptions used for configuration
@@ -92,17 +103,71 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     private final AtomicInteger openStreams = new AtomicInteger(0);
 
+    /**
+     * Latency histograms of the provider operations, null if operation tracing is disabled.
+     */
+    private FileOperationStatistics operationStatistics;
+
+    /**
+     * Slow operation thresholds in nanoseconds indexed by operation ordinal, null if slow operations are not logged.
+     */
+    private final long[] slowOperationThresholds;
+
+    /**
+     * How long cached file information is reused in nanoseconds, negative unless {@link CacheStrategy#TIME_TO_LIVE}
+     * is in use.
+     */
+    private long cacheTimeToLive = -1;
+
+    /**
+     * How often cached file information was discarded
+     */
+    private final AtomicLong refreshCount = new AtomicLong(0);
+
+    /**
+     * Remembers missing files, null if not enabled in the options.
+     */
+    private final NegativeLookupCache negativeLookupCache;
+
     protected AbstractFileSystem(final FileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) {
         this.parentLayer = parentLayer;
         this.rootName = rootName;
         this.fileSystemOptions = fileSystemOptions;
-        final FileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
+        final DefaultFileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
         String uri = builder.getRootURI(fileSystemOptions);
         if (uri == null) {
             uri = rootName.getURI();
         }
         this.rootURI = uri;
+        if (builder.isOperationTracing(fileSystemOptions)) {
+            this.operationStatistics = new FileOperationStatistics();
+        }
+        this.slowOperationThresholds = getSlowOperationThresholds(builder, fileSystemOptions);
+        final int negativeLookupCacheSize = builder.getNegativeLookupCacheSize(fileSystemOptions);
+        this.negativeLookupCache = negativeLookupCacheSize > 0 ? new NegativeLookupCache(negativeLookupCacheSize,
+                builder.getNegativeLookupCacheTimeToLive(fileSystemOptions)) : null;
+        this.eventDispatcher = builder.isAsyncEventDispatch(fileSystemOptions) ? new FileEventDispatcher(this,
+                builder.getEventExecutor(fileSystemOptions), builder.getEventQueueCapacity(fileSystemOptions),
+                builder.getEventCoalescingWindow(fileSystemOptions), builder.getEventOverflowPolicy(fileSystemOptions))
+                : null;
+    }
+
+    private static long[] getSlowOperationThresholds(final DefaultFileSystemConfigBuilder builder,
+            final FileSystemOptions fileSystemOptions) {
+        long[] thresholds = null;
+        for (final FileOperationStatistics.Operation operation : FileOperationStatistics.Operation.values()) {
+            final Long millis = builder.getSlowOperationThreshold(fileSystemOptions, operation);
+            if (millis == null || millis.longValue() < 0) {
+                continue;
+            }
+            if (thresholds == null) {
+                thresholds = new long[FileOperationStatistics.Operation.values().length];
+                Arrays.fill(thresholds, -1);
+            }
+            thresholds[operation.ordinal()] = TimeUnit.MILLISECONDS.toNanos(millis.longValue());
+        }
+        return thresholds;
     }
 
     /**
@@ -113,6 +178,18 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     @Override
     public void init() throws FileSystemException {
         addCapabilities(caps);
+
+        if (CacheStrategy.TIME_TO_LIVE.equals(getFileSystemManager().getCacheStrategy())) {
+            Long timeToLive = DefaultFileSystemConfigBuilder.getInstance().getCacheTimeToLive(fileSystemOptions);
+            if (timeToLive == null) {
+                timeToLive = Long.valueOf(DefaultFileSystemManager.DEFAULT_CACHE_TIME_TO_LIVE);
+                if (getFileSystemManager() instanceof DefaultFileSystemManager) {
+                    timeToLive = Long.valueOf(((DefaultFileSystemManager) getFileSystemManager())
+                            .getCacheTimeToLive(rootName.getScheme()));
+                }
+            }
+            cacheTimeToLive = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeToLive.longValue()));
+        }
     }
 
     /**
@@ -120,6 +197,9 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     @Override
     public void close() {
+        if (eventDispatcher != null) {
+            eventDispatcher.close();
+        }
         closeCommunicationLink();
 
         parentLayer = null;
@@ -363,6 +443,58 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return file;
     }
 
+    /**
+     * Deletes a batch of files collected by {@link AbstractFileObject#delete(FileSelector)}.
+     * <p>
+     * The files are ordered so that the descendants of a folder come before the folder itself. The default
+     * implementation deletes them one by one. Providers can override this to reuse a connection or to delete several
+     * files at once, calling {@link #fileDeleted(AbstractFileObject)} for each file that was removed.
+     *
+     * @param files The files to delete, never empty.
+     * @return The number of deleted files.
+     * @throws FileSystemException if a file cannot be deleted.
+     * @since 2.3
+     */
+    protected int deleteFiles(final List<AbstractFileObject<?>> files) throws FileSystemException {
+        int count = 0;
+        for (final AbstractFileObject<?> file : files) {
+            if (file.deleteSelf()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes a file through {@link AbstractFileObject#doDelete()} without taking the lock of this file system, so that
+     * an implementation of {@link #deleteFiles(List)} can delete several files at once. The cached state of the file
+     * is left alone; call {@link #fileDeleted(AbstractFileObject)} afterwards.
+     *
+     * @param file The file, which must not be a folder with children.
+     * @throws FileSystemException if the file cannot be deleted.
+     * @since 2.3
+     */
+    protected void deleteUnlocked(final AbstractFileObject<?> file) throws FileSystemException {
+        file.deleteUnlocked();
+    }
+
+    /**
+     * Updates the cached state of a file removed by {@link #deleteFiles(List)} and fires the delete event.
+     *
+     * @param file The deleted file.
+     * @throws FileSystemException if the state cannot be updated.
+     * @since 2.3
+     */
+    protected void fileDeleted(final AbstractFileObject<?> file) throws FileSystemException {
+        try {
+            file.handleDelete();
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/delete.error", exc, file.getName());
+        }
+    }
+
     /**
      * Creates a temporary local copy of a file and its descendants.
      *
@@ -458,12 +590,15 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     @Override
     public void addListener(final FileObject file, final FileListener listener) {
         synchronized (listenerMap) {
-            ArrayList<FileListener> listeners = listenerMap.get(file.getName());
+            final FileListener[] listeners = listenerMap.get(file.getName());
+            final FileListener[] newListeners;
             if (listeners == null) {
-                listeners = new ArrayList<>();
-                listenerMap.put(file.getName(), listeners);
+                newListeners = new FileListener[] { listener };
+            } else {
+                newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+                newListeners[listeners.length] = listener;
             }
-            listeners.add(listener);
+            listenerMap.put(file.getName(), newListeners);
         }
     }
 
@@ -476,11 +611,21 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     @Override
     public void removeListener(final FileObject file, final FileListener listener) {
         synchronized (listenerMap) {
-            final ArrayList<?> listeners = listenerMap.get(file.getName());
-            if (listeners != null) {
-                listeners.remove(listener);
-                if (listeners.isEmpty()) {
-                    listenerMap.remove(file.getName());
+            final FileListener[] listeners = listenerMap.get(file.getName());
+            if (listeners == null) {
+                return;
+            }
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i].equals(listener)) {
+                    if (listeners.length == 1) {
+                        listenerMap.remove(file.getName());
+                    } else {
+                        final FileListener[] newListeners = new FileListener[listeners.length - 1];
+                        System.arraycopy(listeners, 0, newListeners, 0, i);
+                        System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                        listenerMap.put(file.getName(), newListeners);
+                    }
+                    return;
                 }
             }
         }
@@ -531,26 +676,43 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      * Fires an event.
      */
     private void fireEvent(final AbstractFileChangeEvent event) {
-        FileListener[] fileListeners = null;
-        final FileObject file = event.getFile();
+        final FileListener[] fileListeners = listenerMap.get(event.getFile().getName());
+        if (fileListeners == null) {
+            return;
+        }
 
-        synchronized (listenerMap) {
-            final ArrayList<?> listeners = listenerMap.get(file.getName());
-            if (listeners != null) {
-                fileListeners = listeners.toArray(new FileListener[listeners.size()]);
-            }
+        if (eventDispatcher != null) {
+            eventDispatcher.dispatch(event, fileListeners);
+            return;
         }
+        for (final FileListener fileListener : fileListeners) {
+            notifyListener(event, fileListener);
+        }
+    }
 
-        if (fileListeners != null) {
-            for (final FileListener fileListener : fileListeners) {
-                try {
-                    event.notify(fileListener);
-                } catch (final Exception e) {
-                    final String message = Messages.getString("vfs.provider/notify-listener.warn", file);
-                    // getLogger().warn(message, e);
-                    VfsLog.warn(getLogger(), LOG, message, e);
-                }
-            }
+    /**
+     * Notifies a listener of an event, logging failures.
+     */
+    void notifyListener(final AbstractFileChangeEvent event, final FileListener listener) {
+        try {
+            event.notify(listener);
+        } catch (final Exception e) {
+            final String message = Messages.getString("vfs.provider/notify-listener.warn", event.getFile());
+            // getLogger().warn(message, e);
+            VfsLog.warn(getLogger(), LOG, message, e);
+        }
+    }
+
+    /**
+     * Notifies a listener of a batch of events, logging failures.
+     */
+    void notifyListener(final List<FileChangeEvent> events, final BatchFileListener listener) {
+        try {
+            listener.filesChanged(events);
+        } catch (final Exception e) {
+            final String message = Messages.getString("vfs.provider/notify-listener.warn",
+                    new Object[] { events.get(0).getFile() });
+            VfsLog.warn(getLogger(), LOG, message, e);
         }
     }
 
@@ -580,6 +742,118 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         }
     }
 
+    /**
+     * Returns the cache of files known to be missing.
+     *
+     * @return The cache or null if it is not enabled in the file system options.
+     * @see DefaultFileSystemConfigBuilder#setNegativeLookupCacheSize
+     * @since 2.3
+     */
+    public NegativeLookupCache getNegativeLookupCache() {
+        return negativeLookupCache;
+    }
+
+    /**
+     * Returns how many events the asynchronous event dispatch dropped because its queue was full.
+     *
+     * @return The number of dropped events, 0 if events are dispatched synchronously.
+     * @see DefaultFileSystemConfigBuilder#setEventOverflowPolicy
+     * @since 2.3
+     */
+    public long getDroppedEventCount() {
+        return eventDispatcher != null ? eventDispatcher.getDroppedEventCount() : 0;
+    }
+
+    /**
+     * Returns how many change events the asynchronous event dispatch merged into a change event of the same file
+     * that was still waiting for delivery.
+     *
+     * @return The number of merged events, 0 if events are dispatched synchronously.
+     * @see DefaultFileSystemConfigBuilder#setEventCoalescingWindow
+     * @since 2.3
+     */
+    public long getCoalescedEventCount() {
+        return eventDispatcher != null ? eventDispatcher.getCoalescedEventCount() : 0;
+    }
+
+    /**
+     * Returns how often cached file information was discarded, either by {@link FileObject#refresh()} or because it
+     * expired under {@link CacheStrategy#TIME_TO_LIVE}.
+     *
+     * @return The number of refreshes.
+     * @since 2.3
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    void fileRefreshed() {
+        refreshCount.incrementAndGet();
+    }
+
+    /**
+     * Checks whether cached file information is reused for a limited time.
+     */
+    boolean isTimeToLiveCaching() {
+        return cacheTimeToLive >= 0;
+    }
+
+    /**
+     * Checks whether file information cached at {@code attachTime} ({@link System#nanoTime()}) has expired.
+     */
+    boolean isCacheExpired(final long attachTime) {
+        return cacheTimeToLive >= 0 && System.nanoTime() - attachTime >= cacheTimeToLive;
+    }
+
+    /**
+     * Returns the latency histograms of the provider operations of this file system.
+     *
+     * @return The statistics, shared with the other file systems of the provider, or null if operation tracing is
+     *         disabled in the file system options.
+     * @since 2.3
+     */
+    public FileOperationStatistics getOperationStatistics() {
+        return operationStatistics;
+    }
+
+    /**
+     * Makes this file system record into the statistics of its provider.
+     */
+    void setOperationStatistics(final FileOperationStatistics providerStatistics) {
+        if (operationStatistics != null && providerStatistics != null) {
+            operationStatistics = providerStatistics;
+        }
+    }
+
+    /**
+     * Returns the start timestamp for {@link #endOperation}.
+     */
+    long startOperation() {
+        return operationStatistics != null || slowOperationThresholds != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a provider operation started with {@link #startOperation()}.
+     */
+    void endOperation(final FileOperationStatistics.Operation operation, final FileName name, final long start) {
+        if (operationStatistics == null && slowOperationThresholds == null) {
+            return;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        if (operationStatistics != null) {
+            operationStatistics.record(operation, nanos);
+        }
+        if (slowOperationThresholds != null) {
+            final long threshold = slowOperationThresholds[operation.ordinal()];
+            if (threshold >= 0 && nanos >= threshold) {
+                final String message = Messages.getString("vfs.provider/slow-operation.warn", operation, name,
+                        Long.valueOf(TimeUnit.NANOSECONDS.toMillis(nanos)));
+                VfsLog.warn(getLogger(), LOG, message);
+            }
+        }
+    }
+
     /**
      * will be called after all file-objects closed their streams.
      */
@@ -17,7 +17,13 @@
 package org.apache.commons.vfs2.provider;
 
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
+import org.apache.commons.vfs2.FileRange;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
@@ -27,6 +33,13 @@ import org.apache.commons.vfs2.util.RandomAccessMode;
  * implementations.
  */
 public abstract class AbstractRandomAccessContent implements RandomAccessContent {
+
+    /** The default largest gap between two ranges of a vectored read that are read together, 4 KiB. */
+    protected static final int DEFAULT_VECTORED_READ_MIN_SEEK = 4 * 1024;
+
+    /** The default largest number of bytes of a vectored read that are read together, 1 MiB. */
+    protected static final int DEFAULT_VECTORED_READ_MAX_SIZE = 1024 * 1024;
+
     protected AbstractRandomAccessContent(final RandomAccessMode mode) {
     }
 
@@ -42,6 +55,100 @@ public abstract class AbstractRandomAccessContent implements RandomAccessContent
         throw new UnsupportedOperationException("deprecated");
     }
 
+    /**
+     * Reads bytes from the given position by moving the file pointer there and back.
+     * <p>
+     * Positional reads are serialized with each other. Subclasses that can read without the file pointer should
+     * override this method.
+     * </p>
+     */
+    @Override
+    public synchronized int read(final long position, final byte[] b, final int off, final int len)
+            throws IOException {
+        final int count = available(position, len);
+        if (count <= 0) {
+            return count;
+        }
+        final long pointer = getFilePointer();
+        try {
+            seek(position);
+            readFully(b, off, count);
+        } finally {
+            seek(pointer);
+        }
+        return count;
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        if (dst.hasArray()) {
+            final int count = read(position, dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (count > 0) {
+                ((Buffer) dst).position(dst.position() + count);
+            }
+            return count;
+        }
+        final byte[] b = new byte[dst.remaining()];
+        final int count = read(position, b, 0, b.length);
+        if (count > 0) {
+            dst.put(b, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * Determines how many bytes a positional read can return.
+     *
+     * @param position The position to read from.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes to read, 0 if {@code len} is 0, or -1 if the position is at or beyond the end.
+     * @throws IOException if the length of the content cannot be determined.
+     * @since 2.3
+     */
+    protected int available(final long position, final int len) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        final long available = length() - position;
+        if (available <= 0) {
+            return -1;
+        }
+        return (int) Math.min(len, available);
+    }
+
+    /**
+     * Reads the ranges with {@link VectoredRead}, merging them as configured by {@link #getVectoredReadMinSeek()} and
+     * {@link #getVectoredReadMaxSize()}.
+     */
+    @Override
+    public List<Future<ByteBuffer>> readVectored(final List<FileRange> ranges, final Executor executor) {
+        return VectoredRead.read(this, ranges, executor, getVectoredReadMinSeek(), getVectoredReadMaxSize());
+    }
+
+    /**
+     * Returns the largest gap between two ranges of a vectored read that are read together, because reading the gap
+     * costs less than another read.
+     *
+     * @return The gap in bytes.
+     * @since 2.3
+     */
+    protected int getVectoredReadMinSeek() {
+        return DEFAULT_VECTORED_READ_MIN_SEEK;
+    }
+
+    /**
+     * Returns the largest number of bytes of a vectored read that are read together.
+     *
+     * @return The size in bytes.
+     * @since 2.3
+     */
+    protected int getVectoredReadMaxSize() {
+        return DEFAULT_VECTORED_READ_MAX_SIZE;
+    }
+
     @Override
     public void write(final byte[] b) throws IOException {
         throw new UnsupportedOperationException();
@@ -111,4 +111,41 @@ public abstract class AbstractRandomAccessStreamContent extends AbstractRandomAc
     public void setLength(final long newLength) throws IOException {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Every seek opens a new stream, so vectored reads merge ranges up to 128 KiB apart.
+     */
+    @Override
+    protected int getVectoredReadMinSeek() {
+        return 128 * 1024;
+    }
+
+    @Override
+    protected int getVectoredReadMaxSize() {
+        return 8 * 1024 * 1024;
+    }
+
+    /**
+     * Reads from a stream opened for a positional read until {@code len} bytes are read or the stream ends.
+     *
+     * @param in The stream.
+     * @param b The buffer into which the bytes are read.
+     * @param off The offset in the buffer of the first byte.
+     * @param len The number of bytes to read.
+     * @return The number of bytes read, or -1 if the stream ended first.
+     * @throws IOException if the stream cannot be read.
+     * @since 2.3
+     */
+    protected static int readRange(final InputStream in, final byte[] b, final int off, final int len)
+            throws IOException {
+        int read = 0;
+        while (read < len) {
+            final int count = in.read(b, off + read, len - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        return read == 0 ? -1 : read;
+    }
 }
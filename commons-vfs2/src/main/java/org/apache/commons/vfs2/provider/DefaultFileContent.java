@@ -19,21 +19,37 @@ package org.apache.commons.vfs2.provider;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileContentInfo;
 import org.apache.commons.vfs2.FileContentInfoFactory;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.ParallelTransferOptions;
 import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.DigestUtils;
 import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
 import org.apache.commons.vfs2.util.MonitorRandomAccessContent;
 import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.commons.vfs2.util.ReadAheadInputStream;
 
 /**
  * The content of a file.
@@ -59,7 +75,12 @@ public final class DefaultFileContent implements FileContent {
     private FileContentInfo fileContentInfo;
     private final FileContentInfoFactory fileContentInfoFactory;
 
-    private final ThreadLocal<FileContentThreadData> threadLocal = new ThreadLocal<>();
+    /**
+     * The streams of each thread. A map rather than a ThreadLocal, because a stream may be closed by another thread
+     * than the one that opened it and must then remove the entry of its owner. The keys are weak, so the streams a
+     * thread never closed do not keep it alive.
+     */
+    private final Map<Thread, FileContentThreadData> threadDataMap = new WeakHashMap<>(); // @GuardedBy("itself")
     private boolean resetAttributes;
 
     /**
@@ -72,13 +93,26 @@ public final class DefaultFileContent implements FileContent {
         this.fileContentInfoFactory = fileContentInfoFactory;
     }
 
+    private FileContentThreadData getThreadData() {
+        synchronized (threadDataMap) {
+            return threadDataMap.get(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Returns the streams of the current thread. Callers that add a stream hold the lock of {@link #threadDataMap}, so
+     * a concurrent {@link #removeThreadData} cannot drop the entry in between.
+     */
     private FileContentThreadData getOrCreateThreadData() {
-        FileContentThreadData data = this.threadLocal.get();
-        if (data == null) {
-            data = new FileContentThreadData();
-            this.threadLocal.set(data);
+        final Thread thread = Thread.currentThread();
+        synchronized (threadDataMap) {
+            FileContentThreadData data = threadDataMap.get(thread);
+            if (data == null) {
+                data = new FileContentThreadData(thread);
+                threadDataMap.put(thread, data);
+            }
+            return data;
         }
-        return data;
     }
 
     void streamOpened() {
@@ -129,7 +163,7 @@ public final class DefaultFileContent implements FileContent {
 
         try {
             // Get the size
-            return fileObject.doGetContentSize();
+            return fileObject.getContentSizeCached();
         } catch (final Exception exc) {
             throw new FileSystemException("vfs.provider/get-size.error", exc, fileObject);
         }
@@ -151,7 +185,7 @@ public final class DefaultFileContent implements FileContent {
             throw new FileSystemException("vfs.provider/get-last-modified-no-exist.error", fileObject);
         }
         try {
-            return fileObject.doGetLastModifiedTime();
+            return fileObject.getLastModifiedTimeCached();
         } catch (final Exception e) {
             throw new FileSystemException("vfs.provider/get-last-modified.error", fileObject, e);
         }
@@ -178,6 +212,8 @@ public final class DefaultFileContent implements FileContent {
             }
         } catch (final Exception e) {
             throw new FileSystemException("vfs.provider/set-last-modified.error", fileObject, e);
+        } finally {
+            fileObject.removeContentCache();
         }
     }
 
@@ -210,6 +246,8 @@ public final class DefaultFileContent implements FileContent {
             throw new FileSystemException("vfs.provider/get-attributes-no-exist.error", fileObject);
         }
         if (resetAttributes || roAttrs == null) {
+            final AbstractFileSystem fs = fileObject.getAbstractFileSystem();
+            final long start = fs.startOperation();
             try {
                 synchronized (this) {
                     attrs = fileObject.doGetAttributes();
@@ -218,6 +256,8 @@ public final class DefaultFileContent implements FileContent {
                 }
             } catch (final Exception e) {
                 throw new FileSystemException("vfs.provider/get-attributes.error", fileObject, e);
+            } finally {
+                fs.endOperation(FileOperationStatistics.Operation.GET_ATTRIBUTES, fileObject.getName(), start);
             }
         }
         return roAttrs;
@@ -332,6 +372,41 @@ public final class DefaultFileContent implements FileContent {
         }
     }
 
+    /**
+     * Computes a digest of the content.
+     *
+     * @param algorithm The name of the digest algorithm.
+     * @return The digest.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    @Override
+    public byte[] getDigest(final String algorithm) throws FileSystemException {
+        final byte[] digest = fileObject.getDigest(algorithm);
+        if (digest != null) {
+            return digest;
+        }
+
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new FileSystemException("vfs.provider/digest.error", e, fileObject.getName(), algorithm);
+        }
+        try {
+            final InputStream input = getInputStream();
+            try {
+                return DigestUtils.digest(messageDigest, input, WRITE_BUFFER_SIZE);
+            } finally {
+                input.close();
+            }
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new FileSystemException("vfs.provider/digest.error", e, fileObject.getName(), algorithm);
+        }
+    }
+
     /**
      * Returns an input stream for reading the content.
      *
@@ -346,11 +421,14 @@ public final class DefaultFileContent implements FileContent {
          */
 
         // Get the raw input stream
-        final InputStream inputStream = fileObject.getInputStream();
-
-        final InputStream wrappedInputStream = new FileContentInputStream(fileObject, inputStream);
+        final InputStream inputStream = readAhead(fileObject.getInputStream());
 
-        getOrCreateThreadData().addInstr(wrappedInputStream);
+        final InputStream wrappedInputStream;
+        synchronized (threadDataMap) {
+            final FileContentThreadData streams = getOrCreateThreadData();
+            wrappedInputStream = new FileContentInputStream(fileObject, inputStream, streams);
+            streams.addInstr(wrappedInputStream);
+        }
         streamOpened();
 
         return wrappedInputStream;
@@ -373,14 +451,92 @@ public final class DefaultFileContent implements FileContent {
         // Get the content
         final RandomAccessContent rastr = fileObject.getRandomAccessContent(mode);
 
-        final FileRandomAccessContent rac = new FileRandomAccessContent(fileObject, rastr);
-
-        getOrCreateThreadData().addRastr(rac);
+        final FileRandomAccessContent rac;
+        synchronized (threadDataMap) {
+            final FileContentThreadData streams = getOrCreateThreadData();
+            rac = new FileRandomAccessContent(fileObject, rastr, streams);
+            streams.addRastr(rac);
+        }
         streamOpened();
 
         return rac;
     }
 
+    /**
+     * Returns a channel to read and write the content of the file at random positions.
+     *
+     * @param mode The RandomAccessMode.
+     * @return A SeekableByteChannel to access the file.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    @Override
+    public SeekableByteChannel getSeekableByteChannel(final RandomAccessMode mode) throws FileSystemException {
+        if (mode.requestWrite()) {
+            checkNoOutput();
+        }
+        return (SeekableByteChannel) openChannel(fileObject.getSeekableByteChannel(mode), mode.requestWrite());
+    }
+
+    /**
+     * Returns a channel to read the content.
+     *
+     * @return A ReadableByteChannel to read the file.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    @Override
+    public ReadableByteChannel getReadableByteChannel() throws FileSystemException {
+        return (ReadableByteChannel) openChannel(fileObject.getReadableByteChannel(), false);
+    }
+
+    /**
+     * Returns a channel to write the content.
+     *
+     * @param bAppend true if the data written should be appended.
+     * @return A WritableByteChannel to write the file.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    @Override
+    public WritableByteChannel getWritableByteChannel(final boolean bAppend) throws FileSystemException {
+        checkNoOutput();
+        return (WritableByteChannel) openChannel(fileObject.getWritableByteChannel(bAppend), true);
+    }
+
+    /**
+     * Wraps a channel in a {@link SeekableByteChannel} if it is one, else in a channel of the requested direction.
+     */
+    private FileContentChannel openChannel(final Channel channel, final boolean output) throws FileSystemException {
+        FileContentChannel wrapped;
+        synchronized (threadDataMap) {
+            final FileContentThreadData streams = getOrCreateThreadData();
+            if (output && streams.hasOutput()) {
+                // the thread opened another output meanwhile
+                wrapped = null;
+            } else {
+                if (channel instanceof SeekableByteChannel) {
+                    wrapped = new SeekableFileContentChannel((SeekableByteChannel) channel, output, streams);
+                } else if (output) {
+                    wrapped = new WritableFileContentChannel((WritableByteChannel) channel, streams);
+                } else {
+                    wrapped = new ReadableFileContentChannel((ReadableByteChannel) channel, streams);
+                }
+                streams.addChannel(wrapped, output);
+            }
+        }
+        if (wrapped == null) {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                // the channel was never used
+            }
+            throw new FileSystemException("vfs.provider/write-in-use.error", fileObject);
+        }
+        streamOpened();
+        return wrapped;
+    }
+
     /**
      * Returns an output stream for writing the content.
      *
@@ -404,22 +560,47 @@ public final class DefaultFileContent implements FileContent {
         /*
          * if (getThreadData().getState() != STATE_NONE)
          */
-        final FileContentThreadData streams = getOrCreateThreadData();
-        if (streams.getOutstr() != null) {
-            throw new FileSystemException("vfs.provider/write-in-use.error", fileObject);
-        }
+        checkNoOutput();
 
         // Get the raw output stream
         final OutputStream outstr = fileObject.getOutputStream(bAppend);
 
-        // Create and set wrapper
-        final FileContentOutputStream wrapped = new FileContentOutputStream(fileObject, outstr);
-        streams.setOutstr(wrapped);
+        // Create and set wrapper, checking again in case the thread opened another output meanwhile
+        final FileContentOutputStream wrapped;
+        synchronized (threadDataMap) {
+            final FileContentThreadData streams = getOrCreateThreadData();
+            if (streams.hasOutput()) {
+                wrapped = null;
+            } else {
+                wrapped = new FileContentOutputStream(fileObject, outstr, streams);
+                streams.setOutstr(wrapped);
+            }
+        }
+        if (wrapped == null) {
+            try {
+                outstr.close();
+            } catch (final IOException e) {
+                // the stream was never used
+            }
+            throw new FileSystemException("vfs.provider/write-in-use.error", fileObject);
+        }
         streamOpened();
 
         return wrapped;
     }
 
+    /**
+     * Fails if the current thread has an output stream or a channel for writing open.
+     */
+    private void checkNoOutput() throws FileSystemException {
+        synchronized (threadDataMap) {
+            final FileContentThreadData streams = getThreadData();
+            if (streams != null && streams.hasOutput()) {
+                throw new FileSystemException("vfs.provider/write-in-use.error", fileObject);
+            }
+        }
+    }
+
     /**
      * Closes all resources used by the content, including all streams, readers and writers.
      *
@@ -428,8 +609,11 @@ public final class DefaultFileContent implements FileContent {
     @Override
     public void close() throws FileSystemException {
         FileSystemException caught = null;
+        final FileContentThreadData fileContentThreadData = getThreadData();
+        if (fileContentThreadData == null) {
+            return;
+        }
         try {
-            final FileContentThreadData fileContentThreadData = getOrCreateThreadData();
 
             // Close the input stream
             while (fileContentThreadData.getInstrsSize() > 0) {
@@ -454,6 +638,16 @@ public final class DefaultFileContent implements FileContent {
                 }
             }
 
+            // Close the channels
+            while (fileContentThreadData.getChannelsSize() > 0) {
+                final FileContentChannel channel = (FileContentChannel) fileContentThreadData.removeChannel(0);
+                try {
+                    channel.close();
+                } catch (final FileSystemException ex) {
+                    caught = ex;
+                }
+            }
+
             // Close the output stream
             final FileContentOutputStream outputStream = fileContentThreadData.getOutstr();
             if (outputStream != null) {
@@ -465,7 +659,9 @@ public final class DefaultFileContent implements FileContent {
                 }
             }
         } finally {
-            threadLocal.remove();
+            synchronized (threadDataMap) {
+                threadDataMap.remove(fileContentThreadData.getOwner());
+            }
         }
 
         // throw last error (out >> rac >> input) after all closes have been tried
@@ -478,48 +674,55 @@ public final class DefaultFileContent implements FileContent {
      * Handles the end of input stream.
      */
     private void endInput(final FileContentInputStream instr) {
-        final FileContentThreadData fileContentThreadData = threadLocal.get();
-        if (fileContentThreadData != null) {
-            fileContentThreadData.removeInstr(instr);
-        }
-        if (fileContentThreadData == null || !fileContentThreadData.hasStreams()) {
-            // remove even when no value is set to remove key
-            threadLocal.remove();
-        }
+        instr.threadData.removeInstr(instr);
+        removeThreadData(instr.threadData);
         streamClosed();
     }
 
     /**
      * Handles the end of random access.
      */
-    private void endRandomAccess(final RandomAccessContent rac) {
-        final FileContentThreadData fileContentThreadData = threadLocal.get();
-        if (fileContentThreadData != null) {
-            fileContentThreadData.removeRastr(rac);
-        }
-        if (fileContentThreadData == null || !fileContentThreadData.hasStreams()) {
-            // remove even when no value is set to remove key
-            threadLocal.remove();
-        }
+    private void endRandomAccess(final FileRandomAccessContent rac) {
+        rac.threadData.removeRastr(rac);
+        removeThreadData(rac.threadData);
         streamClosed();
     }
 
     /**
-     * Handles the end of output stream.
+     * Handles the end of a channel.
      */
-    private void endOutput() throws Exception {
-        final FileContentThreadData fileContentThreadData = threadLocal.get();
-        if (fileContentThreadData != null) {
-            fileContentThreadData.setOutstr(null);
-        }
-        if (fileContentThreadData == null || !fileContentThreadData.hasStreams()) {
-            // remove even when no value is set to remove key
-            threadLocal.remove();
+    private void endChannel(final FileContentChannel channel) throws Exception {
+        channel.threadData.removeChannel(channel);
+        removeThreadData(channel.threadData);
+        streamClosed();
+        if (channel.output) {
+            fileObject.endOutput();
         }
+    }
+
+    /**
+     * Handles the end of output stream.
+     */
+    private void endOutput(final FileContentOutputStream outstr) throws Exception {
+        outstr.threadData.setOutstr(null);
+        removeThreadData(outstr.threadData);
         streamClosed();
         fileObject.endOutput();
     }
 
+    /**
+     * Forgets the streams of the thread that opened a stream if there are none left. Works from any thread.
+     */
+    private void removeThreadData(final FileContentThreadData fileContentThreadData) {
+        synchronized (threadDataMap) {
+            final Thread owner = fileContentThreadData.getOwner();
+            if (owner != null && !fileContentThreadData.hasStreams()
+                    && threadDataMap.get(owner) == fileContentThreadData) {
+                threadDataMap.remove(owner);
+            }
+        }
+    }
+
     /**
      * Checks if a input and/or output stream is open.
      * <p>
@@ -529,13 +732,8 @@ public final class DefaultFileContent implements FileContent {
      */
     @Override
     public boolean isOpen() {
-        final FileContentThreadData fileContentThreadData = threadLocal.get();
-        if (fileContentThreadData != null && fileContentThreadData.hasStreams()) {
-            return true;
-        }
-        // threadData.get() created empty entry
-        threadLocal.remove();
-        return false;
+        final FileContentThreadData fileContentThreadData = getThreadData();
+        return fileContentThreadData != null && fileContentThreadData.hasStreams();
     }
 
     /**
@@ -549,16 +747,38 @@ public final class DefaultFileContent implements FileContent {
         }
     }
 
+    /**
+     * Wraps a raw input stream in a {@link ReadAheadInputStream} if the file system options ask for it.
+     */
+    private InputStream readAhead(final InputStream inputStream) throws FileSystemException {
+        final FileSystem fileSystem = fileObject.getFileSystem();
+        final FileSystemOptions options = fileSystem.getFileSystemOptions();
+        final FileSystemManager manager = fileSystem.getFileSystemManager();
+        final String scheme = fileObject.getName().getScheme();
+        if (options == null || manager == null || !manager.hasProvider(scheme)) {
+            return inputStream;
+        }
+        final FileSystemConfigBuilder builder = manager.getFileSystemConfigBuilder(scheme);
+        final int depth = builder != null ? builder.getReadAheadDepth(options) : 0;
+        if (depth <= 0) {
+            return inputStream;
+        }
+        return new ReadAheadInputStream(inputStream, builder.getReadAheadBufferSize(options), depth);
+    }
+
     /**
      * An input stream for reading content. Provides buffering, and end-of-stream monitoring.
      */
     private final class FileContentInputStream extends MonitorInputStream {
         // avoid gc
         private final FileObject file;
+        // the streams of the opening thread, the stream may be closed by another one
+        private final FileContentThreadData threadData;
 
-        FileContentInputStream(final FileObject file, final InputStream instr) {
+        FileContentInputStream(final FileObject file, final InputStream instr, final FileContentThreadData threadData) {
             super(instr);
             this.file = file;
+            this.threadData = threadData;
         }
 
         /**
@@ -592,10 +812,13 @@ public final class DefaultFileContent implements FileContent {
     private final class FileRandomAccessContent extends MonitorRandomAccessContent {
         // also avoids gc
         private final FileObject file;
+        private final FileContentThreadData threadData;
 
-        FileRandomAccessContent(final FileObject file, final RandomAccessContent content) {
+        FileRandomAccessContent(final FileObject file, final RandomAccessContent content,
+                final FileContentThreadData threadData) {
             super(content);
             this.file = file;
+            this.threadData = threadData;
         }
 
         /**
@@ -620,16 +843,143 @@ public final class DefaultFileContent implements FileContent {
         }
     }
 
+    /**
+     * A channel for reading or writing content.
+     */
+    private class FileContentChannel implements Channel {
+        private final Channel channel;
+        private final boolean output;
+        private final FileContentThreadData threadData;
+        private boolean closed;
+
+        FileContentChannel(final Channel channel, final boolean output, final FileContentThreadData threadData) {
+            this.channel = channel;
+            this.output = output;
+            this.threadData = threadData;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        /**
+         * Closes the channel, and commits the content if it was written.
+         */
+        @Override
+        public void close() throws FileSystemException {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            try {
+                try {
+                    channel.close();
+                } finally {
+                    endChannel(this);
+                }
+            } catch (final FileSystemException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new FileSystemException("vfs.provider/close-channel.error", fileObject, e);
+            }
+        }
+    }
+
+    /**
+     * A channel for reading content.
+     */
+    private final class ReadableFileContentChannel extends FileContentChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+
+        ReadableFileContentChannel(final ReadableByteChannel channel, final FileContentThreadData threadData) {
+            super(channel, false, threadData);
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+    }
+
+    /**
+     * A channel for writing content.
+     */
+    private final class WritableFileContentChannel extends FileContentChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+
+        WritableFileContentChannel(final WritableByteChannel channel, final FileContentThreadData threadData) {
+            super(channel, true, threadData);
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+    }
+
+    /**
+     * A channel for reading and/or writing content at random positions.
+     */
+    private final class SeekableFileContentChannel extends FileContentChannel implements SeekableByteChannel {
+        private final SeekableByteChannel channel;
+
+        SeekableFileContentChannel(final SeekableByteChannel channel, final boolean output,
+                final FileContentThreadData threadData) {
+            super(channel, output, threadData);
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+    }
+
     /**
      * An output stream for writing content.
      */
     final class FileContentOutputStream extends MonitorOutputStream {
         // avoid gc
         private final FileObject file;
+        private final FileContentThreadData threadData;
 
-        FileContentOutputStream(final FileObject file, final OutputStream outstr) {
+        FileContentOutputStream(final FileObject file, final OutputStream outstr,
+                final FileContentThreadData threadData) {
             super(outstr);
             this.file = file;
+            this.threadData = threadData;
         }
 
         /**
@@ -653,7 +1003,7 @@ public final class DefaultFileContent implements FileContent {
                 super.onClose();
             } finally {
                 try {
-                    endOutput();
+                    endOutput(this);
                 } catch (final Exception e) {
                     throw new FileSystemException("vfs.provider/close-outstr.error", file, e);
                 }
@@ -704,9 +1054,27 @@ public final class DefaultFileContent implements FileContent {
      */
     @Override
     public long write(final FileObject file) throws IOException {
+        if (DefaultFileSystemConfigBuilder.getInstance()
+                .isResumableTransfer(file.getFileSystem().getFileSystemOptions())) {
+            return new ResumableTransfer(fileObject, file).run();
+        }
         return write(file.getContent());
     }
 
+    /**
+     * Writes this content to another FileObject, reading segments of the content at the same time.
+     *
+     * @param file The target FileObject.
+     * @param options The segment size and parallelism.
+     * @return the total number of bytes written
+     * @throws IOException if an error occurs writing the content.
+     * @since 2.3
+     */
+    @Override
+    public long write(final FileObject file, final ParallelTransferOptions options) throws IOException {
+        return new SegmentedTransfer(fileObject, file, options).run();
+    }
+
     /**
      * Writes this content to an OutputStream.
      *
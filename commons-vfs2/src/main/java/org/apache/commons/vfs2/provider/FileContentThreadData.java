@@ -17,22 +17,37 @@
 package org.apache.commons.vfs2.provider;
 
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.channels.Channel;
 import java.util.ArrayList;
 
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.RandomAccessContent;
 
 /**
- * Holds the data which needs to be local to the current thread
+ * Holds the data which needs to be local to the current thread.
+ * <p>
+ * Synchronized because a stream may be closed by another thread than the one that opened it.
  */
 class FileContentThreadData {
     // private int state = DefaultFileContent.STATE_CLOSED;
 
     private final ArrayList<InputStream> inputStreamList = new ArrayList<>();
     private final ArrayList<RandomAccessContent> randomAccessContentList = new ArrayList<>();
+    private final ArrayList<Channel> channelList = new ArrayList<>();
+    private final ArrayList<Channel> outputChannelList = new ArrayList<>();
     private DefaultFileContent.FileContentOutputStream outputStream;
+    private final WeakReference<Thread> owner;
 
-    FileContentThreadData() {
+    FileContentThreadData(final Thread owner) {
+        this.owner = new WeakReference<>(owner);
+    }
+
+    /**
+     * @return The thread that opened the streams, or null if it is gone.
+     */
+    Thread getOwner() {
+        return owner.get();
     }
 
     /*
@@ -41,44 +56,45 @@ class FileContentThreadData {
      * void setState(int state) { this.state = state; }
      */
 
-    void addInstr(final InputStream inputStream) {
+    synchronized void addInstr(final InputStream inputStream) {
         this.inputStreamList.add(inputStream);
     }
 
-    void setOutstr(final DefaultFileContent.FileContentOutputStream outputStream) {
+    synchronized void setOutstr(final DefaultFileContent.FileContentOutputStream outputStream) {
         this.outputStream = outputStream;
     }
 
-    DefaultFileContent.FileContentOutputStream getOutstr() {
+    synchronized DefaultFileContent.FileContentOutputStream getOutstr() {
         return this.outputStream;
     }
 
-    void addRastr(final RandomAccessContent randomAccessContent) {
+    synchronized void addRastr(final RandomAccessContent randomAccessContent) {
         this.randomAccessContentList.add(randomAccessContent);
     }
 
-    int getInstrsSize() {
+    synchronized int getInstrsSize() {
         return this.inputStreamList.size();
     }
 
-    public Object removeInstr(final int pos) {
+    public synchronized Object removeInstr(final int pos) {
         return this.inputStreamList.remove(pos);
     }
 
-    public void removeInstr(final InputStream inputStream) {
+    public synchronized void removeInstr(final InputStream inputStream) {
         this.inputStreamList.remove(inputStream);
     }
 
-    public Object removeRastr(final int pos) {
+    public synchronized Object removeRastr(final int pos) {
         return this.randomAccessContentList.remove(pos);
     }
 
-    public void removeRastr(final RandomAccessContent randomAccessContent) {
+    public synchronized void removeRastr(final RandomAccessContent randomAccessContent) {
         this.randomAccessContentList.remove(randomAccessContent);
     }
 
-    public boolean hasStreams() {
-        return inputStreamList.size() > 0 || outputStream != null || randomAccessContentList.size() > 0;
+    public synchronized boolean hasStreams() {
+        return inputStreamList.size() > 0 || outputStream != null || randomAccessContentList.size() > 0
+                || channelList.size() > 0;
     }
 
     public void closeOutstr() throws FileSystemException {
@@ -86,7 +102,36 @@ class FileContentThreadData {
         outputStream = null;
     }
 
-    int getRastrsSize() {
+    synchronized int getRastrsSize() {
         return randomAccessContentList.size();
     }
+
+    synchronized void addChannel(final Channel channel, final boolean output) {
+        this.channelList.add(channel);
+        if (output) {
+            this.outputChannelList.add(channel);
+        }
+    }
+
+    synchronized Channel removeChannel(final int pos) {
+        final Channel channel = this.channelList.remove(pos);
+        this.outputChannelList.remove(channel);
+        return channel;
+    }
+
+    synchronized void removeChannel(final Channel channel) {
+        this.channelList.remove(channel);
+        this.outputChannelList.remove(channel);
+    }
+
+    /**
+     * @return true if there is an output stream or a channel for writing.
+     */
+    synchronized boolean hasOutput() {
+        return outputStream != null || outputChannelList.size() > 0;
+    }
+
+    synchronized int getChannelsSize() {
+        return channelList.size();
+    }
 }
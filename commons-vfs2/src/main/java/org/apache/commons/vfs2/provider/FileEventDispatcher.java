@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.BatchFileListener;
+import org.apache.commons.vfs2.EventOverflowPolicy;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.events.AbstractFileChangeEvent;
+import org.apache.commons.vfs2.events.ChangedEvent;
+
+/**
+ * Delivers the events of a file system in the background.
+ * <p>
+ * Events wait in a bounded queue together with the listeners registered when they were fired. A single drain task at
+ * a time delivers them in order once they are older than the coalescing window. A change event for a file that
+ * already has a change event waiting is dropped.
+ *
+ * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setAsyncEventDispatch
+ */
+final class FileEventDispatcher {
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * An event waiting for delivery.
+     */
+    private static final class PendingEvent {
+        private final AbstractFileChangeEvent event;
+        private final FileListener[] listeners;
+        private final long dueTime;
+
+        PendingEvent(final AbstractFileChangeEvent event, final FileListener[] listeners, final long dueTime) {
+            this.event = event;
+            this.listeners = listeners;
+            this.dueTime = dueTime;
+        }
+
+        FileName getName() {
+            return event.getFile().getName();
+        }
+    }
+
+    private final AbstractFileSystem fileSystem;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final int capacity;
+    private final long window;
+    private final EventOverflowPolicy overflowPolicy;
+
+    private final ArrayDeque<PendingEvent> queue = new ArrayDeque<>(); // @GuardedBy("this")
+
+    /**
+     * The queued change events by file name.
+     */
+    private final Map<FileName, PendingEvent> pendingChanges = new HashMap<>(); // @GuardedBy("this")
+
+    private boolean draining; // @GuardedBy("this")
+    private Thread drainThread; // @GuardedBy("this")
+    private boolean closed; // @GuardedBy("this")
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param fileSystem The file system that reports listener failures.
+     * @param executor The executor that runs the drain task, null to create a daemon thread shut down by
+     *            {@link #close()}.
+     * @param capacity The maximum number of queued events.
+     * @param windowMillis How long events are held before delivery.
+     * @param overflowPolicy What to do when the queue is full.
+     */
+    FileEventDispatcher(final AbstractFileSystem fileSystem, final Executor executor, final int capacity,
+            final long windowMillis, final EventOverflowPolicy overflowPolicy) {
+        this.fileSystem = fileSystem;
+        if (executor == null) {
+            // the thread goes away while there is nothing to deliver
+            this.ownExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "vfs-events-" + THREAD_COUNT.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            this.executor = ownExecutor;
+        } else {
+            this.ownExecutor = null;
+            this.executor = executor;
+        }
+        this.capacity = Math.max(1, capacity);
+        this.window = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Queues an event.
+     *
+     * @param event The event.
+     * @param listeners The listeners of the file.
+     */
+    void dispatch(final AbstractFileChangeEvent event, final FileListener[] listeners) {
+        final FileName name = event.getFile().getName();
+        final boolean change = event instanceof ChangedEvent;
+        final boolean startDrain;
+        synchronized (this) {
+            if (change && !closed && pendingChanges.containsKey(name)) {
+                coalescedEvents.incrementAndGet();
+                return;
+            }
+            if (!makeRoom()) {
+                droppedEvents.incrementAndGet();
+                return;
+            }
+            if (closed) {
+                startDrain = false;
+            } else {
+                final PendingEvent pending = new PendingEvent(event, listeners, System.nanoTime() + window);
+                queue.add(pending);
+                if (change) {
+                    pendingChanges.put(name, pending);
+                } else {
+                    // later changes must not be merged into a change that comes before this event
+                    pendingChanges.remove(name);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+                startDrain = true;
+            }
+        }
+        if (startDrain) {
+            startDrain();
+        } else {
+            // late events of a closed file system are delivered by the caller
+            for (final FileListener listener : listeners) {
+                fileSystem.notifyListener(event, listener);
+            }
+        }
+    }
+
+    /**
+     * Applies the overflow policy while the queue is full.
+     *
+     * @return false if the new event is to be dropped.
+     */
+    private boolean makeRoom() {
+        while (queue.size() >= capacity && !closed) {
+            if (overflowPolicy == EventOverflowPolicy.DROP_NEWEST) {
+                return false;
+            } else if (overflowPolicy == EventOverflowPolicy.DROP_OLDEST) {
+                final PendingEvent oldest = queue.poll();
+                if (pendingChanges.get(oldest.getName()) == oldest) {
+                    pendingChanges.remove(oldest.getName());
+                }
+                droppedEvents.incrementAndGet();
+            } else if (Thread.currentThread() == drainThread) {
+                // a listener firing events cannot wait for itself
+                return true;
+            } else if (Thread.holdsLock(fileSystem)) {
+                // the listeners may need the lock of the file system, as when the caller creates or deletes a file
+                return true;
+            } else {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void startDrain() {
+        try {
+            executor.execute(drainTask);
+        } catch (final RejectedExecutionException e) {
+            // deliver in the calling thread rather than lose the events
+            drain();
+        }
+    }
+
+    /**
+     * Delivers the queued events until the queue is empty.
+     */
+    private void drain() {
+        synchronized (this) {
+            drainThread = Thread.currentThread();
+        }
+        try {
+            boolean flush = false;
+            while (true) {
+                final List<PendingEvent> batch = new ArrayList<>();
+                synchronized (this) {
+                    PendingEvent head = queue.peek();
+                    while (head != null && !closed && !flush) {
+                        final long delay = head.dueTime - System.nanoTime();
+                        if (delay <= 0) {
+                            break;
+                        }
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, delay);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            flush = true;
+                        }
+                        head = queue.peek();
+                    }
+                    if (head == null) {
+                        draining = false;
+                        return;
+                    }
+                    final long now = System.nanoTime();
+                    while (head != null && (closed || flush || head.dueTime - now <= 0)) {
+                        queue.poll();
+                        if (pendingChanges.get(head.getName()) == head) {
+                            pendingChanges.remove(head.getName());
+                        }
+                        batch.add(head);
+                        head = queue.peek();
+                    }
+                    // wake up the callers waiting for room
+                    notifyAll();
+                }
+                deliver(batch);
+            }
+        } finally {
+            synchronized (this) {
+                drainThread = null;
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of a batch of events, passing the batch listeners all their events at once.
+     */
+    private void deliver(final List<PendingEvent> batch) {
+        final Map<BatchFileListener, List<FileChangeEvent>> batches = new IdentityHashMap<>();
+        final List<BatchFileListener> batchListeners = new ArrayList<>();
+        for (final PendingEvent pending : batch) {
+            for (final FileListener listener : pending.listeners) {
+                if (listener instanceof BatchFileListener) {
+                    final BatchFileListener batchListener = (BatchFileListener) listener;
+                    List<FileChangeEvent> events = batches.get(batchListener);
+                    if (events == null) {
+                        events = new ArrayList<>();
+                        batches.put(batchListener, events);
+                        batchListeners.add(batchListener);
+                    }
+                    events.add(pending.event);
+                } else {
+                    fileSystem.notifyListener(pending.event, listener);
+                }
+            }
+        }
+        for (final BatchFileListener batchListener : batchListeners) {
+            fileSystem.notifyListener(batches.get(batchListener), batchListener);
+        }
+    }
+
+    /**
+     * Returns the number of events lost to the overflow policy.
+     */
+    long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Returns the number of change events merged into a waiting one.
+     */
+    long getCoalescedEventCount() {
+        return coalescedEvents.get();
+    }
+
+    /**
+     * Delivers the queued events without waiting for the coalescing window and releases the thread of this
+     * dispatcher.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+}
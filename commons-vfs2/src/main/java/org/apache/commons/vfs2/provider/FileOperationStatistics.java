@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.commons.vfs2.util.LatencyHistogram;
+
+/**
+ * Latency histograms of the {@code do*} template methods of {@link AbstractFileObject}.
+ * <p>
+ * One instance is shared by all file systems of a provider. Recording is only active for file systems created with
+ * {@link org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setOperationTracing} enabled.
+ *
+ * @since 2.3
+ */
+public final class FileOperationStatistics {
+
+    /**
+     * The traced provider operations.
+     */
+    public enum Operation {
+        /** {@link AbstractFileObject#doAttach()}. */
+        ATTACH,
+
+        /** {@link AbstractFileObject#doGetType()}. */
+        GET_TYPE,
+
+        /** {@link AbstractFileObject#doListChildren()} and {@link AbstractFileObject#doListChildrenResolved()}. */
+        LIST_CHILDREN,
+
+        /** {@link AbstractFileObject#doGetContentSize()}. */
+        GET_CONTENT_SIZE,
+
+        /** {@link AbstractFileObject#doGetLastModifiedTime()}. */
+        GET_LAST_MODIFIED_TIME,
+
+        /** {@link AbstractFileObject#doGetAttributes()}. */
+        GET_ATTRIBUTES,
+
+        /** {@link AbstractFileObject#doDelete()}. */
+        DELETE,
+
+        /** {@link AbstractFileObject#doRename(org.apache.commons.vfs2.FileObject)}. */
+        RENAME,
+
+        /** {@link AbstractFileObject#doCopyFrom(org.apache.commons.vfs2.FileObject)}. */
+        COPY,
+
+        /** {@link AbstractFileObject#doCreateFolder()}. */
+        CREATE_FOLDER
+    }
+
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+    public FileOperationStatistics() {
+        for (final Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records the duration of one operation.
+     *
+     * @param operation The operation.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(final Operation operation, final long nanos) {
+        histograms.get(operation).record(nanos);
+    }
+
+    /**
+     * Returns the histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return The live histogram, never null.
+     */
+    public LatencyHistogram getHistogram(final Operation operation) {
+        return histograms.get(operation);
+    }
+
+    /**
+     * Clears all histograms.
+     */
+    public void reset() {
+        for (final LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        for (final Map.Entry<Operation, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getCount() == 0) {
+                continue;
+            }
+            if (buffer.length() > 0) {
+                buffer.append('\n');
+            }
+            buffer.append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return buffer.toString();
+    }
+}
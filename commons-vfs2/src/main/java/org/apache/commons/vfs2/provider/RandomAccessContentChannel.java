@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * A channel on top of a {@link RandomAccessContent}, for file systems without a native channel.
+ */
+final class RandomAccessContentChannel implements SeekableByteChannel {
+
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+    private final RandomAccessContent content;
+    private final RandomAccessMode mode;
+    private boolean open = true;
+
+    RandomAccessContentChannel(final RandomAccessContent content, final RandomAccessMode mode) {
+        this.content = content;
+        this.mode = mode;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public synchronized int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (!mode.requestRead()) {
+            throw new NonReadableChannelException();
+        }
+        final long left = content.length() - content.getFilePointer();
+        if (left <= 0) {
+            return -1;
+        }
+        final int count = (int) Math.min(dst.remaining(), left);
+        if (dst.hasArray()) {
+            content.readFully(dst.array(), dst.arrayOffset() + dst.position(), count);
+            dst.position(dst.position() + count);
+        } else {
+            final byte[] buffer = new byte[Math.min(count, TRANSFER_BUFFER_SIZE)];
+            int remaining = count;
+            while (remaining > 0) {
+                final int n = Math.min(remaining, buffer.length);
+                content.readFully(buffer, 0, n);
+                dst.put(buffer, 0, n);
+                remaining -= n;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer src) throws IOException {
+        checkOpen();
+        if (!mode.requestWrite()) {
+            throw new NonWritableChannelException();
+        }
+        final int count = src.remaining();
+        if (src.hasArray()) {
+            content.write(src.array(), src.arrayOffset() + src.position(), count);
+            src.position(src.position() + count);
+        } else {
+            final byte[] buffer = new byte[Math.min(count, TRANSFER_BUFFER_SIZE)];
+            while (src.hasRemaining()) {
+                final int n = Math.min(src.remaining(), buffer.length);
+                src.get(buffer, 0, n);
+                content.write(buffer, 0, n);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return content.getFilePointer();
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        content.seek(newPosition);
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return content.length();
+    }
+
+    @Override
+    public synchronized SeekableByteChannel truncate(final long size) throws IOException {
+        checkOpen();
+        if (!mode.requestWrite()) {
+            throw new NonWritableChannelException();
+        }
+        final long position = content.getFilePointer();
+        if (size < content.length()) {
+            content.setLength(size);
+        }
+        if (position > size) {
+            content.seek(size);
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (open) {
+            open = false;
+            content.close();
+        }
+    }
+}
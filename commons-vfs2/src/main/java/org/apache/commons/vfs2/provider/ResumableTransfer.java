@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.DigestUtils;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Copies a file so that a later copy of the same source continues where an interrupted one stopped.
+ * <p>
+ * The progress is kept in a checkpoint file next to the target. It identifies the source by a digest of its URI, so
+ * credentials in the URI are not written to disk, its size, last modified time and entity tag, and records how many
+ * bytes of the target have been flushed.
+ *
+ * @see DefaultFileSystemConfigBuilder#setResumableTransfer(org.apache.commons.vfs2.FileSystemOptions, boolean)
+ */
+final class ResumableTransfer {
+
+    /** The suffix of the checkpoint file name. */
+    static final String CHECKPOINT_SUFFIX = ".vfs-checkpoint";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String SOURCE = "source";
+    private static final String SIZE = "size";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String ENTITY_TAG = "entityTag";
+    private static final String COMMITTED = "committed";
+
+    private final AbstractFileObject<?> source;
+    private final FileObject target;
+    private final long checkpointInterval;
+
+    private long size;
+    private long lastModified;
+    private String entityTag;
+    private FileObject checkpoint;
+
+    ResumableTransfer(final AbstractFileObject<?> source, final FileObject target) {
+        this.source = source;
+        this.target = target;
+        this.checkpointInterval = DefaultFileSystemConfigBuilder.getInstance()
+                .getTransferCheckpointInterval(target.getFileSystem().getFileSystemOptions());
+    }
+
+    /**
+     * Runs the transfer.
+     *
+     * @return The number of bytes written, including those written by earlier attempts.
+     * @throws IOException if the transfer fails.
+     */
+    long run() throws IOException {
+        if (!target.getFileSystem().hasCapability(Capability.APPEND_CONTENT)) {
+            // cannot continue a partial target
+            return source.getContent().write(target.getContent());
+        }
+
+        size = source.getContent().getSize();
+        lastModified = getSourceLastModified();
+        entityTag = source.getEntityTag();
+        checkpoint = target.getParent().resolveFile(target.getName().getBaseName() + CHECKPOINT_SUFFIX,
+                NameScope.CHILD);
+
+        final long offset = getResumeOffset();
+        final OutputStream output = target.getContent().getOutputStream(offset > 0);
+        long position = offset;
+        try {
+            // a crash before the first interval must leave a checkpoint too
+            writeCheckpoint(position);
+            if (offset == 0 || offset < size) {
+                final InputStream input = offset == 0 ? source.getContent().getInputStream()
+                        : source.getInputStream(offset, size - offset);
+                try {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    long checkpointed = position;
+                    int count;
+                    while ((count = input.read(buffer)) != -1) {
+                        output.write(buffer, 0, count);
+                        position += count;
+                        if (position - checkpointed >= checkpointInterval) {
+                            output.flush();
+                            writeCheckpoint(position);
+                            checkpointed = position;
+                        }
+                    }
+                } finally {
+                    input.close();
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            // keep the progress for the next attempt
+            try {
+                output.flush();
+                writeCheckpoint(position);
+            } catch (final IOException | RuntimeException checkpointFailure) {
+                e.addSuppressed(checkpointFailure);
+            }
+            try {
+                output.close();
+            } catch (final IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        output.close();
+        checkpoint.delete();
+        return position;
+    }
+
+    private long getSourceLastModified() throws FileSystemException {
+        if (!source.getFileSystem().hasCapability(Capability.GET_LAST_MODIFIED)) {
+            return 0;
+        }
+        try {
+            return source.getContent().getLastModifiedTime();
+        } catch (final FileSystemException e) {
+            // not every server reports it
+            return 0;
+        }
+    }
+
+    /**
+     * Determines where to continue, 0 if there is no checkpoint for this source.
+     */
+    private long getResumeOffset() throws IOException {
+        if (size <= 0 || !checkpoint.exists() || !target.exists()) {
+            return 0;
+        }
+
+        final Properties properties = new Properties();
+        try {
+            final InputStream input = checkpoint.getContent().getInputStream();
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
+        } catch (final IOException | IllegalArgumentException e) {
+            // unreadable checkpoint, start over
+            return 0;
+        }
+
+        if (!getSourceDigest().equals(properties.getProperty(SOURCE))
+                || !String.valueOf(size).equals(properties.getProperty(SIZE))
+                || !String.valueOf(lastModified).equals(properties.getProperty(LAST_MODIFIED))
+                || !String.valueOf(entityTag).equals(properties.getProperty(ENTITY_TAG))) {
+            // the source changed
+            return 0;
+        }
+
+        final long committed;
+        try {
+            committed = Long.parseLong(properties.getProperty(COMMITTED));
+        } catch (final NumberFormatException e) {
+            return 0;
+        }
+        final long targetSize = target.getContent().getSize();
+        if (targetSize > size) {
+            return 0;
+        }
+        if (targetSize > committed && target.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_SET_LENGTH)) {
+            // drop what was written after the last checkpoint
+            final RandomAccessContent content = target.getContent().getRandomAccessContent(RandomAccessMode.READWRITE);
+            try {
+                content.setLength(committed);
+            } finally {
+                content.close();
+            }
+            return committed;
+        }
+        return targetSize;
+    }
+
+    private String getSourceDigest() {
+        return DigestUtils.sha1Hex(source.getName().getURI());
+    }
+
+    private void writeCheckpoint(final long committed) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(SOURCE, getSourceDigest());
+        properties.setProperty(SIZE, String.valueOf(size));
+        properties.setProperty(LAST_MODIFIED, String.valueOf(lastModified));
+        properties.setProperty(ENTITY_TAG, String.valueOf(entityTag));
+        properties.setProperty(COMMITTED, String.valueOf(committed));
+        final OutputStream output = checkpoint.getContent().getOutputStream();
+        try {
+            properties.store(output, null);
+        } finally {
+            output.close();
+        }
+    }
+}
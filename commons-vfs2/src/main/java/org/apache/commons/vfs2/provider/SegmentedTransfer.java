@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.ParallelTransferOptions;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Copies a file by reading its segments at the same time and writing each one to its position in the target.
+ *
+ * @see org.apache.commons.vfs2.FileContent#write(FileObject, ParallelTransferOptions)
+ */
+final class SegmentedTransfer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final AbstractFileObject<?> source;
+    private final FileObject target;
+    private final ParallelTransferOptions options;
+
+    private final AtomicInteger nextSegment = new AtomicInteger();
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    private long size;
+    private int segmentCount;
+    private RandomAccessContent output;
+
+    SegmentedTransfer(final AbstractFileObject<?> source, final FileObject target,
+            final ParallelTransferOptions options) {
+        this.source = source;
+        this.target = target;
+        this.options = options;
+    }
+
+    /**
+     * Runs the transfer.
+     *
+     * @return The number of bytes written.
+     * @throws IOException if the transfer fails.
+     */
+    long run() throws IOException {
+        size = source.getContent().getSize();
+        final long segmentSize = options.getSegmentSize();
+        final long segments = (size + segmentSize - 1) / segmentSize;
+        if (options.getParallelism() <= 1 || segments <= 1 || segments > Integer.MAX_VALUE
+                || !source.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)
+                || !target.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_WRITE)) {
+            return source.getContent().write(target);
+        }
+        segmentCount = (int) segments;
+
+        // Create or truncate the target, then fill it in place
+        target.getContent().getOutputStream().close();
+        output = target.getContent().getRandomAccessContent(RandomAccessMode.READWRITE);
+        try {
+            if (target.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_SET_LENGTH)) {
+                output.setLength(size);
+            }
+            transferSegments();
+        } finally {
+            output.close();
+        }
+        return size;
+    }
+
+    private void transferSegments() throws FileSystemException {
+        final int workers = Math.min(options.getParallelism(), segmentCount);
+        final ExecutorService executor = options.getExecutorService() != null ? options.getExecutorService()
+                : Executors.newFixedThreadPool(workers, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "vfs-transfer-" + THREAD_COUNT.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        transferSegments(new byte[BUFFER_SIZE]);
+                        return null;
+                    }
+                }));
+            }
+
+            // Wait for all workers, the target must not be closed while one is still writing
+            Throwable failure = null;
+            for (final Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (final InterruptedException e) {
+                    failed.set(true);
+                    Thread.currentThread().interrupt();
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new FileSystemException("vfs.provider/copy-file.error", failure, source.getName(),
+                        target.getName());
+            }
+        } finally {
+            if (executor != options.getExecutorService()) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private void transferSegments(final byte[] buffer) throws IOException {
+        try {
+            int segment;
+            while (!failed.get() && (segment = nextSegment.getAndIncrement()) < segmentCount) {
+                transferSegment(segment, buffer);
+            }
+        } catch (final IOException | RuntimeException e) {
+            // stop the other workers
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    private void transferSegment(final int segment, final byte[] buffer) throws IOException {
+        final long offset = segment * options.getSegmentSize();
+        final long length = Math.min(options.getSegmentSize(), size - offset);
+        final InputStream input = source.getInputStream(offset, length);
+        try {
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                final int count = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (count < 0) {
+                    throw new FileSystemException("vfs.provider/read-range.error", source.getName(),
+                            Long.valueOf(offset), Long.valueOf(length));
+                }
+                synchronized (output) {
+                    output.seek(position);
+                    output.write(buffer, 0, count);
+                }
+                position += count;
+                remaining -= count;
+            }
+        } finally {
+            input.close();
+        }
+    }
+}
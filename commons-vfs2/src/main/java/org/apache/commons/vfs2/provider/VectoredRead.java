@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.EOFException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.vfs2.FileRange;
+import org.apache.commons.vfs2.RandomAccessContent;
+
+/**
+ * Implements {@link RandomAccessContent#readVectored} with the positional reads of a content.
+ * <p>
+ * The ranges are sorted, and ranges separated by at most {@code minSeek} bytes are merged into a single read of at
+ * most {@code maxSize} bytes. Each merged read fills one buffer, which the ranges it covers share.
+ *
+ * @since 2.3
+ */
+public final class VectoredRead {
+
+    /**
+     * The part of a merged read that belongs to one range.
+     */
+    private static final class Slice implements Future<ByteBuffer> {
+        private final Future<ByteBuffer> read;
+        private final int offset;
+        private final int length;
+
+        Slice(final Future<ByteBuffer> read, final int offset, final int length) {
+            this.read = read;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Cancels the merged read, and with it the other ranges it covers.
+         */
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return read.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return read.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return read.isDone();
+        }
+
+        @Override
+        public ByteBuffer get() throws InterruptedException, ExecutionException {
+            return slice(read.get());
+        }
+
+        @Override
+        public ByteBuffer get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return slice(read.get(timeout, unit));
+        }
+
+        private ByteBuffer slice(final ByteBuffer buffer) {
+            final Buffer view = buffer.duplicate();
+            view.limit(offset + length).position(offset);
+            return ((ByteBuffer) view).slice();
+        }
+    }
+
+    private VectoredRead() {
+    }
+
+    /**
+     * Reads several ranges of a content.
+     *
+     * @param content The content, whose positional reads must be safe to call from several threads if an executor is
+     *            given.
+     * @param ranges The ranges to read.
+     * @param executor The executor of the reads, or null to read in the calling thread.
+     * @param minSeek The largest gap between two ranges that are read together.
+     * @param maxSize The largest number of bytes read together, unless a single range is larger.
+     * @return The bytes of each range, in the order of the ranges.
+     */
+    public static List<Future<ByteBuffer>> read(final RandomAccessContent content, final List<FileRange> ranges,
+            final Executor executor, final int minSeek, final int maxSize) {
+        final Integer[] order = new Integer[ranges.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = Integer.valueOf(i);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer o1, final Integer o2) {
+                final long offset1 = ranges.get(o1.intValue()).getOffset();
+                final long offset2 = ranges.get(o2.intValue()).getOffset();
+                return offset1 < offset2 ? -1 : offset1 == offset2 ? 0 : 1;
+            }
+        });
+
+        final List<Future<ByteBuffer>> results = new ArrayList<>(Collections.<Future<ByteBuffer>>nCopies(
+                order.length, null));
+        int first = 0;
+        while (first < order.length) {
+            final long start = ranges.get(order[first].intValue()).getOffset();
+            long end = ranges.get(order[first].intValue()).getEnd();
+            int last = first + 1;
+            while (last < order.length) {
+                final FileRange next = ranges.get(order[last].intValue());
+                final long mergedEnd = Math.max(end, next.getEnd());
+                if (next.getOffset() - end > minSeek || mergedEnd - start > maxSize) {
+                    break;
+                }
+                end = mergedEnd;
+                last++;
+            }
+
+            final FutureTask<ByteBuffer> read = new FutureTask<>(readTask(content, start, (int) (end - start)));
+            for (int i = first; i < last; i++) {
+                final FileRange range = ranges.get(order[i].intValue());
+                results.set(order[i].intValue(),
+                        new Slice(read, (int) (range.getOffset() - start), range.getLength()));
+            }
+            if (executor == null) {
+                read.run();
+            } else {
+                executor.execute(read);
+            }
+            first = last;
+        }
+        return results;
+    }
+
+    private static Callable<ByteBuffer> readTask(final RandomAccessContent content, final long start,
+            final int length) {
+        return new Callable<ByteBuffer>() {
+            @Override
+            public ByteBuffer call() throws Exception {
+                final ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                    if (content.read(start + buffer.position(), buffer) < 0) {
+                        throw new EOFException("Range [" + start + ", " + (start + length)
+                                + ") reaches beyond the end of the content");
+                    }
+                }
+                return buffer;
+            }
+        };
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
@@ -38,6 +39,7 @@ import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.BoundedInputStream;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.Messages;
 import org.apache.commons.vfs2.util.MonitorInputStream;
@@ -378,24 +380,55 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
     @Override
     protected void doDelete() throws Exception {
         synchronized (getFileSystem()) {
-            final boolean ok;
             final FtpClient ftpClient = getAbstractFileSystem().getClient();
             try {
-                if (this.fileInfo.isDirectory()) {
-                    ok = ftpClient.removeDirectory(relPath);
-                } else {
-                    ok = ftpClient.deleteFile(relPath);
-                }
+                doDelete(ftpClient);
             } finally {
                 getAbstractFileSystem().putClient(ftpClient);
             }
+        }
+    }
 
-            if (!ok) {
-                throw new FileSystemException("vfs.provider.ftp/delete-file.error", getName());
-            }
-            this.fileInfo = null;
-            children = EMPTY_FTP_FILE_MAP;
+    /**
+     * Deletes the file using the given client.
+     */
+    void doDelete(final FtpClient ftpClient) throws Exception {
+        if (this.fileInfo == null) {
+            getInfo(false);
+        }
+        final boolean ok;
+        if (this.fileInfo.isDirectory()) {
+            ok = ftpClient.removeDirectory(relPath);
+        } else {
+            ok = ftpClient.deleteFile(relPath);
+        }
+
+        if (!ok) {
+            throw new FileSystemException("vfs.provider.ftp/delete-file.error", getName());
+        }
+        this.fileInfo = null;
+        children = EMPTY_FTP_FILE_MAP;
+    }
+
+    /**
+     * Files on the same server are renamed by the server, even if they belong to another file system.
+     */
+    @Override
+    public boolean canRenameTo(final FileObject newfile) {
+        return isOnSameServer(newfile);
+    }
+
+    /**
+     * Also requires the same user directory setting, as paths are relative to the root directory.
+     */
+    @Override
+    protected boolean isOnSameServer(final FileObject file) {
+        if (!super.isOnSameServer(file)) {
+            return false;
         }
+        final FtpFileSystemConfigBuilder builder = FtpFileSystemConfigBuilder.getInstance();
+        return Objects.equals(builder.getUserDirIsRoot(getFileSystem().getFileSystemOptions()),
+                builder.getUserDirIsRoot(file.getFileSystem().getFileSystemOptions()));
     }
 
     /**
@@ -544,6 +577,26 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
         return linkDest.getName().getPathDecoded().equals(this.getName().getPathDecoded());
     }
 
+    /**
+     * Reads a range of the content with a {@code REST} command. The transfer is aborted if it is closed before the end
+     * of the file.
+     */
+    @Override
+    protected InputStream doGetInputStream(final long offset, final long length) throws Exception {
+        final boolean toEnd = offset + length >= getContent().getSize();
+        final FtpInputStream instr = getInputStream(offset);
+        return new BoundedInputStream(instr, length) {
+            @Override
+            public void close() throws IOException {
+                if (toEnd && getRemaining() <= 0) {
+                    instr.close();
+                } else {
+                    instr.abort();
+                }
+            }
+        };
+    }
+
     FtpInputStream getInputStream(final long filePointer) throws IOException {
         final FtpClient client = getAbstractFileSystem().getClient();
         try {
@@ -18,6 +18,7 @@ package org.apache.commons.vfs2.provider.ftp;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
@@ -28,6 +29,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.VfsLog;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.GenericFileName;
 
@@ -134,6 +136,33 @@ public class FtpFileSystem extends AbstractFileSystem {
         }
     }
 
+    /**
+     * Deletes the files with a single client instead of taking one from the pool for each file.
+     */
+    @Override
+    protected int deleteFiles(final List<AbstractFileObject<?>> files) throws FileSystemException {
+        synchronized (this) {
+            final FtpClient ftpClient = getClient();
+            int count = 0;
+            try {
+                for (final AbstractFileObject<?> file : files) {
+                    try {
+                        ((FtpFileObject) file).doDelete(ftpClient);
+                    } catch (final RuntimeException re) {
+                        throw re;
+                    } catch (final Exception e) {
+                        throw new FileSystemException("vfs.provider/delete.error", e, file.getName());
+                    }
+                    fileDeleted(file);
+                    count++;
+                }
+            } finally {
+                putClient(ftpClient);
+            }
+            return count;
+        }
+    }
+
     /**
      * Creates a file object.
      */
@@ -108,6 +108,23 @@ class FtpRandomAccessContent extends AbstractRandomAccessStreamContent {
         return dis;
     }
 
+    /**
+     * Reads with its own connection, so that concurrent reads neither share nor disturb the stream of the file pointer.
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        final int count = available(position, len);
+        if (count <= 0) {
+            return count;
+        }
+        final FtpFileObject.FtpInputStream in = fileObject.getInputStream(position);
+        try {
+            return readRange(in, b, off, count);
+        } finally {
+            in.abort();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (dis != null) {
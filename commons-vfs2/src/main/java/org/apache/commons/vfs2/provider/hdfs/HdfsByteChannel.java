@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.hdfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+/**
+ * A read-only channel on an HDFS file. Reads go straight into the {@code ByteBuffer} when the underlying stream is
+ * {@link ByteBufferReadable}, as with the HDFS client.
+ */
+final class HdfsByteChannel implements SeekableByteChannel {
+
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+    private final FSDataInputStream in;
+    private final long size;
+    private final boolean byteBufferReadable;
+    private boolean open = true;
+
+    HdfsByteChannel(final FSDataInputStream in, final long size) {
+        this.in = in;
+        this.size = size;
+        this.byteBufferReadable = in.getWrappedStream() instanceof ByteBufferReadable;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public synchronized int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (byteBufferReadable) {
+            return in.read(dst);
+        }
+        if (dst.hasArray()) {
+            final int n = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+            return n;
+        }
+        final byte[] buffer = new byte[Math.min(dst.remaining(), TRANSFER_BUFFER_SIZE)];
+        final int n = in.read(buffer, 0, buffer.length);
+        if (n > 0) {
+            dst.put(buffer, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return in.getPos();
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        in.seek(Math.min(newPosition, size));
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long newSize) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (open) {
+            open = false;
+            in.close();
+        }
+    }
+}
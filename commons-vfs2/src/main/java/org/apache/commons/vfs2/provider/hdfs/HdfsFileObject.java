@@ -17,7 +17,10 @@
 package org.apache.commons.vfs2.provider.hdfs;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,7 +31,9 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -73,14 +78,35 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
      */
     @Override
     protected void doAttach() throws Exception {
+        // the status may have been set by the listing of the parent
+        if (this.stat == null) {
+            this.stat = getFileStatus();
+        }
+    }
+
+    /**
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doDetach()
+     */
+    @Override
+    protected void doDetach() throws Exception {
+        this.stat = null;
+    }
+
+    private FileStatus getFileStatus() throws IOException {
         try {
-            this.stat = this.hdfs.getFileStatus(this.path);
+            return this.hdfs.getFileStatus(this.path);
         } catch (final FileNotFoundException e) {
-            this.stat = null;
-            return;
+            return null;
         }
     }
 
+    /**
+     * Sets the status of this file, as listed by its parent.
+     */
+    private void setStat(final FileStatus stat) {
+        this.stat = stat;
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetAttributes()
      */
@@ -108,6 +134,34 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         return stat.getLen();
     }
 
+    /**
+     * Returns the checksum computed by HDFS if it uses the requested algorithm, such as
+     * {@code MD5-of-0MD5-of-512CRC32C}. HDFS checksums depend on the block layout, so they only compare files within
+     * HDFS.
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetDigest(String)
+     */
+    @Override
+    protected byte[] doGetDigest(final String algorithm) throws Exception {
+        if (!isHdfsChecksumAlgorithm(algorithm)) {
+            // spare the checksum of every block
+            return null;
+        }
+        final FileChecksum checksum = this.hdfs.getFileChecksum(this.path);
+        if (checksum != null && checksum.getAlgorithmName().equals(algorithm)) {
+            return checksum.getBytes();
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether a digest algorithm name may denote a checksum computed by HDFS, such as
+     * {@code MD5-of-0MD5-of-512CRC32C} or {@code COMPOSITE-CRC32C}.
+     */
+    private static boolean isHdfsChecksumAlgorithm(final String algorithm) {
+        return (algorithm.startsWith("MD5-of-") || algorithm.startsWith("COMPOSITE-")) && algorithm.contains("CRC32");
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetInputStream()
      */
@@ -139,6 +193,27 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         return new HdfsRandomAccessContent(this.path, this.hdfs);
     }
 
+    /**
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetSeekableByteChannel
+     *      (org.apache.commons.vfs2.util.RandomAccessMode)
+     */
+    @Override
+    protected SeekableByteChannel doGetSeekableByteChannel(final RandomAccessMode mode) throws Exception {
+        if (mode.requestWrite()) {
+            throw new UnsupportedOperationException();
+        }
+        final long size = this.stat != null ? this.stat.getLen() : this.hdfs.getFileStatus(this.path).getLen();
+        return new HdfsByteChannel(this.hdfs.open(this.path), size);
+    }
+
+    /**
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetReadableByteChannel()
+     */
+    @Override
+    protected ReadableByteChannel doGetReadableByteChannel() throws Exception {
+        return doGetSeekableByteChannel(RandomAccessMode.READ);
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetType()
      */
@@ -201,6 +276,8 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
     }
 
     /**
+     * Lists the children with their status, so that they do not ask the NameNode for it again.
+     *
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doListChildrenResolved()
      */
     @Override
@@ -208,11 +285,13 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         if (this.doGetType() != FileType.FOLDER) {
             return null;
         }
-        final String[] children = doListChildren();
-        final FileObject[] fo = new FileObject[children.length];
-        for (int i = 0; i < children.length; i++) {
-            final Path p = new Path(this.path, children[i]);
+        // HDFS fetches large listings from the NameNode in pages
+        final FileStatus[] files = this.hdfs.listStatus(this.path);
+        final FileObject[] fo = new FileObject[files.length];
+        for (int i = 0; i < files.length; i++) {
+            final Path p = new Path(this.path, files[i].getPath().getName());
             fo[i] = this.fs.resolveFile(p.toUri().toString());
+            ((HdfsFileObject) FileObjectUtils.getAbstractFileObject(fo[i])).setStat(files[i]);
         }
         return fo;
     }
@@ -248,10 +327,8 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
     @Override
     public boolean exists() throws FileSystemException {
         try {
-            doAttach();
+            this.stat = getFileStatus();
             return this.stat != null;
-        } catch (final FileNotFoundException fne) {
-            return false;
         } catch (final Exception e) {
             throw new FileSystemException("Unable to check existance ", e);
         }
@@ -66,6 +66,19 @@ public class HdfsRandomAccessContent extends AbstractRandomAccessContent {
         return this.fis.getPos();
     }
 
+    /**
+     * Reads with the positional read of the {@link FSDataInputStream}, which does not move the stream position.
+     *
+     * @see org.apache.commons.vfs2.RandomAccessContent#read(long, byte[], int, int)
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        return this.fis.read(position, b, off, len);
+    }
+
     /**
      * @see org.apache.commons.vfs2.RandomAccessContent#getInputStream()
      */
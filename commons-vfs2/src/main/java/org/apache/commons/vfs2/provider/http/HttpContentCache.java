@@ -0,0 +1,547 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+
+/**
+ * A read-through cache of HTTP response bodies kept on local disk.
+ * <p>
+ * Bodies of successful {@code GET} requests are written to files in the cache directory while the caller reads
+ * them. A later read of the same URI is answered from disk without contacting the server while the response is fresh
+ * according to its {@code Cache-Control: max-age} or {@code Expires} header. Stale entries are revalidated with
+ * {@code If-None-Match} and {@code If-Modified-Since}, so unchanged content only costs a {@code 304 Not Modified}
+ * response. Responses marked {@code Cache-Control: no-store} are never cached, {@code no-cache} ones are revalidated
+ * on every read.
+ * <p>
+ * The total size of the cached bodies is bounded; the least recently used entries are evicted first. The index is
+ * kept in memory, so the cache starts empty. One instance may be shared by several HTTP and WebDAV file systems.
+ *
+ * @see HttpFileSystemConfigBuilder#setContentCache
+ * @since 2.3
+ */
+public final class HttpContentCache {
+
+    /**
+     * A cached response body.
+     */
+    public static final class Entry {
+        private final File file;
+        private final long length;
+        private final String eTag;
+        private final String lastModified;
+        private final long expires;
+
+        Entry(final File file, final long length, final String eTag, final String lastModified, final long expires) {
+            this.file = file;
+            this.length = length;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        Entry withExpires(final long newExpires) {
+            return new Entry(file, length, eTag, lastModified, newExpires);
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Copies the response body to a cache file while it is read and adds the entry once the body was read completely,
+     * that is up to the end of the stream or up to its {@code Content-Length}.
+     */
+    private final class CachingInputStream extends FilterInputStream {
+        private final String uri;
+        private final String eTag;
+        private final String lastModified;
+        private final long expires;
+        private final long expectedLength;
+        private final File file;
+        private OutputStream out;
+        private long length;
+
+        CachingInputStream(final InputStream in, final String uri, final HttpResponse response, final long expires)
+                throws IOException {
+            super(in);
+            this.uri = uri;
+            this.eTag = getHeader(response, HttpHeaders.ETAG);
+            this.lastModified = getHeader(response, HttpHeaders.LAST_MODIFIED);
+            this.expires = expires;
+            this.expectedLength = response.getEntity() != null ? response.getEntity().getContentLength() : -1;
+            this.file = File.createTempFile(FILE_PREFIX, ".tmp", directory);
+            this.out = new FileOutputStream(file);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b == -1) {
+                commit();
+            } else {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int len) throws IOException {
+            final int count = super.read(buffer, offset, len);
+            if (count == -1) {
+                commit();
+            } else {
+                write(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // a gap in the copy makes it useless
+            abandon();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                // callers often stop reading after the announced length without reading the end of the stream
+                if (length == expectedLength) {
+                    commit();
+                } else {
+                    abandon();
+                }
+            }
+        }
+
+        private void write(final byte[] buffer, final int offset, final int count) {
+            if (out == null) {
+                return;
+            }
+            length += count;
+            if (length > maxSize) {
+                abandon();
+                return;
+            }
+            try {
+                out.write(buffer, offset, count);
+            } catch (final IOException e) {
+                log.debug("Could not write cache file " + file, e);
+                abandon();
+            }
+        }
+
+        private void commit() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (final IOException e) {
+                log.debug("Could not write cache file " + file, e);
+                abandon();
+                return;
+            }
+            out = null;
+            put(uri, new Entry(file, length, eTag, lastModified, expires));
+        }
+
+        private void abandon() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (final IOException e) {
+                // ignore, the file is deleted anyway
+            }
+            out = null;
+            delete(file);
+        }
+    }
+
+    private static final String FILE_PREFIX = "vfs_http_";
+
+    private final Log log = LogFactory.getLog(HttpContentCache.class);
+
+    private final File directory;
+    private final long maxSize;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // @GuardedBy("this")
+    private long size; // @GuardedBy("this")
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     * <p>
+     * Left-over cache files of an earlier instance in the same directory are deleted.
+     *
+     * @param directory The directory for the cached bodies, created if missing.
+     * @param maxSize The maximum total size of the cached bodies in bytes.
+     * @throws IOException if the directory cannot be created.
+     */
+    public HttpContentCache(final File directory, final long maxSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create cache directory " + directory);
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                if (file.getName().startsWith(FILE_PREFIX)) {
+                    delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cache directory.
+     *
+     * @return The directory.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the maximum total size of the cached bodies.
+     *
+     * @return The size in bytes.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the total size of the cached bodies.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of cached bodies.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how many reads were answered from disk without contacting the server.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many reads were answered from disk after the server confirmed the content was not modified.
+     *
+     * @return The number of revalidations.
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * Returns how many reads had to download the content.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        final List<Entry> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(entries.values());
+            entries.clear();
+            size = 0;
+        }
+        for (final Entry entry : removed) {
+            delete(entry.file);
+        }
+    }
+
+    /**
+     * Removes the entry of a URI, for example because the resource was deleted or written.
+     *
+     * @param uri The URI.
+     */
+    public void remove(final String uri) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.remove(uri);
+            if (entry != null) {
+                size -= entry.length;
+            }
+        }
+        if (entry != null) {
+            delete(entry.file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "directory=" + directory + ", size=" + getSize() + ", entries=" + getEntryCount() + ", hits="
+                + getHitCount() + ", revalidations=" + getRevalidationCount() + ", misses=" + getMissCount();
+    }
+
+    /**
+     * Returns the entry of a URI.
+     *
+     * @param uri The URI.
+     * @return The entry or null.
+     */
+    public synchronized Entry get(final String uri) {
+        return entries.get(uri);
+    }
+
+    /**
+     * Returns whether an entry can be used without revalidation.
+     *
+     * @param entry The entry.
+     * @return true if the entry is fresh.
+     */
+    public boolean isFresh(final Entry entry) {
+        return System.currentTimeMillis() < entry.expires;
+    }
+
+    /**
+     * Opens a fresh entry.
+     *
+     * @param entry The entry.
+     * @return The stream or null if the cache file vanished.
+     */
+    public InputStream getInputStream(final Entry entry) {
+        final InputStream in = open(entry);
+        if (in != null) {
+            hits.incrementAndGet();
+        }
+        return in;
+    }
+
+    /**
+     * Adds the validators of an entry to a request.
+     *
+     * @param request The {@code GET} request.
+     * @param entry The entry.
+     */
+    public void setConditionalHeaders(final HttpRequest request, final Entry entry) {
+        if (entry.eTag != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, entry.eTag);
+        }
+        if (entry.lastModified != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+    }
+
+    /**
+     * Opens an entry the server answered with {@code 304 Not Modified} and updates its freshness.
+     *
+     * @param uri The URI.
+     * @param entry The entry.
+     * @param response The {@code 304} response.
+     * @return The stream or null if the cache file vanished.
+     */
+    public InputStream getRevalidatedInputStream(final String uri, final Entry entry, final HttpResponse response) {
+        final InputStream in = open(entry);
+        if (in == null) {
+            return null;
+        }
+        revalidations.incrementAndGet();
+        final Entry updated = entry.withExpires(getExpires(response));
+        synchronized (this) {
+            if (entries.get(uri) == entry) {
+                entries.put(uri, updated);
+            }
+        }
+        return in;
+    }
+
+    /**
+     * Returns a stream that stores the body of a {@code 200} response while it is read.
+     *
+     * @param uri The URI.
+     * @param response The response.
+     * @param body The response body.
+     * @return The stream to hand out.
+     */
+    public InputStream store(final String uri, final HttpResponse response, final InputStream body) {
+        misses.incrementAndGet();
+        remove(uri);
+
+        final String cacheControl = getCacheControl(response);
+        if (cacheControl.contains("no-store")) {
+            return body;
+        }
+        final long expires = getExpires(response);
+        if (expires == 0 && getHeader(response, HttpHeaders.ETAG) == null
+                && getHeader(response, HttpHeaders.LAST_MODIFIED) == null) {
+            // could neither be served fresh nor be revalidated
+            return body;
+        }
+        if (response.getEntity() != null && response.getEntity().getContentLength() > maxSize) {
+            return body;
+        }
+        try {
+            return new CachingInputStream(body, uri, response, expires);
+        } catch (final IOException e) {
+            log.debug("Could not create cache file in " + directory, e);
+            return body;
+        }
+    }
+
+    private void put(final String uri, final Entry entry) {
+        final List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            final Entry old = entries.put(uri, entry);
+            if (old != null) {
+                size -= old.length;
+                evicted.add(old);
+            }
+            size += entry.length;
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                final Entry eldest = iterator.next();
+                iterator.remove();
+                size -= eldest.length;
+                evicted.add(eldest);
+            }
+        }
+        for (final Entry old : evicted) {
+            delete(old.file);
+        }
+    }
+
+    private InputStream open(final Entry entry) {
+        try {
+            return new FileInputStream(entry.file);
+        } catch (final IOException e) {
+            // evicted meanwhile
+            return null;
+        }
+    }
+
+    private void delete(final File file) {
+        if (!file.delete() && file.exists()) {
+            log.debug("Could not delete cache file " + file);
+        }
+    }
+
+    /**
+     * Computes until when a response is fresh, 0 if it must be revalidated right away.
+     */
+    private static long getExpires(final HttpResponse response) {
+        final String cacheControl = getCacheControl(response);
+        if (cacheControl.contains("no-cache") || cacheControl.contains("no-store")) {
+            return 0;
+        }
+        final int maxAgeIndex = cacheControl.indexOf("max-age=");
+        if (maxAgeIndex >= 0) {
+            int end = maxAgeIndex + "max-age=".length();
+            final int start = end;
+            while (end < cacheControl.length() && Character.isDigit(cacheControl.charAt(end))) {
+                end++;
+            }
+            try {
+                return System.currentTimeMillis() + Long.parseLong(cacheControl.substring(start, end)) * 1000;
+            } catch (final NumberFormatException e) {
+                return 0;
+            }
+        }
+        final String expires = getHeader(response, HttpHeaders.EXPIRES);
+        if (expires != null) {
+            final Date expiresDate = DateUtils.parseDate(expires);
+            final String date = getHeader(response, HttpHeaders.DATE);
+            final Date dateDate = date != null ? DateUtils.parseDate(date) : null;
+            if (expiresDate != null) {
+                // relative to the server clock
+                final long serverNow = dateDate != null ? dateDate.getTime() : System.currentTimeMillis();
+                return Math.max(0, System.currentTimeMillis() + expiresDate.getTime() - serverNow);
+            }
+        }
+        return 0;
+    }
+
+    private static String getCacheControl(final HttpResponse response) {
+        final StringBuilder buffer = new StringBuilder();
+        for (final Header header : response.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+            buffer.append(header.getValue().toLowerCase(Locale.ENGLISH)).append(',');
+        }
+        return buffer.toString();
+    }
+
+    private static String getHeader(final HttpResponse response, final String name) {
+        final Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.URLFileName;
+import org.apache.commons.vfs2.util.BoundedInputStream;
 import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -75,6 +76,7 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
     private final String urlCharset;
     private final String userAgent;
     private final boolean followRedirect;
+    private final HttpContentCache contentCache;
 
     private HttpResponse headResponse;
 
@@ -89,6 +91,7 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
         urlCharset = builder.getUrlCharset(fileSystemOptions);
         userAgent = builder.getUserAgent(fileSystemOptions);
         followRedirect = builder.getFollowRedirect(fileSystemOptions);
+        contentCache = builder.getContentCache(fileSystemOptions);
         headResponse = null;
     }
 
@@ -106,7 +109,8 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
     @Override
     protected long doGetContentSize() throws Exception {
         if (headResponse == null) {
-            return 0;
+            final HttpContentCache.Entry entry = getFreshCacheEntry();
+            return entry != null ? entry.getLength() : 0;
         }
         
         final Header[] headers = headResponse.getHeaders("content-length");
@@ -130,21 +134,89 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
      */
     @Override
     protected InputStream doGetInputStream() throws Exception {
+        if (contentCache == null) {
+            return getInputStream(null);
+        }
+
+        final HttpContentCache.Entry entry = contentCache.get(getName().getURI());
+        if (entry != null && contentCache.isFresh(entry)) {
+            final InputStream cached = contentCache.getInputStream(entry);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return getInputStream(entry);
+    }
+
+    /**
+     * Returns the cache entry of this file if it can be used without asking the server.
+     */
+    private HttpContentCache.Entry getFreshCacheEntry() {
+        if (contentCache == null) {
+            return null;
+        }
+        final HttpContentCache.Entry entry = contentCache.get(getName().getURI());
+        return entry != null && contentCache.isFresh(entry) ? entry : null;
+    }
+
+    /**
+     * Issues the {@code GET} request, conditional if there is a cache entry.
+     */
+    private InputStream getInputStream(final HttpContentCache.Entry entry) throws Exception {
         final HttpGet getMethod = new HttpGet();
         setupMethod(getMethod);
-        
+        if (entry != null) {
+            contentCache.setConditionalHeaders(getMethod, entry);
+        }
+
         HttpResponse getResponse = getAbstractFileSystem().getClient().execute(getMethod);
         
         final int status = getResponse.getStatusLine().getStatusCode();
-                
+
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+            closeResponse(getResponse);
+            final InputStream cached = contentCache.getRevalidatedInputStream(getName().getURI(), entry, getResponse);
+            return cached != null ? cached : getInputStream(null);
+        }
         if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            closeResponse(getResponse);
+            if (contentCache != null) {
+                contentCache.remove(getName().getURI());
+            }
             throw new FileNotFoundException(getName());
         }
         if (status != HttpURLConnection.HTTP_OK) {
+            closeResponse(getResponse);
             throw new FileSystemException("vfs.provider.http/get.error", getName(), Integer.valueOf(status));
         }
 
-        return new HttpInputStream(getResponse);
+        final InputStream in = new HttpInputStream(getResponse);
+        return contentCache != null ? contentCache.store(getName().getURI(), getResponse, in) : in;
+    }
+
+    /**
+     * Reads a range of the content with a bounded {@code Range} request, so that the stream ends with the range.
+     */
+    @Override
+    protected InputStream doGetInputStream(final long offset, final long length) throws Exception {
+        final HttpGet getMethod = new HttpGet();
+        setupMethod(getMethod);
+        getMethod.setHeader("Range", "bytes=" + offset + "-" + (offset + length - 1));
+        final HttpResponse response = getAbstractFileSystem().getClient().execute(getMethod);
+        final int status = response.getStatusLine().getStatusCode();
+        if (status != HttpURLConnection.HTTP_PARTIAL) {
+            // also when the server ignores the range, to avoid reading the whole file
+            closeResponse(response);
+            throw new FileSystemException("vfs.provider.http/get-range.error", getName(), Long.valueOf(offset),
+                    Integer.valueOf(status));
+        }
+        return new BoundedInputStream(new HttpInputStream(response), length);
+    }
+
+    private static void closeResponse(final HttpResponse response) throws IOException {
+        if (response instanceof CloseableHttpResponse) {
+            ((CloseableHttpResponse) response).close();
+        }
     }
 
     /**
@@ -155,7 +227,9 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
     @Override
     protected long doGetLastModifiedTime() throws Exception {
         if (headResponse == null) {
-            return 0;
+            final HttpContentCache.Entry entry = getFreshCacheEntry();
+            return entry != null && entry.getLastModified() != null
+                    ? DateUtils.parseDate(entry.getLastModified()).getTime() : 0;
         }
         
         final Header[] headers = headResponse.getHeaders("last-modified");
@@ -165,6 +239,19 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
         return DateUtils.parseDate(headers[0].getValue()).getTime();
     }
 
+    /**
+     * Returns the ETag header of the HEAD response.
+     */
+    @Override
+    protected String doGetEntityTag() throws Exception {
+        if (headResponse == null) {
+            final HttpContentCache.Entry entry = getFreshCacheEntry();
+            return entry != null ? entry.getETag() : null;
+        }
+        final Header header = headResponse.getFirstHeader("ETag");
+        return header != null ? header.getValue() : null;
+    }
+
     @Override
     protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
         return new HttpRandomAccessContent<>(this, mode);
@@ -176,6 +263,11 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
      */
     @Override
     protected FileType doGetType() throws Exception {
+        if (getFreshCacheEntry() != null) {
+            // the content was downloaded recently, no need to ask the server
+            return FileType.FILE;
+        }
+
         // Use the HEAD method to probe the file.
         HttpResponse headResponse = getHeadResponse();
         final int status = headResponse.getStatusLine().getStatusCode();
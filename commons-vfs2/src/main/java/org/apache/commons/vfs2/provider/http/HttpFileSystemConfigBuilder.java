@@ -60,6 +60,8 @@ public class HttpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final String KEY_PREEMPTIVE_AUTHENTICATION = "preemptiveAuth";
 
+    private static final String KEY_CONTENT_CACHE = "contentCache";
+
     /**
      * Creates new config builder.
      *
@@ -574,7 +576,31 @@ public class HttpFileSystemConfigBuilder extends FileSystemConfigBuilder {
      * @return enabled ciphers (null for system defaults)
      */
     public String[] getEnabledSSLCipherSuites(final FileSystemOptions opts) {
-        return (String[])getParam(opts, "sslCipherSuites");        
+        return (String[])getParam(opts, "sslCipherSuites");
+    }
+
+    /**
+     * Sets the disk cache for file content. Content read through the file system is kept in the cache and revalidated
+     * with conditional requests. The same cache may be set on several file systems.
+     *
+     * @param opts The FileSystem options.
+     * @param contentCache The cache, or null to always download the content.
+     * @since 2.3
+     */
+    public void setContentCache(final FileSystemOptions opts, final HttpContentCache contentCache) {
+        setParam(opts, KEY_CONTENT_CACHE, contentCache);
+    }
+
+    /**
+     * Gets the disk cache for file content.
+     *
+     * @param opts The FileSystem options.
+     * @return The cache, or null if content is not cached.
+     * @see #setContentCache
+     * @since 2.3
+     */
+    public HttpContentCache getContentCache(final FileSystemOptions opts) {
+        return (HttpContentCache) getParam(opts, KEY_CONTENT_CACHE);
     }
 
     @Override
@@ -19,6 +19,7 @@ package org.apache.commons.vfs2.provider.http;
 import java.io.DataInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 
 import org.apache.commons.vfs2.FileSystemException;
@@ -128,6 +129,41 @@ class HttpRandomAccessContent<FS extends HttpFileSystem> extends AbstractRandomA
         return dis;
     }
 
+    /**
+     * Reads with its own GET request for exactly the requested range, so that concurrent reads neither share nor
+     * disturb the stream of the file pointer.
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        final int count = available(position, len);
+        if (count <= 0) {
+            return count;
+        }
+
+        final HttpGet getMethod = new HttpGet();
+        fileObject.setupMethod(getMethod);
+        getMethod.setHeader("Range", "bytes=" + position + "-" + (position + count - 1));
+
+        final HttpResponse response = fileSystem.getClient().execute(getMethod);
+        final int status = response.getStatusLine().getStatusCode();
+        if (status != HttpURLConnection.HTTP_PARTIAL && status != HttpURLConnection.HTTP_OK) {
+            throw new FileSystemException("vfs.provider.http/get-range.error", fileObject.getName(),
+                    Long.valueOf(position), Integer.valueOf(status));
+        }
+
+        final InputStream in = new HttpFileObject.HttpInputStream(response);
+        try {
+            // If the range request was ignored
+            if (status == HttpURLConnection.HTTP_OK && in.skip(position) != position) {
+                throw new FileSystemException("vfs.provider.http/get-range.error", fileObject.getName(),
+                        Long.valueOf(position), Integer.valueOf(status));
+            }
+            return readRange(in, b, off, count);
+        } finally {
+            in.close();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (dis != null) {
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.jar.Attributes;
 import java.util.jar.Attributes.Name;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
@@ -42,7 +43,8 @@ public class JarFileSystem extends ZipFileSystem {
 
     protected JarFileSystem(final AbstractFileName rootName, final FileObject file,
             final FileSystemOptions fileSystemOptions) throws FileSystemException {
-        super(rootName, file, fileSystemOptions);
+        // manifests and signatures are read through JarFile
+        super(rootName, file, fileSystemOptions, false);
     }
 
     // @Override
@@ -60,6 +62,14 @@ public class JarFileSystem extends ZipFileSystem {
         }
     }
 
+    /**
+     * Creates a {@link JarEntry}, as {@link JarFileObject} expects.
+     */
+    @Override
+    protected ZipEntry createZipEntry(final String name) {
+        return new JarEntry(name);
+    }
+
     @Override
     protected ZipFileObject createZipFileObject(final AbstractFileName name, final ZipEntry entry)
             throws FileSystemException {
@@ -73,11 +83,14 @@ public class JarFileSystem extends ZipFileSystem {
     protected void addCapabilities(final Collection<Capability> caps) {
         // super.addCapabilities(caps);
         caps.addAll(JarFileProvider.capabilities);
+        addWriteCapabilities(caps);
     }
 
     Attributes getAttributes() throws IOException {
         if (attributes == null) {
-            final Manifest man = ((JarFile) getZipFile()).getManifest();
+            // a new archive has no manifest until it is written
+            final ZipFile zipFile = getZipFile();
+            final Manifest man = zipFile != null ? ((JarFile) zipFile).getManifest() : null;
             if (man == null) {
                 attributes = new Attributes(1);
             } else {
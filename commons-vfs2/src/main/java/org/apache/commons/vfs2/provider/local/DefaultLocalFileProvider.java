@@ -25,6 +25,7 @@ import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractOriginatingFileProvider;
@@ -113,4 +114,9 @@ public class DefaultLocalFileProvider extends AbstractOriginatingFileProvider im
     public Collection<Capability> getCapabilities() {
         return capabilities;
     }
+
+    @Override
+    public FileSystemConfigBuilder getConfigBuilder() {
+        return LocalFileSystemConfigBuilder.getInstance();
+    }
 }
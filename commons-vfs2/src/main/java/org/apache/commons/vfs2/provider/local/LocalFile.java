@@ -22,14 +22,21 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.DigestUtils;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
@@ -37,6 +44,8 @@ import org.apache.commons.vfs2.util.RandomAccessMode;
  * A file object implementation which uses direct file access.
  */
 public class LocalFile extends AbstractFileObject<LocalFileSystem> {
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
     private final String rootFile;
 
     private File file;
@@ -231,11 +240,79 @@ public class LocalFile extends AbstractFileObject<LocalFileSystem> {
         return file.length();
     }
 
+    /**
+     * Computes the digest of the content, or returns the one cached since the file last changed.
+     */
+    @Override
+    protected byte[] doGetDigest(final String algorithm) throws Exception {
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        final byte[] cached = getAbstractFileSystem().getCachedDigest(file, size, lastModified, algorithm);
+        if (cached != null) {
+            return cached;
+        }
+
+        final MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        final byte[] digest;
+        final InputStream input = new FileInputStream(file);
+        try {
+            digest = DigestUtils.digest(messageDigest, input, DIGEST_BUFFER_SIZE);
+        } finally {
+            input.close();
+        }
+        if (file.length() == size && file.lastModified() == lastModified) {
+            // not modified while reading
+            getAbstractFileSystem().putCachedDigest(file, size, lastModified, algorithm, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Forgets the cached digests when the file is written or deleted.
+     */
+    @Override
+    protected void onChange() throws Exception {
+        if (file != null) {
+            getAbstractFileSystem().removeCachedDigests(file);
+        }
+    }
+
     @Override
     protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
+        if (!mode.requestWrite()) {
+            final LocalFileSystemConfigBuilder builder = LocalFileSystemConfigBuilder.getInstance();
+            final FileSystemOptions opts = getFileSystem().getFileSystemOptions();
+            if (builder.isMappedRandomAccess(opts)) {
+                return new MappedLocalFileRandomAccessContent(file, builder.getMappedWindowSize(opts));
+            }
+        }
         return new LocalFileRandomAccessContent(file, mode);
     }
 
+    /**
+     * Creates a {@link java.nio.channels.FileChannel} to access the file content.
+     */
+    @Override
+    protected SeekableByteChannel doGetSeekableByteChannel(final RandomAccessMode mode) throws Exception {
+        return new RandomAccessFile(file, mode.getModeString()).getChannel();
+    }
+
+    /**
+     * Creates a {@link java.nio.channels.FileChannel} to read the content from.
+     */
+    @Override
+    protected ReadableByteChannel doGetReadableByteChannel() throws Exception {
+        return new FileInputStream(file).getChannel();
+    }
+
+    /**
+     * Creates a {@link java.nio.channels.FileChannel} to write the file content to.
+     */
+    @Override
+    protected WritableByteChannel doGetWritableByteChannel(final boolean bAppend) throws Exception {
+        return new FileOutputStream(file.getPath(), bAppend).getChannel();
+    }
+
     @Override
     protected boolean doIsSameFile(final FileObject destFile) throws FileSystemException {
         if (!FileObjectUtils.isInstanceOf(destFile, LocalFile.class)) {
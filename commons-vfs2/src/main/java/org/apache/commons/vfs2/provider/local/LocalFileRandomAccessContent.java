@@ -22,6 +22,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.provider.AbstractRandomAccessContent;
@@ -246,6 +247,19 @@ class LocalFileRandomAccessContent extends AbstractRandomAccessContent {
         raf.writeUTF(str);
     }
 
+    /**
+     * Reads through the {@link java.nio.channels.FileChannel} of the file, which does not use the file pointer.
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        return read(position, ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        return raf.getChannel().read(dst, position);
+    }
+
     @Override
     public InputStream getInputStream() throws IOException {
         return rafis;
@@ -18,7 +18,20 @@ package org.apache.commons.vfs2.provider.local;
 
 import java.io.File;
 import java.io.FilePermission;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileName;
@@ -26,7 +39,9 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 
@@ -34,8 +49,67 @@ import org.apache.commons.vfs2.util.FileObjectUtils;
  * A local file system.
  */
 public class LocalFileSystem extends AbstractFileSystem {
+
+    /**
+     * The number of files from which {@link #deleteFiles(List)} removes plain files in parallel.
+     */
+    static final int PARALLEL_DELETE_THRESHOLD = 64;
+
+    private static final int PARALLEL_DELETE_THREADS = Math.max(2,
+            Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * Shared by all local file systems, its daemon threads go away while there is nothing to delete.
+     */
+    private static final ThreadPoolExecutor DELETE_EXECUTOR = createDeleteExecutor();
+
+    /**
+     * The number of files whose digests are cached.
+     */
+    private static final int DIGEST_CACHE_SIZE = 1024;
+
+    /**
+     * The digests of a file, valid while its size and last modified time do not change.
+     */
+    private static final class CachedDigests {
+        private final long size;
+        private final long lastModified;
+        private final Map<String, byte[]> digests = new HashMap<>();
+
+        CachedDigests(final long size, final long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final Map<String, CachedDigests> digestCache = new LinkedHashMap<String, CachedDigests>(16, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedDigests> eldest) {
+            return size() > DIGEST_CACHE_SIZE;
+        }
+    }; // @GuardedBy("digestCache")
+
     private final String rootFile;
 
+    private static ThreadPoolExecutor createDeleteExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLEL_DELETE_THREADS, PARALLEL_DELETE_THREADS, 60,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "vfs-delete-" + THREAD_COUNT.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public LocalFileSystem(final FileName rootName, final String rootFile, final FileSystemOptions opts) {
         super(rootName, null, opts);
         this.rootFile = rootFile;
@@ -47,6 +121,9 @@ public class LocalFileSystem extends AbstractFileSystem {
     @Override
     protected FileObject createFile(final AbstractFileName name) throws FileSystemException {
         // Create the file
+        if (LocalFileSystemConfigBuilder.getInstance().isNioFileAccess(getFileSystemOptions())) {
+            return new NioLocalFile(this, rootFile, name);
+        }
         return new LocalFile(this, rootFile, name);
     }
 
@@ -58,6 +135,146 @@ public class LocalFileSystem extends AbstractFileSystem {
         caps.addAll(DefaultLocalFileProvider.capabilities);
     }
 
+    /**
+     * Deletes large batches by removing the plain files in parallel, then the folders deepest first.
+     */
+    @Override
+    protected int deleteFiles(final List<AbstractFileObject<?>> files) throws FileSystemException {
+        if (files.size() < PARALLEL_DELETE_THRESHOLD) {
+            return super.deleteFiles(files);
+        }
+
+        final List<AbstractFileObject<?>> plainFiles = new ArrayList<>(files.size());
+        final List<AbstractFileObject<?>> folders = new ArrayList<>();
+        for (final AbstractFileObject<?> file : files) {
+            final FileType type = file.getType();
+            if (type.hasChildren()) {
+                folders.add(file);
+            } else if (type != FileType.IMAGINARY) {
+                plainFiles.add(file);
+            }
+        }
+
+        int count = plainFiles.isEmpty() ? 0 : deleteInParallel(plainFiles);
+        if (Thread.currentThread().isInterrupted()) {
+            return count;
+        }
+        if (!folders.isEmpty()) {
+            count += super.deleteFiles(folders);
+        }
+        return count;
+    }
+
+    /**
+     * Deletes plain files on the shared delete threads. If the calling thread is interrupted, the files that are not
+     * deleted yet are left in place and the interrupt status is set again.
+     */
+    private int deleteInParallel(final List<AbstractFileObject<?>> files) throws FileSystemException {
+        final int size = files.size();
+        final boolean[] deleted = new boolean[size];
+        final FileSystemException[] errors = new FileSystemException[size];
+        final int tasks = Math.min(PARALLEL_DELETE_THREADS, size);
+        final CountDownLatch done = new CountDownLatch(tasks);
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<RuntimeException> error = new AtomicReference<>();
+        for (int t = 0; t < tasks; t++) {
+            final int first = t;
+            DELETE_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = first; i < size && !stop.get(); i += tasks) {
+                            try {
+                                deleteUnlocked(files.get(i));
+                                deleted[i] = true;
+                            } catch (final FileSystemException e) {
+                                errors[i] = e;
+                            }
+                        }
+                    } catch (final RuntimeException e) {
+                        error.compareAndSet(null, e);
+                        stop.set(true);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        // Wait for the running deletes even if interrupted, so the removed files are known
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+                stop.set(true);
+            }
+        }
+
+        // Report the removed files, and the first failure, if any
+        int count = 0;
+        FileSystemException failure = null;
+        for (int i = 0; i < size; i++) {
+            final AbstractFileObject<?> file = files.get(i);
+            if (deleted[i]) {
+                fileDeleted(file);
+                count++;
+            } else if (failure == null && errors[i] != null) {
+                failure = errors[i];
+            } else if (failure == null && error.get() != null) {
+                failure = new FileSystemException("vfs.provider/delete.error", error.get(), file.getName());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            return count;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the cached digest of a file, if it has not changed since.
+     */
+    byte[] getCachedDigest(final File file, final long size, final long lastModified, final String algorithm) {
+        synchronized (digestCache) {
+            final CachedDigests cached = digestCache.get(file.getPath());
+            if (cached == null || cached.size != size || cached.lastModified != lastModified) {
+                return null;
+            }
+            final byte[] digest = cached.digests.get(algorithm);
+            return digest != null ? digest.clone() : null;
+        }
+    }
+
+    /**
+     * Caches the digest of a file with the size and last modified time it was computed for.
+     */
+    void putCachedDigest(final File file, final long size, final long lastModified, final String algorithm,
+            final byte[] digest) {
+        synchronized (digestCache) {
+            CachedDigests cached = digestCache.get(file.getPath());
+            if (cached == null || cached.size != size || cached.lastModified != lastModified) {
+                cached = new CachedDigests(size, lastModified);
+                digestCache.put(file.getPath(), cached);
+            }
+            cached.digests.put(algorithm, digest.clone());
+        }
+    }
+
+    /**
+     * Forgets the digests of a file.
+     */
+    void removeCachedDigests(final File file) {
+        synchronized (digestCache) {
+            digestCache.remove(file.getPath());
+        }
+    }
+
     /**
      * Creates a temporary local copy of a file and its descendants.
      */
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local;
+
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
+import org.apache.commons.vfs2.FileSystemOptions;
+
+/**
+ * Config Builder for the local filesystem.
+ *
+ * @since 2.3
+ */
+public final class LocalFileSystemConfigBuilder extends FileSystemConfigBuilder {
+
+    /** The default size of the windows of a memory-mapped random access content, 64 MiB. */
+    public static final int DEFAULT_MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final String MAPPED_RANDOM_ACCESS = "mappedRandomAccess";
+
+    private static final String MAPPED_WINDOW_SIZE = "mappedWindowSize";
+
+    private static final String NIO_FILE_ACCESS = "nioFileAccess";
+
+    /** config builder SINGLETON. */
+    private static final LocalFileSystemConfigBuilder SINGLETON = new LocalFileSystemConfigBuilder();
+
+    private LocalFileSystemConfigBuilder() {
+        super("file.");
+    }
+
+    /**
+     * Gets the singleton builder.
+     *
+     * @return the singleton builder.
+     */
+    public static LocalFileSystemConfigBuilder getInstance() {
+        return SINGLETON;
+    }
+
+    @Override
+    protected Class<? extends FileSystem> getConfigClass() {
+        return LocalFileSystem.class;
+    }
+
+    /**
+     * Sets whether random access content opened for reading serves its reads from memory-mapped windows of the file
+     * instead of one system call per read.
+     * <p>
+     * This is faster for many small random reads. Random access content opened for writing is not affected. The
+     * mapped memory is released when the windows are garbage collected, which may keep the file locked on Windows
+     * after the content is closed.
+     *
+     * @param opts The FileSystem options.
+     * @param mapped true to map the file, null or false to read through {@link java.io.RandomAccessFile}.
+     * @see #setMappedWindowSize(FileSystemOptions, Integer)
+     */
+    public void setMappedRandomAccess(final FileSystemOptions opts, final Boolean mapped) {
+        setParam(opts, MAPPED_RANDOM_ACCESS, mapped);
+    }
+
+    /**
+     * @see #setMappedRandomAccess(FileSystemOptions, Boolean)
+     * @param opts The FileSystem options.
+     * @return true if random access content is memory-mapped, false by default.
+     */
+    public boolean isMappedRandomAccess(final FileSystemOptions opts) {
+        return getBoolean(opts, MAPPED_RANDOM_ACCESS, false);
+    }
+
+    /**
+     * Sets the size of the windows a memory-mapped random access content maps at once. Larger files are mapped one
+     * window at a time.
+     *
+     * @param opts The FileSystem options.
+     * @param windowSize The size in bytes.
+     * @see #setMappedRandomAccess(FileSystemOptions, Boolean)
+     */
+    public void setMappedWindowSize(final FileSystemOptions opts, final Integer windowSize) {
+        setParam(opts, MAPPED_WINDOW_SIZE, windowSize);
+    }
+
+    /**
+     * @see #setMappedWindowSize(FileSystemOptions, Integer)
+     * @param opts The FileSystem options.
+     * @return The size in bytes, {@value #DEFAULT_MAPPED_WINDOW_SIZE} by default.
+     */
+    public int getMappedWindowSize(final FileSystemOptions opts) {
+        return getInteger(opts, MAPPED_WINDOW_SIZE, DEFAULT_MAPPED_WINDOW_SIZE);
+    }
+
+    /**
+     * Sets whether files read their attributes through {@link java.nio.file.Files#readAttributes} and list their
+     * children through a {@link java.nio.file.DirectoryStream}.
+     * <p>
+     * Type, size, last modified time and the POSIX or DOS attributes of a file are then read with one call and kept
+     * until the file is refreshed or changed through VFS, and listing a folder reads the attributes of all its
+     * children. This makes scanning large trees much faster, but changes made by other processes are only seen after
+     * {@link org.apache.commons.vfs2.FileObject#refresh()}.
+     *
+     * @param opts The FileSystem options.
+     * @param nio true to use {@link NioLocalFile}, null or false to read each attribute through {@link java.io.File}.
+     */
+    public void setNioFileAccess(final FileSystemOptions opts, final Boolean nio) {
+        setParam(opts, NIO_FILE_ACCESS, nio);
+    }
+
+    /**
+     * @see #setNioFileAccess(FileSystemOptions, Boolean)
+     * @param opts The FileSystem options.
+     * @return true if files use {@link java.nio.file}, false by default.
+     */
+    public boolean isNioFileAccess(final FileSystemOptions opts) {
+        return getBoolean(opts, NIO_FILE_ACCESS, false);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.provider.AbstractRandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Implements a read-only {@link org.apache.commons.vfs2.RandomAccessContent RandomAccessContent} for local files
+ * that reads from memory-mapped windows of the file.
+ * <p>
+ * Windows are aligned to multiples of the window size, so random reads inside a window do not remap. Files larger
+ * than 2 GB are mapped one window at a time.
+ *
+ * @see LocalFileSystemConfigBuilder#setMappedRandomAccess(org.apache.commons.vfs2.FileSystemOptions, Boolean)
+ */
+class MappedLocalFileRandomAccessContent extends AbstractRandomAccessContent {
+    private final FileChannel channel;
+    private final int windowSize;
+    private final InputStream inputStream;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    MappedLocalFileRandomAccessContent(final File localFile, final int windowSize) throws FileSystemException {
+        super(RandomAccessMode.READ);
+        this.windowSize = windowSize;
+
+        try {
+            channel = new RandomAccessFile(localFile, RandomAccessMode.READ.getModeString()).getChannel();
+        } catch (final FileNotFoundException e) {
+            throw new FileSystemException("vfs.provider/random-access-open-failed.error", localFile);
+        }
+        inputStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                if (position >= channel.size()) {
+                    return -1;
+                }
+                return readUnsignedByte();
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                final long available = channel.size() - position;
+                if (available <= 0) {
+                    return -1;
+                }
+                final int count = (int) Math.min(len, available);
+                readFully(b, off, count);
+                return count;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                position += n;
+                return n;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.max(0, Math.min(Integer.MAX_VALUE, channel.size() - position));
+            }
+
+            @Override
+            public void close() throws IOException {
+                MappedLocalFileRandomAccessContent.this.close();
+            }
+        };
+    }
+
+    /**
+     * Makes sure the current window holds the {@code count} bytes at the file pointer.
+     *
+     * @return The offset of the file pointer in the window.
+     */
+    private int map(final int count) throws IOException {
+        if (window == null || position < windowStart || position + count > windowStart + window.limit()) {
+            final long size = channel.size();
+            if (position + count > size) {
+                throw new EOFException();
+            }
+            // align the window, unless the bytes cross the boundary of an aligned window
+            long start = position - position % windowSize;
+            if (position + count > start + windowSize) {
+                start = position;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(Math.max(count, windowSize), size - start));
+            windowStart = start;
+        }
+        final int offset = (int) (position - windowStart);
+        position += count;
+        return offset;
+    }
+
+    @Override
+    public long getFilePointer() throws IOException {
+        return position;
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        if (pos < 0) {
+            throw new IOException("Negative seek offset");
+        }
+        position = pos;
+    }
+
+    @Override
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        // map first, it may replace the window
+        final int offset = map(1);
+        return window.get(offset);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        final int offset = map(2);
+        return window.getShort(offset);
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        final int offset = map(2);
+        return window.getChar(offset);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        final int offset = map(4);
+        return window.getInt(offset);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        final int offset = map(8);
+        return window.getLong(offset);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        final int offset = map(4);
+        return window.getFloat(offset);
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        final int offset = map(8);
+        return window.getDouble(offset);
+    }
+
+    @Override
+    public int skipBytes(final int n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final long newPosition = Math.min(position + n, channel.size());
+        final int skipped = (int) Math.max(0, newPosition - position);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public void readFully(final byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(final byte[] b, final int off, final int len) throws IOException {
+        if (position + len > channel.size()) {
+            throw new EOFException();
+        }
+        int done = 0;
+        while (done < len) {
+            // copy what the window holds, at least one byte so the next window gets mapped
+            final int count = window == null || position < windowStart || position >= windowStart + window.limit()
+                    ? 1 : (int) Math.min(len - done, windowStart + window.limit() - position);
+            final int offset = map(count);
+            ((Buffer) window).position(offset);
+            window.get(b, off + done, count);
+            done += count;
+        }
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    /**
+     * Reads through the {@link java.nio.channels.FileChannel} of the file, which does not use the file pointer.
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        return read(position, ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        return channel.read(dst, position);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return inputStream;
+    }
+
+    @Override
+    public void setLength(final long newLength) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+}
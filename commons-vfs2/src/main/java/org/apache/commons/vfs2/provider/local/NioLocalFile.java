@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+
+/**
+ * A local file that reads all its attributes with one {@link java.nio.file.Files#readAttributes} call per attach and
+ * lists its children with a {@link DirectoryStream}, prefilling their attributes.
+ * <p>
+ * The attributes reflect the file at the time it was attached or listed by its parent, until the file is refreshed or
+ * changed through this file object.
+ *
+ * @see LocalFileSystemConfigBuilder#setNioFileAccess(org.apache.commons.vfs2.FileSystemOptions, Boolean)
+ * @since 2.3
+ */
+public class NioLocalFile extends LocalFile {
+
+    /**
+     * The most detailed attribute view of the default file system.
+     */
+    private static final Class<? extends BasicFileAttributeView> VIEW_TYPE;
+
+    /**
+     * The attributes read through {@link #VIEW_TYPE}.
+     */
+    private static final Class<? extends BasicFileAttributes> ATTRIBUTES_TYPE;
+
+    static {
+        final Set<String> views = FileSystems.getDefault().supportedFileAttributeViews();
+        if (views.contains("posix")) {
+            VIEW_TYPE = PosixFileAttributeView.class;
+            ATTRIBUTES_TYPE = PosixFileAttributes.class;
+        } else if (views.contains("dos")) {
+            VIEW_TYPE = DosFileAttributeView.class;
+            ATTRIBUTES_TYPE = DosFileAttributes.class;
+        } else {
+            VIEW_TYPE = BasicFileAttributeView.class;
+            ATTRIBUTES_TYPE = BasicFileAttributes.class;
+        }
+    }
+
+    private Path path;
+
+    private boolean attributesRead;
+
+    /**
+     * The attributes of this file, null if it does not exist.
+     */
+    private BasicFileAttributes attributes;
+
+    /**
+     * Creates a non-root file.
+     *
+     * @param fileSystem the file system this file belongs to.
+     * @param rootFile the root file for the file system.
+     * @param name the file name on this file system.
+     * @throws FileSystemException if an error occurs.
+     */
+    protected NioLocalFile(final LocalFileSystem fileSystem, final String rootFile, final AbstractFileName name)
+            throws FileSystemException {
+        super(fileSystem, rootFile, name);
+    }
+
+    private Path getPath() {
+        if (path == null) {
+            path = getLocalFile().toPath();
+        }
+        return path;
+    }
+
+    private BasicFileAttributes getAttributes() throws IOException {
+        if (!attributesRead) {
+            setAttributes(readAttributes(getPath()));
+        }
+        return attributes;
+    }
+
+    private void setAttributes(final BasicFileAttributes attributes) {
+        this.attributes = attributes;
+        attributesRead = true;
+    }
+
+    private void clearAttributes() {
+        attributes = null;
+        attributesRead = false;
+    }
+
+    /**
+     * Reads the attributes of a file, following links like {@link java.io.File#exists()}.
+     *
+     * @return the attributes, null if the file does not exist or cannot be accessed.
+     */
+    private static BasicFileAttributes readAttributes(final Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, ATTRIBUTES_TYPE);
+        } catch (final java.nio.file.FileSystemException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the attributes of an entry of an open folder, relative to the folder.
+     */
+    private static BasicFileAttributes readAttributes(final SecureDirectoryStream<Path> folder, final Path entry)
+            throws IOException {
+        final BasicFileAttributeView view = folder.getFileAttributeView(entry.getFileName(), VIEW_TYPE);
+        if (view == null) {
+            return readAttributes(entry);
+        }
+        try {
+            return view.readAttributes();
+        } catch (final java.nio.file.FileSystemException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file's type.
+     */
+    @Override
+    protected FileType doGetType() throws Exception {
+        final BasicFileAttributes attrs = getAttributes();
+        if (attrs == null) {
+            return FileType.IMAGINARY;
+        }
+        // In doubt, treat an existing file as file
+        return attrs.isDirectory() ? FileType.FOLDER : FileType.FILE;
+    }
+
+    /**
+     * Lists the children with their attributes.
+     */
+    @Override
+    protected FileObject[] doListChildrenResolved() throws Exception {
+        final BasicFileAttributes attrs = getAttributes();
+        if (attrs == null || !attrs.isDirectory()) {
+            return null;
+        }
+
+        final List<FileObject> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(getPath())) {
+            final SecureDirectoryStream<Path> secureStream = stream instanceof SecureDirectoryStream
+                    ? (SecureDirectoryStream<Path>) stream : null;
+            for (final Path entry : stream) {
+                final FileObject child = getFileSystem().resolveFile(getFileSystem().getFileSystemManager()
+                        .resolveName(getName(), UriParser.encode(entry.getFileName().toString()), NameScope.CHILD));
+                final NioLocalFile localChild = (NioLocalFile) FileObjectUtils.getAbstractFileObject(child);
+                if (!localChild.isAttached()) {
+                    localChild.setAttributes(
+                            secureStream != null ? readAttributes(secureStream, entry) : readAttributes(entry));
+                }
+                children.add(child);
+            }
+        }
+        return children.toArray(new FileObject[children.size()]);
+    }
+
+    /**
+     * Returns the size of the file content (in bytes).
+     */
+    @Override
+    protected long doGetContentSize() throws Exception {
+        final BasicFileAttributes attrs = getAttributes();
+        return attrs != null ? attrs.size() : 0;
+    }
+
+    /**
+     * Gets the last modified time of this file.
+     */
+    @Override
+    protected long doGetLastModifiedTime() throws FileSystemException {
+        try {
+            final BasicFileAttributes attrs = getAttributes();
+            return attrs != null ? attrs.lastModifiedTime().toMillis() : 0;
+        } catch (final IOException e) {
+            throw new FileSystemException(e);
+        }
+    }
+
+    /**
+     * Determines if this file is hidden.
+     */
+    @Override
+    protected boolean doIsHidden() {
+        if (ATTRIBUTES_TYPE == DosFileAttributes.class) {
+            try {
+                final BasicFileAttributes attrs = getAttributes();
+                return attrs != null && ((DosFileAttributes) attrs).isHidden();
+            } catch (final IOException e) {
+                // fall through
+            }
+        }
+        // based on the name on other file systems
+        return super.doIsHidden();
+    }
+
+    /**
+     * Returns the times of the file and its POSIX owner, group and permissions or DOS flags.
+     */
+    @Override
+    protected Map<String, Object> doGetAttributes() throws Exception {
+        final BasicFileAttributes attrs = getAttributes();
+        if (attrs == null) {
+            return super.doGetAttributes();
+        }
+        final Map<String, Object> map = new HashMap<>();
+        map.put("creationTime", Long.valueOf(attrs.creationTime().toMillis()));
+        map.put("lastAccessTime", Long.valueOf(attrs.lastAccessTime().toMillis()));
+        if (attrs instanceof PosixFileAttributes) {
+            final PosixFileAttributes posix = (PosixFileAttributes) attrs;
+            map.put("owner", posix.owner().getName());
+            map.put("group", posix.group().getName());
+            map.put("permissions", PosixFilePermissions.toString(posix.permissions()));
+        } else if (attrs instanceof DosFileAttributes) {
+            final DosFileAttributes dos = (DosFileAttributes) attrs;
+            map.put("readOnly", Boolean.valueOf(dos.isReadOnly()));
+            map.put("hidden", Boolean.valueOf(dos.isHidden()));
+            map.put("system", Boolean.valueOf(dos.isSystem()));
+            map.put("archive", Boolean.valueOf(dos.isArchive()));
+        }
+        return map;
+    }
+
+    @Override
+    protected boolean doSetWritable(final boolean writable, final boolean ownerOnly) throws Exception {
+        clearAttributes();
+        return super.doSetWritable(writable, ownerOnly);
+    }
+
+    @Override
+    protected boolean doSetReadable(final boolean readable, final boolean ownerOnly) throws Exception {
+        clearAttributes();
+        return super.doSetReadable(readable, ownerOnly);
+    }
+
+    @Override
+    protected boolean doSetExecutable(final boolean executable, final boolean ownerOnly) throws Exception {
+        clearAttributes();
+        return super.doSetExecutable(executable, ownerOnly);
+    }
+
+    /**
+     * Sets the last modified time of this file.
+     */
+    @Override
+    protected boolean doSetLastModifiedTime(final long modtime) throws FileSystemException {
+        clearAttributes();
+        return super.doSetLastModifiedTime(modtime);
+    }
+
+    /**
+     * Forgets the attributes when the file is refreshed.
+     */
+    @Override
+    protected void doDetach() throws Exception {
+        clearAttributes();
+        super.doDetach();
+    }
+
+    /**
+     * Forgets the attributes when the file is written, created or deleted.
+     */
+    @Override
+    protected void onChange() throws Exception {
+        clearAttributes();
+        super.onChange();
+    }
+}
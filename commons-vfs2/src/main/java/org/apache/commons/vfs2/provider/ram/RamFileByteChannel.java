@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * A channel that transfers between {@code ByteBuffer}s and the content array of a RAM file, without intermediate
+ * buffers.
+ */
+final class RamFileByteChannel implements SeekableByteChannel {
+
+    private final RamFileObject file;
+    private final RandomAccessMode mode;
+    private long position;
+    private boolean open = true;
+
+    RamFileByteChannel(final RamFileObject file, final RandomAccessMode mode) {
+        this.file = file;
+        this.mode = mode;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public synchronized int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (!mode.requestRead()) {
+            throw new NonReadableChannelException();
+        }
+        final byte[] content = file.getData().getContent();
+        if (position >= content.length) {
+            return -1;
+        }
+        final int count = (int) Math.min(dst.remaining(), content.length - position);
+        dst.put(ByteBuffer.wrap(content, (int) position, count));
+        position += count;
+        return count;
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer src) throws IOException {
+        checkOpen();
+        if (!mode.requestWrite()) {
+            throw new NonWritableChannelException();
+        }
+        final int count = src.remaining();
+        final long end = position + count;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("RAM file size exceeded");
+        }
+        if (end > file.getData().getContent().length) {
+            file.resize(end);
+        }
+        src.get(file.getData().getContent(), (int) position, count);
+        file.getData().updateLastModified();
+        position = end;
+        return count;
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return file.getData().getContent().length;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel truncate(final long size) throws IOException {
+        checkOpen();
+        if (!mode.requestWrite()) {
+            throw new NonWritableChannelException();
+        }
+        if (size < file.getData().getContent().length) {
+            file.resize(size);
+        }
+        if (position > size) {
+            position = size;
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+    }
+}
@@ -20,6 +20,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -181,6 +183,16 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
         return new RamFileRandomAccessContent(this, mode);
     }
 
+    @Override
+    protected SeekableByteChannel doGetSeekableByteChannel(final RandomAccessMode mode) throws Exception {
+        return new RamFileByteChannel(this, mode);
+    }
+
+    @Override
+    protected ReadableByteChannel doGetReadableByteChannel() throws Exception {
+        return new RamFileByteChannel(this, RandomAccessMode.READ);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -23,6 +23,7 @@ import java.util.Collections;
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractOriginatingFileProvider;
@@ -58,6 +59,17 @@ public class RamFileProvider extends AbstractOriginatingFileProvider {
         return new RamFileSystem(name, fileSystemOptions);
     }
 
+    /**
+     * Returns the {@link RamFileSystemConfigBuilder}.
+     *
+     * @return the config builder.
+     * @since 2.3
+     */
+    @Override
+    public FileSystemConfigBuilder getConfigBuilder() {
+        return RamFileSystemConfigBuilder.getInstance();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -22,8 +22,14 @@ import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
+import org.apache.commons.vfs2.FileRange;
 import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.provider.VectoredRead;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
@@ -579,4 +585,48 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
         this.file.resize(newLength);
         this.buf = this.file.getData().getContent();
     }
+
+    /**
+     * Copies from the content array without locking or moving the file pointer.
+     */
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        final byte[] content = buf;
+        final int count = available(content, position, len);
+        if (count > 0) {
+            System.arraycopy(content, (int) position, b, off, count);
+        }
+        return count;
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        final byte[] content = buf;
+        final int count = available(content, position, dst.remaining());
+        if (count > 0) {
+            dst.put(content, (int) position, count);
+        }
+        return count;
+    }
+
+    /**
+     * Copies each range in the calling thread, which costs less than handing the copies to the executor.
+     */
+    @Override
+    public List<Future<ByteBuffer>> readVectored(final List<FileRange> ranges, final Executor executor) {
+        return VectoredRead.read(this, ranges, null, 0, 0);
+    }
+
+    private static int available(final byte[] content, final long position, final int len) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= content.length) {
+            return -1;
+        }
+        return (int) Math.min(len, content.length - position);
+    }
 }
@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Vector;
 
 import org.apache.commons.vfs2.FileNotFoundException;
@@ -33,6 +34,7 @@ import org.apache.commons.vfs2.VFS;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.BoundedInputStream;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
@@ -213,16 +215,44 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
     protected void doDelete() throws Exception {
         final ChannelSftp channel = getAbstractFileSystem().getChannel();
         try {
-            if (isFile()) {
-                channel.rm(relPath);
-            } else {
-                channel.rmdir(relPath);
-            }
+            doDelete(channel);
         } finally {
             getAbstractFileSystem().putChannel(channel);
         }
     }
 
+    /**
+     * Deletes the file using the given channel.
+     */
+    void doDelete(final ChannelSftp channel) throws Exception {
+        if (isFile()) {
+            channel.rm(relPath);
+        } else {
+            channel.rmdir(relPath);
+        }
+    }
+
+    /**
+     * Files on the same server are renamed by the server, even if they belong to another file system.
+     */
+    @Override
+    public boolean canRenameTo(final FileObject newfile) {
+        return isOnSameServer(newfile);
+    }
+
+    /**
+     * Also requires the same user directory setting, as paths are relative to the root directory.
+     */
+    @Override
+    protected boolean isOnSameServer(final FileObject file) {
+        if (!super.isOnSameServer(file)) {
+            return false;
+        }
+        final SftpFileSystemConfigBuilder builder = SftpFileSystemConfigBuilder.getInstance();
+        return Objects.equals(builder.getUserDirIsRoot(getFileSystem().getFileSystemOptions()),
+                builder.getUserDirIsRoot(file.getFileSystem().getFileSystemOptions()));
+    }
+
     /**
      * Rename the file.
      */
@@ -422,6 +452,14 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
         return new SftpRandomAccessContent(this, mode);
     }
 
+    /**
+     * Reads a range of the content over a channel of its own, starting the SFTP get at the offset.
+     */
+    @Override
+    protected InputStream doGetInputStream(final long offset, final long length) throws Exception {
+        return new BoundedInputStream(getInputStream(offset), length);
+    }
+
     /**
      * Creates an input stream to read the file content from. The input stream is starting at the given position in the
      * file.
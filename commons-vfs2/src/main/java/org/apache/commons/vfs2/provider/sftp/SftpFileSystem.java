@@ -19,6 +19,7 @@ package org.apache.commons.vfs2.provider.sftp;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Collection;
+import java.util.List;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
@@ -26,6 +27,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.UserAuthenticationData;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.GenericFileName;
 import org.apache.commons.vfs2.util.UserAuthenticatorUtils;
@@ -181,6 +183,40 @@ public class SftpFileSystem extends AbstractFileSystem {
         }
     }
 
+    /**
+     * Deletes the files over a single channel instead of taking one from the pool for each file.
+     */
+    @Override
+    protected int deleteFiles(final List<AbstractFileObject<?>> files) throws FileSystemException {
+        synchronized (this) {
+            final ChannelSftp channel;
+            try {
+                channel = getChannel();
+            } catch (final FileSystemException e) {
+                throw e;
+            } catch (final IOException e) {
+                throw new FileSystemException("vfs.provider/delete.error", e, files.get(0).getName());
+            }
+            int count = 0;
+            try {
+                for (final AbstractFileObject<?> file : files) {
+                    try {
+                        ((SftpFileObject) file).doDelete(channel);
+                    } catch (final RuntimeException re) {
+                        throw re;
+                    } catch (final Exception e) {
+                        throw new FileSystemException("vfs.provider/delete.error", e, file.getName());
+                    }
+                    fileDeleted(file);
+                    count++;
+                }
+            } finally {
+                putChannel(channel);
+            }
+            return count;
+        }
+    }
+
     /**
      * Adds the capabilities of this file system.
      */
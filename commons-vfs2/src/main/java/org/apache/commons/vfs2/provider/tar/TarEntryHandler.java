@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.vfs2.FileObject;
+
+/**
+ * Receives the entries of a Tar file in archive order.
+ *
+ * @see TarFileSystem#walk(TarEntryHandler)
+ * @since 2.3
+ */
+public interface TarEntryHandler {
+    /**
+     * Handles an entry of the archive.
+     *
+     * @param file The file of the entry.
+     * @param content The content of the entry, only readable during this call. Closing it has no effect.
+     * @throws IOException if an error occurs, this stops the walk.
+     */
+    void handleEntry(FileObject file, InputStream content) throws IOException;
+}
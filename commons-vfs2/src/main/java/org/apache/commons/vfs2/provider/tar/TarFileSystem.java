@@ -18,6 +18,7 @@ package org.apache.commons.vfs2.provider.tar;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -42,6 +43,9 @@ import org.apache.commons.vfs2.provider.bzip2.Bzip2FileObject;
 
 /**
  * A read-only file system for Tar files.
+ * <p>
+ * In {@link TarFileSystemConfigBuilder#setSequentialMode(FileSystemOptions, Boolean) sequential mode} the entries are
+ * not indexed when the file system is created, they are added as {@link #walk(TarEntryHandler)} reaches them.
  */
 public class TarFileSystem extends AbstractFileSystem {
     private static final int DEFAULT_INDEX_SIZE = 100;
@@ -50,10 +54,12 @@ public class TarFileSystem extends AbstractFileSystem {
 
     private final File file;
     private TarArchiveInputStream tarFile;
+    private final boolean sequential;
 
     protected TarFileSystem(final AbstractFileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) throws FileSystemException {
         super(rootName, parentLayer, fileSystemOptions);
+        sequential = TarFileSystemConfigBuilder.getInstance().isSequentialMode(fileSystemOptions);
 
         // Make a local copy of the file
         file = parentLayer.getFileSystem().replicateFile(parentLayer, Selectors.SELECT_SELF);
@@ -72,45 +78,19 @@ public class TarFileSystem extends AbstractFileSystem {
     public void init() throws FileSystemException {
         super.init();
 
+        if (sequential) {
+            // The entries are added by walk()
+            final TarFileObject root = createTarFileObject((AbstractFileName) getRootName(), null);
+            putFileToCache(root);
+            return;
+        }
+
         // Build the index
         try {
             final List<TarFileObject> strongRef = new ArrayList<>(DEFAULT_INDEX_SIZE);
             TarArchiveEntry entry;
             while ((entry = getTarFile().getNextTarEntry()) != null) {
-                final AbstractFileName name = (AbstractFileName) getFileSystemManager().resolveName(getRootName(),
-                        UriParser.encode(entry.getName()));
-
-                // Create the file
-                TarFileObject fileObj;
-                if (entry.isDirectory() && getFileFromCache(name) != null) {
-                    fileObj = (TarFileObject) getFileFromCache(name);
-                    fileObj.setTarEntry(entry);
-                    continue;
-                }
-
-                fileObj = createTarFileObject(name, entry);
-                putFileToCache(fileObj);
-                strongRef.add(fileObj);
-                fileObj.holdObject(strongRef);
-
-                // Make sure all ancestors exist
-                // TODO - create these on demand
-                TarFileObject parent = null;
-                for (AbstractFileName parentName = (AbstractFileName) name
-                        .getParent(); parentName != null; fileObj = parent, parentName = (AbstractFileName) parentName
-                                .getParent()) {
-                    // Locate the parent
-                    parent = (TarFileObject) getFileFromCache(parentName);
-                    if (parent == null) {
-                        parent = createTarFileObject(parentName, null);
-                        putFileToCache(parent);
-                        strongRef.add(parent);
-                        parent.holdObject(strongRef);
-                    }
-
-                    // Attach child to parent
-                    parent.attachChild(fileObj.getName());
-                }
+                addEntry(entry, strongRef);
             }
         } catch (final IOException e) {
             throw new FileSystemException(e);
@@ -119,6 +99,84 @@ public class TarFileSystem extends AbstractFileSystem {
         }
     }
 
+    private AbstractFileName getEntryName(final TarArchiveEntry entry) throws FileSystemException {
+        return (AbstractFileName) getFileSystemManager().resolveName(getRootName(), UriParser.encode(entry.getName()));
+    }
+
+    /**
+     * Adds an entry and its ancestors to the index.
+     */
+    private TarFileObject addEntry(final TarArchiveEntry entry, final List<TarFileObject> strongRef)
+            throws FileSystemException {
+        final AbstractFileName name = getEntryName(entry);
+
+        // Create the file
+        TarFileObject fileObj;
+        if (entry.isDirectory() && getFileFromCache(name) != null) {
+            fileObj = (TarFileObject) getFileFromCache(name);
+            fileObj.setTarEntry(entry);
+            return fileObj;
+        }
+
+        fileObj = createTarFileObject(name, entry);
+        putFileToCache(fileObj);
+        strongRef.add(fileObj);
+        fileObj.holdObject(strongRef);
+        final TarFileObject entryObj = fileObj;
+
+        // Make sure all ancestors exist
+        // TODO - create these on demand
+        TarFileObject parent = null;
+        for (AbstractFileName parentName = (AbstractFileName) name
+                .getParent(); parentName != null; fileObj = parent, parentName = (AbstractFileName) parentName
+                        .getParent()) {
+            // Locate the parent
+            parent = (TarFileObject) getFileFromCache(parentName);
+            if (parent == null) {
+                parent = createTarFileObject(parentName, null);
+                putFileToCache(parent);
+                strongRef.add(parent);
+                parent.holdObject(strongRef);
+            }
+
+            // Attach child to parent
+            parent.attachChild(fileObj.getName());
+        }
+        return entryObj;
+    }
+
+    /**
+     * Reads the archive once and passes each entry to a handler, in archive order.
+     * <p>
+     * This reads the archive, and decompresses it, a single time. In sequential mode the entries are added to the
+     * file system as they are reached, so they can be resolved once the walk has passed them.
+     *
+     * @param handler Receives the entries.
+     * @throws FileSystemException if the archive cannot be read, or the handler fails.
+     * @since 2.3
+     */
+    public void walk(final TarEntryHandler handler) throws FileSystemException {
+        if (!file.exists()) {
+            return;
+        }
+        final List<TarFileObject> strongRef = new ArrayList<>(DEFAULT_INDEX_SIZE);
+        try (TarArchiveInputStream in = createTarFile(file)) {
+            // the handler must not close the archive
+            final InputStream content = new FilterInputStream(in) {
+                @Override
+                public void close() {
+                }
+            };
+            TarArchiveEntry entry;
+            while ((entry = in.getNextTarEntry()) != null) {
+                final FileObject fileObj = sequential ? addEntry(entry, strongRef) : resolveFile(getEntryName(entry));
+                handler.handleEntry(fileObj, content);
+            }
+        } catch (final IOException e) {
+            throw new FileSystemException("vfs.provider.tar/walk-tar-file.error", file, e);
+        }
+    }
+
     public InputStream getInputStream(final TarArchiveEntry entry) throws FileSystemException {
         resetTarFile();
         try {
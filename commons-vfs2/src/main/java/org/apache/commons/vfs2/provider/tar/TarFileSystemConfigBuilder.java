@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar;
+
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
+import org.apache.commons.vfs2.FileSystemOptions;
+
+/**
+ * Config Builder for the Tar filesystem.
+ *
+ * @since 2.3
+ */
+public final class TarFileSystemConfigBuilder extends FileSystemConfigBuilder {
+
+    private static final String SEQUENTIAL_MODE = "sequentialMode";
+
+    /** config builder SINGLETON. */
+    private static final TarFileSystemConfigBuilder SINGLETON = new TarFileSystemConfigBuilder();
+
+    private TarFileSystemConfigBuilder() {
+        super("tar.");
+    }
+
+    /**
+     * Gets the singleton builder.
+     *
+     * @return the singleton builder.
+     */
+    public static TarFileSystemConfigBuilder getInstance() {
+        return SINGLETON;
+    }
+
+    @Override
+    protected Class<? extends FileSystem> getConfigClass() {
+        return TarFileSystem.class;
+    }
+
+    /**
+     * Sets whether the archive is read sequentially.
+     * <p>
+     * In sequential mode the file system does not read the archive when it is created. The entries become known as
+     * {@link TarFileSystem#walk(TarEntryHandler)} reaches them, so an archive processed by a single walk is read, and
+     * decompressed, exactly once.
+     *
+     * @param opts The FileSystem options.
+     * @param sequential true to skip the index pass, null or false to index all entries when the file system is created.
+     */
+    public void setSequentialMode(final FileSystemOptions opts, final Boolean sequential) {
+        setParam(opts, SEQUENTIAL_MODE, sequential);
+    }
+
+    /**
+     * @see #setSequentialMode(FileSystemOptions, Boolean)
+     * @param opts The FileSystem options.
+     * @return true if the archive is read sequentially, false by default.
+     */
+    public boolean isSequentialMode(final FileSystemOptions opts) {
+        return getBoolean(opts, SEQUENTIAL_MODE, false);
+    }
+}
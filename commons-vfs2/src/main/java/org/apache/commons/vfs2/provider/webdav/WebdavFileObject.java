@@ -52,12 +52,18 @@ import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.DefaultFileContent;
 import org.apache.commons.vfs2.provider.URLFileName;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.provider.http.HttpContentCache;
 import org.apache.commons.vfs2.provider.webdav.sardine.DavResources;
+import org.apache.commons.vfs2.provider.webdav.sardine.HttpResponseInputStream;
 import org.apache.commons.vfs2.provider.webdav.sardine.SardineExtended;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineException;
@@ -72,6 +78,11 @@ import com.github.sardine.util.SardineUtil;
 public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileObject<FS> {
 
 	private String userAgent;
+
+    /**
+     * The properties of this file from the listing of its parent folder, null until the folder is listed.
+     */
+    private DavResource listedResource;
 	
     final Set<QName> VERSION_PROPERTIES = new HashSet<QName>(
             Arrays.asList(new QName[] { DavResources.COMMENT, DavResources.CREATOR_DISPLAYNAME, DavResources.CHECKED_IN,
@@ -257,6 +268,9 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
      * @throws IOException
      */
     private DavResource getResource() throws IOException {
+        if (listedResource != null) {
+            return listedResource;
+        }
         URI uri = getFullURI();
         List<DavResource> resources = sardine.list(uri.toString());
         for (DavResource res : resources) {
@@ -346,7 +360,7 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
     @Override
     protected FileType doGetType() throws Exception {
 
-        if (sardine.exists(getHostRelativeUrl())) {
+        if (listedResource != null || sardine.exists(getHostRelativeUrl())) {
             final DavResource resource = getResource();
             if (resource != null) {
                 final String contentType = resource.getContentType();
@@ -455,6 +469,8 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
                             // do not cast, as could be OnCall object
                             final FileObject fo = fileSystem.resolveFile(fname);
+                            // the listing already holds the properties of the child
+                            ((WebdavFileObject<?>) FileObjectUtils.getAbstractFileObject(fo)).listedResource = res;
                             vfs.add(fo);
                         }
                     }
@@ -469,6 +485,34 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         }
     }
 
+    /**
+     * Forgets the properties taken from the listing of the parent folder.
+     */
+    @Override
+    protected void doDetach() throws Exception {
+        listedResource = null;
+    }
+
+    /**
+     * Drops the cached content of a written or deleted file.
+     */
+    @Override
+    protected void onChange() throws Exception {
+        listedResource = null;
+        final HttpContentCache contentCache = builder.getContentCache(fileSystem.getFileSystemOptions());
+        if (contentCache != null) {
+            contentCache.remove(getName().getURI());
+        }
+    }
+
+    /**
+     * Files on the same server are moved with a {@code MOVE} request, even if they belong to another file system.
+     */
+    @Override
+    public boolean canRenameTo(final FileObject newfile) {
+        return isOnSameServer(newfile);
+    }
+
     @Override
     protected void doRename(FileObject newFile) throws Exception {
         final String from = getHostRelativeUrl();
@@ -477,6 +521,17 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
     }
 
+    /**
+     * Copies a file on the same server with a {@code COPY} request.
+     */
+    @Override
+    protected boolean doCopyFrom(final FileObject srcFile) throws Exception {
+        final String from = getHostRelativeUrl((URLFileName) srcFile.getName());
+        final String to = getFullUrl(getName(), false);
+        sardine.copy(from, to);
+        return true;
+    }
+
     @Override
     protected void doSetAttribute(String attrName, Object value) throws Exception {
         Map<String, String> properties = new HashMap<String, String>(1);
@@ -505,6 +560,18 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
     
     @Override
     protected InputStream doGetInputStream() throws Exception {
+        final HttpContentCache contentCache = builder.getContentCache(fileSystem.getFileSystemOptions());
+        if (contentCache != null) {
+            final HttpContentCache.Entry entry = contentCache.get(getName().getURI());
+            if (entry != null && contentCache.isFresh(entry)) {
+                final InputStream cached = contentCache.getInputStream(entry);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            return getInputStream(contentCache, entry);
+        }
+
         InputStream stream = null;
 
         try {
@@ -522,6 +589,35 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         return stream;
     }
 
+    /**
+     * Issues a {@code GET} request through the content cache, conditional if there is a cache entry.
+     */
+    private InputStream getInputStream(final HttpContentCache contentCache, final HttpContentCache.Entry entry)
+            throws Exception {
+        final HttpGet get = new HttpGet(getHostRelativeUrl());
+        get.setHeader("User-Agent", builder.getUserAgent(fileSystem.getFileSystemOptions()));
+        if (entry != null) {
+            contentCache.setConditionalHeaders(get, entry);
+        }
+
+        final HttpResponse response = fileSystem.getSardine().execute(get);
+        final int status = response.getStatusLine().getStatusCode();
+        if (status == HttpStatus.SC_NOT_MODIFIED && entry != null) {
+            EntityUtils.consume(response.getEntity());
+            final InputStream cached = contentCache.getRevalidatedInputStream(getName().getURI(), entry, response);
+            return cached != null ? cached : getInputStream(contentCache, null);
+        }
+        if (status != HttpStatus.SC_OK) {
+            EntityUtils.consume(response.getEntity());
+            if (status == HttpStatus.SC_NOT_FOUND) {
+                contentCache.remove(getName().getURI());
+                throw new FileNotFoundException(getName());
+            }
+            throw new FileSystemException("vfs.provider.http/get.error", getName(), Integer.valueOf(status));
+        }
+        return contentCache.store(getName().getURI(), response, new HttpResponseInputStream(response));
+    }
+
     @Override
     protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
         return new WebdavRandomAccessContent(this, mode);
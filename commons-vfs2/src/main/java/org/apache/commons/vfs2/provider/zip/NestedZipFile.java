@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+/**
+ * A ZIP file stored uncompressed in another ZIP file, read in place from the local file of the outermost archive.
+ * <p>
+ * The archive is opened on first use and reopened after {@link #close()}.
+ */
+final class NestedZipFile {
+
+    private final File file;
+
+    private final long offset;
+
+    private final long size;
+
+    private final String name;
+
+    private ZipFile zipFile;
+
+    private NestedZipFile(final File file, final long offset, final long size, final String name) {
+        this.file = file;
+        this.offset = offset;
+        this.size = size;
+        this.name = name;
+    }
+
+    /**
+     * Locates an entry of a local ZIP file that can be read in place.
+     *
+     * @param file The local ZIP file.
+     * @param entryName The name of the entry.
+     * @return The nested archive, null if the entry is missing or compressed.
+     * @throws IOException if the file cannot be read.
+     */
+    static NestedZipFile find(final File file, final String entryName) throws IOException {
+        try (ZipFile outer = new ZipFile(file)) {
+            final ZipArchiveEntry entry = outer.getEntry(entryName);
+            if (entry == null || entry.getMethod() != ZipEntry.STORED) {
+                return null;
+            }
+            return new NestedZipFile(file, entry.getDataOffset(), entry.getSize(), file + "!/" + entryName);
+        }
+    }
+
+    /**
+     * Locates an entry of this archive that can be read in place.
+     *
+     * @param entry An entry of this archive.
+     * @return The nested archive, null if the entry is compressed.
+     */
+    NestedZipFile find(final ZipEntry entry) {
+        if (entry.getMethod() != ZipEntry.STORED || !(entry instanceof ZipArchiveEntry)) {
+            return null;
+        }
+        return new NestedZipFile(file, offset + ((ZipArchiveEntry) entry).getDataOffset(), entry.getSize(),
+                name + "!/" + entry.getName());
+    }
+
+    private synchronized ZipFile getZipFile() throws IOException {
+        if (zipFile == null) {
+            final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                zipFile = new ZipFile(new SliceByteChannel(channel, offset, size), name, "UTF8", true);
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        return zipFile;
+    }
+
+    Enumeration<ZipArchiveEntry> entries() throws IOException {
+        return getZipFile().getEntries();
+    }
+
+    InputStream getInputStream(final ZipEntry entry) throws IOException {
+        return getZipFile().getInputStream((ZipArchiveEntry) entry);
+    }
+
+    synchronized void close() throws IOException {
+        if (zipFile != null) {
+            zipFile.close();
+            zipFile = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
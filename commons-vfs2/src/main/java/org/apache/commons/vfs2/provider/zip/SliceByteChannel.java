@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A read-only channel on a range of a file.
+ */
+final class SliceByteChannel implements SeekableByteChannel {
+
+    private final FileChannel channel;
+
+    private final long offset;
+
+    private final long size;
+
+    private long position;
+
+    /**
+     * Creates a channel on a range of a file.
+     *
+     * @param channel The channel of the file, closed with this channel.
+     * @param offset The position in the file of the first byte of the range.
+     * @param size The number of bytes of the range.
+     */
+    SliceByteChannel(final FileChannel channel, final long offset, final long size) {
+        this.channel = channel;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        final int max = (int) Math.min(dst.remaining(), size - position);
+        final ByteBuffer window = dst.duplicate();
+        ((Buffer) window).limit(window.position() + max);
+        final int count = channel.read(window, offset + position);
+        if (count > 0) {
+            position += count;
+            ((Buffer) dst).position(dst.position() + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition) {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long newSize) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStoreSupplier;
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
+
+/**
+ * Writes a new ZIP file, compressing its entries in parallel as soon as they are written.
+ * <p>
+ * The content of an entry is kept in memory until it is compressed, or in a temporary file once it exceeds
+ * {@link #MEMORY_THRESHOLD} or the entries waiting for compression hold {@link #MEMORY_LIMIT} bytes. The compressed
+ * entries are kept in temporary files until {@link #writeTo} assembles the archive. The temporary files are allocated
+ * from the {@link TemporaryFileStore} of the file system manager.
+ */
+final class ZipArchiveWriter {
+
+    /**
+     * The size from which the content of an entry is kept in a temporary file.
+     */
+    static final int MEMORY_THRESHOLD = 1024 * 1024;
+
+    /**
+     * The number of bytes the entries waiting for compression keep in memory at most.
+     */
+    static final long MEMORY_LIMIT = 16L * 1024 * 1024;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final TemporaryFileStore temporaryFileStore;
+
+    private final ExecutorService executor;
+
+    private final ParallelScatterZipCreator creator;
+
+    private final Set<File> tempFiles = new HashSet<>(); // @GuardedBy("tempFiles")
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    ZipArchiveWriter(final TemporaryFileStore temporaryFileStore) {
+        this.temporaryFileStore = temporaryFileStore;
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "vfs-zip-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        creator = new ParallelScatterZipCreator(executor, new ScatterGatherBackingStoreSupplier() {
+            @Override
+            public ScatterGatherBackingStore get() throws IOException {
+                return new FileBasedScatterGatherBackingStore(allocateFile("vfs_zip_scatter"));
+            }
+        });
+    }
+
+    /**
+     * Allocates a temporary file, creating the directory of the store if needed.
+     */
+    private File allocateFile(final String baseName) throws IOException {
+        final File file = temporaryFileStore.allocateFile(baseName);
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        return file;
+    }
+
+    /**
+     * Creates a stream that adds an entry when it is closed.
+     *
+     * @param entry The entry, whose size and time are set when the stream is closed.
+     * @return The stream.
+     */
+    OutputStream createOutputStream(final ZipEntry entry) {
+        return new EntryOutputStream(entry);
+    }
+
+    /**
+     * Writes the archive, waiting for the compression of all entries.
+     *
+     * @param out The stream to write to, closed by this method.
+     * @param folders The names of the folder entries, ending with '/'.
+     */
+    void writeTo(final OutputStream out, final Collection<String> folders)
+            throws IOException, InterruptedException, ExecutionException {
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(out)) {
+            zip.setUseZip64(Zip64Mode.AsNeeded);
+            for (final String folder : folders) {
+                zip.putArchiveEntry(new ZipArchiveEntry(folder));
+                zip.closeArchiveEntry();
+            }
+            creator.writeTo(zip);
+        }
+    }
+
+    /**
+     * Stops the compression and removes the temporary files of the entries not compressed yet.
+     */
+    void close() {
+        executor.shutdownNow();
+        synchronized (tempFiles) {
+            for (final File tempFile : tempFiles) {
+                tempFile.delete();
+            }
+            tempFiles.clear();
+        }
+    }
+
+    private void addEntry(final ZipEntry entry, final ContentBuffer content, final File contentFile) {
+        final ZipArchiveEntry archiveEntry = new ZipArchiveEntry(entry.getName());
+        archiveEntry.setMethod(ZipEntry.DEFLATED);
+        archiveEntry.setTime(entry.getTime());
+        creator.addArchiveEntry(archiveEntry, new InputStreamSupplier() {
+            @Override
+            public InputStream get() {
+                if (content != null) {
+                    return content.toInputStream();
+                }
+                try {
+                    return new FileInputStream(contentFile) {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            synchronized (tempFiles) {
+                                tempFiles.remove(contentFile);
+                            }
+                            contentFile.delete();
+                        }
+                    };
+                } catch (final FileNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * The content of an entry kept in memory, counted in {@link ZipArchiveWriter#bufferedBytes} until compressed.
+     */
+    private final class ContentBuffer extends ByteArrayOutputStream {
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count) {
+                private boolean released;
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    if (!released) {
+                        released = true;
+                        bufferedBytes.addAndGet(-ContentBuffer.this.count);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Buffers the content of an entry, in memory up to {@link ZipArchiveWriter#MEMORY_THRESHOLD} bytes.
+     */
+    private final class EntryOutputStream extends OutputStream {
+        private final ZipEntry entry;
+        private ContentBuffer buffer = new ContentBuffer();
+        private OutputStream out = buffer;
+        private File contentFile;
+        private long size;
+        private boolean closed;
+
+        private EntryOutputStream(final ZipEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            size++;
+            spillIfNeeded();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            size += len;
+            spillIfNeeded();
+        }
+
+        private void spillIfNeeded() throws IOException {
+            if (buffer != null && buffer.size() > MEMORY_THRESHOLD) {
+                spill();
+            }
+        }
+
+        private void spill() throws IOException {
+            contentFile = allocateFile("vfs_zip_entry");
+            synchronized (tempFiles) {
+                tempFiles.add(contentFile);
+            }
+            out = new BufferedOutputStream(new FileOutputStream(contentFile));
+            buffer.writeTo(out);
+            buffer = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (buffer != null && bufferedBytes.addAndGet(buffer.size()) > MEMORY_LIMIT) {
+                // too much waits for compression
+                bufferedBytes.addAndGet(-buffer.size());
+                spill();
+            }
+            out.close();
+            entry.setSize(size);
+            entry.setTime(System.currentTimeMillis());
+            addEntry(entry, buffer, contentFile);
+            buffer = null;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.commons.vfs2.provider.zip;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.zip.ZipEntry;
 
@@ -84,7 +85,8 @@ public class ZipFileObject extends AbstractFileObject<ZipFileSystem> {
      */
     @Override
     public boolean isWriteable() throws FileSystemException {
-        return false;
+        // only the files not written yet of a new archive
+        return getAbstractFileSystem().isWritable() && entry == null;
     }
 
     /**
@@ -143,7 +145,55 @@ public class ZipFileObject extends AbstractFileObject<ZipFileSystem> {
             throw new FileSystemException("vfs.provider/read-not-file.error", getName());
         }
 
-        return getAbstractFileSystem().getZipFile().getInputStream(entry);
+        if (getAbstractFileSystem().isWritable()) {
+            throw new FileSystemException("vfs.provider.zip/read-new-archive.error", getName());
+        }
+
+        return getAbstractFileSystem().getInputStream(entry);
+    }
+
+    /**
+     * Creates a stream that adds this file to a new archive when it is closed.
+     */
+    @Override
+    protected OutputStream doGetOutputStream(final boolean bAppend) throws Exception {
+        final ZipFileSystem zipFileSystem = getAbstractFileSystem();
+        if (!zipFileSystem.isWritable()) {
+            return super.doGetOutputStream(bAppend);
+        }
+        if (entry != null) {
+            throw new FileSystemException("vfs.provider/write-read-only.error", getName());
+        }
+
+        final ZipEntry newEntry = zipFileSystem.createZipEntry(getName().getPathDecoded().substring(1));
+        final OutputStream out = zipFileSystem.createEntryOutputStream(newEntry);
+        entry = newEntry;
+        return out;
+    }
+
+    /**
+     * Creates a folder of a new archive, which is added to the archive when it is written.
+     */
+    @Override
+    protected void doCreateFolder() throws Exception {
+        if (!getAbstractFileSystem().isWritable()) {
+            super.doCreateFolder();
+        }
+    }
+
+    @Override
+    protected void injectType(final FileType fileType) {
+        type = fileType;
+        super.injectType(fileType);
+    }
+
+    @Override
+    protected void onChildrenChanged(final FileName child, final FileType newType) throws Exception {
+        if (newType == FileType.IMAGINARY) {
+            children.remove(child.getBaseName());
+        } else {
+            attachChild(child);
+        }
     }
 
     @Override
@@ -154,7 +204,8 @@ public class ZipFileObject extends AbstractFileObject<ZipFileSystem> {
     @Override
     protected void doDetach() throws Exception {
         final ZipFileSystem afs = getAbstractFileSystem();
-        if (!afs.isOpen()) {
+        // a new archive is written when its file system is closed
+        if (!afs.isOpen() && !afs.isWritable()) {
             afs.close();
         }
     }
@@ -18,12 +18,17 @@ package org.apache.commons.vfs2.provider.zip;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -34,30 +39,91 @@ import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.Selectors;
 import org.apache.commons.vfs2.VfsLog;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 
 /**
- * A read-only file system for ZIP and JAR files.
+ * A file system for ZIP and JAR files.
+ * <p>
+ * Existing files are read-only. A file system on a file that does not exist creates a new archive: its entries are
+ * compressed in parallel as they are written, and the archive is written to the file by {@link #finishArchive()} or
+ * when the file system is closed. The new entries cannot be read before that.
+ * <p>
+ * An archive stored uncompressed in another archive is read in place from the file of the outer archive, instead of
+ * being copied to a temporary file first.
  */
 public class ZipFileSystem extends AbstractFileSystem {
     private static final Log LOG = LogFactory.getLog(ZipFileSystem.class);
 
+    /**
+     * The capabilities added for a new archive.
+     */
+    private static final Collection<Capability> WRITE_CAPABILITIES = Collections
+            .unmodifiableCollection(Arrays.asList(Capability.CREATE, Capability.WRITE_CONTENT));
+
     private final File file;
     private ZipFile zipFile;
 
     /**
-     * Cache doesn't need to be synchronized since it is read-only.
+     * The archive read in place from its parent archive, or null.
+     */
+    private final NestedZipFile nestedZipFile;
+
+    /**
+     * true if this file system creates a new archive.
+     */
+    private final boolean writable;
+
+    private ZipArchiveWriter archiveWriter; // @GuardedBy("this")
+
+    private boolean archiveWritten; // @GuardedBy("this")
+
+    /**
+     * Cache doesn't need to be synchronized since it is read-only, or changed by {@link #resolveFile} while holding the
+     * lock of this file system for a new archive.
      */
     private final Map<FileName, FileObject> cache = new HashMap<>();
 
     public ZipFileSystem(final AbstractFileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) throws FileSystemException {
+        this(rootName, parentLayer, fileSystemOptions, true);
+    }
+
+    /**
+     * Creates a file system for a ZIP file.
+     *
+     * @param rootName The root name of the file system.
+     * @param parentLayer The ZIP file.
+     * @param fileSystemOptions The file system options.
+     * @param readInPlace true to read an archive stored uncompressed in another archive without copying it, false if
+     *            {@link #getZipFile()} must always return the archive.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    protected ZipFileSystem(final AbstractFileName rootName, final FileObject parentLayer,
+            final FileSystemOptions fileSystemOptions, final boolean readInPlace) throws FileSystemException {
         super(rootName, parentLayer, fileSystemOptions);
 
+        if (!parentLayer.exists() && isCompressAvailable()) {
+            // A new archive, written by finishArchive()
+            file = null;
+            nestedZipFile = null;
+            writable = true;
+            return;
+        }
+        writable = false;
+
+        nestedZipFile = readInPlace && isCompressAvailable() ? findNestedZipFile(parentLayer) : null;
+        if (nestedZipFile != null) {
+            file = null;
+            return;
+        }
+
         // Make a local copy of the file
         file = parentLayer.getFileSystem().replicateFile(parentLayer, Selectors.SELECT_SELF);
 
@@ -71,14 +137,68 @@ public class ZipFileSystem extends AbstractFileSystem {
         // zipFile = createZipFile(this.file);
     }
 
+    private static boolean isCompressAvailable() {
+        try {
+            Class.forName("org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator", false,
+                    ZipFileSystem.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Locates the archive if it is stored uncompressed in another archive.
+     */
+    private static NestedZipFile findNestedZipFile(final FileObject parentLayer) throws FileSystemException {
+        final FileObject parent = FileObjectUtils.getAbstractFileObject(parentLayer);
+        if (!(parent instanceof ZipFileObject)) {
+            return null;
+        }
+        return ((ZipFileSystem) parent.getFileSystem()).findNestedZipFile(((ZipFileObject) parent).entry);
+    }
+
+    /**
+     * Locates an entry of this archive that can be read in place.
+     */
+    private NestedZipFile findNestedZipFile(final ZipEntry entry) throws FileSystemException {
+        if (entry == null || entry.isDirectory() || entry.getMethod() != ZipEntry.STORED) {
+            return null;
+        }
+        if (nestedZipFile != null) {
+            return nestedZipFile.find(entry);
+        }
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            return NestedZipFile.find(file, entry.getName());
+        } catch (final IOException e) {
+            throw new FileSystemException("vfs.provider.zip/open-zip-file.error", file, e);
+        }
+    }
+
     @Override
     public void init() throws FileSystemException {
         super.init();
 
+        if (writable) {
+            // A new archive starts with its root folder
+            putFileToCache(createZipFileObject((AbstractFileName) getRootName(), null));
+            return;
+        }
+
         try {
             // Build the index
-            final List<ZipFileObject> strongRef = new ArrayList<>(getZipFile().size());
-            final Enumeration<? extends ZipEntry> entries = getZipFile().entries();
+            final List<ZipFileObject> strongRef;
+            final Enumeration<? extends ZipEntry> entries;
+            if (nestedZipFile != null) {
+                strongRef = new ArrayList<>();
+                entries = getNestedEntries();
+            } else {
+                strongRef = new ArrayList<>(getZipFile().size());
+                entries = getZipFile().entries();
+            }
             while (entries.hasMoreElements()) {
                 final ZipEntry entry = entries.nextElement();
                 final AbstractFileName name = (AbstractFileName) getFileSystemManager().resolveName(getRootName(),
@@ -122,18 +242,47 @@ public class ZipFileSystem extends AbstractFileSystem {
     }
 
     protected ZipFile getZipFile() throws FileSystemException {
-        if (zipFile == null && this.file.exists()) {
+        if (zipFile == null && this.file != null && this.file.exists()) {
             this.zipFile = createZipFile(this.file);
         }
 
         return zipFile;
     }
 
+    private Enumeration<? extends ZipEntry> getNestedEntries() throws FileSystemException {
+        try {
+            return nestedZipFile.entries();
+        } catch (final IOException e) {
+            throw new FileSystemException("vfs.provider.zip/open-zip-file.error", nestedZipFile, e);
+        }
+    }
+
+    /**
+     * Creates a stream to read the content of an entry.
+     */
+    InputStream getInputStream(final ZipEntry entry) throws IOException {
+        if (nestedZipFile != null) {
+            return nestedZipFile.getInputStream(entry);
+        }
+        return getZipFile().getInputStream(entry);
+    }
+
     protected ZipFileObject createZipFileObject(final AbstractFileName name, final ZipEntry entry)
             throws FileSystemException {
         return new ZipFileObject(name, entry, this, true);
     }
 
+    /**
+     * Creates the entry of a file added to a new archive.
+     *
+     * @param name The name of the entry.
+     * @return The entry.
+     * @since 2.3
+     */
+    protected ZipEntry createZipEntry(final String name) {
+        return new ZipEntry(name);
+    }
+
     protected ZipFile createZipFile(final File file) throws FileSystemException {
         try {
             return new ZipFile(file);
@@ -150,6 +299,9 @@ public class ZipFileSystem extends AbstractFileSystem {
                 zipFile.close();
                 zipFile = null;
             }
+            if (nestedZipFile != null) {
+                nestedZipFile.close();
+            }
         } catch (final IOException e) {
             // getLogger().warn("vfs.provider.zip/close-zip-file.error :" + file, e);
             VfsLog.warn(getLogger(), LOG, "vfs.provider.zip/close-zip-file.error :" + file, e);
@@ -162,6 +314,98 @@ public class ZipFileSystem extends AbstractFileSystem {
     @Override
     protected void addCapabilities(final Collection<Capability> caps) {
         caps.addAll(ZipFileProvider.capabilities);
+        addWriteCapabilities(caps);
+    }
+
+    /**
+     * Adds the capabilities to create files and folders, if this file system creates a new archive.
+     *
+     * @param caps The capabilities of this file system.
+     * @since 2.3
+     */
+    protected void addWriteCapabilities(final Collection<Capability> caps) {
+        if (writable) {
+            caps.addAll(WRITE_CAPABILITIES);
+        }
+    }
+
+    /**
+     * Returns true if this file system creates a new archive.
+     */
+    boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * Creates a stream that adds an entry to the new archive when it is closed.
+     */
+    synchronized OutputStream createEntryOutputStream(final ZipEntry entry) throws FileSystemException {
+        if (archiveWritten) {
+            throw new FileSystemException("vfs.provider.zip/archive-written.error", getParentLayer().getName());
+        }
+        if (archiveWriter == null) {
+            archiveWriter = new ZipArchiveWriter(getContext().getTemporaryFileStore());
+        }
+        return archiveWriter.createOutputStream(entry);
+    }
+
+    /**
+     * Writes the new archive to its file, after the compression of all its entries. Does nothing if this file system
+     * reads an existing archive, or if nothing was created.
+     * <p>
+     * No entries can be added afterwards.
+     *
+     * @throws FileSystemException if the archive cannot be written.
+     * @since 2.3
+     */
+    public void finishArchive() throws FileSystemException {
+        final List<String> folders = new ArrayList<>();
+        final ZipArchiveWriter writer;
+        synchronized (this) {
+            if (!writable || archiveWritten) {
+                return;
+            }
+            for (final FileObject fileObject : cache.values()) {
+                final FileName name = fileObject.getName();
+                if (name.getDepth() > 0 && fileObject.getType() == FileType.FOLDER) {
+                    folders.add(name.getPathDecoded().substring(1) + "/");
+                }
+            }
+            if (archiveWriter == null && folders.isEmpty()) {
+                return;
+            }
+            archiveWritten = true;
+            writer = archiveWriter != null ? archiveWriter
+                    : new ZipArchiveWriter(getContext().getTemporaryFileStore());
+            archiveWriter = null;
+        }
+
+        Collections.sort(folders);
+        final FileObject parentLayer = getParentLayer();
+        try {
+            final OutputStream out = parentLayer.getContent().getOutputStream();
+            writer.writeTo(out, folders);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileSystemException("vfs.provider.zip/write-zip-file.error", e, parentLayer.getName());
+        } catch (final IOException | ExecutionException e) {
+            throw new FileSystemException("vfs.provider.zip/write-zip-file.error", e, parentLayer.getName());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes a new archive before closing.
+     */
+    @Override
+    public void close() {
+        try {
+            finishArchive();
+        } catch (final FileSystemException e) {
+            VfsLog.warn(getLogger(), LOG, "vfs.provider.zip/write-zip-file.error :" + getRootName(), e);
+        }
+        super.close();
     }
 
     /**
@@ -199,7 +443,7 @@ public class ZipFileSystem extends AbstractFileSystem {
 
     @Override
     public String toString() {
-        return super.toString() + " for " + file;
+        return super.toString() + " for " + (nestedZipFile != null ? nestedZipFile : file);
     }
 
     /**
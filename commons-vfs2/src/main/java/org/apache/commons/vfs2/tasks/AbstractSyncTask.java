@@ -16,15 +16,27 @@
  */
 package org.apache.commons.vfs2.tasks;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.util.DigestUtils;
 import org.apache.commons.vfs2.util.Messages;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -55,6 +67,10 @@ public abstract class AbstractSyncTask extends VfsTask {
     private boolean srcDirIsBase;
     private boolean failonerror = true;
     private String filesList;
+    private String digestAlgorithm;
+    private int threads = 1;
+    private String manifestUrl;
+    private SyncManifest manifest;
 
     /**
      * Sets the destination file.
@@ -130,6 +146,48 @@ public abstract class AbstractSyncTask extends VfsTask {
         this.filesList = filesList;
     }
 
+    /**
+     * Sets the digest algorithm used to compare files. By default, a destination file is out-of-date if it is older
+     * than the source file. With a digest algorithm, it is out-of-date if its size or digest differ, whatever the last
+     * modified times.
+     *
+     * @param digestAlgorithm The name of the digest algorithm, such as "MD5", or null to compare last modified times.
+     * @see org.apache.commons.vfs2.FileContent#getDigest(String)
+     * @since 2.3
+     */
+    public void setDigestAlgorithm(final String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    /**
+     * Sets the number of threads that compare and handle the source files of a destination directory. Defaults to 1.
+     *
+     * @param threads The number of threads.
+     * @since 2.3
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the manifest file, which records the size, last modified time and digest of each source file at the end of
+     * a sync to a destination directory. The next sync treats a source file that has not changed since as up-to-date,
+     * without looking at its destination file, so it assumes that the destination directory is only changed by this
+     * task. With a digest algorithm, a source file with a new last modified time but the same size and digest is also
+     * up-to-date.
+     * <p>
+     * Tasks that handle destination files without a source file only look at the destination files recorded by the
+     * last sync, instead of listing the whole destination directory. Without a previous manifest, the destination
+     * directory is listed.
+     *
+     * @param manifest The URL of the manifest file, or null to compare each source file with its destination file.
+     * @see #setDigestAlgorithm(String)
+     * @since 2.3
+     */
+    public void setManifest(final String manifest) {
+        this.manifestUrl = manifest;
+    }
+
     /**
      * Adds a nested &lt;src&gt; element.
      *
@@ -241,6 +299,7 @@ public abstract class AbstractSyncTask extends VfsTask {
 
         // Scan the source files
         final Set<FileObject> destFiles = new HashSet<>();
+        final List<FileObject[]> pairs = new ArrayList<>();
         for (int i = 0; i < srcs.size(); i++) {
             final FileObject rootFile = srcs.get(i);
             final FileName rootName = rootFile.getName();
@@ -255,8 +314,8 @@ public abstract class AbstractSyncTask extends VfsTask {
                 }
                 final FileObject destFile = destFolder.resolveFile(relName, NameScope.DESCENDENT);
 
-                // Do the copy
-                handleFile(destFiles, rootFile, destFile);
+                checkDuplicate(destFiles, destFile);
+                pairs.add(new FileObject[] {rootFile, destFile});
             } else {
                 // Find matching files
                 // If srcDirIsBase is true, select also the sub-directories
@@ -274,14 +333,43 @@ public abstract class AbstractSyncTask extends VfsTask {
 
                     final FileObject destFile = destFolder.resolveFile(relName, NameScope.DESCENDENT);
 
-                    // Do the copy
-                    handleFile(destFiles, srcFile, destFile);
+                    checkDuplicate(destFiles, destFile);
+                    pairs.add(new FileObject[] {srcFile, destFile});
+                }
+            }
+        }
+
+        // Do the copy
+        final SyncManifest loadedManifest = manifestUrl != null ? SyncManifest.load(resolveFile(manifestUrl)) : null;
+        manifest = loadedManifest;
+        Throwable failure = null;
+        try {
+            handleFiles(pairs);
+        } catch (final Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (manifest != null) {
+                try {
+                    manifest.save(failure == null);
+                } catch (final IOException e) {
+                    if (failure == null) {
+                        throw e;
+                    }
+                    // do not hide the failure of the sync
+                    failure.addSuppressed(e);
+                } finally {
+                    manifest = null;
                 }
             }
         }
 
         // Scan the destination files for files with no source file
         if (detectMissingSourceFiles()) {
+            if (loadedManifest != null && !loadedManifest.getPreviousUris().isEmpty()) {
+                handleMissingSourceFiles(destFolder, destFiles, loadedManifest);
+                return;
+            }
             final FileObject[] allDestFiles = destFolder.findFiles(Selectors.SELECT_FILES);
             for (final FileObject destFile : allDestFiles) {
                 if (!destFiles.contains(destFile)) {
@@ -292,22 +380,116 @@ public abstract class AbstractSyncTask extends VfsTask {
     }
 
     /**
-     * Handles a single file, checking for collisions where more than one source file maps to the same destination file.
+     * Handles the destination files recorded by the last sync that no longer have a source file.
      */
-    private void handleFile(final Set<FileObject> destFiles, final FileObject srcFile, final FileObject destFile)
-            throws Exception
+    private void handleMissingSourceFiles(final FileObject destFolder, final Set<FileObject> destFiles,
+            final SyncManifest previousManifest) throws Exception {
+        final Set<String> destUris = new HashSet<>();
+        for (final FileObject destFile : destFiles) {
+            destUris.add(destFile.getName().getFriendlyURI());
+        }
+        final String destFolderUri = destFolder.getName().getFriendlyURI();
+        final String prefix = destFolderUri.endsWith("/") ? destFolderUri : destFolderUri + "/";
+        for (final String uri : previousManifest.getPreviousUris()) {
+            if (destUris.contains(uri) || !uri.startsWith(prefix)) {
+                continue;
+            }
+            final FileObject destFile = destFolder.resolveFile(uri.substring(prefix.length()), NameScope.DESCENDENT);
+            if (destFile.isFile()) {
+                handleMissingSourceFile(destFile);
+            }
+        }
+    }
 
-    {
-        // Check for duplicate source files
+    /**
+     * Checks for collisions where more than one source file maps to the same destination file.
+     */
+    private void checkDuplicate(final Set<FileObject> destFiles, final FileObject destFile) {
         if (destFiles.contains(destFile)) {
             final String message = Messages.getString("vfs.tasks/sync.duplicate-source-files.warn", destFile);
             logOrDie(message, Project.MSG_WARN);
         } else {
             destFiles.add(destFile);
         }
+    }
 
-        // Handle the file
-        handleFile(srcFile, destFile);
+    /**
+     * Handles the source files, on a thread pool if more than one thread is configured.
+     */
+    private void handleFiles(final List<FileObject[]> pairs) throws Exception {
+        if (threads <= 1 || pairs.size() <= 1) {
+            for (final FileObject[] pair : pairs) {
+                handleListedFile(pair[0], pair[1]);
+            }
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, pairs.size()));
+        try {
+            final List<Future<Void>> results = new ArrayList<>(pairs.size());
+            for (final FileObject[] pair : pairs) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        handleListedFile(pair[0], pair[1]);
+                        return null;
+                    }
+                }));
+            }
+            Exception failure = null;
+            for (final Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                        executor.shutdownNow();
+                    }
+                } catch (final CancellationException e) {
+                    // skipped after a failure
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Handles a source file of a destination directory, using the manifest if there is one.
+     */
+    private void handleListedFile(final FileObject srcFile, final FileObject destFile) throws Exception {
+        if (manifest == null || !srcFile.isFile()) {
+            handleFile(srcFile, destFile);
+            return;
+        }
+        final String destUri = destFile.getName().getFriendlyURI();
+        final FileContent srcContent = srcFile.getContent();
+        final long size = srcContent.getSize();
+        final long lastModified = srcContent.getLastModifiedTime();
+        final SyncManifest.Entry previous = manifest.getPrevious(destUri);
+        String digest = null;
+        boolean unchanged = false;
+        if (previous != null && previous.getSize() == size) {
+            if (previous.getLastModified() == lastModified) {
+                digest = previous.getDigest();
+                unchanged = true;
+            } else if (digestAlgorithm != null && previous.getDigest() != null) {
+                digest = DigestUtils.toHex(srcContent.getDigest(digestAlgorithm));
+                unchanged = digest.equals(previous.getDigest());
+            }
+        }
+        if (unchanged) {
+            handleUpToDateFile(srcFile, destFile);
+        } else {
+            if (digestAlgorithm != null && digest == null) {
+                // before the file is handled, which may move it
+                digest = DigestUtils.toHex(srcContent.getDigest(digestAlgorithm));
+            }
+            handleFile(srcFile, destFile);
+        }
+        manifest.put(destUri, new SyncManifest.Entry(size, lastModified, digest));
     }
 
     /**
@@ -340,8 +522,7 @@ public abstract class AbstractSyncTask extends VfsTask {
      * Handles a single source file.
      */
     private void handleFile(final FileObject srcFile, final FileObject destFile) throws Exception {
-        if (!destFile.exists()
-                || srcFile.getContent().getLastModifiedTime() > destFile.getContent().getLastModifiedTime()) {
+        if (!destFile.exists() || isOutOfDate(srcFile, destFile)) {
             // Destination file is out-of-date
             handleOutOfDateFile(srcFile, destFile);
         } else {
@@ -350,10 +531,24 @@ public abstract class AbstractSyncTask extends VfsTask {
         }
     }
 
+    /**
+     * Compares an existing destination file with its source file.
+     */
+    private boolean isOutOfDate(final FileObject srcFile, final FileObject destFile) throws FileSystemException {
+        final FileContent srcContent = srcFile.getContent();
+        final FileContent destContent = destFile.getContent();
+        if (digestAlgorithm == null) {
+            return srcContent.getLastModifiedTime() > destContent.getLastModifiedTime();
+        }
+        return srcContent.getSize() != destContent.getSize()
+                || !Arrays.equals(srcContent.getDigest(digestAlgorithm), destContent.getDigest(digestAlgorithm));
+    }
+
     /**
      * Handles an out-of-date file.
      * <p>
-     * This is a file where the destination file either doesn't exist, or is older than the source file.
+     * This is a file where the destination file either doesn't exist, or is older than the source file (differs from
+     * the source file when a digest algorithm is set).
      * <p>
      * This implementation does nothing.
      *
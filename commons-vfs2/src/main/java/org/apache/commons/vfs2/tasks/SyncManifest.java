@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.tasks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.vfs2.FileObject;
+
+/**
+ * The state of the source files at the last sync, so that unchanged files are skipped without looking at their
+ * destination.
+ * <p>
+ * Each entry maps the URI of a destination file, without password, to the size, last modified time and optional
+ * digest of its source file.
+ */
+final class SyncManifest {
+
+    /**
+     * The recorded state of a source file.
+     */
+    static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+
+        Entry(final long size, final long lastModified, final String digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return The hex encoded digest, or null if none was recorded.
+         */
+        String getDigest() {
+            return digest;
+        }
+
+        private static Entry parse(final String value) {
+            final String[] fields = value.split(" ");
+            if (fields.length < 2) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        fields.length > 2 ? fields[2] : null);
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private String format() {
+            return size + " " + lastModified + (digest != null ? " " + digest : "");
+        }
+    }
+
+    private final FileObject file;
+    private final Map<String, Entry> previous = new HashMap<>();
+    private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<>();
+
+    private SyncManifest(final FileObject file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the manifest of the last sync, if there is one. A manifest that cannot be parsed is ignored, so that the
+     * sync compares each source file with its destination file and writes a new manifest.
+     *
+     * @param file The manifest file.
+     * @return The manifest.
+     * @throws IOException if the file cannot be read.
+     */
+    static SyncManifest load(final FileObject file) throws IOException {
+        final SyncManifest manifest = new SyncManifest(file);
+        if (file.exists()) {
+            final Properties properties = new Properties();
+            final InputStream input = file.getContent().getInputStream();
+            try {
+                properties.load(input);
+            } catch (final IllegalArgumentException e) {
+                // malformed escape, start over
+                return manifest;
+            } finally {
+                input.close();
+            }
+            for (final String uri : properties.stringPropertyNames()) {
+                final Entry entry = Entry.parse(properties.getProperty(uri));
+                if (entry != null) {
+                    manifest.previous.put(uri, entry);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the state recorded by the last sync.
+     *
+     * @param uri The URI of the destination file.
+     * @return The entry, or null if the file was not synced before.
+     */
+    Entry getPrevious(final String uri) {
+        return previous.get(uri);
+    }
+
+    /**
+     * Returns the destination files recorded by the last sync.
+     *
+     * @return The URIs of the destination files.
+     */
+    Set<String> getPreviousUris() {
+        return previous.keySet();
+    }
+
+    /**
+     * Records the state of a source file that is now in sync. Can be called from several threads.
+     *
+     * @param uri The URI of the destination file.
+     * @param entry The state of the source file.
+     */
+    void put(final String uri, final Entry entry) {
+        current.put(uri, entry);
+    }
+
+    /**
+     * Writes the manifest.
+     *
+     * @param complete true if every source file was handled, false to keep the previous entries of the files that were
+     *            not.
+     * @throws IOException if the file cannot be written.
+     */
+    void save(final boolean complete) throws IOException {
+        final Properties properties = new Properties();
+        if (!complete) {
+            for (final Map.Entry<String, Entry> entry : previous.entrySet()) {
+                properties.setProperty(entry.getKey(), entry.getValue().format());
+            }
+        }
+        for (final Map.Entry<String, Entry> entry : current.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().format());
+        }
+        final OutputStream output = file.getContent().getOutputStream();
+        try {
+            properties.store(output, "VFS sync manifest");
+        } finally {
+            output.close();
+        }
+    }
+}
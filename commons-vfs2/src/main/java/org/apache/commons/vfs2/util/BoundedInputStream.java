@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that returns at most a given number of bytes of the underlying stream.
+ *
+ * @since 2.3
+ */
+public class BoundedInputStream extends FilterInputStream {
+    private static final int EOF_CHAR = -1;
+    private long remaining;
+
+    /**
+     * Creates a stream that reads at most {@code length} bytes from {@code in}.
+     *
+     * @param in The underlying stream.
+     * @param length The maximum number of bytes to read.
+     */
+    public BoundedInputStream(final InputStream in, final long length) {
+        super(in);
+        this.remaining = length;
+    }
+
+    /**
+     * Returns the number of bytes that can still be read before the bound is reached.
+     *
+     * @return The remaining number of bytes.
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return EOF_CHAR;
+        }
+        final int ch = super.read();
+        if (ch != EOF_CHAR) {
+            remaining--;
+        }
+        return ch;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (remaining <= 0) {
+            return EOF_CHAR;
+        }
+        final int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+        if (count > 0) {
+            remaining -= count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Message digest helpers.
+ *
+ * @since 2.3
+ */
+public final class DigestUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private DigestUtils() {
+    }
+
+    /**
+     * Encodes a digest.
+     *
+     * @param digest The digest.
+     * @return The lower case hex string.
+     */
+    public static String toHex(final byte[] digest) {
+        final char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a stream to its end through a digest.
+     *
+     * @param messageDigest The digest to update.
+     * @param input The stream, which is not closed.
+     * @param bufferSize The size of the read buffer.
+     * @return The digest of the bytes read.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static byte[] digest(final MessageDigest messageDigest, final InputStream input, final int bufferSize)
+            throws IOException {
+        final byte[] buffer = new byte[bufferSize];
+        int count;
+        while ((count = input.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, count);
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * Computes the SHA-1 digest of a string.
+     *
+     * @param value The string, encoded as UTF-8.
+     * @return The lower case hex string of the digest.
+     */
+    public static String sha1Hex(final String value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-1").digest(value.getBytes(UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free latency histogram with power-of-two microsecond buckets.
+ * <p>
+ * Bucket {@code 0} counts samples below one microsecond, bucket {@code i} counts samples in
+ * {@code [2^(i-1), 2^i)} microseconds. The last bucket collects everything above.
+ *
+ * @since 2.3
+ */
+public final class LatencyHistogram {
+    /** Number of buckets, the last one is open ended (about 36 minutes and above). */
+    public static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(final long nanos) {
+        final long value = nanos < 0 ? 0 : nanos;
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    private static int bucketOf(final long nanos) {
+        final long micros = nanos / 1000;
+        if (micros == 0) {
+            return 0;
+        }
+        final int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1;
+    }
+
+    /**
+     * Returns the exclusive upper bound of a bucket in microseconds.
+     *
+     * @param bucket The bucket index.
+     * @return The upper bound or {@link Long#MAX_VALUE} for the last bucket.
+     */
+    public static long getBucketUpperBoundMicros(final int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return 1L << bucket;
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     *
+     * @return The sample count.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded samples.
+     *
+     * @return The total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * Returns the largest recorded sample.
+     *
+     * @return The maximum in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of all recorded samples.
+     *
+     * @return The mean in nanoseconds or 0 if nothing was recorded.
+     */
+    public long getMeanNanos() {
+        final long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / n;
+    }
+
+    /**
+     * Returns a snapshot of the bucket counters.
+     *
+     * @return The counts, indexed by bucket.
+     */
+    public long[] getBucketCounts() {
+        final long[] result = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            result[i] = buckets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket which contains it.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The estimate in microseconds or 0 if nothing was recorded.
+     */
+    public long getPercentileMicros(final double percentile) {
+        final long[] snapshot = getBucketCounts();
+        long total = 0;
+        for (final long n : snapshot) {
+            total += n;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0) {
+                return i == BUCKET_COUNT - 1 ? getMaxNanos() / 1000 : getBucketUpperBoundMicros(i);
+            }
+        }
+        return getMaxNanos() / 1000;
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + getMeanNanos() / 1000 + "us, p50<=" + getPercentileMicros(50)
+                + "us, p99<=" + getPercentileMicros(99) + "us, max=" + getMaxNanos() / 1000 + "us";
+    }
+}
@@ -18,7 +18,12 @@ package org.apache.commons.vfs2.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
+import org.apache.commons.vfs2.FileRange;
 import org.apache.commons.vfs2.RandomAccessContent;
 
 /**
@@ -180,6 +185,21 @@ public class MonitorRandomAccessContent implements RandomAccessContent {
         content.setLength(newLength);
     }
 
+    @Override
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        return content.read(position, b, off, len);
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        return content.read(position, dst);
+    }
+
+    @Override
+    public List<Future<ByteBuffer>> readVectored(final List<FileRange> ranges, final Executor executor) {
+        return content.readVectored(ranges, executor);
+    }
+
     @Override
     public boolean readBoolean() throws IOException {
         return content.readBoolean();
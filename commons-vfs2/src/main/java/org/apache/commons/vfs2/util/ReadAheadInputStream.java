@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An InputStream that reads the next buffers of another stream on a background thread, while the current one is
+ * consumed.
+ * <p>
+ * The wrapped stream is read into {@code depth} buffers, and the background thread waits once they are all filled and
+ * not consumed yet. Read failures are reported by the read call that reaches them. The thread is started by the first
+ * read, and {@link #close()} waits for it to finish its current read before closing the wrapped stream, so the wrapped
+ * stream is never used by two threads at a time.
+ *
+ * @since 2.3
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    /**
+     * A filled buffer, the end of the stream, or a read failure.
+     */
+    private static final class Chunk {
+        private final byte[] buffer;
+        private final int length;
+        private final IOException failure;
+
+        Chunk(final byte[] buffer, final int length, final IOException failure) {
+            this.buffer = buffer;
+            this.length = length;
+            this.failure = failure;
+        }
+    }
+
+    private static final int EOF = -1;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final InputStream in;
+    private final BlockingQueue<byte[]> free;
+    private final BlockingQueue<Chunk> filled;
+    private Thread reader;
+    private volatile boolean closed;
+
+    // consumer state
+    private Chunk current;
+    private int position;
+    private boolean finished;
+
+    /**
+     * Creates a stream.
+     *
+     * @param in The stream to read ahead.
+     * @param bufferSize The size of each buffer.
+     * @param depth The number of buffers, at least 1.
+     */
+    public ReadAheadInputStream(final InputStream in, final int bufferSize, final int depth) {
+        if (bufferSize <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("bufferSize and depth must be positive");
+        }
+        this.in = in;
+        this.free = new ArrayBlockingQueue<>(depth + 1);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) {
+            free.add(new byte[bufferSize]);
+        }
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                final byte[] buffer = free.take();
+                if (closed) {
+                    return;
+                }
+                final int length;
+                try {
+                    length = in.read(buffer, 0, buffer.length);
+                } catch (final IOException e) {
+                    filled.add(new Chunk(null, EOF, e));
+                    return;
+                }
+                filled.add(new Chunk(buffer, length, null));
+                if (length == EOF) {
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            // stop reading
+        } catch (final RuntimeException e) {
+            filled.add(new Chunk(null, EOF, new IOException(e)));
+        }
+    }
+
+    /**
+     * Makes sure there are unread bytes in the current buffer.
+     *
+     * @return false at the end of the stream.
+     */
+    private boolean fill() throws IOException {
+        while (current == null || position == current.length) {
+            if (finished) {
+                return false;
+            }
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (current != null) {
+                free.add(current.buffer);
+                current = null;
+            }
+            if (reader == null) {
+                reader = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        readAhead();
+                    }
+                }, "vfs-read-ahead-" + THREAD_COUNT.incrementAndGet());
+                reader.setDaemon(true);
+                reader.start();
+            }
+            final Chunk chunk;
+            try {
+                chunk = filled.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (chunk.failure != null) {
+                finished = true;
+                throw chunk.failure;
+            }
+            if (chunk.length == EOF) {
+                finished = true;
+                return false;
+            }
+            current = chunk;
+            position = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return EOF;
+        }
+        return current.buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return EOF;
+        }
+        final int count = Math.min(len, current.length - position);
+        System.arraycopy(current.buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes that can be read from the current buffer without blocking.
+     */
+    @Override
+    public int available() throws IOException {
+        return current != null ? current.length - position : 0;
+    }
+
+    /**
+     * Stops the background thread, once its current read has finished, and closes the wrapped stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (reader != null) {
+            // wake the reader up if it waits for a buffer
+            free.offer(new byte[0]);
+            boolean interrupted = false;
+            while (reader.isAlive()) {
+                try {
+                    reader.join();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        current = null;
+        filled.clear();
+        in.close();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.FileOperationStatistics;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link NegativeLookupCache}.
+ */
+public class NegativeLookupCacheTest {
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private final FileSystemOptions opts = new FileSystemOptions();
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("NegativeLookupCacheTest");
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        DefaultFileSystemConfigBuilder.getInstance().setNegativeLookupCacheSize(opts, Integer.valueOf(10));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private static NegativeLookupCache getCache(final FileObject file) {
+        return ((AbstractFileSystem) file.getFileSystem()).getNegativeLookupCache();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        assertNull(getCache(manager.resolveFile("ram:///missing")));
+    }
+
+    @Test
+    public void testMissingFileIsNotProbedAgain() throws Exception {
+        final File file = new File(testDir, "missing.txt");
+        final FileObject fileObject = manager.resolveFile(file.toURI().toString(), opts);
+        assertFalse(fileObject.exists());
+
+        FileUtils.touch(file);
+        fileObject.refresh();
+        assertFalse(fileObject.exists());
+
+        final NegativeLookupCache cache = getCache(fileObject);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0);
+
+        cache.clear();
+        fileObject.refresh();
+        assertTrue(fileObject.exists());
+    }
+
+    @Test
+    public void testMissingFileIsNotAttachedAgain() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setOperationTracing(opts, true);
+        final FileObject fileObject = manager.resolveFile(new File(testDir, "missing.txt").toURI().toString(), opts);
+        final FileOperationStatistics statistics = ((AbstractFileSystem) fileObject.getFileSystem())
+                .getOperationStatistics();
+        assertFalse(fileObject.exists());
+        assertEquals(1, statistics.getHistogram(FileOperationStatistics.Operation.ATTACH).getCount());
+
+        fileObject.refresh();
+        assertFalse(fileObject.exists());
+        assertEquals(1, statistics.getHistogram(FileOperationStatistics.Operation.ATTACH).getCount());
+        assertEquals(1, statistics.getHistogram(FileOperationStatistics.Operation.GET_TYPE).getCount());
+    }
+
+    @Test
+    public void testInvalidatedByCreate() throws Exception {
+        final FileObject folder = manager.resolveFile("ram:///folder", opts);
+        final FileObject file = folder.resolveFile("file.txt");
+        assertFalse(file.exists());
+        assertFalse(folder.exists());
+
+        file.createFile();
+        folder.refresh();
+        file.refresh();
+        assertTrue(folder.exists());
+        assertTrue(file.exists());
+
+        final FileObject copy = folder.resolveFile("copy.txt");
+        assertFalse(copy.exists());
+        copy.copyFrom(file, Selectors.SELECT_SELF);
+        copy.refresh();
+        assertTrue(copy.exists());
+
+        final FileObject moved = folder.resolveFile("moved.txt");
+        assertFalse(moved.exists());
+        copy.moveTo(moved);
+        moved.refresh();
+        assertTrue(moved.exists());
+        copy.refresh();
+        assertFalse(copy.exists());
+    }
+
+    @Test
+    public void testBoundedAndExpiring() throws Exception {
+        final FileObject root = manager.resolveFile("ram:///", opts);
+        final NegativeLookupCache small = new NegativeLookupCache(2, 60 * 1000);
+        small.putMissing(root.resolveFile("a").getName());
+        small.putMissing(root.resolveFile("b").getName());
+        small.putMissing(root.resolveFile("c").getName());
+        assertEquals(2, small.size());
+        assertFalse(small.isMissing(root.resolveFile("a").getName()));
+        assertTrue(small.isMissing(root.resolveFile("c").getName()));
+
+        final NegativeLookupCache expired = new NegativeLookupCache(2, 0);
+        expired.putMissing(root.resolveFile("a").getName());
+        assertFalse(expired.isMissing(root.resolveFile("a").getName()));
+        assertEquals(0, expired.size());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.CacheStrategy;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link CacheStrategy#TIME_TO_LIVE}.
+ */
+public class TimeToLiveCacheStrategyTest {
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("TimeToLiveCacheStrategyTest");
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.setFilesCache(new DefaultFilesCache());
+        manager.setCacheStrategy(CacheStrategy.TIME_TO_LIVE);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private static void write(final File file, final int length) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[length]);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void testReusedWithinTimeToLive() throws Exception {
+        manager.setCacheTimeToLive("file", 60 * 60 * 1000);
+
+        final File file = new File(testDir, "ttl.txt");
+        final FileObject fileObject = manager.resolveFile(file.getAbsolutePath());
+        assertFalse(fileObject.exists());
+
+        write(file, 10);
+        // created behind our back, the cached type is still valid
+        assertFalse(manager.resolveFile(file.getAbsolutePath()).exists());
+
+        fileObject.refresh();
+        assertTrue(fileObject.exists());
+        assertEquals(10, fileObject.getContent().getSize());
+
+        write(file, 20);
+        assertEquals(10, fileObject.getContent().getSize());
+        assertEquals(1, ((AbstractFileSystem) fileObject.getFileSystem()).getRefreshCount());
+    }
+
+    @Test
+    public void testExpiredTimeToLive() throws Exception {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setCacheTimeToLive(opts, Long.valueOf(0));
+
+        final File file = new File(testDir, "expired.txt");
+        final FileObject fileObject = manager.resolveFile(file.toURI().toString(), opts);
+        assertFalse(fileObject.exists());
+
+        write(file, 10);
+        assertTrue(fileObject.exists());
+        assertEquals(10, fileObject.getContent().getSize());
+
+        write(file, 20);
+        assertEquals(20, fileObject.getContent().getSize());
+        assertTrue(((AbstractFileSystem) fileObject.getFileSystem()).getRefreshCount() >= 2);
+    }
+
+    @Test
+    public void testInvalidatedByLocalWrite() throws Exception {
+        manager.setCacheTimeToLive(60 * 60 * 1000);
+
+        final FileObject fileObject = manager.resolveFile(new File(testDir, "written.txt").getAbsolutePath());
+        fileObject.getContent().getOutputStream().write(new byte[5]);
+        fileObject.getContent().close();
+        assertEquals(5, fileObject.getContent().getSize());
+
+        fileObject.getContent().getOutputStream().write(new byte[7]);
+        fileObject.getContent().close();
+        assertEquals(7, fileObject.getContent().getSize());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.AsyncFileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.DefaultFileContent;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link AsyncFileObject}.
+ */
+public class AsyncFileObjectTest {
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+    }
+
+    @Test
+    public void testOperations() throws Exception {
+        final AsyncFileObject folder = manager.resolveFileAsync("ram:///async", null).get();
+        assertFalse(folder.exists().get().booleanValue());
+
+        final AsyncFileObject file = folder.resolveFile("file.txt").get();
+        final OutputStream out = file.getOutputStream(false).get();
+        out.write(new byte[] {1, 2, 3});
+        out.close();
+
+        assertTrue(folder.exists().get().booleanValue());
+        assertEquals(3, file.getSize().get().longValue());
+        assertEquals(1, folder.getChildren().get().length);
+
+        final AsyncFileObject copy = folder.resolveFile("copy.txt").get();
+        copy.copyFrom(file.getFileObject(), Selectors.SELECT_SELF).get();
+        // streams opened in the background may be closed by the caller
+        final InputStream in = copy.getInputStream().get();
+        assertEquals(3, in.available());
+        in.close();
+        assertFalse(copy.getFileObject().getContent().isOpen());
+
+        assertTrue(copy.delete().get().booleanValue());
+        assertEquals(2, folder.delete(Selectors.SELECT_ALL).get().intValue());
+    }
+
+    @Test
+    public void testStreamClosedByOtherThread() throws Exception {
+        final FileObject file = manager.resolveFile("ram:///closed.txt");
+        file.createFile();
+        final ExecutorService owner = Executors.newSingleThreadExecutor();
+        try {
+            final InputStream in = owner.submit(new Callable<InputStream>() {
+                @Override
+                public InputStream call() throws Exception {
+                    return file.getContent().getInputStream();
+                }
+            }).get();
+            final Callable<Boolean> isOpen = new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return Boolean.valueOf(file.getContent().isOpen());
+                }
+            };
+            assertTrue(owner.submit(isOpen).get().booleanValue());
+            assertFalse(file.getContent().isOpen());
+
+            in.close();
+            assertFalse(owner.submit(isOpen).get().booleanValue());
+            assertFalse(((DefaultFileContent) file.getContent()).isOpenGlobal());
+        } finally {
+            owner.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final AsyncFileObject file = manager.resolveFileAsync("ram:///missing", null).get();
+        try {
+            file.getInputStream().get();
+            fail();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof FileSystemException);
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        final FileSystemOptions limited = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setAsyncConcurrencyLimit(limited, Integer.valueOf(1));
+        final AsyncFileObject slow = manager.toAsyncFileObject(manager.resolveFile("ram:///slow", limited));
+        final AsyncFileObject fast = manager.toAsyncFileObject(manager.resolveFile("ram:///fast"));
+        slow.getFileObject().createFile();
+        fast.getFileObject().createFile();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final FileSelector blocking = new FileSelector() {
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) throws Exception {
+                enter(active, maxActive);
+                started.countDown();
+                release.await();
+                active.decrementAndGet();
+                return false;
+            }
+
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                return true;
+            }
+        };
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+        final FileSelector counting = new FileSelector() {
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) throws Exception {
+                enter(active, maxActive);
+                secondStarted.countDown();
+                active.decrementAndGet();
+                return false;
+            }
+
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                return true;
+            }
+        };
+        final Future<Integer> first = slow.delete(blocking);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<Integer> second = slow.delete(counting);
+        // other file systems are not affected
+        assertTrue(fast.exists().get(5, TimeUnit.SECONDS).booleanValue());
+        // queued behind the first operation
+        assertEquals(1, secondStarted.getCount());
+        assertFalse(second.isDone());
+
+        release.countDown();
+        assertEquals(0, first.get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(0, second.get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(1, maxActive.get());
+    }
+
+    private static void enter(final AtomicInteger active, final AtomicInteger maxActive) {
+        final int count = active.incrementAndGet();
+        int max;
+        while ((max = maxActive.get()) < count && !maxActive.compareAndSet(max, count)) {
+            // retry
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.DecoratedFileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.impl.ListingFileMonitor;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ListingFileMonitor}.
+ */
+public class ListingFileMonitorTest {
+
+    /**
+     * Records the events as "created a", "deleted a/b" or "changed a".
+     */
+    private class Recorder implements FileListener {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        private void add(final String kind, final FileChangeEvent event) {
+            final String path = event.getFile().getName().getPath();
+            events.add(kind + " " + path.substring(rootPath.length() + 1));
+        }
+
+        @Override
+        public void fileCreated(final FileChangeEvent event) {
+            add("created", event);
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) {
+            add("deleted", event);
+        }
+
+        @Override
+        public void fileChanged(final FileChangeEvent event) {
+            add("changed", event);
+        }
+
+        private String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Counts the listings of a folder that run at the same time, across all instances.
+     */
+    private static class CountingFolder extends DecoratedFileObject {
+        private final AtomicInteger active;
+        private final AtomicInteger maxActive;
+        private final AtomicInteger listings;
+
+        CountingFolder(final FileObject folder, final AtomicInteger active, final AtomicInteger maxActive,
+                final AtomicInteger listings) {
+            super(folder);
+            this.active = active;
+            this.maxActive = maxActive;
+            this.listings = listings;
+        }
+
+        @Override
+        public FileObject[] getChildren() throws FileSystemException {
+            final int current = active.incrementAndGet();
+            try {
+                int max;
+                while ((max = maxActive.get()) < current && !maxActive.compareAndSet(max, current)) {
+                    // retry
+                }
+                Thread.sleep(50);
+                return super.getChildren();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileSystemException(e);
+            } finally {
+                active.decrementAndGet();
+                listings.incrementAndGet();
+            }
+        }
+    }
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private String rootPath;
+
+    private Recorder recorder;
+
+    private ListingFileMonitor monitor;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("ListingFileMonitorTest");
+        FileUtils.cleanDirectory(testDir);
+        FileUtils.write(new File(testDir, "a.txt"), "a", StandardCharsets.UTF_8);
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+        final FileObject root = manager.resolveFile(testDir.getAbsolutePath());
+        rootPath = root.getName().getPath();
+        recorder = new Recorder();
+        monitor = new ListingFileMonitor(recorder);
+        monitor.setMinDelay(20);
+        monitor.setMaxDelay(100);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        monitor.stop();
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    @Test
+    public void testFolderChanges() throws Exception {
+        monitor.addFile(manager.resolveFile(testDir.getAbsolutePath()));
+        monitor.start();
+
+        FileUtils.write(new File(testDir, "b.txt"), "b", StandardCharsets.UTF_8);
+        assertEquals("created b.txt", recorder.next());
+
+        FileUtils.write(new File(testDir, "a.txt"), "changed", StandardCharsets.UTF_8);
+        assertEquals("changed a.txt", recorder.next());
+
+        assertTrue(new File(testDir, "a.txt").delete());
+        assertEquals("deleted a.txt", recorder.next());
+        assertNull(recorder.events.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRecursive() throws Exception {
+        monitor.setRecursive(true);
+        monitor.addFile(manager.resolveFile(testDir.getAbsolutePath()));
+        monitor.start();
+
+        final File sub = new File(testDir, "sub");
+        FileUtils.write(new File(sub, "c.txt"), "c", StandardCharsets.UTF_8);
+        assertEquals("created sub", recorder.next());
+        assertEquals("created sub/c.txt", recorder.next());
+
+        FileUtils.write(new File(sub, "c.txt"), "changed", StandardCharsets.UTF_8);
+        assertEquals("changed sub/c.txt", recorder.next());
+
+        FileUtils.deleteDirectory(sub);
+        assertEquals("deleted sub/c.txt", recorder.next());
+        assertEquals("deleted sub", recorder.next());
+    }
+
+    @Test
+    public void testFile() throws Exception {
+        final File file = new File(testDir, "file.txt");
+        monitor.addFile(manager.resolveFile(file.getAbsolutePath()));
+        monitor.start();
+
+        FileUtils.write(file, "file", StandardCharsets.UTF_8);
+        assertEquals("created file.txt", recorder.next());
+        FileUtils.write(file, "changed", StandardCharsets.UTF_8);
+        assertEquals("changed file.txt", recorder.next());
+        assertTrue(file.delete());
+        assertEquals("deleted file.txt", recorder.next());
+        FileUtils.write(file, "again", StandardCharsets.UTF_8);
+        assertEquals("created file.txt", recorder.next());
+    }
+
+    @Test
+    public void testAdaptiveDelay() throws Exception {
+        final FileObject root = manager.resolveFile(testDir.getAbsolutePath());
+        monitor.addFile(root);
+        assertEquals(20, monitor.getDelay(root));
+        monitor.start();
+
+        // quiet folders are polled less often
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (monitor.getDelay(root) < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(100, monitor.getDelay(root));
+
+        FileUtils.write(new File(testDir, "b.txt"), "b", StandardCharsets.UTF_8);
+        assertEquals("created b.txt", recorder.next());
+        Thread.sleep(20);
+        assertTrue(monitor.getDelay(root) < 100);
+
+        monitor.removeFile(root);
+        assertEquals(-1, monitor.getDelay(root));
+    }
+
+    @Test
+    public void testHostConcurrency() throws Exception {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger listings = new AtomicInteger();
+        monitor.setHostConcurrency(2);
+        monitor.setMinDelay(10);
+        monitor.setMaxDelay(10);
+        for (int i = 0; i < 6; i++) {
+            final File folder = new File(testDir, "folder" + i);
+            assertTrue(folder.mkdir());
+            monitor.addFile(new CountingFolder(manager.resolveFile(folder.getAbsolutePath()), active, maxActive,
+                    listings));
+        }
+        listings.set(0);
+        maxActive.set(0);
+        monitor.start();
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (listings.get() < 30 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        monitor.stop();
+        assertTrue(listings.get() >= 30);
+        // the six folders are on the same host
+        assertEquals(2, maxActive.get());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.impl.PersistentFileReplicator;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link PersistentFileReplicator}.
+ */
+public class PersistentFileReplicatorTest {
+
+    private File testDir;
+
+    private File storeDir;
+
+    private final List<DefaultFileSystemManager> managers = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("PersistentFileReplicatorTest");
+        storeDir = new File(testDir, "store");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (final DefaultFileSystemManager manager : managers) {
+            manager.close();
+        }
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private PersistentFileReplicator createReplicator(final long maxSize) throws Exception {
+        final PersistentFileReplicator replicator = new PersistentFileReplicator(storeDir, maxSize);
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.setReplicator(replicator);
+        manager.setTemporaryFileStore(replicator);
+        manager.init();
+        managers.add(manager);
+        return replicator;
+    }
+
+    private FileObject createSource(final String name, final String content) throws Exception {
+        final File file = new File(testDir, name);
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+        return managers.get(0).resolveFile(file.getAbsolutePath());
+    }
+
+    @Test
+    public void testReusedAcrossManagers() throws Exception {
+        final PersistentFileReplicator replicator = createReplicator(1024);
+        final FileObject source = createSource("source.txt", "content");
+
+        final File replica = replicator.replicateFile(source, Selectors.SELECT_SELF);
+        assertEquals("content", FileUtils.readFileToString(replica, "UTF-8"));
+        assertEquals(replica, replicator.replicateFile(source, Selectors.SELECT_SELF));
+        assertEquals(1, replicator.getMissCount());
+        assertEquals(1, replicator.getHitCount());
+
+        managers.get(0).close();
+        managers.clear();
+        assertTrue(replica.exists());
+
+        final PersistentFileReplicator other = createReplicator(1024);
+        final FileObject sameSource = managers.get(0).resolveFile(new File(testDir, "source.txt").getAbsolutePath());
+        assertEquals(replica, other.replicateFile(sameSource, Selectors.SELECT_SELF));
+        assertEquals(0, other.getMissCount());
+    }
+
+    @Test
+    public void testChangedSource() throws Exception {
+        final PersistentFileReplicator replicator = createReplicator(1024);
+        final FileObject source = createSource("source.txt", "first");
+        final File first = replicator.replicateFile(source, Selectors.SELECT_SELF);
+
+        FileUtils.writeStringToFile(new File(testDir, "source.txt"), "second!", "UTF-8");
+        source.refresh();
+        final File second = replicator.replicateFile(source, Selectors.SELECT_SELF);
+        assertNotEquals(first, second);
+        assertEquals("second!", FileUtils.readFileToString(second, "UTF-8"));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final PersistentFileReplicator replicator = createReplicator(10);
+        final File first = replicator.replicateFile(createSource("a.txt", "123456"), Selectors.SELECT_SELF);
+        managers.get(0).close();
+        managers.clear();
+        first.setLastModified(System.currentTimeMillis() - 2 * PersistentFileReplicator.EVICTION_GRACE_PERIOD);
+
+        final PersistentFileReplicator other = createReplicator(10);
+        final File second = other.replicateFile(createSource("b.txt", "123456"), Selectors.SELECT_SELF);
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final PersistentFileReplicator replicator = createReplicator(1024 * 1024);
+        final FileObject source = createSource("large.bin", new String(new char[100000]));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        return replicator.replicateFile(source, Selectors.SELECT_SELF);
+                    }
+                }));
+            }
+            for (final Future<File> result : results) {
+                assertEquals(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, replicator.getMissCount());
+        assertEquals(7, replicator.getHitCount());
+    }
+
+    @Test
+    public void testSingleFlightAcrossReplicators() throws Exception {
+        final PersistentFileReplicator[] replicators = { createReplicator(1024 * 1024),
+                createReplicator(1024 * 1024) };
+        final FileObject source = createSource("large.bin", new String(new char[100000]));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final PersistentFileReplicator replicator = replicators[i % 2];
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        return replicator.replicateFile(source, Selectors.SELECT_SELF);
+                    }
+                }));
+            }
+            for (final Future<File> result : results) {
+                assertEquals(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, replicators[0].getMissCount() + replicators[1].getMissCount());
+    }
+}
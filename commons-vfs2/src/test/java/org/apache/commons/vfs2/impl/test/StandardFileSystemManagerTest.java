@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.Test;
+
+/**
+ * Tests the provider registration of {@link StandardFileSystemManager}.
+ */
+public class StandardFileSystemManagerTest {
+
+    /**
+     * Counts its instances.
+     */
+    public static class CountingFileProvider extends RamFileProvider {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public CountingFileProvider() {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the classes it is asked to load.
+     */
+    private static class RecordingClassLoader extends ClassLoader {
+        final Set<String> loaded = Collections.synchronizedSet(new HashSet<String>());
+
+        RecordingClassLoader() {
+            super(StandardFileSystemManagerTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            loaded.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private static StandardFileSystemManager createManager(final URL configUri) throws FileSystemException {
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        if (configUri != null) {
+            manager.setConfiguration(configUri);
+        }
+        manager.init();
+        return manager;
+    }
+
+    private static URL getXmlConfiguration() {
+        return StandardFileSystemManager.class.getResource("providers.xml");
+    }
+
+    @Test
+    public void testProviderCreatedOnFirstUse() throws Exception {
+        final File config = new File(AbstractVfsTestCase.getTestDirectory("StandardFileSystemManagerTest"),
+                "counting-providers.xml");
+        FileUtils.writeStringToFile(config, "<providers>"
+                + "<provider class-name=\"" + CountingFileProvider.class.getName() + "\">"
+                + "<scheme name=\"count1\"/><scheme name=\"count2\"/></provider>"
+                + "</providers>", "UTF-8");
+        CountingFileProvider.INSTANCES.set(0);
+
+        final StandardFileSystemManager manager = createManager(config.toURI().toURL());
+        try {
+            assertTrue(manager.hasProvider("count1"));
+            assertTrue(Arrays.asList(manager.getSchemes()).contains("count2"));
+            assertEquals(0, CountingFileProvider.INSTANCES.get());
+
+            final FileObject file = manager.resolveFile("count1:///a");
+            file.createFile();
+            assertTrue(file.exists());
+            assertEquals(1, CountingFileProvider.INSTANCES.get());
+
+            // the other scheme shares the provider
+            manager.resolveFile("count2:///a");
+            assertEquals(1, CountingFileProvider.INSTANCES.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testIndexMatchesXmlConfiguration() throws Exception {
+        final StandardFileSystemManager indexManager = createManager(null);
+        final StandardFileSystemManager xmlManager = createManager(getXmlConfiguration());
+        try {
+            final Set<String> schemes = new HashSet<>(Arrays.asList(xmlManager.getSchemes()));
+            assertEquals(schemes, new HashSet<>(Arrays.asList(indexManager.getSchemes())));
+            for (final String scheme : schemes) {
+                assertEquals(scheme, new HashSet<>(xmlManager.getProviderCapabilities(scheme)),
+                        new HashSet<>(indexManager.getProviderCapabilities(scheme)));
+            }
+            assertFalse(indexManager.hasProvider("unknown"));
+            // absolute local paths need the local file provider before the file scheme is used
+            final String path = AbstractVfsTestCase.getTestDirectory("StandardFileSystemManagerTest").getAbsolutePath();
+            assertEquals("file", indexManager.resolveFile(path).getName().getScheme());
+        } finally {
+            xmlManager.close();
+            indexManager.close();
+        }
+    }
+
+    @Test
+    public void testProviderClassLoadedOnFirstUse() throws Exception {
+        final File config = new File(AbstractVfsTestCase.getTestDirectory("StandardFileSystemManagerTest"),
+                "recorded-providers.xml");
+        FileUtils.writeStringToFile(config, "<providers>"
+                + "<provider class-name=\"" + RamFileProvider.class.getName() + "\">"
+                + "<scheme name=\"recorded\"/></provider>"
+                + "</providers>", "UTF-8");
+        final RecordingClassLoader classLoader = new RecordingClassLoader();
+
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        manager.setConfiguration(config.toURI().toURL());
+        manager.setClassLoader(classLoader);
+        manager.init();
+        try {
+            assertTrue(manager.hasProvider("recorded"));
+            assertFalse(classLoader.loaded.contains(RamFileProvider.class.getName()));
+
+            manager.resolveFile("recorded:///a");
+            assertTrue(classLoader.loaded.contains(RamFileProvider.class.getName()));
+        } finally {
+            manager.close();
+        }
+    }
+}
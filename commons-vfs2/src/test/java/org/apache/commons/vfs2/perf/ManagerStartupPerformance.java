@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.net.URL;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+
+/**
+ * Measures the startup of {@link VFS#getManager()}, then compares starting a manager from the provider index, creating
+ * providers on first use, with parsing providers.xml and creating every provider.
+ */
+public class ManagerStartupPerformance {
+    private final static int NUOF_STARTUPS = 20;
+
+    public static void main(final String[] args) throws FileSystemException {
+        // first, so that the classes are not loaded yet
+        final long start = System.nanoTime();
+        VFS.getManager();
+        final long getManagerNanos = System.nanoTime() - start;
+        System.err.println("time of the first VFS.getManager(): " + getManagerNanos / 1000 + "us");
+
+        final URL xmlConfiguration = StandardFileSystemManager.class.getResource("providers.xml");
+        // warmup jvm
+        startup(null, false);
+        startup(xmlConfiguration, true);
+
+        long lazyNanos = Long.MAX_VALUE;
+        long eagerNanos = Long.MAX_VALUE;
+        for (int i = 0; i < NUOF_STARTUPS; i++) {
+            lazyNanos = Math.min(lazyNanos, startup(null, false));
+            eagerNanos = Math.min(eagerNanos, startup(xmlConfiguration, true));
+        }
+        System.err.println("time to start a manager: index and lazy providers " + lazyNanos / 1000
+                + "us, XML and all providers " + eagerNanos / 1000 + "us");
+    }
+
+    private static long startup(final URL configUri, final boolean createProviders) throws FileSystemException {
+        final long start = System.nanoTime();
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        try {
+            if (configUri != null) {
+                manager.setConfiguration(configUri);
+            }
+            manager.init();
+            if (createProviders) {
+                for (final String scheme : manager.getSchemes()) {
+                    manager.getProviderCapabilities(scheme);
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            manager.close();
+        }
+    }
+}
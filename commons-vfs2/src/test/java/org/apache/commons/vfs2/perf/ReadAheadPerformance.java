@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.vfs2.util.ReadAheadInputStream;
+
+/**
+ * Compares reading a stream with a simulated round trip per read, synchronously and with {@link ReadAheadInputStream},
+ * while the consumer also takes time per buffer.
+ */
+public class ReadAheadPerformance {
+    private final static int BUFFER_SIZE = 16384;
+    private final static int BUFFERS = 40;
+    private final static long LATENCY_MILLIS = 10;
+    private final static int DEPTH = 2;
+
+    /**
+     * Makes each read take as long as a round trip.
+     */
+    private static class LatencyInputStream extends InputStream {
+        private final InputStream in;
+
+        LatencyInputStream(final byte[] data) {
+            this.in = new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            sleep(LATENCY_MILLIS);
+            return in.read(b, off, Math.min(len, BUFFER_SIZE));
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final byte[] data = new byte[BUFFERS * BUFFER_SIZE];
+
+        // warmup jvm
+        readAll(new ReadAheadInputStream(new LatencyInputStream(data), BUFFER_SIZE, DEPTH));
+
+        long start = System.nanoTime();
+        readAll(new LatencyInputStream(data));
+        final long plainNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        readAll(new ReadAheadInputStream(new LatencyInputStream(data), BUFFER_SIZE, DEPTH));
+        final long readAheadNanos = System.nanoTime() - start;
+
+        System.err.println(String.format("read %d KiB: synchronous %.1f MB/s, read ahead %.1f MB/s",
+                Integer.valueOf(data.length / 1024), Double.valueOf(data.length * 1000.0 / plainNanos),
+                Double.valueOf(data.length * 1000.0 / readAheadNanos)));
+    }
+
+    private static void readAll(final InputStream in) throws IOException {
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // consume
+                sleep(LATENCY_MILLIS);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void sleep(final long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
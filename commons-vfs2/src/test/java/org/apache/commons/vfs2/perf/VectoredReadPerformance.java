@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileRange;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.VectoredRead;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.util.MonitorRandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Compares single positional reads with {@link VectoredRead}, in parallel and merged, when each read costs a simulated
+ * round trip. The ranges are like the column chunks of a columnar file: 32 small ranges, 8 KiB apart.
+ */
+public class VectoredReadPerformance {
+    private final static int SIZE = 1024 * 1024;
+    private final static long LATENCY_MILLIS = 20;
+
+    /**
+     * Makes each positional read take as long as a round trip.
+     */
+    private static class SlowContent extends MonitorRandomAccessContent {
+        SlowContent(final RandomAccessContent content) {
+            super(content);
+        }
+
+        @Override
+        public int read(final long position, final ByteBuffer dst) throws IOException {
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (final InterruptedException e) {
+                throw new IOException(e);
+            }
+            return super.read(position, dst);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final FileObject file = manager.resolveFile("ram:///data.bin");
+            final OutputStream out = file.getContent().getOutputStream();
+            out.write(new byte[SIZE]);
+            out.close();
+            final RandomAccessContent content = new SlowContent(
+                    file.getContent().getRandomAccessContent(RandomAccessMode.READ));
+
+            final List<FileRange> ranges = new ArrayList<>();
+            for (int i = 31; i >= 0; i--) {
+                ranges.add(new FileRange(i * 8192L + 100, 500));
+            }
+
+            long start = System.nanoTime();
+            for (final FileRange range : ranges) {
+                final ByteBuffer buffer = ByteBuffer.allocate(range.getLength());
+                while (buffer.hasRemaining()) {
+                    content.read(range.getOffset() + buffer.position(), buffer);
+                }
+            }
+            final long single = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            await(VectoredRead.read(content, ranges, executor, 0, SIZE));
+            final long parallel = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            await(VectoredRead.read(content, ranges, executor, 64 * 1024, 64 * 1024));
+            final long merged = System.nanoTime() - start;
+
+            System.err.println("vectored read of " + ranges.size() + " ranges: single " + single / 1000000
+                    + "ms, parallel " + parallel / 1000000 + "ms, merged " + merged / 1000000 + "ms");
+            content.close();
+        } finally {
+            executor.shutdown();
+            manager.close();
+        }
+    }
+
+    private static void await(final List<Future<ByteBuffer>> buffers) throws Exception {
+        for (final Future<ByteBuffer> buffer : buffers) {
+            buffer.get();
+        }
+    }
+}
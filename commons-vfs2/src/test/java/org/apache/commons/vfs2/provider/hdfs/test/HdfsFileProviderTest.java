@@ -21,20 +21,26 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
 import org.apache.commons.vfs2.provider.hdfs.HdfsFileAttributes;
 import org.apache.commons.vfs2.provider.hdfs.HdfsFileProvider;
+import org.apache.commons.vfs2.provider.hdfs.HdfsFileSystemConfigBuilder;
 import org.apache.commons.vfs2.util.Os;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.hadoop.hdfs.MiniDFSCluster;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -64,6 +70,26 @@ public class HdfsFileProviderTest {
     private static final String TEST_FILE1 = TEST_DIR1 + "/accumulo-test-1.jar";
     private static final Path FILE1_PATH = new Path(DIR1_PATH, "accumulo-test-1.jar");
 
+    /**
+     * Counts the calls of the NameNode made through VFS.
+     */
+    public static class CountingFileSystem extends DistributedFileSystem {
+        static final AtomicInteger FILE_STATUS_CALLS = new AtomicInteger();
+        static final AtomicInteger LISTING_CALLS = new AtomicInteger();
+
+        @Override
+        public FileStatus getFileStatus(final Path f) throws IOException {
+            FILE_STATUS_CALLS.incrementAndGet();
+            return super.getFileStatus(f);
+        }
+
+        @Override
+        public FileStatus[] listStatus(final Path p) throws IOException {
+            LISTING_CALLS.incrementAndGet();
+            return super.listStatus(p);
+        }
+    }
+
     private static DefaultFileSystemManager manager;
     private static FileSystem hdfs;
 
@@ -183,6 +209,32 @@ public class HdfsFileProviderTest {
 
     }
 
+    @Test
+    public void testListChildrenWithStatus() throws Exception {
+        hdfs.mkdirs(DIR1_PATH);
+        for (int i = 0; i < 20; i++) {
+            hdfs.create(new Path(DIR1_PATH, "file" + i)).close();
+        }
+        final Configuration counting = new Configuration(false);
+        counting.set("fs.hdfs.impl", CountingFileSystem.class.getName());
+        counting.setBoolean("fs.hdfs.impl.disable.cache", true);
+        final FileSystemOptions opts = new FileSystemOptions();
+        HdfsFileSystemConfigBuilder.getInstance().setConfigConfiguration(opts, counting);
+
+        final FileObject dir = manager.resolveFile(TEST_DIR1, opts);
+        CountingFileSystem.FILE_STATUS_CALLS.set(0);
+        CountingFileSystem.LISTING_CALLS.set(0);
+        final FileObject[] children = dir.getChildren();
+        Assert.assertEquals(20, children.length);
+        for (final FileObject child : children) {
+            Assert.assertEquals(FileType.FILE, child.getType());
+            Assert.assertEquals(0, child.getContent().getSize());
+        }
+        // the status of the folder, and one listing with the status of all children
+        Assert.assertEquals(1, CountingFileSystem.FILE_STATUS_CALLS.get());
+        Assert.assertEquals(1, CountingFileSystem.LISTING_CALLS.get());
+    }
+
     @Test
     public void testEquals() throws Exception {
         // Create test file (and check parent was created)
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.http.HttpContentCache;
+import org.apache.commons.vfs2.provider.http.HttpFileProvider;
+import org.apache.commons.vfs2.provider.http.HttpFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.FreeSocketPortUtil;
+import org.apache.commons.vfs2.util.NHttpFileServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests {@link HttpContentCache}.
+ */
+public class HttpContentCacheTest {
+
+    private NHttpFileServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private File docRoot;
+
+    private File cacheDir;
+
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        docRoot = AbstractVfsTestCase.getTestDirectory("HttpContentCacheTest/docs");
+        cacheDir = AbstractVfsTestCase.getTestDirectory("HttpContentCacheTest/cache");
+        final int port = FreeSocketPortUtil.findFreeLocalPort();
+        server = NHttpFileServer.start(port, docRoot, 5000);
+        baseUrl = "http://localhost:" + port + "/";
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("http", new HttpFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        server.shutdown(0, TimeUnit.SECONDS);
+        FileUtils.deleteDirectory(docRoot.getParentFile());
+    }
+
+    private String read(final FileObject file) throws Exception {
+        file.refresh();
+        final InputStream in = file.getContent().getInputStream();
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            file.getContent().close();
+        }
+    }
+
+    @Test
+    public void testRevalidation() throws Exception {
+        final File file = new File(docRoot, "data.txt");
+        FileUtils.writeStringToFile(file, "first", "UTF-8");
+        file.setLastModified(System.currentTimeMillis() - 60 * 1000);
+
+        final HttpContentCache cache = new HttpContentCache(cacheDir, 1024);
+        final FileSystemOptions opts = new FileSystemOptions();
+        HttpFileSystemConfigBuilder.getInstance().setContentCache(opts, cache);
+        final FileObject fileObject = manager.resolveFile(baseUrl + "data.txt", opts);
+
+        assertEquals("first", read(fileObject));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(5, cache.getSize());
+
+        // no max-age, so the server is asked but only answers 304
+        assertEquals("first", read(fileObject));
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(1, cache.getMissCount());
+
+        FileUtils.writeStringToFile(file, "second", "UTF-8");
+        file.setLastModified(System.currentTimeMillis() + 60 * 1000);
+        assertEquals("second", read(fileObject));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(6, cache.getSize());
+    }
+
+    @Test
+    public void testStoredWhenContentLengthWasRead() throws Exception {
+        FileUtils.writeStringToFile(new File(docRoot, "exact.txt"), "12345", "UTF-8");
+        final HttpContentCache cache = new HttpContentCache(cacheDir, 1024 * 1024);
+        final FileSystemOptions opts = new FileSystemOptions();
+        HttpFileSystemConfigBuilder.getInstance().setContentCache(opts, cache);
+        final FileObject fileObject = manager.resolveFile(baseUrl + "exact.txt", opts);
+
+        // read the announced length, but never the end of the stream
+        final byte[] buffer = new byte[5];
+        try (InputStream in = fileObject.getContent().getInputStream()) {
+            IOUtils.readFully(in, buffer);
+        }
+        assertEquals("12345", new String(buffer, "UTF-8"));
+        assertEquals(1, cache.getEntryCount());
+
+        // a partial read is not stored, the file is larger than the buffers of the stream
+        FileUtils.writeStringToFile(new File(docRoot, "large.txt"), StringUtils.repeat('x', 256 * 1024), "UTF-8");
+        final FileObject large = manager.resolveFile(baseUrl + "large.txt", opts);
+        try (InputStream in = large.getContent().getInputStream()) {
+            assertEquals('x', in.read());
+        }
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testBoundedSize() throws Exception {
+        final HttpContentCache cache = new HttpContentCache(cacheDir, 10);
+        final FileSystemOptions opts = new FileSystemOptions();
+        HttpFileSystemConfigBuilder.getInstance().setContentCache(opts, cache);
+
+        for (final String name : new String[] {"a.txt", "b.txt", "c.txt"}) {
+            FileUtils.writeStringToFile(new File(docRoot, name), "1234", "UTF-8");
+            assertEquals("1234", read(manager.resolveFile(baseUrl + name, opts)));
+        }
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(8, cache.getSize());
+
+        FileUtils.writeStringToFile(new File(docRoot, "big.txt"), "01234567890", "UTF-8");
+        assertEquals("01234567890", read(manager.resolveFile(baseUrl + "big.txt", opts)));
+        assertEquals(2, cache.getEntryCount());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cacheDir.list().length);
+    }
+
+    @Test
+    public void testFreshEntryWithoutRequests() throws Exception {
+        final byte[] content = "fresh".getBytes("UTF-8");
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                requests.add(exchange.getRequestMethod());
+                exchange.getResponseHeaders().set("Cache-Control", "max-age=600");
+                exchange.getResponseHeaders().set("ETag", "\"1\"");
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(content.length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, content.length);
+                    final OutputStream output = exchange.getResponseBody();
+                    output.write(content);
+                    output.close();
+                }
+                exchange.close();
+            }
+        });
+        stub.start();
+        try {
+            final HttpContentCache cache = new HttpContentCache(cacheDir, 1024);
+            final FileSystemOptions opts = new FileSystemOptions();
+            HttpFileSystemConfigBuilder.getInstance().setContentCache(opts, cache);
+            final FileObject fileObject = manager
+                    .resolveFile("http://localhost:" + stub.getAddress().getPort() + "/fresh.txt", opts);
+            assertEquals("fresh", read(fileObject));
+            assertEquals(1, cache.getEntryCount());
+
+            // read() refreshes the file object, the fresh entry answers the type, size and content
+            requests.clear();
+            assertEquals("fresh", read(fileObject));
+            assertEquals(FileType.FILE, fileObject.getType());
+            assertEquals(content.length, fileObject.getContent().getSize());
+            assertEquals(0, requests.size());
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            stub.stop(0);
+        }
+    }
+}
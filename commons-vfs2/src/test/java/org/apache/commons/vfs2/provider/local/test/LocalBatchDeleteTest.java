@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.FileOperationStatistics;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests deleting many local files with {@link FileObject#delete(FileSelector)}.
+ */
+public class LocalBatchDeleteTest {
+
+    private static final int FILES_PER_FOLDER = 50;
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private final AtomicInteger deleteEvents = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("LocalBatchDeleteTest");
+        for (int i = 0; i < FILES_PER_FOLDER; i++) {
+            FileUtils.writeStringToFile(new File(testDir, "root/a/file" + i + ".txt"), "a", "UTF-8");
+            FileUtils.writeStringToFile(new File(testDir, "root/b/file" + i + ".log"), "b", "UTF-8");
+        }
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private FileObject resolveRoot() throws Exception {
+        final FileObject root = manager.resolveFile(new File(testDir, "root").getAbsolutePath());
+        root.getFileSystem().addListener(root, new FileListener() {
+            @Override
+            public void fileCreated(final FileChangeEvent event) {
+                // not used
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) {
+                deleteEvents.incrementAndGet();
+            }
+
+            @Override
+            public void fileChanged(final FileChangeEvent event) {
+                // not used
+            }
+        });
+        return root;
+    }
+
+    @Test
+    public void testDeleteAll() throws Exception {
+        final FileObject root = resolveRoot();
+        final FileObject child = root.resolveFile("a/file0.txt");
+        assertTrue(child.exists());
+
+        assertEquals(2 * FILES_PER_FOLDER + 3, root.deleteAll());
+        assertFalse(new File(testDir, "root").exists());
+        assertFalse(child.exists());
+        assertFalse(root.exists());
+        // the listener is registered on the root only
+        assertEquals(1, deleteEvents.get());
+    }
+
+    @Test
+    public void testParallelDeleteUpdatesFileObjects() throws Exception {
+        final FileObject root = resolveRoot();
+        final FileObject child = root.resolveFile("b/file7.log");
+        assertTrue(child.exists());
+        final AtomicInteger childEvents = new AtomicInteger();
+        root.getFileSystem().addListener(child, new FileListener() {
+            @Override
+            public void fileCreated(final FileChangeEvent event) {
+                // not used
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) {
+                childEvents.incrementAndGet();
+            }
+
+            @Override
+            public void fileChanged(final FileChangeEvent event) {
+                // not used
+            }
+        });
+
+        assertEquals(2 * FILES_PER_FOLDER + 2, root.delete(Selectors.EXCLUDE_SELF));
+        assertFalse(child.exists());
+        assertEquals(1, childEvents.get());
+        assertEquals(0, root.getChildren().length);
+    }
+
+    @Test
+    public void testDeletePartialSelection() throws Exception {
+        final FileObject root = resolveRoot();
+        final FileSelector logFiles = new FileSelector() {
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) {
+                return !fileInfo.getFile().getName().getBaseName().endsWith(".txt");
+            }
+
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                return true;
+            }
+        };
+
+        // the log files and their folder go, the root and folder a stay
+        assertEquals(FILES_PER_FOLDER + 1, root.delete(logFiles));
+        assertFalse(new File(testDir, "root/b").exists());
+        assertEquals(FILES_PER_FOLDER, new File(testDir, "root/a").list().length);
+        assertTrue(root.exists());
+        assertEquals(1, root.getChildren().length);
+    }
+
+    @Test
+    public void testDeleteSelf() throws Exception {
+        final FileObject file = manager.resolveFile(new File(testDir, "root/a/file1.txt").getAbsolutePath());
+        assertTrue(file.delete());
+        assertFalse(file.exists());
+        assertFalse(file.delete());
+    }
+
+    @Test
+    public void testDeleteEmptyFolders() throws Exception {
+        for (int i = 0; i < 70; i++) {
+            assertTrue(new File(testDir, "empty/folder" + i).mkdirs());
+        }
+        final FileObject empty = manager.resolveFile(new File(testDir, "empty").getAbsolutePath());
+        assertEquals(71, empty.deleteAll());
+        assertFalse(new File(testDir, "empty").exists());
+    }
+
+    @Test
+    public void testDeleteIsTraced() throws Exception {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setOperationTracing(opts, true);
+        final FileObject root = manager.resolveFile(new File(testDir, "root").toURI().toString(), opts);
+        final FileOperationStatistics statistics = ((AbstractFileSystem) root.getFileSystem())
+                .getOperationStatistics();
+
+        assertEquals(2 * FILES_PER_FOLDER + 3, root.deleteAll());
+        assertEquals(2 * FILES_PER_FOLDER + 3,
+                statistics.getHistogram(FileOperationStatistics.Operation.DELETE).getCount());
+    }
+
+    @Test
+    public void testInterruptedDeleteReportsDeletedFiles() throws Exception {
+        final FileObject root = resolveRoot();
+        final int count;
+        Thread.currentThread().interrupt();
+        try {
+            count = root.deleteAll();
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        final int left = new File(testDir, "root/a").list().length + new File(testDir, "root/b").list().length;
+        assertEquals(2 * FILES_PER_FOLDER - left, count);
+        assertTrue(new File(testDir, "root").exists());
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.local.LocalFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests memory-mapped random access content of local files.
+ */
+public class LocalMappedRandomAccessTest {
+
+    private static final int COUNT = 100;
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private FileObject file;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("LocalMappedRandomAccessTest");
+        final File data = new File(testDir, "data.bin");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(data))) {
+            out.writeUTF("index");
+            for (int i = 0; i < COUNT; i++) {
+                out.writeByte(i);
+                out.writeInt(i * 1000);
+                out.writeLong(i * 1000000000L);
+                out.writeDouble(i / 4.0);
+            }
+        }
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        // a tiny window, so that values cross the window boundaries
+        final FileSystemOptions opts = new FileSystemOptions();
+        LocalFileSystemConfigBuilder.getInstance().setMappedRandomAccess(opts, Boolean.TRUE);
+        LocalFileSystemConfigBuilder.getInstance().setMappedWindowSize(opts, Integer.valueOf(7));
+        // a URI, the options are not used for a plain path
+        file = manager.resolveFile(data.toURI().toString(), opts);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private static void assertMapped(final FileObject fileObject) throws Exception {
+        final RandomAccessContent content = FileObjectUtils.getAbstractFileObject(fileObject)
+                .getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            assertEquals("MappedLocalFileRandomAccessContent", content.getClass().getSimpleName());
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        assertMapped(file);
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            assertEquals("index", content.readUTF());
+            final long start = content.getFilePointer();
+            // read backwards to remap often
+            for (int i = COUNT - 1; i >= 0; i--) {
+                content.seek(start + i * 21L);
+                assertEquals(i, content.readUnsignedByte());
+                assertEquals(i * 1000, content.readInt());
+                assertEquals(i * 1000000000L, content.readLong());
+                assertEquals(i / 4.0, content.readDouble(), 0);
+            }
+            assertEquals(start + 21, content.getFilePointer());
+            try {
+                content.seek(content.length() - 2);
+                content.readInt();
+                fail();
+            } catch (final EOFException e) {
+                // expected
+            }
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testTypedReadsAcrossWindows() throws Exception {
+        final File longs = new File(testDir, "longs.bin");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(longs))) {
+            for (int i = 0; i < 3000; i++) {
+                out.writeLong(i);
+            }
+        }
+        final FileSystemOptions opts = new FileSystemOptions();
+        LocalFileSystemConfigBuilder.getInstance().setMappedRandomAccess(opts, Boolean.TRUE);
+        LocalFileSystemConfigBuilder.getInstance().setMappedWindowSize(opts, Integer.valueOf(1024));
+        final FileObject longsFile = manager.resolveFile(longs.toURI().toString(), opts);
+        assertMapped(longsFile);
+
+        final RandomAccessContent content = longsFile.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            // the first read of a new instance, then reads in other windows
+            content.seek(8000);
+            assertEquals(1000, content.readLong());
+            content.seek(16000);
+            assertEquals(2000, content.readLong());
+            content.seek(800);
+            assertEquals(100, content.readLong());
+            // across the boundary at 1024
+            content.seek(1020);
+            assertEquals(127, content.readInt());
+            assertEquals(0, content.readInt());
+            content.seek(1018);
+            assertEquals(127L << 16, content.readLong());
+            content.seek(2046);
+            assertEquals(255, content.readShort());
+            content.seek(3070);
+            assertEquals(383, content.readChar());
+            assertEquals(Float.intBitsToFloat(0), content.readFloat(), 0);
+            content.seek(4092);
+            assertEquals(Double.longBitsToDouble(511L << 32), content.readDouble(), 0);
+            assertEquals(4100, content.getFilePointer());
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testReadFully() throws Exception {
+        final byte[] expected = FileUtils.readFileToByteArray(new File(testDir, "data.bin"));
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            final byte[] actual = new byte[expected.length];
+            content.seek(3);
+            content.readFully(actual, 3, actual.length - 3);
+            content.seek(0);
+            content.readFully(actual, 0, 3);
+            assertArrayEquals(expected, actual);
+
+            content.seek(0);
+            final InputStream in = content.getInputStream();
+            assertArrayEquals(expected, IOUtils.toByteArray(in));
+            assertEquals(-1, in.read());
+        } finally {
+            content.close();
+        }
+        assertFalse(file.getContent().isOpen());
+    }
+
+    @Test
+    public void testWriteIsNotMapped() throws Exception {
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READWRITE);
+        try {
+            content.seek(content.length());
+            content.writeInt(42);
+        } finally {
+            content.close();
+        }
+        final RandomAccessContent readContent = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            readContent.seek(readContent.length() - 4);
+            assertEquals(42, readContent.readInt());
+        } finally {
+            readContent.close();
+        }
+    }
+}
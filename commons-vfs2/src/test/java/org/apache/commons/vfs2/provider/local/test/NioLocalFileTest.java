@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.local.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.local.LocalFileSystemConfigBuilder;
+import org.apache.commons.vfs2.provider.local.NioLocalFile;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests local files accessed through {@link java.nio.file}.
+ */
+public class NioLocalFileTest {
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private FileObject folder;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("NioLocalFileTest");
+        FileUtils.writeStringToFile(new File(testDir, "a.txt"), "hello", "UTF-8");
+        FileUtils.writeStringToFile(new File(testDir, "b.txt"), "", "UTF-8");
+        new File(testDir, "sub").mkdir();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        LocalFileSystemConfigBuilder.getInstance().setNioFileAccess(opts, Boolean.TRUE);
+        folder = manager.resolveFile(testDir.toURI().toString(), opts);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    @Test
+    public void testAttributesMatchFile() throws Exception {
+        assertTrue(FileObjectUtils.isInstanceOf(folder, NioLocalFile.class));
+        assertEquals(FileType.FOLDER, folder.getType());
+
+        final FileObject[] children = folder.getChildren();
+        assertEquals(3, children.length);
+        for (final FileObject child : children) {
+            final File file = new File(testDir, child.getName().getBaseName());
+            assertEquals(file.isDirectory() ? FileType.FOLDER : FileType.FILE, child.getType());
+            if (file.isFile()) {
+                assertEquals(file.length(), child.getContent().getSize());
+                assertEquals(file.lastModified(), child.getContent().getLastModifiedTime());
+            }
+        }
+        assertFalse(folder.resolveFile("missing").exists());
+    }
+
+    @Test
+    public void testChildrenPrefilledFromListing() throws Exception {
+        folder.getChildren();
+        final FileObject child = folder.resolveFile("a.txt");
+        assertTrue(new File(testDir, "a.txt").delete());
+
+        // the attributes listed with the folder
+        assertTrue(child.exists());
+        assertEquals(5, child.getContent().getSize());
+
+        child.refresh();
+        assertFalse(child.exists());
+    }
+
+    @Test
+    public void testChangesThroughVfs() throws Exception {
+        final FileObject child = folder.resolveFile("b.txt");
+        assertEquals(0, child.getContent().getSize());
+
+        try (OutputStream out = child.getContent().getOutputStream()) {
+            out.write(new byte[] { 1, 2, 3 });
+        }
+        assertEquals(3, child.getContent().getSize());
+
+        final long lastModified = child.getContent().getLastModifiedTime() - 100000;
+        child.getContent().setLastModifiedTime(lastModified);
+        assertEquals(lastModified, child.getContent().getLastModifiedTime());
+
+        final FileObject created = folder.resolveFile("c/d.txt");
+        created.createFile();
+        assertTrue(created.exists());
+        assertEquals(FileType.FOLDER, created.getParent().getType());
+        created.delete();
+        assertFalse(created.exists());
+    }
+
+    @Test
+    public void testPosixAttributes() throws Exception {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        final File file = new File(testDir, "a.txt");
+        final Map<String, Object> attributes = folder.resolveFile("a.txt").getContent().getAttributes();
+        assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())),
+                attributes.get("permissions"));
+        assertEquals(Files.getOwner(file.toPath()).getName(), attributes.get("owner"));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.LayeredFileName;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.tar.TarEntryHandler;
+import org.apache.commons.vfs2.provider.tar.TarFileProvider;
+import org.apache.commons.vfs2.provider.tar.TarFileSystem;
+import org.apache.commons.vfs2.provider.tar.TarFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading Tar files in a single pass.
+ */
+public class TarSequentialModeTest {
+
+    private static final int ENTRY_COUNT = 20;
+
+    /** The number of times an archive was opened. */
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private DefaultFileSystemManager manager;
+
+    private File tgzFile;
+
+    @Before
+    public void setUp() throws Exception {
+        tgzFile = new File(AbstractVfsTestCase.getTestDirectory("TarSequentialModeTest"), "entries.tgz");
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(
+                new GzipCompressorOutputStream(new FileOutputStream(tgzFile)))) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                final byte[] content = ("content " + i).getBytes(StandardCharsets.UTF_8);
+                final TarArchiveEntry entry = new TarArchiveEntry("dir" + i % 3 + "/file" + i + ".txt");
+                entry.setSize(content.length);
+                out.putArchiveEntry(entry);
+                out.write(content);
+                out.closeArchiveEntry();
+            }
+        }
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.addProvider("tgz", new TarFileProvider() {
+            @Override
+            protected FileSystem doCreateFileSystem(final String scheme, final FileObject file,
+                    final FileSystemOptions fileSystemOptions) throws FileSystemException {
+                final LayeredFileName rootName = new LayeredFileName(scheme, file.getName(), FileName.ROOT_PATH,
+                        FileType.FOLDER);
+                return new TarFileSystem(rootName, file, fileSystemOptions) {
+                    @Override
+                    protected TarArchiveInputStream createTarFile(final File file) throws FileSystemException {
+                        opened.incrementAndGet();
+                        return super.createTarFile(file);
+                    }
+                };
+            }
+        });
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        tgzFile.delete();
+    }
+
+    private FileObject resolveRoot(final boolean sequential) throws FileSystemException {
+        final FileSystemOptions opts = new FileSystemOptions();
+        TarFileSystemConfigBuilder.getInstance().setSequentialMode(opts, Boolean.valueOf(sequential));
+        return manager.resolveFile("tgz:" + tgzFile.toURI() + "!/", opts);
+    }
+
+    private List<String> walk(final FileObject root) throws FileSystemException {
+        final List<String> contents = new ArrayList<>();
+        ((TarFileSystem) root.getFileSystem()).walk(new TarEntryHandler() {
+            @Override
+            public void handleEntry(final FileObject file, final InputStream content) throws IOException {
+                assertEquals(FileType.FILE, file.getType());
+                contents.add(file.getName().getBaseName() + "=" + IOUtils.toString(content, StandardCharsets.UTF_8));
+                content.close();
+            }
+        });
+        return contents;
+    }
+
+    private static List<String> expectedContents() {
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            expected.add("file" + i + ".txt=content " + i);
+        }
+        return expected;
+    }
+
+    @Test
+    public void testSequentialReadsOnce() throws Exception {
+        final FileObject root = resolveRoot(true);
+        assertEquals(0, opened.get());
+        assertEquals(0, root.getChildren().length);
+
+        assertEquals(expectedContents(), walk(root));
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void testSequentialAddsWalkedEntries() throws Exception {
+        final FileObject root = resolveRoot(true);
+        walk(root);
+
+        assertEquals(3, root.getChildren().length);
+        final FileObject file = root.resolveFile("dir1/file4.txt");
+        assertTrue(file.exists());
+        try (InputStream in = file.getContent().getInputStream()) {
+            assertEquals("content 4", IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testIndexedWalk() throws Exception {
+        final FileObject root = resolveRoot(false);
+        assertEquals(1, opened.get());
+        final FileObject file = root.resolveFile("dir2/file5.txt");
+
+        assertEquals(expectedContents(), walk(root));
+        assertEquals(2, opened.get());
+        assertTrue(file.exists());
+        assertFalse(root.resolveFile("file5.txt").exists());
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.BatchFileListener;
+import org.apache.commons.vfs2.EventOverflowPolicy;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.events.ChangedEvent;
+import org.apache.commons.vfs2.events.CreateEvent;
+import org.apache.commons.vfs2.events.DeleteEvent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the asynchronous event dispatch of {@link AbstractFileSystem}.
+ */
+public class FileEventDispatchTest {
+
+    /**
+     * Runs the submitted tasks when asked to.
+     */
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (true) {
+                final Runnable task;
+                synchronized (this) {
+                    if (tasks.isEmpty()) {
+                        return;
+                    }
+                    task = tasks.remove(0);
+                }
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Records the base names of the created files.
+     */
+    private static class CreateRecorder implements FileListener {
+        private final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile String threadName;
+
+        @Override
+        public void fileCreated(final FileChangeEvent event) {
+            names.add(event.getFile().getName().getBaseName());
+            threadName = Thread.currentThread().getName();
+            latch.countDown();
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) {
+        }
+
+        @Override
+        public void fileChanged(final FileChangeEvent event) {
+        }
+    }
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    private ManualExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+        opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setAsyncEventDispatch(opts, true);
+        executor = new ManualExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+    }
+
+    private AbstractFileSystem getFileSystem() throws Exception {
+        return (AbstractFileSystem) manager.resolveFile("ram:///", opts).getFileSystem();
+    }
+
+    private List<FileObject> createFiles(final AbstractFileSystem fs, final FileListener listener, final int count)
+            throws Exception {
+        final List<FileObject> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final FileObject file = fs.resolveFile("/f" + i);
+            fs.addListener(file, listener);
+            fs.fireFileCreated(file);
+            files.add(file);
+        }
+        return files;
+    }
+
+    @Test
+    public void testDeliveredInBackground() throws Exception {
+        final AbstractFileSystem fs = getFileSystem();
+        final FileObject file = fs.resolveFile("/async.txt");
+        final CreateRecorder listener = new CreateRecorder();
+        fs.addListener(file, listener);
+
+        file.createFile();
+
+        assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("async.txt"), listener.names);
+        assertTrue(listener.threadName, listener.threadName.startsWith("vfs-events-"));
+    }
+
+    @Test
+    public void testCoalescesChangesInBatch() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventExecutor(opts, executor);
+        final AbstractFileSystem fs = getFileSystem();
+        final FileObject file = fs.resolveFile("/changed.txt");
+        final List<List<FileChangeEvent>> batches = new ArrayList<>();
+        fs.addListener(file, new BatchFileListener() {
+            @Override
+            public void filesChanged(final List<FileChangeEvent> events) {
+                batches.add(events);
+            }
+
+            @Override
+            public void fileCreated(final FileChangeEvent event) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void fileChanged(final FileChangeEvent event) {
+                throw new IllegalStateException();
+            }
+        });
+
+        fs.fireFileCreated(file);
+        fs.fireFileChanged(file);
+        fs.fireFileChanged(file);
+        fs.fireFileChanged(file);
+        fs.fireFileDeleted(file);
+        // not merged into the change before the delete event
+        fs.fireFileChanged(file);
+        executor.runAll();
+
+        assertEquals(1, batches.size());
+        final List<FileChangeEvent> events = batches.get(0);
+        assertEquals(4, events.size());
+        assertTrue(events.get(0) instanceof CreateEvent);
+        assertTrue(events.get(1) instanceof ChangedEvent);
+        assertTrue(events.get(2) instanceof DeleteEvent);
+        assertTrue(events.get(3) instanceof ChangedEvent);
+        assertEquals(2, fs.getCoalescedEventCount());
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventExecutor(opts, executor);
+        DefaultFileSystemConfigBuilder.getInstance().setEventQueueCapacity(opts, Integer.valueOf(2));
+        DefaultFileSystemConfigBuilder.getInstance().setEventOverflowPolicy(opts, EventOverflowPolicy.DROP_NEWEST);
+        final AbstractFileSystem fs = getFileSystem();
+        final CreateRecorder listener = new CreateRecorder();
+
+        createFiles(fs, listener, 5);
+        executor.runAll();
+
+        assertEquals(Arrays.asList("f0", "f1"), listener.names);
+        assertEquals(3, fs.getDroppedEventCount());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventExecutor(opts, executor);
+        DefaultFileSystemConfigBuilder.getInstance().setEventQueueCapacity(opts, Integer.valueOf(2));
+        DefaultFileSystemConfigBuilder.getInstance().setEventOverflowPolicy(opts, EventOverflowPolicy.DROP_OLDEST);
+        final AbstractFileSystem fs = getFileSystem();
+        final CreateRecorder listener = new CreateRecorder();
+
+        createFiles(fs, listener, 5);
+        executor.runAll();
+
+        assertEquals(Arrays.asList("f3", "f4"), listener.names);
+        assertEquals(3, fs.getDroppedEventCount());
+    }
+
+    @Test
+    public void testBlockWaitsForRoom() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventExecutor(opts, executor);
+        DefaultFileSystemConfigBuilder.getInstance().setEventQueueCapacity(opts, Integer.valueOf(1));
+        final AbstractFileSystem fs = getFileSystem();
+        final CreateRecorder listener = new CreateRecorder();
+        createFiles(fs, listener, 1);
+
+        final FileObject second = fs.resolveFile("/f1");
+        fs.addListener(second, listener);
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                fs.fireFileCreated(second);
+            }
+        };
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        executor.runAll();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        executor.runAll();
+
+        assertEquals(Arrays.asList("f0", "f1"), listener.names);
+        assertEquals(0, fs.getDroppedEventCount());
+    }
+
+    @Test
+    public void testBlockWithListenerUsingFileSystem() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventQueueCapacity(opts, Integer.valueOf(1));
+        final AbstractFileSystem fs = getFileSystem();
+        final int count = 20;
+        final CountDownLatch delivered = new CountDownLatch(count);
+        final FileListener listener = new CreateRecorder() {
+            @Override
+            public void fileCreated(final FileChangeEvent event) {
+                try {
+                    // needs the lock of the file system held by createFile
+                    event.getFile().getParent().getChildren();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                delivered.countDown();
+            }
+        };
+        final List<FileObject> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final FileObject file = fs.resolveFile("/dir/f" + i);
+            fs.addListener(file, listener);
+            files.add(file);
+        }
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (final FileObject file : files) {
+                        file.createFile();
+                    }
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        producer.setDaemon(true);
+        producer.start();
+        producer.join(10000);
+
+        assertFalse(producer.isAlive());
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(0, fs.getDroppedEventCount());
+    }
+
+    @Test
+    public void testCloseFlushesPendingEvents() throws Exception {
+        DefaultFileSystemConfigBuilder.getInstance().setEventCoalescingWindow(opts, Long.valueOf(60000));
+        final AbstractFileSystem fs = getFileSystem();
+        final CreateRecorder listener = new CreateRecorder();
+        createFiles(fs, listener, 1);
+        assertFalse(listener.latch.await(100, TimeUnit.MILLISECONDS));
+
+        manager.closeFileSystem(fs);
+
+        assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("f0"), listener.names);
+    }
+}
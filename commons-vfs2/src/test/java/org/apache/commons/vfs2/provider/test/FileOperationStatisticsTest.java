@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.FileOperationStatistics;
+import org.apache.commons.vfs2.provider.FileOperationStatistics.Operation;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.util.LatencyHistogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the provider operation tracing.
+ */
+public class FileOperationStatisticsTest {
+
+    private DefaultFileSystemManager manager;
+
+    private RamFileProvider provider;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        provider = new RamFileProvider();
+        manager.addProvider("ram", provider);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        final FileObject file = manager.resolveFile("ram:///untraced");
+        file.exists();
+
+        assertNull(((AbstractFileSystem) file.getFileSystem()).getOperationStatistics());
+        assertEquals(0, provider.getOperationStatistics().getHistogram(Operation.GET_TYPE).getCount());
+    }
+
+    @Test
+    public void testRecordsProviderOperations() throws Exception {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setOperationTracing(opts, true);
+
+        final FileObject folder = manager.resolveFile("ram:///traced", opts);
+        folder.createFolder();
+        final FileObject file = folder.resolveFile("file.txt");
+        file.createFile();
+        file.getContent().getSize();
+        file.getContent().getLastModifiedTime();
+        folder.getChildren();
+        file.delete();
+
+        final FileOperationStatistics statistics = provider.getOperationStatistics();
+        assertSame(statistics, ((AbstractFileSystem) folder.getFileSystem()).getOperationStatistics());
+        assertTrue(statistics.getHistogram(Operation.ATTACH).getCount() > 0);
+        assertTrue(statistics.getHistogram(Operation.GET_TYPE).getCount() > 0);
+        assertEquals(1, statistics.getHistogram(Operation.CREATE_FOLDER).getCount());
+        assertEquals(1, statistics.getHistogram(Operation.GET_CONTENT_SIZE).getCount());
+        assertEquals(1, statistics.getHistogram(Operation.GET_LAST_MODIFIED_TIME).getCount());
+        assertEquals(1, statistics.getHistogram(Operation.LIST_CHILDREN).getCount());
+        assertEquals(1, statistics.getHistogram(Operation.DELETE).getCount());
+
+        statistics.reset();
+        assertEquals(0, statistics.getHistogram(Operation.DELETE).getCount());
+    }
+
+    @Test
+    public void testSlowOperationThreshold() {
+        final FileSystemOptions opts = new FileSystemOptions();
+        final DefaultFileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
+        assertNull(builder.getSlowOperationThreshold(opts, Operation.GET_TYPE));
+
+        builder.setSlowOperationThreshold(opts, Long.valueOf(500));
+        builder.setSlowOperationThreshold(opts, Operation.LIST_CHILDREN, Long.valueOf(2000));
+        assertEquals(Long.valueOf(500), builder.getSlowOperationThreshold(opts, Operation.GET_TYPE));
+        assertEquals(Long.valueOf(2000), builder.getSlowOperationThreshold(opts, Operation.LIST_CHILDREN));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(3000);
+        histogram.record(3000);
+        histogram.record(1500000);
+
+        final long[] buckets = histogram.getBucketCounts();
+        assertEquals(1, buckets[0]);
+        assertEquals(2, buckets[2]);
+        assertEquals(1, buckets[11]);
+        assertEquals(4, histogram.getCount());
+        assertEquals(1500000, histogram.getMaxNanos());
+        assertEquals(4, histogram.getPercentileMicros(50));
+        assertEquals(2048, histogram.getPercentileMicros(100));
+    }
+}
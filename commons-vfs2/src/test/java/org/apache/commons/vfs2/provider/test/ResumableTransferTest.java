@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.util.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests resumable copies, see {@link DefaultFileSystemConfigBuilder#setResumableTransfer}.
+ */
+public class ResumableTransferTest {
+
+    private static final String CONTENT = "0123456789";
+
+    private DefaultFileSystemManager manager;
+
+    private File testDir;
+
+    private File sourceFile;
+
+    private File targetFile;
+
+    private File checkpointFile;
+
+    private FileObject source;
+
+    private FileObject target;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("ResumableTransferTest");
+        sourceFile = new File(testDir, "source.txt");
+        targetFile = new File(testDir, "target.txt");
+        checkpointFile = new File(testDir, "target.txt.vfs-checkpoint");
+        FileUtils.writeStringToFile(sourceFile, CONTENT, "UTF-8");
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setResumableTransfer(opts, true);
+        DefaultFileSystemConfigBuilder.getInstance().setTransferCheckpointInterval(opts, Long.valueOf(4));
+        source = manager.resolveFile(sourceFile.getAbsolutePath());
+        target = manager.resolveFile(targetFile.toURI().toString(), opts);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private void writeCheckpoint(final long size, final long committed) throws Exception {
+        FileUtils.writeStringToFile(checkpointFile,
+                "source=" + DigestUtils.sha1Hex(source.getName().getURI()) + "\n" + "size=" + size + "\n"
+                        + "lastModified=" + source.getContent().getLastModifiedTime() + "\n" + "entityTag=null\n"
+                        + "committed=" + committed + "\n",
+                "ISO-8859-1");
+    }
+
+    @Test
+    public void testCompleteCopy() throws Exception {
+        assertEquals(CONTENT.length(), source.getContent().write(target));
+        assertEquals(CONTENT, FileUtils.readFileToString(targetFile, "UTF-8"));
+        assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        // marker bytes show that the committed part is not copied again
+        FileUtils.writeStringToFile(targetFile, "ABCD", "UTF-8");
+        writeCheckpoint(CONTENT.length(), 4);
+
+        target.copyFrom(source, Selectors.SELECT_SELF);
+        assertEquals("ABCD456789", FileUtils.readFileToString(targetFile, "UTF-8"));
+        assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    public void testResumeDropsUncommittedBytes() throws Exception {
+        FileUtils.writeStringToFile(targetFile, "ABCDxx", "UTF-8");
+        writeCheckpoint(CONTENT.length(), 4);
+
+        assertEquals(CONTENT.length(), source.getContent().write(target));
+        assertEquals("ABCD456789", FileUtils.readFileToString(targetFile, "UTF-8"));
+    }
+
+    @Test
+    public void testChangedSource() throws Exception {
+        FileUtils.writeStringToFile(targetFile, "ABCD", "UTF-8");
+        writeCheckpoint(CONTENT.length() + 1, 4);
+
+        source.getContent().write(target);
+        assertEquals(CONTENT, FileUtils.readFileToString(targetFile, "UTF-8"));
+        assertFalse(checkpointFile.exists());
+    }
+}
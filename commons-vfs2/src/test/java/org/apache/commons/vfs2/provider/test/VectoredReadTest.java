@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileRange;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.VectoredRead;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.util.MonitorRandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link VectoredRead}.
+ */
+public class VectoredReadTest {
+
+    private static final int SIZE = 1024 * 1024;
+
+    /**
+     * Records the position and size of the positional reads.
+     */
+    private static final class RecordingContent extends MonitorRandomAccessContent {
+        private final List<long[]> reads = Collections.synchronizedList(new ArrayList<long[]>());
+
+        RecordingContent(final RandomAccessContent content) {
+            super(content);
+        }
+
+        @Override
+        public int read(final long position, final ByteBuffer dst) throws IOException {
+            reads.add(new long[] { position, dst.remaining() });
+            return super.read(position, dst);
+        }
+    }
+
+    private DefaultFileSystemManager manager;
+
+    private ExecutorService executor;
+
+    private RandomAccessContent content;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+        final FileObject file = manager.resolveFile("ram:///data.bin");
+        final byte[] data = new byte[SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final OutputStream out = file.getContent().getOutputStream();
+        out.write(data);
+        out.close();
+        content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        content.close();
+        manager.close();
+    }
+
+    /**
+     * Ranges like the column chunks of a columnar file: 32 small ranges, 8 KiB apart.
+     */
+    private static List<FileRange> columnRanges() {
+        final List<FileRange> ranges = new ArrayList<>();
+        for (int i = 31; i >= 0; i--) {
+            ranges.add(new FileRange(i * 8192L + 100, 500));
+        }
+        return ranges;
+    }
+
+    private static void assertContent(final List<FileRange> ranges, final List<Future<ByteBuffer>> buffers)
+            throws Exception {
+        assertEquals(ranges.size(), buffers.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            final ByteBuffer buffer = buffers.get(i).get();
+            assertEquals(ranges.get(i).getLength(), buffer.remaining());
+            for (long position = ranges.get(i).getOffset(); position < ranges.get(i).getEnd(); position++) {
+                assertEquals((byte) position, buffer.get());
+            }
+        }
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final RecordingContent slow = new RecordingContent(content);
+        final List<FileRange> ranges = columnRanges();
+        // overlapping and empty ranges
+        ranges.add(new FileRange(200, 1000));
+        ranges.add(new FileRange(300, 0));
+
+        assertContent(ranges, VectoredRead.read(slow, ranges, null, 8192, SIZE));
+        assertEquals(1, slow.reads.size());
+
+        slow.reads.clear();
+        assertContent(ranges, VectoredRead.read(slow, ranges, null, 8192, 64 * 1024));
+        assertEquals(4, slow.reads.size());
+
+        slow.reads.clear();
+        assertContent(ranges, VectoredRead.read(slow, ranges, executor, 0, SIZE));
+        assertEquals(32, slow.reads.size());
+    }
+
+    @Test
+    public void testEndOfContent() throws Exception {
+        final List<FileRange> ranges = new ArrayList<>();
+        ranges.add(new FileRange(0, 10));
+        ranges.add(new FileRange(SIZE - 10, 20));
+        final List<Future<ByteBuffer>> buffers = content.readVectored(ranges, executor);
+        assertEquals(10, buffers.get(0).get().remaining());
+        try {
+            buffers.get(1).get();
+            fail();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+
+    /**
+     * Checks that the merged reads are done in offset order, and the buffers returned in the order of the ranges.
+     */
+    @Test
+    public void testReadOrder() throws Exception {
+        final RecordingContent recording = new RecordingContent(content);
+        // in descending offset order
+        final List<FileRange> ranges = columnRanges();
+
+        assertContent(ranges, VectoredRead.read(recording, ranges, null, 0, SIZE));
+        assertEquals(32, recording.reads.size());
+        for (int i = 0; i < 32; i++) {
+            assertArrayEquals(new long[] { i * 8192L + 100, 500 }, recording.reads.get(i));
+        }
+
+        // eight ranges fit in 64 KiB
+        recording.reads.clear();
+        assertContent(ranges, VectoredRead.read(recording, ranges, null, 64 * 1024, 64 * 1024));
+        assertEquals(4, recording.reads.size());
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(new long[] { i * 8 * 8192L + 100, 7 * 8192 + 500 }, recording.reads.get(i));
+        }
+
+        // the same reads, in any order
+        recording.reads.clear();
+        assertContent(ranges, VectoredRead.read(recording, ranges, executor, 64 * 1024, 64 * 1024));
+        assertEquals(4, recording.reads.size());
+    }
+}
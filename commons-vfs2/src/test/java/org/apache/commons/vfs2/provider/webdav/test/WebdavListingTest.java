@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.webdav.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests that the children of a WebDAV folder use the properties of the folder listing.
+ */
+public class WebdavListingTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String LAST_MODIFIED = "Mon, 01 Jan 2018 00:00:00 GMT";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private static String response(final String href, final boolean folder, final int size) {
+        return "<D:response><D:href>" + href + "</D:href><D:propstat><D:prop>"
+                + (folder ? "<D:resourcetype><D:collection/></D:resourcetype>"
+                        : "<D:resourcetype/><D:getcontenttype>text/plain</D:getcontenttype>"
+                                + "<D:getcontentlength>" + size + "</D:getcontentlength>")
+                + "<D:getlastmodified>" + LAST_MODIFIED + "</D:getlastmodified>"
+                + "</D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>";
+    }
+
+    /**
+     * Answers HEAD and PROPFIND for a folder with two files, and records the requests.
+     */
+    private class DavHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath();
+            requests.add(method + " " + path);
+            final InputStream input = exchange.getRequestBody();
+            while (input.read() != -1) {
+                // discard the request body
+            }
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("PROPFIND".equals(method)) {
+                final StringBuilder body = new StringBuilder(
+                        "<?xml version=\"1.0\" encoding=\"utf-8\"?><D:multistatus xmlns:D=\"DAV:\">");
+                if (path.startsWith("/folder")) {
+                    body.append(response("/folder/", true, 0));
+                    if (!"0".equals(exchange.getRequestHeaders().getFirst("Depth"))) {
+                        body.append(response("/folder/a.txt", false, 3));
+                        body.append(response("/folder/b.txt", false, 5));
+                    }
+                } else {
+                    body.append(response(path, false, path.endsWith("a.txt") ? 3 : 5));
+                }
+                body.append("</D:multistatus>");
+                final byte[] bytes = body.toString().getBytes(UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(207, bytes.length);
+                final OutputStream output = exchange.getResponseBody();
+                output.write(bytes);
+                output.close();
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+            exchange.close();
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        // the JAXB accessor optimization cannot define classes on Java 9 and later
+        System.setProperty("com.sun.xml.bind.v2.bytecode.ClassTailor.noOptimize", "true");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new DavHandler());
+        server.start();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("webdav", new WebdavFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testChildrenUseListedProperties() throws Exception {
+        final FileObject folder = manager
+                .resolveFile("webdav://localhost:" + server.getAddress().getPort() + "/folder/");
+        final FileObject[] children = folder.getChildren();
+        assertEquals(2, children.length);
+
+        requests.clear();
+        for (final FileObject child : children) {
+            assertEquals(FileType.FILE, child.getType());
+            assertEquals(child.getName().getBaseName().equals("a.txt") ? 3 : 5, child.getContent().getSize());
+            assertTrue(child.getContent().getLastModifiedTime() > 0);
+        }
+        assertEquals(0, requests.size());
+
+        // a refreshed child asks the server again
+        children[0].refresh();
+        assertEquals(3, children[0].getContent().getSize());
+        assertTrue(requests.toString(), requests.size() > 0);
+    }
+}
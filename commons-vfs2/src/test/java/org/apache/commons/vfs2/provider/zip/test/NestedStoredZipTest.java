@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.DefaultFileReplicator;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading ZIP files stored uncompressed in other ZIP files.
+ */
+public class NestedStoredZipTest {
+
+    private final AtomicInteger replications = new AtomicInteger();
+
+    private StandardFileSystemManager manager;
+
+    private File outerFile;
+
+    private static byte[] createZip(final String name, final byte[] content, final int method) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            putEntry(out, name, content, method);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void putEntry(final ZipOutputStream out, final String name, final byte[] content, final int method)
+            throws Exception {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static String read(final FileObject file) throws Exception {
+        try (InputStream in = file.getContent().getInputStream()) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final File testDir = AbstractVfsTestCase.getTestDirectory("NestedStoredZipTest");
+        outerFile = new File(testDir, "outer.zip");
+
+        final byte[] innerInner = createZip("deep.txt", "deep content".getBytes(StandardCharsets.UTF_8),
+                ZipEntry.DEFLATED);
+        final ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(inner)) {
+            putEntry(out, "file.txt", "inner content".getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+            putEntry(out, "inner-inner.zip", innerInner, ZipEntry.STORED);
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(outerFile))) {
+            putEntry(out, "stored.zip", inner.toByteArray(), ZipEntry.STORED);
+            putEntry(out, "deflated.zip", inner.toByteArray(), ZipEntry.DEFLATED);
+        }
+
+        manager = new StandardFileSystemManager() {
+            @Override
+            protected DefaultFileReplicator createDefaultFileReplicator() {
+                return new DefaultFileReplicator() {
+                    @Override
+                    public File replicateFile(final FileObject srcFile, final FileSelector selector)
+                            throws FileSystemException {
+                        replications.incrementAndGet();
+                        return super.replicateFile(srcFile, selector);
+                    }
+                };
+            }
+        };
+        // the subclass would look up the configuration in its own package
+        manager.setConfiguration(StandardFileSystemManager.class.getResource("providers.xml"));
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        outerFile.delete();
+    }
+
+    private FileObject resolveNested(final String entryName) throws FileSystemException {
+        final FileObject outer = manager.resolveFile("zip:" + outerFile.toURI() + "!/" + entryName);
+        return manager.createFileSystem("zip", outer);
+    }
+
+    @Test
+    public void testStoredIsReadInPlace() throws Exception {
+        final FileObject inner = resolveNested("stored.zip");
+        assertEquals("inner content", read(inner.resolveFile("file.txt")));
+        assertEquals(0, replications.get());
+    }
+
+    @Test
+    public void testStoredInStoredIsReadInPlace() throws Exception {
+        final FileObject inner = resolveNested("stored.zip");
+        final FileObject innerInner = manager.createFileSystem("zip", inner.resolveFile("inner-inner.zip"));
+        assertEquals(1, innerInner.getChildren().length);
+        assertEquals("deep content", read(innerInner.resolveFile("deep.txt")));
+        assertEquals(0, replications.get());
+    }
+
+    @Test
+    public void testDeflatedIsReplicated() throws Exception {
+        final FileObject inner = resolveNested("deflated.zip");
+        assertEquals("inner content", read(inner.resolveFile("file.txt")));
+        assertTrue(replications.get() > 0);
+    }
+}
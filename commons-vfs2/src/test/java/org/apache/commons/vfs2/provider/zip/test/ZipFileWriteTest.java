@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
+import org.apache.commons.vfs2.provider.zip.ZipFileSystem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests creating new ZIP files.
+ */
+public class ZipFileWriteTest {
+
+    private StandardFileSystemManager manager;
+
+    private File testDir;
+
+    private File zipFile;
+
+    private static byte[] createContent(final int size, final int seed) {
+        final byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            // compressible, but not trivially
+            content[i] = (byte) ('a' + (i * seed / 7 + i / 1000) % 26);
+        }
+        return content;
+    }
+
+    private static void write(final FileObject file, final byte[] content) throws Exception {
+        try (OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("ZipFileWriteTest");
+        zipFile = new File(testDir, "new.zip");
+        manager = new StandardFileSystemManager();
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.close();
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    private FileObject resolveRoot() throws FileSystemException {
+        return manager.resolveFile("zip:" + zipFile.toURI() + "!/");
+    }
+
+    @Test
+    public void testCreateArchive() throws Exception {
+        final FileObject root = resolveRoot();
+        assertTrue(root.getFileSystem().hasCapability(Capability.CREATE));
+        assertTrue(root.isWriteable());
+
+        final byte[] small = "hello".getBytes("UTF-8");
+        // larger than the part kept in memory
+        final byte[] large = createContent(3 * 1024 * 1024, 3);
+        write(root.resolveFile("a/b/small.txt"), small);
+        write(root.resolveFile("large.bin"), large);
+        root.resolveFile("empty").createFolder();
+        root.resolveFile("a/created.txt").createFile();
+
+        final FileObject smallFile = root.resolveFile("a/b/small.txt");
+        assertTrue(smallFile.isFile());
+        assertFalse(smallFile.isWriteable());
+        assertEquals(small.length, smallFile.getContent().getSize());
+        assertEquals(2, root.resolveFile("a").getChildren().length);
+        assertFalse(zipFile.exists());
+
+        ((ZipFileSystem) root.getFileSystem()).finishArchive();
+        assertTrue(zipFile.exists());
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            final List<String> names = new ArrayList<>();
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                names.add(entries.nextElement().getName());
+            }
+            Collections.sort(names);
+            assertEquals("[a/, a/b/, a/b/small.txt, a/created.txt, empty/, large.bin]", names.toString());
+            try (InputStream in = zip.getInputStream(zip.getEntry("a/b/small.txt"))) {
+                assertArrayEquals(small, IOUtils.toByteArray(in));
+            }
+            try (InputStream in = zip.getInputStream(zip.getEntry("large.bin"))) {
+                assertArrayEquals(large, IOUtils.toByteArray(in));
+            }
+            assertTrue(zip.getEntry("large.bin").getCompressedSize() < large.length);
+        }
+
+        try {
+            write(root.resolveFile("late.txt"), small);
+            fail();
+        } catch (final FileSystemException e) {
+            // already written
+        }
+    }
+
+    @Test
+    public void testArchiveWrittenOnClose() throws Exception {
+        final FileObject root = resolveRoot();
+        write(root.resolveFile("file.txt"), "text".getBytes("UTF-8"));
+        try {
+            root.resolveFile("file.txt").getContent().getInputStream();
+            fail();
+        } catch (final FileSystemException e) {
+            // not written yet
+        }
+        manager.closeFileSystem(root.getFileSystem());
+        assertTrue(zipFile.exists());
+
+        final FileObject file = resolveRoot().resolveFile("file.txt");
+        try (InputStream in = file.getContent().getInputStream()) {
+            assertEquals("text", IOUtils.toString(in, "UTF-8"));
+        }
+        assertFalse(file.isWriteable());
+        assertFalse(file.getFileSystem().hasCapability(Capability.WRITE_CONTENT));
+    }
+
+    @Test
+    public void testNothingCreated() throws Exception {
+        final FileObject root = resolveRoot();
+        assertEquals(0, root.getChildren().length);
+        manager.closeFileSystem(root.getFileSystem());
+        assertFalse(zipFile.exists());
+    }
+
+    @Test
+    public void testTemporaryFilesFromStore() throws Exception {
+        final File storeDir = new File(testDir, "store");
+        final List<String> allocated = Collections.synchronizedList(new ArrayList<String>());
+        manager.setTemporaryFileStore(new TemporaryFileStore() {
+            @Override
+            public File allocateFile(final String basename) {
+                allocated.add(basename);
+                return new File(storeDir, basename + allocated.size());
+            }
+        });
+        final FileObject root = resolveRoot();
+        // larger than the part kept in memory
+        write(root.resolveFile("large.bin"), createContent(3 * 1024 * 1024, 3));
+        assertTrue(allocated.contains("vfs_zip_entry"));
+        ((ZipFileSystem) root.getFileSystem()).finishArchive();
+        assertTrue(allocated.contains("vfs_zip_scatter"));
+        assertEquals(0, storeDir.list().length);
+    }
+
+    @Test
+    public void testCreateJar() throws Exception {
+        final File jarFile = new File(testDir, "new.jar");
+        final FileObject root = manager.resolveFile("jar:" + jarFile.toURI() + "!/");
+        assertTrue(root.isWriteable());
+        write(root.resolveFile("META-INF/MANIFEST.MF"),
+                "Manifest-Version: 1.0\r\nImplementation-Title: test\r\n\r\n".getBytes("UTF-8"));
+        write(root.resolveFile("org/example/data.txt"), "data".getBytes("UTF-8"));
+        final FileObject created = root.resolveFile("org/example/data.txt");
+        assertTrue(created.isFile());
+        assertEquals(0, created.getContent().getCertificates().length);
+        manager.closeFileSystem(root.getFileSystem());
+
+        try (JarFile jar = new JarFile(jarFile)) {
+            assertEquals("test", jar.getManifest().getMainAttributes().getValue("Implementation-Title"));
+        }
+        final FileObject file = manager.resolveFile("jar:" + jarFile.toURI() + "!/org/example/data.txt");
+        try (InputStream in = file.getContent().getInputStream()) {
+            assertEquals("data", IOUtils.toString(in, "UTF-8"));
+        }
+        assertEquals("test", file.getContent().getAttribute("Implementation-Title"));
+    }
+}
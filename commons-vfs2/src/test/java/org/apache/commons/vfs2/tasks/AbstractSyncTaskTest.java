@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the manifest and the threads of {@link AbstractSyncTask}.
+ */
+public class AbstractSyncTaskTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int FILE_COUNT = 20;
+
+    private File testDir;
+
+    private File srcDir;
+
+    private File destDir;
+
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws Exception {
+        testDir = AbstractVfsTestCase.getTestDirectory("AbstractSyncTaskTest");
+        srcDir = new File(testDir, "src");
+        destDir = new File(testDir, "dest");
+        manifestFile = new File(testDir, "sync.manifest");
+        for (int i = 0; i < FILE_COUNT; i++) {
+            final File file = new File(srcDir, "file" + i + ".txt");
+            FileUtils.write(file, "content " + i, UTF_8);
+            file.setLastModified(file.lastModified() - 60000);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(testDir);
+    }
+
+    @Test
+    public void testUnchangedFilesAreSkipped() throws Exception {
+        assertEquals(FILE_COUNT, sync(1).copied.size());
+
+        // the manifest is trusted, a deleted destination file is not copied again
+        assertTrue(new File(destDir, "file1.txt").delete());
+        final File changed = new File(srcDir, "file2.txt");
+        FileUtils.write(changed, "changed", UTF_8);
+        changed.setLastModified(changed.lastModified() + 60000);
+
+        final CopyingSyncTask task = sync(1);
+        assertEquals(Collections.singletonList("file2.txt"), task.copied);
+        assertEquals(FILE_COUNT - 1, task.upToDate.size());
+        assertFalse(new File(destDir, "file1.txt").exists());
+        assertEquals("changed", FileUtils.readFileToString(new File(destDir, "file2.txt"), UTF_8));
+    }
+
+    @Test
+    public void testMissingManifestIsRebuilt() throws Exception {
+        sync(1);
+        assertTrue(manifestFile.delete());
+        assertTrue(new File(destDir, "file1.txt").delete());
+
+        final CopyingSyncTask task = sync(1);
+        assertEquals(Collections.singletonList("file1.txt"), task.copied);
+        assertManifestComplete();
+    }
+
+    @Test
+    public void testCorruptManifestIsRebuilt() throws Exception {
+        sync(1);
+        FileUtils.write(manifestFile, "\\uZZZZ not a manifest", UTF_8);
+        assertTrue(new File(destDir, "file1.txt").delete());
+
+        final CopyingSyncTask task = sync(1);
+        assertEquals(Collections.singletonList("file1.txt"), task.copied);
+        assertManifestComplete();
+    }
+
+    @Test
+    public void testManifestIsKeyedByDestinationUri() throws Exception {
+        sync(1);
+        final Properties manifest = loadManifest();
+        final String destUri = new File(destDir, "file1.txt").getAbsoluteFile().toURI().getPath();
+        boolean found = false;
+        for (final String uri : manifest.stringPropertyNames()) {
+            assertTrue(uri, uri.startsWith("file://"));
+            found |= uri.endsWith(destUri);
+        }
+        assertTrue(destUri, found);
+    }
+
+    @Test
+    public void testParallelCopies() throws Exception {
+        final CopyingSyncTask task = sync(4);
+        assertEquals(FILE_COUNT, task.copied.size());
+        assertFalse(task.threads.contains(Thread.currentThread()));
+        for (int i = 0; i < FILE_COUNT; i++) {
+            assertEquals("content " + i, FileUtils.readFileToString(new File(destDir, "file" + i + ".txt"), UTF_8));
+        }
+        assertManifestComplete();
+
+        assertEquals(FILE_COUNT, sync(4).upToDate.size());
+    }
+
+    @Test
+    public void testManifestSaveFailureDoesNotHideSyncFailure() throws Exception {
+        final IOException failure = new IOException("copy failed");
+        final CopyingSyncTask task = new CopyingSyncTask() {
+            @Override
+            protected void handleOutOfDateFile(final FileObject srcFile, final FileObject destFile) throws Exception {
+                // the manifest cannot be written over a folder
+                assertTrue(manifestFile.mkdir());
+                throw failure;
+            }
+        };
+        try {
+            execute(task, 1);
+            fail();
+        } catch (final BuildException e) {
+            assertSame(failure, e.getCause());
+            assertEquals(1, failure.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testMissingSourceFilesFromManifest() throws Exception {
+        sync(1);
+        assertTrue(new File(srcDir, "file3.txt").delete());
+        // not written by the sync, so not looked at
+        FileUtils.write(new File(destDir, "other.txt"), "other", UTF_8);
+
+        final CopyingSyncTask task = new CopyingSyncTask();
+        task.detectMissing = true;
+        execute(task, 1);
+        assertEquals(Collections.singletonList("file3.txt"), task.missing);
+        assertEquals(FILE_COUNT - 1, loadManifest().size());
+
+        // without a manifest of the last sync, the destination directory is listed
+        assertTrue(manifestFile.delete());
+        final CopyingSyncTask listing = new CopyingSyncTask();
+        listing.detectMissing = true;
+        execute(listing, 1);
+        assertEquals(new HashSet<>(Arrays.asList("file3.txt", "other.txt")), new HashSet<>(listing.missing));
+    }
+
+    private CopyingSyncTask sync(final int threads) {
+        final CopyingSyncTask task = new CopyingSyncTask();
+        execute(task, threads);
+        return task;
+    }
+
+    private void execute(final CopyingSyncTask task, final int threads) {
+        final Project project = new Project();
+        project.setBaseDir(testDir);
+        task.setProject(project);
+        task.setSrc(srcDir.getAbsolutePath());
+        task.setDestDir(destDir.getAbsolutePath());
+        task.setManifest(manifestFile.getAbsolutePath());
+        task.setThreads(threads);
+        try {
+            task.execute();
+        } finally {
+            task.closeManager();
+        }
+    }
+
+    private Properties loadManifest() throws IOException {
+        final Properties properties = new Properties();
+        final InputStream input = new FileInputStream(manifestFile);
+        try {
+            properties.load(input);
+        } finally {
+            input.close();
+        }
+        return properties;
+    }
+
+    private void assertManifestComplete() throws IOException {
+        assertEquals(FILE_COUNT, loadManifest().size());
+    }
+
+    /**
+     * Copies out-of-date files and records the handled files.
+     */
+    private static class CopyingSyncTask extends AbstractSyncTask {
+        final CopyOnWriteArrayList<String> copied = new CopyOnWriteArrayList<>();
+        final CopyOnWriteArrayList<String> upToDate = new CopyOnWriteArrayList<>();
+        final CopyOnWriteArrayList<String> missing = new CopyOnWriteArrayList<>();
+        boolean detectMissing;
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        @Override
+        protected void handleOutOfDateFile(final FileObject srcFile, final FileObject destFile) throws Exception {
+            threads.add(Thread.currentThread());
+            destFile.copyFrom(srcFile, Selectors.SELECT_SELF);
+            copied.add(srcFile.getName().getBaseName());
+        }
+
+        @Override
+        protected void handleUpToDateFile(final FileObject srcFile, final FileObject destFile) throws Exception {
+            threads.add(Thread.currentThread());
+            upToDate.add(srcFile.getName().getBaseName());
+        }
+
+        @Override
+        protected void handleMissingSourceFile(final FileObject destFile) throws Exception {
+            missing.add(destFile.getName().getBaseName());
+        }
+
+        @Override
+        protected boolean detectMissingSourceFiles() {
+            return detectMissing;
+        }
+    }
+}
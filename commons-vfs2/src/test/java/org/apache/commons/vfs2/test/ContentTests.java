@@ -17,6 +17,11 @@
 package org.apache.commons.vfs2.test;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
 
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
@@ -198,6 +203,55 @@ public class ContentTests extends AbstractProviderTestCase {
         assertSameContent("", file);
     }
 
+    /**
+     * Tests content digests.
+     */
+    public void testDigest() throws Exception {
+        final FileObject file = getReadFolder().resolveFile("file1.txt");
+        final byte[] expected = MessageDigest.getInstance("MD5").digest(FILE1_CONTENT.getBytes("UTF-8"));
+        assertTrue(Arrays.equals(expected, file.getContent().getDigest("MD5")));
+        // again, possibly from a cache
+        assertTrue(Arrays.equals(expected, file.getContent().getDigest("MD5")));
+
+        final FileObject unknownFile = getReadFolder().resolveFile("unknown-file");
+        try {
+            unknownFile.getContent().getDigest("MD5");
+            fail();
+        } catch (final FileSystemException e) {
+            assertSameMessage("vfs.provider/read-not-file.error", unknownFile, e);
+        }
+    }
+
+    /**
+     * Tests reading content through a channel.
+     */
+    public void testReadableByteChannel() throws Exception {
+        final FileObject file = getReadFolder().resolveFile("file1.txt");
+        final byte[] expected = FILE1_CONTENT.getBytes("UTF-8");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 10);
+        final ReadableByteChannel channel = file.getContent().getReadableByteChannel();
+        try {
+            assertTrue(file.getContent().isOpen());
+            if (channel instanceof SeekableByteChannel) {
+                // only channels that can seek claim to
+                assertEquals(0, ((SeekableByteChannel) channel).position());
+                assertEquals(expected.length, ((SeekableByteChannel) channel).size());
+            }
+            while (channel.read(buffer) != -1) {
+                // keep reading
+            }
+        } finally {
+            channel.close();
+        }
+        assertFalse(channel.isOpen());
+        assertFalse(file.getContent().isOpen());
+
+        buffer.flip();
+        final byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        assertTrue(Arrays.equals(expected, actual));
+    }
+
     /**
      * Tests that unknown files have no content.
      */
@@ -16,8 +16,20 @@
  */
 package org.apache.commons.vfs2.test;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileRange;
+import org.apache.commons.vfs2.ParallelTransferOptions;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
@@ -86,4 +98,102 @@ public class ProviderRandomReadTests extends AbstractProviderTestCase {
             }
         }
     }
+
+    /**
+     * Read at positions without moving the file pointer, from several threads
+     */
+    public void testPositionalRead() throws Exception {
+        final FileObject file = getReadFolder().resolveFile("file1.txt");
+        final RandomAccessContent ra = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ra.seek(2);
+            final byte[] bytes = new byte[4];
+            assertEquals(4, ra.read(5, bytes, 0, 4));
+            assertEquals(TEST_DATA.substring(5, 9), new String(bytes, "US-ASCII"));
+
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(10);
+            final int count = ra.read(TEST_DATA.length() - 5, buffer);
+            assertEquals(5, count);
+            assertEquals(5, buffer.position());
+            buffer.flip();
+            final byte[] tail = new byte[count];
+            buffer.get(tail);
+            assertEquals(TEST_DATA.substring(TEST_DATA.length() - 5), new String(tail, "US-ASCII"));
+
+            assertEquals(-1, ra.read(TEST_DATA.length(), bytes, 0, 4));
+            assertEquals("fp", 2, ra.getFilePointer());
+            assertEquals(TEST_DATA.charAt(2), ra.readByte());
+
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final int position = i % (TEST_DATA.length() - 3);
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        final byte[] b = new byte[3];
+                        int read = 0;
+                        while (read < b.length) {
+                            read += ra.read(position + read, b, read, b.length - read);
+                        }
+                        return new String(b, "US-ASCII");
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                final int position = i % (TEST_DATA.length() - 3);
+                assertEquals(TEST_DATA.substring(position, position + 3), futures.get(i).get());
+            }
+            assertEquals("fp", 3, ra.getFilePointer());
+        } finally {
+            executor.shutdown();
+            ra.close();
+            file.close();
+        }
+    }
+
+    /**
+     * Read several ranges at once
+     */
+    public void testVectoredRead() throws Exception {
+        final FileObject file = getReadFolder().resolveFile("file1.txt");
+        final RandomAccessContent ra = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<FileRange> ranges = Arrays.asList(new FileRange(10, 4), new FileRange(0, 4), new FileRange(2, 5),
+                    new FileRange(TEST_DATA.length() - 1, 1));
+            final List<Future<ByteBuffer>> buffers = ra.readVectored(ranges, executor);
+            assertEquals(ranges.size(), buffers.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                final FileRange range = ranges.get(i);
+                final ByteBuffer buffer = buffers.get(i).get();
+                final byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                assertEquals(TEST_DATA.substring((int) range.getOffset(), (int) range.getEnd()),
+                        new String(bytes, "US-ASCII"));
+            }
+            assertEquals("fp", 0, ra.getFilePointer());
+        } finally {
+            executor.shutdown();
+            ra.close();
+            file.close();
+        }
+    }
+
+    /**
+     * Copy a file in segments
+     */
+    public void testParallelWrite() throws Exception {
+        final FileObject file = getReadFolder().resolveFile("file1.txt");
+        final File targetFile = new File(getTestDirectory("ProviderRandomReadTests"), "parallel.txt");
+        final FileObject target = getManager().toFileObject(targetFile);
+        try {
+            final ParallelTransferOptions options = new ParallelTransferOptions().setSegmentSize(3).setParallelism(3);
+            assertEquals(TEST_DATA.length(), file.getContent().write(target, options));
+            assertSameContent(TEST_DATA, target);
+        } finally {
+            target.delete();
+            file.close();
+        }
+    }
 }
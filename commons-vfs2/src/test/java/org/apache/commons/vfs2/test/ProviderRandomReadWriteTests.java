@@ -16,6 +16,9 @@
  */
 package org.apache.commons.vfs2.test;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.RandomAccessContent;
@@ -97,4 +100,46 @@ public class ProviderRandomReadWriteTests extends AbstractProviderTestCase {
             }
         }
     }
+
+    /**
+     * Writes and reads a file through a channel.
+     */
+    public void testSeekableByteChannel() throws Exception {
+        FileObject file = null;
+        try {
+            file = createScratchFolder().resolveFile("channel_write.txt");
+            file.createFile();
+            final byte[] data = TEST_DATA.getBytes("US-ASCII");
+            final SeekableByteChannel channel = file.getContent()
+                    .getSeekableByteChannel(RandomAccessMode.READWRITE);
+            try {
+                // write the end first, then the start from a direct buffer
+                channel.position(5);
+                channel.write(ByteBuffer.wrap(data, 5, data.length - 5));
+                assertEquals(data.length, channel.size());
+                channel.position(0);
+                final ByteBuffer direct = ByteBuffer.allocateDirect(5);
+                direct.put(data, 0, 5).flip();
+                channel.write(direct);
+                assertEquals(5, channel.position());
+                assertEquals(data.length, channel.size());
+
+                channel.position(3);
+                final ByteBuffer read = ByteBuffer.allocate(4);
+                assertEquals(4, channel.read(read));
+                assertEquals(TEST_DATA.substring(3, 7), new String(read.array(), "US-ASCII"));
+
+                channel.truncate(10);
+                assertEquals(10, channel.size());
+            } finally {
+                channel.close();
+            }
+            assertFalse(file.getContent().isOpen());
+            assertSameContent(TEST_DATA.substring(0, 10), file);
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
 }
@@ -22,8 +22,12 @@ import java.io.UnsupportedEncodingException;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.provider.GenericFileName;
 
 /**
  * File system test that check that a file system can be renamed.
@@ -140,4 +144,45 @@ public class ProviderRenameTests extends AbstractProviderTestCase {
         moveFile(scratchFolder, file, content);
         assertTrue(folder.getChildren().length == 0);
     }
+
+    /**
+     * Moves a file to a file system of the same server with other options, which is done by the server.
+     */
+    public void testRenameFileToOtherFileSystemOnSameServer() throws Exception {
+        final FileObject scratchFolder = createScratchFolder();
+        final FileObject file = scratchFolder.resolveFile("file1.txt");
+        final String content = createTestFile(file);
+
+        final FileSystemOptions options = scratchFolder.getFileSystem().getFileSystemOptions();
+        final FileSystemOptions otherOptions = options != null ? (FileSystemOptions) options.clone()
+                : new FileSystemOptions();
+        new MarkerConfigBuilder().setMarker(otherOptions);
+        final FileObject otherFolder = getManager().resolveFile(scratchFolder.getName().getURI(), otherOptions);
+        if (otherFolder.getFileSystem() == scratchFolder.getFileSystem()
+                || !(scratchFolder.getName() instanceof GenericFileName)) {
+            // not a server
+            return;
+        }
+        final FileObject fileMove = otherFolder.resolveFile("file1move.txt");
+        assertTrue(file.canRenameTo(fileMove));
+        file.moveTo(fileMove);
+
+        assertFalse(file.exists());
+        assertSameContent(content, fileMove);
+        assertTrue(fileMove.delete());
+    }
+
+    /**
+     * Sets an option that no file system reads, so that the options select another file system instance.
+     */
+    private static class MarkerConfigBuilder extends FileSystemConfigBuilder {
+        void setMarker(final FileSystemOptions opts) {
+            setParam(opts, "marker", Boolean.TRUE);
+        }
+
+        @Override
+        protected Class<? extends FileSystem> getConfigClass() {
+            return FileSystem.class;
+        }
+    }
 }
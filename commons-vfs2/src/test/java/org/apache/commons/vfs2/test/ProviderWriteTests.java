@@ -17,6 +17,8 @@
 package org.apache.commons.vfs2.test;
 
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
@@ -318,6 +320,53 @@ public class ProviderWriteTests extends AbstractProviderTestCase {
      * file); }
      */
 
+    /**
+     * Tests writing a file through a channel.
+     */
+    public void testWritableByteChannel() throws Exception {
+        final FileObject file = createScratchFolder().resolveFile("channel/file1.txt");
+        assertFalse(file.exists());
+
+        final String content = "Here is some sample content for the file.";
+        final WritableByteChannel channel = file.getContent().getWritableByteChannel(false);
+        try {
+            channel.write(ByteBuffer.wrap(content.getBytes("utf-8")));
+        } finally {
+            channel.close();
+        }
+        assertFalse(file.getContent().isOpen());
+        assertTrue(file.exists());
+        assertSameContent(content, file);
+    }
+
+    /**
+     * Tests that a thread cannot write a file through a stream and a channel at the same time.
+     */
+    public void testWritableByteChannelInUse() throws Exception {
+        final FileObject file = createScratchFolder().resolveFile("file1.txt");
+
+        final OutputStream out = file.getContent().getOutputStream();
+        try {
+            file.getContent().getWritableByteChannel(false);
+            fail();
+        } catch (final FileSystemException e) {
+            assertSameMessage("vfs.provider/write-in-use.error", file, e);
+        } finally {
+            out.close();
+        }
+
+        final WritableByteChannel channel = file.getContent().getWritableByteChannel(false);
+        try {
+            file.getContent().getOutputStream();
+            fail();
+        } catch (final FileSystemException e) {
+            assertSameMessage("vfs.provider/write-in-use.error", file, e);
+        } finally {
+            channel.close();
+        }
+        assertFalse(file.getContent().isOpen());
+    }
+
     /**
      * Tests file copy to and from the same filesystem type. This was a problem w/ FTP.
      */
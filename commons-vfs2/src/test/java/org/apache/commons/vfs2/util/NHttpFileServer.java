@@ -27,6 +27,7 @@ package org.apache.commons.vfs2.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.security.KeyManagementException;
@@ -37,10 +38,13 @@ import java.security.cert.CertificateException;
 import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.net.ssl.SSLContext;
 
 import org.apache.http.ExceptionLogger;
+import org.apache.http.Header;
 import org.apache.http.HttpConnection;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
@@ -54,6 +58,7 @@ import org.apache.http.impl.cookie.DateUtils;
 import org.apache.http.impl.nio.bootstrap.HttpServer;
 import org.apache.http.impl.nio.bootstrap.ServerBootstrap;
 import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.entity.NByteArrayEntity;
 import org.apache.http.nio.entity.NFileEntity;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.nio.protocol.BasicAsyncRequestConsumer;
@@ -88,6 +93,8 @@ public class NHttpFileServer {
             httpexchange.submitResponse(new BasicAsyncResponseProducer(response));
         }
 
+        private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
         private void handleInternal(final HttpRequest request, final HttpResponse response, final HttpContext context)
                 throws HttpException, IOException {
 
@@ -116,6 +123,25 @@ public class NHttpFileServer {
                 response.setEntity(entity);
                 debug("Cannot read file " + file.getPath());
 
+            } else if (isNotModified(request, file)) {
+
+                response.setStatusCode(HttpStatus.SC_NOT_MODIFIED);
+                debug("File " + file.getPath() + " not modified");
+
+            } else if (getRange(request, file) != null) {
+
+                final long[] range = getRange(request, file);
+                final byte[] content = new byte[(int) (range[1] - range[0] + 1)];
+                try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                    raf.seek(range[0]);
+                    raf.readFully(content);
+                }
+                response.setStatusCode(HttpStatus.SC_PARTIAL_CONTENT);
+                response.addHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range[0] + "-" + range[1] + "/" + file.length());
+                response.setEntity(new NByteArrayEntity(content, ContentType.create(mimeType)));
+                debug("Serving range " + range[0] + "-" + range[1] + " of file " + file.getPath());
+
             } else {
 
                 final HttpCoreContext coreContext = HttpCoreContext.adapt(context);
@@ -132,6 +158,33 @@ public class NHttpFileServer {
             }
         }
 
+        /**
+         * Returns the bounds of a closed single byte range like {@code bytes=0-99}, or null to serve the whole file.
+         */
+        private long[] getRange(final HttpRequest request, final File file) {
+            final Header rangeHeader = request.getFirstHeader(HttpHeaders.RANGE);
+            if (rangeHeader == null || file.isDirectory()) {
+                return null;
+            }
+            final Matcher matcher = RANGE_PATTERN.matcher(rangeHeader.getValue());
+            if (!matcher.matches()) {
+                return null;
+            }
+            final long first = Long.parseLong(matcher.group(1));
+            final long last = Math.min(Long.parseLong(matcher.group(2)), file.length() - 1);
+            return first <= last ? new long[] {first, last} : null;
+        }
+
+        private boolean isNotModified(final HttpRequest request, final File file) {
+            final Header ifModifiedSince = request.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            if (ifModifiedSince == null || file.isDirectory()) {
+                return false;
+            }
+            final Date since = org.apache.http.client.utils.DateUtils.parseDate(ifModifiedSince.getValue());
+            // HTTP dates have a resolution of seconds
+            return since != null && file.lastModified() / 1000 <= since.getTime() / 1000;
+        }
+
         @Override
         public HttpAsyncRequestConsumer<HttpRequest> processRequest(final HttpRequest request,
                 final HttpContext context) {
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystemConfigBuilder;
+import org.junit.Test;
+
+/**
+ * Tests {@link ReadAheadInputStream}.
+ */
+public class ReadAheadInputStreamTest {
+
+    /**
+     * Returns at most {@code chunkSize} bytes per read, after a delay that simulates a network round trip.
+     */
+    private static class LatencyInputStream extends InputStream {
+        private final InputStream in;
+        private final int chunkSize;
+        private final long latencyMillis;
+        private final int failAfter;
+        private volatile int count;
+
+        LatencyInputStream(final byte[] data, final int chunkSize, final long latencyMillis, final int failAfter) {
+            this.in = new ByteArrayInputStream(data);
+            this.chunkSize = chunkSize;
+            this.latencyMillis = latencyMillis;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (count >= failAfter) {
+                throw new IOException("Connection reset");
+            }
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (final InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            final int n = in.read(b, off, Math.min(len, chunkSize));
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    private static byte[] createData(final int size) {
+        final byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private static Set<Thread> getReadAheadThreads() {
+        final Set<Thread> threads = new HashSet<>();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("vfs-read-ahead-")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private static byte[] readAll(final InputStream in, final int readSize, final long processMillis)
+            throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[readSize];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            if (processMillis > 0) {
+                Thread.sleep(processMillis);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testContent() throws Exception {
+        final byte[] data = createData(300000);
+        final InputStream in = new ReadAheadInputStream(new LatencyInputStream(data, 7000, 0, Integer.MAX_VALUE),
+                4096, 3);
+        try {
+            assertEquals(data[0] & 0xff, in.read());
+            final byte[] rest = readAll(in, 1000, 0);
+            assertEquals(data.length - 1, rest.length);
+            for (int i = 0; i < rest.length; i++) {
+                assertEquals(data[i + 1], rest[i]);
+            }
+            assertEquals(-1, in.read());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final byte[] data = createData(10000);
+        final InputStream in = new ReadAheadInputStream(new LatencyInputStream(data, 1000, 0, 5000), 1000, 2);
+        final byte[] buffer = new byte[5000];
+        int read = 0;
+        try {
+            while (true) {
+                final int n = in.read(buffer, read, buffer.length - read);
+                assertTrue(n > 0);
+                read += n;
+                if (read == buffer.length) {
+                    in.read();
+                    fail();
+                }
+            }
+        } catch (final IOException e) {
+            assertEquals("Connection reset", e.getMessage());
+        } finally {
+            in.close();
+        }
+        assertEquals(5000, read);
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception {
+        final InputStream in = new ReadAheadInputStream(new LatencyInputStream(createData(100000), 1000, 1, 100000),
+                1000, 4);
+        assertTrue(in.read() >= 0);
+        in.close();
+        try {
+            in.read(new byte[2000]);
+            fail();
+        } catch (final IOException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Checks that the buffers are filled before the consumer asks for them, and no more than the buffers hold.
+     */
+    @Test
+    public void testReadsAheadOfConsumer() throws Exception {
+        final byte[] data = createData(10000);
+        final LatencyInputStream source = new LatencyInputStream(data, 1000, 0, Integer.MAX_VALUE);
+        final InputStream in = new ReadAheadInputStream(source, 1000, 3);
+        try {
+            assertEquals(data[0] & 0xff, in.read());
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (source.count < 3000 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3000, source.count);
+            // the consumer holds one buffer, the reader waits for it
+            Thread.sleep(100);
+            assertEquals(3000, source.count);
+
+            final byte[] rest = readAll(in, 1000, 0);
+            assertArrayEquals(Arrays.copyOfRange(data, 1, data.length), rest);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testFileSystemOption() throws Exception {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+        try {
+            final FileSystemOptions opts = new FileSystemOptions();
+            RamFileSystemConfigBuilder.getInstance().setReadAheadDepth(opts, Integer.valueOf(2));
+            RamFileSystemConfigBuilder.getInstance().setReadAheadBufferSize(opts, Integer.valueOf(1024));
+            assertEquals(2, RamFileSystemConfigBuilder.getInstance().getReadAheadDepth(opts));
+            assertEquals(0, RamFileSystemConfigBuilder.getInstance().getReadAheadDepth(new FileSystemOptions()));
+
+            final FileObject file = manager.resolveFile("ram:///read-ahead.bin", opts);
+            final byte[] data = createData(10000);
+            final OutputStream out = file.getContent().getOutputStream();
+            out.write(data);
+            out.close();
+
+            final Set<Thread> before = getReadAheadThreads();
+            final InputStream in = file.getContent().getInputStream();
+            assertEquals(data[0] & 0xff, in.read());
+            final Set<Thread> started = getReadAheadThreads();
+            started.removeAll(before);
+            assertEquals(1, started.size());
+            assertArrayEquals(Arrays.copyOfRange(data, 1, data.length), readAll(in, 3000, 0));
+            in.close();
+            assertFalse(file.getContent().isOpen());
+
+            // no read ahead without the option
+            final FileObject plainFile = manager.resolveFile("ram:///read-ahead.bin");
+            assertFalse(plainFile.getFileSystem() == file.getFileSystem());
+            final OutputStream plainOut = plainFile.getContent().getOutputStream();
+            plainOut.write(data);
+            plainOut.close();
+            final Set<Thread> beforePlain = getReadAheadThreads();
+            final InputStream plainIn = plainFile.getContent().getInputStream();
+            plainIn.read();
+            final Set<Thread> startedPlain = getReadAheadThreads();
+            startedPlain.removeAll(beforePlain);
+            assertTrue(startedPlain.isEmpty());
+            plainIn.close();
+        } finally {
+            manager.close();
+        }
+    }
+}